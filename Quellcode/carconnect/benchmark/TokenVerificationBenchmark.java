@@ -0,0 +1,63 @@
+import com.example.carconnect.auth.TokenService;
+
+import java.util.Arrays;
+
+/**
+ * Misst die Latenz der Token-Prüfung im {@link TokenService}: einmal für stets neue Tokens (volle HMAC-Prüfung)
+ * und einmal für wiederholt verwendete Tokens (Treffer im LRU-Cache), jeweils inklusive Widerrufsprüfung.
+ *
+ * Aufruf (aus dem Verzeichnis carconnect, nach {@code mvn compile}):
+ *   mvn -q dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp target/classes:$(cat target/cp.txt) benchmark/TokenVerificationBenchmark.java [Abfragen] [Benutzer]
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+public class TokenVerificationBenchmark {
+
+    public static void main(String[] args) {
+        int queries = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int users = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        TokenService tokens = TokenService.getInstance();
+
+        String[] active = new String[users];
+        for (int i = 0; i < users; i++) {
+            active[i] = tokens.issue("user" + i);
+        }
+        for (int i = 0; i < users / 10; i++) {
+            tokens.revoke(tokens.issue("revoked" + i));  // Einige widerrufene Tokens im Bloom-Filter
+        }
+
+        String[] fresh = new String[queries / 10];
+        for (int i = 0; i < fresh.length; i++) {
+            fresh[i] = tokens.issue("fresh" + i);
+        }
+        report("uncached", measure(tokens, fresh));
+
+        String[] repeated = new String[queries];
+        for (int i = 0; i < queries; i++) {
+            repeated[i] = active[i % users];
+        }
+        report("cached", measure(tokens, repeated));
+    }
+
+    private static long[] measure(TokenService tokens, String[] input) {
+        long[] latencies = new long[input.length];
+        for (int i = 0; i < input.length; i++) {
+            long start = System.nanoTime();
+            if (tokens.verify(input[i]) == null) {
+                throw new IllegalStateException("Token rejected: " + input[i]);
+            }
+            latencies[i] = System.nanoTime() - start;
+        }
+        return latencies;
+    }
+
+    private static void report(String label, long[] latencies) {
+        long[] measured = Arrays.copyOfRange(latencies, latencies.length / 10, latencies.length);  // Ohne Aufwärmphase
+        Arrays.sort(measured);
+        System.out.printf("%s: p50=%.1f us, p99=%.1f us, max=%.1f us (%d checks)%n", label,
+                measured[measured.length / 2] / 1e3, measured[(int) (measured.length * 0.99)] / 1e3,
+                measured[measured.length - 1] / 1e3, measured.length);
+    }
+}
@@ -1,7 +1,5 @@
 package com.example.carconnect.auth;
 
-import com.auth0.jwt.JWT;
-import com.auth0.jwt.algorithms.Algorithm;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.HttpServlet;
@@ -12,12 +10,9 @@ import org.json.JSONObject;
 import java.io.IOException;
 import java.rmi.Naming;
 import java.rmi.RemoteException;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.Date;
 
 /**
- * Servlet zur Verwaltung von Authentifizierungsoperationen wie Registrierung und Anmeldung.
+ * Servlet zur Verwaltung von Authentifizierungsoperationen wie Registrierung, Anmeldung und Abmeldung.
  * Dieses Servlet kommuniziert über RMI mit einem entfernten Authentifizierungsdienst und verwendet JWT zur Token-Generierung.
  *
  * @autor Mohammed Al-Ozair
@@ -29,8 +24,8 @@ public class AuthServlet extends HttpServlet {
     /** Remote-Referenz auf den Authentifizierungsdienst. */
     private AuthIf authIf;
 
-    /** Geheimschlüssel für die JWT-Token-Generierung. */
-    private static final String SECRET_KEY = "12345";
+    /** Leitet die Passwort-Schlüssel außerhalb der Request-Threads ab. */
+    private PasswordHasher passwordHasher;
 
     /**
      * Initialisiert das Servlet und stellt die Verbindung zum Authentifizierungsdienst über RMI her.
@@ -44,6 +39,15 @@ public class AuthServlet extends HttpServlet {
         } catch (Exception e) {
             throw new ServletException("Failed to lookup RMI server", e);
         }
+        passwordHasher = new PasswordHasher();
+    }
+
+    /**
+     * Beendet den Pool für die Passwort-Ableitung.
+     */
+    @Override
+    public void destroy() {
+        passwordHasher.close();
     }
 
     /**
@@ -72,8 +76,12 @@ public class AuthServlet extends HttpServlet {
                     // Verarbeitung der Benutzeranmeldung
                     username = request.getParameter("username");
                     password = request.getParameter("password");
-                    long sessionId = authIf.generateNewSessionId(username);
-                    boolean validateResult = authIf.validateUser(sessionId, hashSessionId(sessionId, hashPassword(password)));
+                    LoginChallenge challenge = authIf.beginLogin(username);
+                    String passwordHash = hashPassword(password);
+                    long sessionId = challenge.getSessionId();
+                    // Nachweis mit dem PBKDF2-Schlüssel zu Salt und Iterationen des gespeicherten Hashes
+                    String answer = passwordHasher.challengeProof(sessionId, passwordHash, challenge.getSalt(), challenge.getIterations());
+                    boolean validateResult = authIf.validateUser(sessionId, answer);
                     if (validateResult) {
                         String token = generateToken(username);
                         jsonResponse.put("success", true);
@@ -82,11 +90,24 @@ public class AuthServlet extends HttpServlet {
                         jsonResponse.put("success", false);
                     }
                     break;
+                case "logout":
+                    // Widerruf des übergebenen Tokens
+                    String header = request.getHeader("Authorization");
+                    boolean revoked = header != null && header.startsWith("Bearer ")
+                            && TokenService.getInstance().revoke(header.substring("Bearer ".length()).trim());
+                    jsonResponse.put("success", revoked);
+                    break;
                 default:
                     jsonResponse.put("error", "Invalid action");
             }
-        } catch (RemoteException | NoSuchAlgorithmException e) {
+        } catch (RemoteException e) {
             jsonResponse.put("error", e.getMessage());
+        } catch (PasswordHasher.HashingUnavailableException e) {
+            // Lastabwurf: Der Client soll es später erneut versuchen
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader("Retry-After", "1");
+            jsonResponse.put("success", false);
+            jsonResponse.put("error", "Server busy, please retry");
         }
 
         response.setContentType("application/json");
@@ -98,45 +119,9 @@ public class AuthServlet extends HttpServlet {
      *
      * @param password Das zu hashende Passwort.
      * @return Der resultierende Passwort-Hash als hexadezimale Zeichenkette.
-     * @throws NoSuchAlgorithmException Wenn der SHA-256-Algorithmus nicht verfügbar ist.
-     */
-    private String hashPassword(String password) throws NoSuchAlgorithmException {
-        MessageDigest digest = MessageDigest.getInstance("SHA-256");
-        byte[] encodedHash = digest.digest(password.getBytes());
-        return bytesToHex(encodedHash);
-    }
-
-    /**
-     * Hashes die Sitzungs-ID zusammen mit dem Passwort-Hash mit dem SHA-256-Algorithmus.
-     *
-     * @param sessionId    Die Sitzungs-ID.
-     * @param passwordHash Der Passwort-Hash.
-     * @return Der resultierende Hash als hexadezimale Zeichenkette.
-     * @throws NoSuchAlgorithmException Wenn der SHA-256-Algorithmus nicht verfügbar ist.
      */
-    private String hashSessionId(long sessionId, String passwordHash) throws NoSuchAlgorithmException {
-        MessageDigest digest = MessageDigest.getInstance("SHA-256");
-        String input = sessionId + passwordHash;
-        byte[] encodedHash = digest.digest(input.getBytes());
-        return bytesToHex(encodedHash);
-    }
-
-    /**
-     * Wandelt ein Byte-Array in eine hexadezimale Zeichenkette um.
-     *
-     * @param hash Das zu konvertierende Byte-Array.
-     * @return Die hexadezimale Darstellung des Byte-Arrays.
-     */
-    private String bytesToHex(byte[] hash) {
-        StringBuilder hexString = new StringBuilder(2 * hash.length);
-        for (byte b : hash) {
-            String hex = Integer.toHexString(0xff & b);
-            if (hex.length() == 1) {
-                hexString.append('0');
-            }
-            hexString.append(hex);
-        }
-        return hexString.toString();
+    private String hashPassword(String password) {
+        return Digests.sha256Hex(password);
     }
 
     /**
@@ -146,10 +131,6 @@ public class AuthServlet extends HttpServlet {
      * @return Das generierte JWT-Token als Zeichenkette.
      */
     private String generateToken(String username) {
-        Algorithm algorithm = Algorithm.HMAC256(SECRET_KEY);
-        return JWT.create()
-                .withSubject(username)
-                .withIssuedAt(new Date())
-                .sign(algorithm);
+        return TokenService.getInstance().issue(username);
     }
 }
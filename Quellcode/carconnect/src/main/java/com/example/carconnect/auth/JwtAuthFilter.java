@@ -0,0 +1,134 @@
+package com.example.carconnect.auth;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebFilter;
+import jakarta.servlet.http.HttpFilter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.security.Principal;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Filter, der vor allen Endpunkten außer der Anmeldung das JWT aus dem {@code Authorization}-Header prüft.
+ * Fehlt das Token oder ist es ungültig, abgelaufen oder widerrufen, wird die Anfrage mit 401 beantwortet.
+ *
+ * Der angemeldete Benutzer wird als {@link Principal}, als Attribut {@code username} und als Wert der
+ * Parameter {@code username} bzw. {@code ownerUsername} an die Servlets weitergegeben. Nennt die Anfrage
+ * in diesen Parametern einen anderen Benutzer, wird sie mit 403 abgewiesen.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+@WebFilter(filterName = "JwtAuthFilter", urlPatterns = {"/changePassword", "/usageHistory", "/bookingRequests",
+        "/bookVehicle", "/vehicles", "/searchVehicles", "/importVehicles", "/registerVehicle", "/rateLimits", "/metrics"})
+public class JwtAuthFilter extends HttpFilter {
+
+    /** Präfix des Authorization-Headers. */
+    private static final String BEARER = "Bearer ";
+
+    /** Parameter, die den handelnden Benutzer benennen. */
+    private static final String[] USER_PARAMETERS = {"username", "ownerUsername"};
+
+    /**
+     * Prüft das Token und reicht die Anfrage mit dem angemeldeten Benutzer weiter.
+     *
+     * @param request  Die Anfrage.
+     * @param response Die Antwort.
+     * @param chain    Die weiteren Filter und das Servlet.
+     * @throws IOException Wenn ein Ein-/Ausgabefehler auftritt.
+     * @throws ServletException Wenn eine Servlet-spezifische Ausnahme auftritt.
+     */
+    @Override
+    protected void doFilter(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        if ("OPTIONS".equals(request.getMethod())) {
+            chain.doFilter(request, response);  // CORS-Preflight ohne Token
+            return;
+        }
+        String header = request.getHeader("Authorization");
+        String username = header != null && header.startsWith(BEARER)
+                ? TokenService.getInstance().verify(header.substring(BEARER.length()).trim())
+                : null;
+        if (username == null) {
+            reject(response, HttpServletResponse.SC_UNAUTHORIZED, "Missing or invalid token");
+            return;
+        }
+        for (String parameter : USER_PARAMETERS) {
+            String claimed = request.getParameter(parameter);
+            if (claimed != null && !claimed.isEmpty() && !claimed.equals(username)) {
+                reject(response, HttpServletResponse.SC_FORBIDDEN, "Token does not belong to " + parameter);
+                return;
+            }
+        }
+        request.setAttribute("username", username);
+        chain.doFilter(new AuthenticatedRequest(request, username), response);
+    }
+
+    private static void reject(HttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.setContentType("application/json");
+        JSONObject jsonResponse = new JSONObject();
+        jsonResponse.put("success", false);
+        jsonResponse.put("error", message);
+        response.getWriter().write(jsonResponse.toString());
+    }
+
+    /**
+     * Anfrage mit dem angemeldeten Benutzer als Principal und als Wert der Benutzer-Parameter.
+     */
+    private static final class AuthenticatedRequest extends HttpServletRequestWrapper {
+
+        private final String username;
+        private final Principal principal;
+
+        AuthenticatedRequest(HttpServletRequest request, String username) {
+            super(request);
+            this.username = username;
+            this.principal = () -> username;
+        }
+
+        @Override
+        public Principal getUserPrincipal() {
+            return principal;
+        }
+
+        @Override
+        public String getRemoteUser() {
+            return username;
+        }
+
+        @Override
+        public String getParameter(String name) {
+            return isUserParameter(name) ? username : super.getParameter(name);
+        }
+
+        @Override
+        public String[] getParameterValues(String name) {
+            return isUserParameter(name) ? new String[]{username} : super.getParameterValues(name);
+        }
+
+        @Override
+        public Map<String, String[]> getParameterMap() {
+            Map<String, String[]> parameters = new HashMap<>(super.getParameterMap());
+            for (String parameter : USER_PARAMETERS) {
+                parameters.put(parameter, new String[]{username});
+            }
+            return parameters;
+        }
+
+        private static boolean isUserParameter(String name) {
+            for (String parameter : USER_PARAMETERS) {
+                if (parameter.equals(name)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.example.carconnect.auth;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Leitet Passwort-Schlüssel mit PBKDF2 (HMAC-SHA-256) ab. Die Berechnung ist absichtlich langsam und läuft
+ * deshalb nicht auf den aufrufenden Request- bzw. RMI-Threads, sondern in einem eigenen, begrenzten Pool mit
+ * einem Thread je Prozessorkern. Ist dessen Warteschlange voll, wird die Anfrage sofort mit
+ * {@link HashingUnavailableException} abgewiesen; wartet sie länger als {@code carconnect.hash.timeoutMillis},
+ * ebenso.
+ *
+ * Eingabe der Ableitung ist der bisherige SHA-256-Hash des Passworts als Hex-Zeichenkette, damit gespeicherte
+ * Alt-Hashes ohne Kenntnis des Passworts in das neue Format überführt werden können. Gespeichert wird
+ * {@code pbkdf2-sha256$<Iterationen>$<Salt>$<StoredKey>} (Base64-kodiert) mit dem SHA-256-Hash des abgeleiteten
+ * Schlüssels als StoredKey. Eine Anmelde-Challenge wird wie bei SCRAM mit einem Nachweis beantwortet, der den
+ * Schlüssel selbst enthält (siehe {@link #challengeProof(long, String, String, int)}); der StoredKey allein genügt
+ * daher nicht für eine Anmeldung.
+ *
+ * Die Anzahl der Iterationen für neue Hashes wird mit {@link #calibrate()} so bestimmt, dass eine Ableitung
+ * etwa {@code carconnect.hash.targetMillis} dauert; bestehende Hashes behalten ihre gespeicherte Anzahl.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+public class PasswordHasher implements AutoCloseable {
+
+    /** Kennung des Formats gespeicherter Hashes. */
+    public static final String PREFIX = "pbkdf2-sha256";
+
+    /** Angestrebte Dauer einer Ableitung in Millisekunden. */
+    private static final long TARGET_MILLIS = Long.getLong("carconnect.hash.targetMillis", 50L);
+
+    /** Untergrenze der Iterationen, unabhängig vom Ergebnis der Kalibrierung. */
+    private static final int MIN_ITERATIONS = Integer.getInteger("carconnect.hash.minIterations", 10_000);
+
+    /** Maximale Wartezeit auf eine Ableitung in Millisekunden. */
+    private static final long TIMEOUT_MILLIS = Long.getLong("carconnect.hash.timeoutMillis", 2000L);
+
+    /** Anzahl der Threads des Pools. */
+    private static final int THREADS = Runtime.getRuntime().availableProcessors();
+
+    /** Anzahl der Ableitungen, die höchstens auf einen freien Thread warten. */
+    private static final int QUEUE_CAPACITY = Integer.getInteger("carconnect.hash.queueCapacity", THREADS * 16);
+
+    /** Länge des abgeleiteten Schlüssels in Bit. */
+    private static final int KEY_BITS = 256;
+
+    /** Länge des Salts in Byte. */
+    private static final int SALT_BYTES = 16;
+
+    /** Der Pool, in dem die Ableitungen laufen. */
+    private final ThreadPoolExecutor executor;
+
+    /** Quelle der Salts. */
+    private final SecureRandom random = new SecureRandom();
+
+    /** Anzahl der Iterationen für neue Hashes. */
+    private volatile int iterations = MIN_ITERATIONS;
+
+    /**
+     * Erstellt den Pool. Bis zum Aufruf von {@link #calibrate()} werden neue Hashes mit der Mindestanzahl
+     * an Iterationen erstellt.
+     */
+    public PasswordHasher() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(THREADS, THREADS, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hasher-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Misst die Dauer einer Ableitung auf diesem Rechner und legt die Iterationen für neue Hashes so fest,
+     * dass eine Ableitung etwa die Zieldauer benötigt.
+     *
+     * @return Die festgelegte Anzahl an Iterationen.
+     */
+    public int calibrate() {
+        int probe = MIN_ITERATIONS;
+        byte[] salt = newSalt();
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {  // Die ersten Durchläufe wärmen den JIT auf; gewertet wird der schnellste
+            long start = System.nanoTime();
+            pbkdf2("calibration", salt, probe);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        long tuned = TimeUnit.MILLISECONDS.toNanos(TARGET_MILLIS) * probe / Math.max(best, 1);
+        iterations = (int) Math.max(MIN_ITERATIONS, Math.min(Integer.MAX_VALUE, tuned / 1000 * 1000));
+        System.out.println("Password hashing calibrated: " + iterations + " iterations for ~" + TARGET_MILLIS + " ms");
+        return iterations;
+    }
+
+    /**
+     * @return Die Anzahl der Iterationen für neue Hashes.
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Erstellt einen neuen gespeicherten Hash mit zufälligem Salt.
+     *
+     * @param preHash Der SHA-256-Hash des Passworts als Hex-Zeichenkette.
+     * @return Der zu speichernde Hash.
+     * @throws HashingUnavailableException Wenn der Pool ausgelastet ist oder die Ableitung zu lange dauert.
+     */
+    public String hash(String preHash) throws HashingUnavailableException {
+        byte[] salt = newSalt();
+        int rounds = iterations;
+        return format(rounds, salt, sha256(derive(preHash, salt, rounds)));
+    }
+
+    /**
+     * Beantwortet eine Anmelde-Challenge: Leitet den Schlüssel zu Salt und Iterationen des gespeicherten Hashes ab
+     * und verknüpft ihn per XOR mit der HMAC-SHA-256-Signatur der Sitzungs-ID unter dem StoredKey.
+     *
+     * @param sessionId Die Sitzungs-ID der Challenge.
+     * @param preHash Der SHA-256-Hash des Passworts als Hex-Zeichenkette.
+     * @param salt Das Base64-kodierte Salt.
+     * @param rounds Die Anzahl der Iterationen.
+     * @return Der Base64-kodierte Nachweis.
+     * @throws HashingUnavailableException Wenn der Pool ausgelastet ist oder die Ableitung zu lange dauert.
+     */
+    public String challengeProof(long sessionId, String preHash, String salt, int rounds) throws HashingUnavailableException {
+        byte[] key = derive(preHash, Base64.getDecoder().decode(salt), rounds);
+        byte[] proof = signature(sessionId, sha256(key));
+        for (int i = 0; i < proof.length; i++) {
+            proof[i] ^= key[i];
+        }
+        return Base64.getEncoder().encodeToString(proof);
+    }
+
+    /**
+     * Prüft den Nachweis zu einer Anmelde-Challenge gegen einen gespeicherten Hash, ohne PBKDF2 zu berechnen:
+     * Die Signatur der Sitzungs-ID wird aus dem StoredKey berechnet und vom Nachweis entfernt; der verbleibende
+     * Schlüssel muss den StoredKey als SHA-256-Hash haben.
+     *
+     * @param sessionId Die Sitzungs-ID der Challenge.
+     * @param proof Der übermittelte Nachweis, darf null sein.
+     * @param stored Der gespeicherte Hash.
+     * @return true, wenn der Nachweis passt.
+     */
+    public static boolean verifyProof(long sessionId, String proof, String stored) {
+        String[] parts = split(stored);
+        if (parts == null || proof == null) {
+            return false;
+        }
+        byte[] storedKey = Base64.getDecoder().decode(parts[3]);
+        byte[] key;
+        try {
+            key = Base64.getDecoder().decode(proof);
+        } catch (IllegalArgumentException e) {
+            return false;  // Kein gültiges Base64
+        }
+        if (key.length != storedKey.length) {
+            return false;
+        }
+        byte[] signature = signature(sessionId, storedKey);
+        for (int i = 0; i < key.length; i++) {
+            key[i] ^= signature[i];
+        }
+        return MessageDigest.isEqual(sha256(key), storedKey);
+    }
+
+    /**
+     * Prüft einen Passwort-Hash gegen einen gespeicherten Hash im PBKDF2-Format.
+     *
+     * @param preHash Der SHA-256-Hash des Passworts als Hex-Zeichenkette.
+     * @param stored Der gespeicherte Hash.
+     * @return true, wenn der Hash passt.
+     * @throws HashingUnavailableException Wenn der Pool ausgelastet ist oder die Ableitung zu lange dauert.
+     */
+    public boolean verify(String preHash, String stored) throws HashingUnavailableException {
+        String[] parts = split(stored);
+        if (parts == null) {
+            return false;
+        }
+        byte[] key = derive(preHash, Base64.getDecoder().decode(parts[2]), Integer.parseInt(parts[1]));
+        return MessageDigest.isEqual(sha256(key), Base64.getDecoder().decode(parts[3]));
+    }
+
+    /**
+     * Zerlegt einen gespeicherten Hash im PBKDF2-Format.
+     *
+     * @param stored Der gespeicherte Hash.
+     * @return Kennung, Iterationen, Salt und Schlüssel oder null, wenn es sich um einen Alt-Hash handelt.
+     */
+    public static String[] split(String stored) {
+        if (stored == null || !stored.startsWith(PREFIX + "$")) {
+            return null;
+        }
+        String[] parts = stored.split("\\$");
+        return parts.length == 4 ? parts : null;
+    }
+
+    /**
+     * Setzt einen gespeicherten Hash zusammen.
+     */
+    private static String format(int rounds, byte[] salt, byte[] storedKey) {
+        Base64.Encoder encoder = Base64.getEncoder();
+        return PREFIX + "$" + rounds + "$" + encoder.encodeToString(salt) + "$" + encoder.encodeToString(storedKey);
+    }
+
+    private static byte[] sha256(byte[] input) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(input);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] signature(long sessionId, byte[] storedKey) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(storedKey, "HmacSHA256"));
+            return mac.doFinal(Long.toString(sessionId).getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private byte[] newSalt() {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        return salt;
+    }
+
+    private byte[] derive(String preHash, byte[] salt, int rounds) throws HashingUnavailableException {
+        Future<byte[]> result;
+        try {
+            result = executor.submit(() -> pbkdf2(preHash, salt, rounds));
+        } catch (RejectedExecutionException e) {
+            throw new HashingUnavailableException("Password hashing queue is full");
+        }
+        try {
+            return result.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            throw new HashingUnavailableException("Password hashing timed out");
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new HashingUnavailableException("Interrupted while hashing password");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private static byte[] pbkdf2(String preHash, byte[] salt, int rounds) {
+        PBEKeySpec spec = new PBEKeySpec(preHash.toCharArray(), salt, rounds, KEY_BITS);
+        try {
+            return SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256").generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    /**
+     * Beendet den Pool.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Wird geworfen, wenn eine Ableitung wegen Überlastung abgewiesen wird oder nicht rechtzeitig fertig ist.
+     */
+    public static class HashingUnavailableException extends Exception {
+
+        private static final long serialVersionUID = 1L;
+
+        public HashingUnavailableException(String message) {
+            super(message);
+        }
+    }
+}
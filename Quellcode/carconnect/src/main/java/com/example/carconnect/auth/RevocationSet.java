@@ -0,0 +1,108 @@
+package com.example.carconnect.auth;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Menge der widerrufenen Tokens, z.B. nach einer Abmeldung. Da fast alle geprüften Tokens nicht widerrufen
+ * sind, beantwortet ein Bloom-Filter die Abfrage im Normalfall mit wenigen Bit-Tests; nur bei einem Treffer
+ * wird in der exakten Menge nachgesehen.
+ *
+ * Ein Eintrag wird nur bis zum Ablauf des Tokens benötigt. {@link #purge(long)} entfernt abgelaufene Einträge
+ * und baut den Bloom-Filter neu auf, da sich aus ihm nichts löschen lässt.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+class RevocationSet {
+
+    /** Anzahl der Bits des Bloom-Filters als Zweierpotenz (2^20 Bits = 128 KiB). */
+    private static final int BITS_SHIFT = 20;
+
+    /** Anzahl der Bit-Positionen je Eintrag. */
+    private static final int HASHES = 4;
+
+    /** Die exakte Menge der widerrufenen Tokens mit ihrem Ablaufzeitpunkt in Millisekunden. */
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+    /** Der aktuelle Bloom-Filter; wird beim Aufräumen ersetzt. */
+    private volatile AtomicLongArray bloom = new AtomicLongArray((1 << BITS_SHIFT) / 64);
+
+    /**
+     * Widerruft ein Token.
+     *
+     * @param key Die Kennung des Tokens, z.B. seine Signatur.
+     * @param expiresAt Der Ablaufzeitpunkt des Tokens in Millisekunden seit der Epoche.
+     */
+    void revoke(String key, long expiresAt) {
+        revoked.put(key, expiresAt);  // Zuerst exakt eintragen, damit ein Bloom-Treffer nie ins Leere geht
+        mark(bloom, key);
+    }
+
+    /**
+     * Prüft, ob ein Token widerrufen ist.
+     *
+     * @param key Die Kennung des Tokens.
+     * @return true, wenn das Token widerrufen ist.
+     */
+    boolean isRevoked(String key) {
+        AtomicLongArray bits = bloom;
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < HASHES; i++) {
+            int bit = (h1 + i * h2) & ((1 << BITS_SHIFT) - 1);
+            if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;  // Sicher nicht widerrufen
+            }
+        }
+        return revoked.containsKey(key);
+    }
+
+    /**
+     * Entfernt die Einträge abgelaufener Tokens und baut den Bloom-Filter neu auf.
+     *
+     * @param now Der aktuelle Zeitpunkt in Millisekunden seit der Epoche.
+     */
+    void purge(long now) {
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+        AtomicLongArray rebuilt = new AtomicLongArray((1 << BITS_SHIFT) / 64);
+        for (String key : revoked.keySet()) {
+            mark(rebuilt, key);
+        }
+        bloom = rebuilt;
+        for (String key : revoked.keySet()) {
+            mark(bloom, key);  // Während des Neuaufbaus widerrufene Tokens
+        }
+    }
+
+    /**
+     * @return Die Anzahl der Einträge.
+     */
+    int size() {
+        return revoked.size();
+    }
+
+    private static void mark(AtomicLongArray bits, String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < HASHES; i++) {
+            int bit = (h1 + i * h2) & ((1 << BITS_SHIFT) - 1);
+            bits.accumulateAndGet(bit >>> 6, 1L << bit, (current, mask) -> current | mask);
+        }
+    }
+
+    /**
+     * 64-Bit-FNV-1a über die Zeichen der Kennung.
+     */
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash ^ (hash >>> 29);
+    }
+}
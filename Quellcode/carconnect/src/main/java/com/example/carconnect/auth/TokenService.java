@@ -0,0 +1,151 @@
+package com.example.carconnect.auth;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.auth0.jwt.interfaces.JWTVerifier;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stellt JWTs aus und prüft sie. Algorithmus und {@link JWTVerifier} sind threadsicher und werden einmal für
+ * die gesamte Webanwendung erstellt.
+ *
+ * Bereits geprüfte Tokens liegen in einem kleinen LRU-Cache, sodass wiederholte Anfragen mit demselben Token
+ * die HMAC-Prüfung überspringen; Ablauf und Widerruf werden trotzdem bei jeder Anfrage geprüft. Widerrufene
+ * Tokens werden in einem {@link RevocationSet} geführt.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+public final class TokenService {
+
+    /** Geheimschlüssel für die Signatur der Tokens. */
+    private static final String SECRET_KEY = System.getProperty("carconnect.jwt.secret", "12345");
+
+    /** Gültigkeitsdauer eines Tokens in Millisekunden. */
+    private static final long TTL_MILLIS = TimeUnit.MINUTES.toMillis(Long.getLong("carconnect.jwt.ttlMinutes", 480L));
+
+    /** Maximale Anzahl zwischengespeicherter, bereits geprüfter Tokens. */
+    private static final int CACHE_SIZE = Integer.getInteger("carconnect.jwt.cacheSize", 1024);
+
+    /** Die gemeinsame Instanz der Webanwendung. */
+    private static final TokenService INSTANCE = new TokenService();
+
+    /** Der Signaturalgorithmus. */
+    private final Algorithm algorithm = Algorithm.HMAC256(SECRET_KEY);
+
+    /** Der gemeinsame Verifier; verlangt einen Subject- und einen Ablauf-Claim. */
+    private final JWTVerifier verifier = JWT.require(algorithm).withClaimPresence("sub").withClaimPresence("exp").build();
+
+    /** Die zuletzt geprüften Tokens in Zugriffsreihenfolge; alle Zugriffe erfolgen unter ihrer Sperre. */
+    private final Map<String, Verified> verified = new LinkedHashMap<String, Verified>(CACHE_SIZE * 4 / 3 + 1, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Verified> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    /** Die widerrufenen Tokens. */
+    private final RevocationSet revocations = new RevocationSet();
+
+    private TokenService() {
+        ScheduledExecutorService housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "token-revocation-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        housekeeper.scheduleWithFixedDelay(() -> revocations.purge(System.currentTimeMillis()), 10, 10, TimeUnit.MINUTES);
+    }
+
+    /**
+     * @return Die gemeinsame Instanz der Webanwendung.
+     */
+    public static TokenService getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Stellt ein Token für einen Benutzer aus.
+     *
+     * @param username Der Benutzername.
+     * @return Das signierte Token.
+     */
+    public String issue(String username) {
+        long now = System.currentTimeMillis();
+        return JWT.create()
+                .withSubject(username)
+                .withJWTId(UUID.randomUUID().toString())
+                .withIssuedAt(new Date(now))
+                .withExpiresAt(new Date(now + TTL_MILLIS))
+                .sign(algorithm);
+    }
+
+    /**
+     * Prüft ein Token.
+     *
+     * @param token Das Token ohne "Bearer "-Präfix.
+     * @return Der Benutzername oder null, wenn das Token ungültig, abgelaufen oder widerrufen ist.
+     */
+    public String verify(String token) {
+        long now = System.currentTimeMillis();
+        Verified entry;
+        synchronized (verified) {
+            entry = verified.get(token);
+        }
+        if (entry == null) {
+            try {
+                DecodedJWT decoded = verifier.verify(token);
+                entry = new Verified(decoded.getSubject(), decoded.getExpiresAtAsInstant().toEpochMilli(), decoded.getSignature());
+            } catch (JWTVerificationException e) {
+                return null;
+            }
+            synchronized (verified) {
+                verified.put(token, entry);
+            }
+        }
+        if (entry.expiresAt <= now || revocations.isRevoked(entry.signature)) {
+            return null;
+        }
+        return entry.username;
+    }
+
+    /**
+     * Widerruft ein gültiges Token, z.B. bei der Abmeldung.
+     *
+     * @param token Das Token ohne "Bearer "-Präfix.
+     * @return true, wenn das Token gültig war und nun widerrufen ist.
+     */
+    public boolean revoke(String token) {
+        try {
+            DecodedJWT decoded = verifier.verify(token);
+            revocations.revoke(decoded.getSignature(), decoded.getExpiresAtAsInstant().toEpochMilli());
+            return true;
+        } catch (JWTVerificationException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Ein bereits geprüftes Token.
+     */
+    private static final class Verified {
+
+        private final String username;
+        private final long expiresAt;
+        private final String signature;
+
+        Verified(String username, long expiresAt, String signature) {
+            this.username = username;
+            this.expiresAt = expiresAt;
+            this.signature = signature;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.carconnect.booking;
+
+import com.example.carconnect.rmi.StringTable;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Typisierte Sicht auf eine Buchungsanfrage für den Fahrzeugbesitzer, wie sie per RMI übertragen wird.
+ * Start- und Endzeit werden als Millisekunden seit der Epoche gehalten; innerhalb einer
+ * {@link BookingRequestViewList} teilen sich alle Anfragen eine Zeichenkettentabelle.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+public class BookingRequestView implements Externalizable {
+
+    private static final long serialVersionUID = 1L;
+
+    private int id;
+    private String vehicle;
+    private String requester;
+    private long startTime;
+    private long endTime;
+    private String status;
+
+    /**
+     * Konstruktor für die Deserialisierung.
+     */
+    public BookingRequestView() {
+    }
+
+    /**
+     * Konstruktor für BookingRequestView.
+     *
+     * @param id Die ID der Buchungsanfrage.
+     * @param vehicle Die Bezeichnung des Fahrzeugs (Marke, Modell und Baujahr).
+     * @param requester Der Benutzername des Anfragenden.
+     * @param startTime Die Startzeit in Millisekunden seit der Epoche.
+     * @param endTime Die Endzeit in Millisekunden seit der Epoche.
+     * @param status Der Status der Buchungsanfrage.
+     */
+    public BookingRequestView(int id, String vehicle, String requester, long startTime, long endTime, String status) {
+        this.id = id;
+        this.vehicle = vehicle;
+        this.requester = requester;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.status = status;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getVehicle() {
+        return vehicle;
+    }
+
+    public String getRequester() {
+        return requester;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public long getEndTime() {
+        return endTime;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * Liefert die Buchungsanfrage in der bisherigen Map-Darstellung der Schnittstelle.
+     *
+     * @return Eine Map mit den Schlüsseln id, vehicle, requester, start_time, end_time und status.
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> request = new HashMap<>();
+        request.put("id", id);
+        request.put("vehicle", vehicle);
+        request.put("requester", requester);
+        request.put("start_time", new Timestamp(startTime).toString());
+        request.put("end_time", new Timestamp(endTime).toString());
+        request.put("status", status);
+        return request;
+    }
+
+    void writeTo(ObjectOutput out, StringTable strings) throws IOException {
+        out.writeInt(id);
+        strings.write(out, vehicle);
+        strings.write(out, requester);
+        out.writeLong(startTime);
+        out.writeLong(endTime);
+        strings.write(out, status);
+    }
+
+    void readFrom(ObjectInput in, StringTable strings) throws IOException {
+        id = in.readInt();
+        vehicle = strings.read(in);
+        requester = strings.read(in);
+        startTime = in.readLong();
+        endTime = in.readLong();
+        status = strings.read(in);
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        writeTo(out, new StringTable());
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        readFrom(in, new StringTable());
+    }
+}
@@ -11,8 +11,8 @@ import org.json.JSONObject;
 import java.io.IOException;
 import java.rmi.Naming;
 import java.rmi.RemoteException;
+import java.sql.Timestamp;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Servlet zur Verwaltung von Buchungsanfragen eines bestimmten Benutzers.
@@ -56,15 +56,15 @@ public class BookingRequestsServlet extends HttpServlet {
         JSONArray bookingRequests = new JSONArray();
         try {
             // Abrufen der Buchungsanfragen vom Buchungsdienst
-            List<Map<String, Object>> resultSet = bookingIf.getBookingRequests(username);
-            for (Map<String, Object> result : resultSet) {
+            List<BookingRequestView> resultSet = bookingIf.getBookingRequestViews(username);
+            for (BookingRequestView result : resultSet) {
                 JSONObject requestJson = new JSONObject();
-                requestJson.put("id", result.get("id"));
-                requestJson.put("vehicle", result.get("vehicle"));
-                requestJson.put("requester", result.get("requester"));
-                requestJson.put("start_time", result.get("start_time"));
-                requestJson.put("end_time", result.get("end_time"));
-                requestJson.put("status", result.get("status"));
+                requestJson.put("id", result.getId());
+                requestJson.put("vehicle", result.getVehicle());
+                requestJson.put("requester", result.getRequester());
+                requestJson.put("start_time", new Timestamp(result.getStartTime()).toString());
+                requestJson.put("end_time", new Timestamp(result.getEndTime()).toString());
+                requestJson.put("status", result.getStatus());
                 bookingRequests.put(requestJson); // Hinzufügen der Buchungsanfrage zur JSON-Antwort
             }
         } catch (RemoteException e) {
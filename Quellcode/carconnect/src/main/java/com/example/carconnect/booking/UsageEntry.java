@@ -0,0 +1,124 @@
+package com.example.carconnect.booking;
+
+import com.example.carconnect.rmi.StringTable;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Ein Eintrag der Nutzungshistorie, wie er per RMI übertragen wird.
+ * Start- und Endzeit werden als Millisekunden seit der Epoche gehalten; innerhalb einer
+ * {@link UsageEntryList} teilen sich alle Einträge eine Zeichenkettentabelle.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+public class UsageEntry implements Externalizable {
+
+    private static final long serialVersionUID = 1L;
+
+    private int vehicleId;
+    private long startTime;
+    private long endTime;
+    private String make;
+    private String model;
+    private int year;
+
+    /**
+     * Konstruktor für die Deserialisierung.
+     */
+    public UsageEntry() {
+    }
+
+    /**
+     * Konstruktor für UsageEntry.
+     *
+     * @param vehicleId Die ID des genutzten Fahrzeugs.
+     * @param startTime Die Startzeit in Millisekunden seit der Epoche.
+     * @param endTime Die Endzeit in Millisekunden seit der Epoche.
+     * @param make Die Marke des Fahrzeugs.
+     * @param model Das Modell des Fahrzeugs.
+     * @param year Das Baujahr des Fahrzeugs.
+     */
+    public UsageEntry(int vehicleId, long startTime, long endTime, String make, String model, int year) {
+        this.vehicleId = vehicleId;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.make = make;
+        this.model = model;
+        this.year = year;
+    }
+
+    public int getVehicleId() {
+        return vehicleId;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public long getEndTime() {
+        return endTime;
+    }
+
+    public String getMake() {
+        return make;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    /**
+     * Liefert den Eintrag in der bisherigen Map-Darstellung der Schnittstelle.
+     *
+     * @return Eine Map mit den Schlüsseln vehicleId, startTime, endTime, make, model und year.
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> usage = new HashMap<>();
+        usage.put("vehicleId", vehicleId);
+        usage.put("startTime", new Timestamp(startTime).toString());
+        usage.put("endTime", new Timestamp(endTime).toString());
+        usage.put("make", make);
+        usage.put("model", model);
+        usage.put("year", year);
+        return usage;
+    }
+
+    void writeTo(ObjectOutput out, StringTable strings) throws IOException {
+        out.writeInt(vehicleId);
+        out.writeLong(startTime);
+        out.writeLong(endTime);
+        strings.write(out, make);
+        strings.write(out, model);
+        out.writeShort(year);
+    }
+
+    void readFrom(ObjectInput in, StringTable strings) throws IOException {
+        vehicleId = in.readInt();
+        startTime = in.readLong();
+        endTime = in.readLong();
+        make = strings.read(in);
+        model = strings.read(in);
+        year = in.readShort();
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        writeTo(out, new StringTable());
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        readFrom(in, new StringTable());
+    }
+}
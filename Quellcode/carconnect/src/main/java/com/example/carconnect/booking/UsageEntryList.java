@@ -0,0 +1,31 @@
+package com.example.carconnect.booking;
+
+import com.example.carconnect.rmi.CompactList;
+import com.example.carconnect.rmi.StringTable;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+/**
+ * Kompakt serialisierte Liste von {@link UsageEntry}-Objekten.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+public class UsageEntryList extends CompactList<UsageEntry> {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected void writeElement(ObjectOutput out, UsageEntry entry, StringTable strings) throws IOException {
+        entry.writeTo(out, strings);
+    }
+
+    @Override
+    protected UsageEntry readElement(ObjectInput in, StringTable strings) throws IOException {
+        UsageEntry entry = new UsageEntry();
+        entry.readFrom(in, strings);
+        return entry;
+    }
+}
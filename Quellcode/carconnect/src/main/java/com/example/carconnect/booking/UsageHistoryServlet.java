@@ -11,8 +11,8 @@ import org.json.JSONObject;
 import java.io.IOException;
 import java.rmi.Naming;
 import java.rmi.RemoteException;
+import java.sql.Timestamp;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Servlet zur Verwaltung der Nutzungshistorie von Fahrzeugen eines Benutzers.
@@ -58,15 +58,15 @@ public class UsageHistoryServlet extends HttpServlet {
         JSONArray usageHistory = new JSONArray();
         try {
             // Abrufen der Nutzungshistorie vom Buchungsdienst
-            List<Map<String, Object>> resultSet = bookingIf.getUsageHistory(username);
-            for (Map<String, Object> result : resultSet) {
+            List<UsageEntry> resultSet = bookingIf.getUsageEntries(username);
+            for (UsageEntry result : resultSet) {
                 JSONObject usage = new JSONObject();
-                usage.put("vehicleId", result.get("vehicleId"));
-                usage.put("startTime", result.get("startTime"));
-                usage.put("endTime", result.get("endTime"));
-                usage.put("make", result.get("make"));
-                usage.put("model", result.get("model"));
-                usage.put("year", result.get("year"));
+                usage.put("vehicleId", result.getVehicleId());
+                usage.put("startTime", new Timestamp(result.getStartTime()).toString());
+                usage.put("endTime", new Timestamp(result.getEndTime()).toString());
+                usage.put("make", result.getMake());
+                usage.put("model", result.getModel());
+                usage.put("year", result.getYear());
                 usageHistory.put(usage); // Hinzufügen des Nutzungseintrags zur JSON-Antwort
             }
         } catch (RemoteException e) {
@@ -1,6 +1,5 @@
 package com.example.carconnect.booking;
 
-import com.example.carconnect.websocket.NotificationEndpoint;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.HttpServlet;
@@ -13,8 +12,8 @@ import java.rmi.Naming;
 import java.rmi.RemoteException;
 
 /**
- * Servlet zur Verwaltung von Fahrzeugbuchungen. Es ermöglicht das Erstellen, Genehmigen und Ablehnen von Buchungsanfragen
- * und sendet entsprechende Benachrichtigungen über Websockets.
+ * Servlet zur Verwaltung von Fahrzeugbuchungen. Es ermöglicht das Erstellen, Genehmigen und Ablehnen von Buchungsanfragen.
+ * Die Benachrichtigungen über Websockets entstehen auf dem Server in derselben Transaktion.
  *
  * @autor Mohammed Al-Ozair
  * @autor Nabeel Elamaireh
@@ -62,38 +61,28 @@ public class VehicleBookingServlet extends HttpServlet {
 
                 boolean result = bookingIf.insertBookingRequest(username, vehicleId, startTime, endTime);
                 jsonResponse.put("success", result);
-                if (result) {
-                    // Senden einer Benachrichtigung über eine neue Buchungsanfrage
-                    JSONObject notification = new JSONObject();
-                    notification.put("action", "newBookingRequest");
-                    notification.put("username", username);
-                    notification.put("vehicleId", vehicleId);
-                    notification.put("startTime", startTime);
-                    notification.put("endTime", endTime);
-                    NotificationEndpoint.sendNotification(notification.toString());
-                } else {
-                    jsonResponse.put("message", "Booking request failed due to an unknown reason.");
+                if (!result) {
+                    jsonResponse.put("message", "The vehicle is already reserved for this period or the request could not be saved.");
                 }
             } else if ("approve".equals(action)) {
                 // Verarbeitung der Genehmigung einer Buchungsanfrage
                 int requestId = Integer.parseInt(request.getParameter("requestId"));
-                boolean result = bookingIf.approveBookingRequest(requestId);
-                jsonResponse.put("success", result);
-                if (result) {
-                    int vehicleId = bookingIf.getVehicleIdFromBookingRequest(requestId);
-                    // Senden einer Benachrichtigung über die Genehmigung der Buchungsanfrage
-                    JSONObject notification = new JSONObject();
-                    notification.put("action", "approveBookingRequest");
-                    notification.put("vehicleId", vehicleId);
-                    NotificationEndpoint.sendNotification(notification.toString());
+                BookingApproval approval = bookingIf.approveBooking(requestId);
+                jsonResponse.put("success", approval != null);
+                if (approval != null) {
+                    jsonResponse.put("vehicleId", approval.getVehicleId());
+                    jsonResponse.put("status", approval.getStatus());
                 } else {
-                    jsonResponse.put("message", "Approval failed due to an unknown reason.");
+                    jsonResponse.put("message", "The request does not exist, is no longer pending or could not be approved.");
                 }
             } else if ("reject".equals(action)) {
                 // Verarbeitung der Ablehnung einer Buchungsanfrage
                 int requestId = Integer.parseInt(request.getParameter("requestId"));
                 boolean result = bookingIf.rejectBookingRequest(requestId);
                 jsonResponse.put("success", result);
+                if (!result) {
+                    jsonResponse.put("message", "The request does not exist, is no longer pending or could not be rejected.");
+                }
             } else {
                 jsonResponse.put("error", "Invalid action");
             }
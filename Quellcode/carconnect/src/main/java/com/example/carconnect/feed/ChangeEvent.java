@@ -0,0 +1,50 @@
+package com.example.carconnect.feed;
+
+import java.io.Serializable;
+
+/**
+ * Eine Änderung aus dem transaktionalen Ausgang der Datenbank, die per RMI an die Webanwendung gemeldet wird.
+ * Die Nutzlast ist die JSON-Benachrichtigung für die Clients, z.B. {@code {"action":"update","vehicleId":7,...}};
+ * die Webanwendung ordnet ihr anhand der Aktion die Themen zu.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+public class ChangeEvent implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Die fortlaufende ID im Ausgang. */
+    private final long id;
+
+    /** Die Benachrichtigung als JSON. */
+    private final String payload;
+
+    /** Der Benutzer, dessen Posteingang die Benachrichtigung zusätzlich erhält, oder null. */
+    private final String recipient;
+
+    /**
+     * Konstruktor für ChangeEvent.
+     *
+     * @param id Die fortlaufende ID im Ausgang.
+     * @param payload Die Benachrichtigung als JSON.
+     * @param recipient Der Benutzer, dessen Posteingang die Benachrichtigung zusätzlich erhält, oder null.
+     */
+    public ChangeEvent(long id, String payload, String recipient) {
+        this.id = id;
+        this.payload = payload;
+        this.recipient = recipient;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public String getRecipient() {
+        return recipient;
+    }
+}
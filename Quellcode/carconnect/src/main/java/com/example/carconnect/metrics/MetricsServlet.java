@@ -0,0 +1,68 @@
+package com.example.carconnect.metrics;
+
+import com.example.carconnect.websocket.NotificationEndpoint;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.rmi.Naming;
+import java.rmi.RemoteException;
+import java.util.Map;
+
+/**
+ * Servlet, das die Kennzahlen als JSON ausgibt: je Komponente des Servers (z.B. {@code connectionPool}) die
+ * Zähler und Histogramme, die der Server über {@link MetricsIf} liefert, und unter {@code webSocket} die
+ * WebSocket-Verteilung dieses Knotens.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+@WebServlet(name = "MetricsServlet", urlPatterns = {"/metrics"})
+public class MetricsServlet extends HttpServlet {
+
+    /** Remote-Referenz auf den Kennzahlendienst. */
+    private MetricsIf metricsIf;
+
+    /**
+     * Initialisiert das Servlet und stellt die Verbindung zum Kennzahlendienst über RMI her.
+     *
+     * @throws ServletException Wenn die Verbindung zum RMI-Server fehlschlägt.
+     */
+    @Override
+    public void init() throws ServletException {
+        try {
+            metricsIf = (MetricsIf) Naming.lookup("rmi://localhost:1099/MetricsIf");
+        } catch (Exception e) {
+            e.printStackTrace();
+            throw new ServletException("Failed to lookup RMI server", e);
+        }
+    }
+
+    /**
+     * Verarbeitet GET-Anfragen und gibt die Kennzahlen aller Komponenten zurück.
+     *
+     * @param request  Das HttpServletRequest-Objekt, das die Anfrage vom Client enthält.
+     * @param response Das HttpServletResponse-Objekt, das die Antwort an den Client sendet.
+     * @throws ServletException Wenn eine Servlet-spezifische Ausnahme auftritt.
+     * @throws IOException Wenn ein Ein-/Ausgabefehler auftritt.
+     */
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+        JSONObject jsonResponse = new JSONObject();
+        try {
+            for (Map.Entry<String, Map<String, Object>> component : metricsIf.getMetrics().entrySet()) {
+                jsonResponse.put(component.getKey(), new JSONObject(component.getValue()));
+            }
+        } catch (RemoteException e) {
+            e.printStackTrace();
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        }
+        jsonResponse.put("webSocket", new JSONObject(NotificationEndpoint.getStats()));
+        response.setContentType("application/json");
+        response.getWriter().write(jsonResponse.toString());
+    }
+}
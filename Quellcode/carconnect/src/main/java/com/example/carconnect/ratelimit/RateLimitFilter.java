@@ -0,0 +1,142 @@
+package com.example.carconnect.ratelimit;
+
+import com.example.carconnect.auth.TokenService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.FilterConfig;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebFilter;
+import jakarta.servlet.http.HttpFilter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filter, der Anmeldung, Registrierung und Buchungen je IP-Adresse und je Benutzer begrenzt. Überschreitet
+ * eine Anfrage eine der Grenzen, wird sie ohne RMI-Aufruf mit 429 und {@code Retry-After} beantwortet.
+ *
+ * Für {@code /auth} zählt der Benutzername der Anfrage zusammen mit der IP-Adresse: Da der Name vor der
+ * Anmeldung nicht geprüft ist, könnte ein Client sonst mit Anfragen unter fremdem Namen das Konto eines anderen
+ * sperren. Abmeldungen werden nicht begrenzt. Für {@code /bookVehicle} zählt der Benutzer aus dem geprüften
+ * Token. Die Grenzen
+ * werden im Servlet-Kontext unter {@link #ATTRIBUTE} abgelegt, von wo sie {@link RateLimitStatsServlet} ausgibt.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+@WebFilter(filterName = "RateLimitFilter", urlPatterns = {"/auth", "/bookVehicle"})
+public class RateLimitFilter extends HttpFilter {
+
+    /** Name des Kontext-Attributs mit der Liste aller Grenzen. */
+    public static final String ATTRIBUTE = "rateLimiters";
+
+    /** Anmeldung und Registrierung je IP-Adresse. */
+    private final RateLimiter authByIp = new RateLimiter("auth.ip", "30/60");
+
+    /** Anmeldung und Registrierung je Benutzername und IP-Adresse. */
+    private final RateLimiter authByUser = new RateLimiter("auth.user", "10/60");
+
+    /** Buchungsaktionen je IP-Adresse. */
+    private final RateLimiter bookingByIp = new RateLimiter("booking.ip", "120/60");
+
+    /** Buchungsaktionen je Benutzer. */
+    private final RateLimiter bookingByUser = new RateLimiter("booking.user", "30/60");
+
+    /** Thread, der volle Buckets entfernt. */
+    private ScheduledExecutorService housekeeper;
+
+    /**
+     * Legt die Grenzen im Servlet-Kontext ab und startet das Entfernen voller Buckets.
+     *
+     * @param config Die Filter-Konfiguration.
+     * @throws ServletException Wenn eine Servlet-spezifische Ausnahme auftritt.
+     */
+    @Override
+    public void init(FilterConfig config) throws ServletException {
+        super.init(config);
+        List<RateLimiter> limiters = Arrays.asList(authByIp, authByUser, bookingByIp, bookingByUser);
+        config.getServletContext().setAttribute(ATTRIBUTE, limiters);
+        housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rate-limit-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        housekeeper.scheduleWithFixedDelay(() -> limiters.forEach(RateLimiter::evictIdle), 30, 30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Beendet das Entfernen voller Buckets und gibt die Zähler aus.
+     */
+    @Override
+    public void destroy() {
+        housekeeper.shutdownNow();
+        for (RateLimiter limiter : Arrays.asList(authByIp, authByUser, bookingByIp, bookingByUser)) {
+            System.out.println("Rate limit " + limiter);
+        }
+    }
+
+    /**
+     * Prüft die Grenzen der Anfrage und reicht sie weiter oder beantwortet sie mit 429.
+     *
+     * @param request  Die Anfrage.
+     * @param response Die Antwort.
+     * @param chain    Die weiteren Filter und das Servlet.
+     * @throws IOException Wenn ein Ein-/Ausgabefehler auftritt.
+     * @throws ServletException Wenn eine Servlet-spezifische Ausnahme auftritt.
+     */
+    @Override
+    protected void doFilter(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        if ("OPTIONS".equals(request.getMethod())) {
+            chain.doFilter(request, response);
+            return;
+        }
+        String ip = request.getRemoteAddr();
+        long wait;
+        if ("/auth".equals(request.getServletPath())) {
+            if ("logout".equals(request.getParameter("action"))) {
+                chain.doFilter(request, response);  // Widerruf eines Tokens, kein Anmeldeversuch
+                return;
+            }
+            wait = authByIp.acquire(ip);
+            String username = request.getParameter("username");
+            if (wait == 0 && username != null && !username.isEmpty()) {
+                wait = authByUser.acquire(username + "@" + ip);
+            }
+        } else {
+            wait = bookingByIp.acquire(ip);
+            String username = authenticatedUser(request);
+            if (wait == 0 && username != null) {
+                wait = bookingByUser.acquire(username);
+            }
+        }
+        if (wait > 0) {
+            long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + TimeUnit.SECONDS.toNanos(1) - 1));
+            response.setStatus(429);
+            response.setHeader("Retry-After", Long.toString(retryAfter));
+            response.setContentType("application/json");
+            JSONObject jsonResponse = new JSONObject();
+            jsonResponse.put("success", false);
+            jsonResponse.put("error", "Too many requests, retry in " + retryAfter + " s");
+            response.getWriter().write(jsonResponse.toString());
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * Ermittelt den Benutzer aus dem Token, unabhängig davon, ob {@code JwtAuthFilter} bereits gelaufen ist.
+     */
+    private static String authenticatedUser(HttpServletRequest request) {
+        String header = request.getHeader("Authorization");
+        return header != null && header.startsWith("Bearer ")
+                ? TokenService.getInstance().verify(header.substring("Bearer ".length()).trim())
+                : null;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.carconnect.ratelimit;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Servlet, das die Zähler der Ratenbegrenzung als JSON ausgibt: je Grenze die Konfiguration, die erlaubten
+ * und abgewiesenen Anfragen und die Anzahl der aktuell geführten Buckets.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+@WebServlet(name = "RateLimitStatsServlet", urlPatterns = {"/rateLimits"})
+public class RateLimitStatsServlet extends HttpServlet {
+
+    /**
+     * Verarbeitet GET-Anfragen und gibt die Zähler aller Grenzen zurück.
+     *
+     * @param request  Das HttpServletRequest-Objekt, das die Anfrage vom Client enthält.
+     * @param response Das HttpServletResponse-Objekt, das die Antwort an den Client sendet.
+     * @throws ServletException Wenn eine Servlet-spezifische Ausnahme auftritt.
+     * @throws IOException Wenn ein Ein-/Ausgabefehler auftritt.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+        JSONArray limits = new JSONArray();
+        List<RateLimiter> limiters = (List<RateLimiter>) getServletContext().getAttribute(RateLimitFilter.ATTRIBUTE);
+        if (limiters != null) {
+            for (RateLimiter limiter : limiters) {
+                JSONObject limit = new JSONObject();
+                limit.put("name", limiter.getName());
+                limit.put("capacity", limiter.getCapacity());
+                limit.put("periodSeconds", limiter.getPeriodSeconds());
+                limit.put("allowed", limiter.getAllowed());
+                limit.put("denied", limiter.getDenied());
+                limit.put("buckets", limiter.getBucketCount());
+                limits.put(limit);
+            }
+        }
+        JSONObject jsonResponse = new JSONObject();
+        jsonResponse.put("limits", limits);
+        response.setContentType("application/json");
+        response.getWriter().write(jsonResponse.toString());
+    }
+}
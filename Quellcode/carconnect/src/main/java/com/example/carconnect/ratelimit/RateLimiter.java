@@ -0,0 +1,118 @@
+package com.example.carconnect.ratelimit;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Eine Ratenbegrenzung mit je einem {@link TokenBucket} pro Schlüssel, z.B. pro IP-Adresse oder Benutzer.
+ * Die Buckets liegen in einer {@link ConcurrentHashMap}, deren Segmente gleichzeitige Zugriffe auf
+ * verschiedene Schlüssel nicht gegeneinander sperren. Volle Buckets werden mit {@link #evictIdle()}
+ * entfernt, da ein neuer Bucket denselben Zustand hätte.
+ *
+ * Die Grenze wird als {@code <Anfragen>/<Sekunden>} aus der System-Property {@code carconnect.ratelimit.<Name>}
+ * gelesen; die Anfragen sind zugleich die Kapazität für kurze Spitzen.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+public class RateLimiter {
+
+    /** Der Name der Grenze, z.B. {@code auth.ip}. */
+    private final String name;
+
+    /** Anzahl der Anfragen je Zeitraum und zugleich Kapazität des Buckets. */
+    private final int capacity;
+
+    /** Der Zeitraum in Sekunden. */
+    private final int periodSeconds;
+
+    /** Abstand, in dem ein Token nachgefüllt wird, in Nanosekunden. */
+    private final long intervalNanos;
+
+    /** Kapazität mal Intervall in Nanosekunden. */
+    private final long burstNanos;
+
+    /** Die Buckets je Schlüssel. */
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    /** Anzahl der erlaubten Anfragen. */
+    private final LongAdder allowed = new LongAdder();
+
+    /** Anzahl der abgewiesenen Anfragen. */
+    private final LongAdder denied = new LongAdder();
+
+    /**
+     * Erstellt eine Grenze; die Vorgabe kann über {@code carconnect.ratelimit.<name>} überschrieben werden.
+     *
+     * @param name Der Name der Grenze.
+     * @param defaultLimit Die Vorgabe im Format {@code <Anfragen>/<Sekunden>}.
+     */
+    public RateLimiter(String name, String defaultLimit) {
+        this.name = name;
+        String[] limit = System.getProperty("carconnect.ratelimit." + name, defaultLimit).split("/");
+        this.capacity = Integer.parseInt(limit[0].trim());
+        this.periodSeconds = Integer.parseInt(limit[1].trim());
+        this.intervalNanos = TimeUnit.SECONDS.toNanos(periodSeconds) / capacity;
+        this.burstNanos = intervalNanos * capacity;
+    }
+
+    /**
+     * Versucht, eine Anfrage für den Schlüssel zuzulassen.
+     *
+     * @param key Der Schlüssel, z.B. die IP-Adresse.
+     * @return 0, wenn die Anfrage erlaubt ist, sonst die Wartezeit bis zur nächsten erlaubten Anfrage in Nanosekunden.
+     */
+    public long acquire(String key) {
+        long now = System.nanoTime();
+        long wait = buckets.computeIfAbsent(key, k -> new TokenBucket(now)).tryAcquire(now, intervalNanos, burstNanos);
+        if (wait == 0) {
+            allowed.increment();
+        } else {
+            denied.increment();
+        }
+        return wait;
+    }
+
+    /**
+     * Entfernt alle Buckets, die wieder voll sind.
+     */
+    public void evictIdle() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.isIdle(now));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getPeriodSeconds() {
+        return periodSeconds;
+    }
+
+    public long getAllowed() {
+        return allowed.sum();
+    }
+
+    public long getDenied() {
+        return denied.sum();
+    }
+
+    /**
+     * @return Die Anzahl der aktuell geführten Buckets.
+     */
+    public int getBucketCount() {
+        return buckets.size();
+    }
+
+    @Override
+    public String toString() {
+        return name + "[" + capacity + "/" + periodSeconds + "s]: allowed=" + getAllowed() + ", denied=" + getDenied()
+                + ", buckets=" + getBucketCount();
+    }
+}
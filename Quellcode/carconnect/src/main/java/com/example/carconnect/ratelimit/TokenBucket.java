@@ -0,0 +1,52 @@
+package com.example.carconnect.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token-Bucket für einen Schlüssel, umgesetzt als Generic Cell Rate Algorithm: Statt Füllstand und Zeitpunkt
+ * der letzten Auffüllung zu speichern, merkt sich der Bucket nur den theoretischen Zeitpunkt, zu dem er
+ * wieder voll ist. Eine Anfrage verschiebt diesen Zeitpunkt um ein Intervall; sie ist erlaubt, solange er
+ * höchstens {@code Kapazität × Intervall} in der Zukunft liegt. Dadurch genügt ein einziger
+ * {@link AtomicLong} und jede Anfrage wird ohne Sperre mit einem Compare-and-Set entschieden.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+final class TokenBucket {
+
+    /** Zeitpunkt in Nanosekunden ({@link System#nanoTime()}), zu dem der Bucket wieder voll ist. */
+    private final AtomicLong fullAt;
+
+    TokenBucket(long now) {
+        this.fullAt = new AtomicLong(now);
+    }
+
+    /**
+     * Versucht, ein Token zu entnehmen.
+     *
+     * @param now Der aktuelle Zeitpunkt in Nanosekunden.
+     * @param intervalNanos Der Abstand, in dem ein Token nachgefüllt wird.
+     * @param burstNanos Kapazität mal Intervall.
+     * @return 0, wenn die Anfrage erlaubt ist, sonst die Wartezeit bis zum nächsten Token in Nanosekunden.
+     */
+    long tryAcquire(long now, long intervalNanos, long burstNanos) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + intervalNanos;
+            long ahead = next - now;
+            if (ahead > burstNanos) {
+                return ahead - burstNanos;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * @return true, wenn der Bucket wieder voll ist und daher ohne Zustandsverlust entfernt werden kann.
+     */
+    boolean isIdle(long now) {
+        return fullAt.get() - now <= 0;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.carconnect.vehicle;
 
+import com.example.carconnect.feed.ChangeListener;
 import java.rmi.Remote;
 import java.rmi.RemoteException;
 import java.util.List;
@@ -28,6 +29,31 @@ public interface VehicleIf extends Remote {
      */
     boolean registerVehicle(String ownerUsername, String make, String model, int year, String location) throws RemoteException;
 
+    /**
+     * Registriert ein neues Fahrzeug und liefert es samt generierter ID zurück.
+     *
+     * @param ownerUsername Der Benutzername des Fahrzeugbesitzers.
+     * @param make Die Marke des Fahrzeugs.
+     * @param model Das Modell des Fahrzeugs.
+     * @param year Das Baujahr des Fahrzeugs.
+     * @param location Der Standort des Fahrzeugs.
+     * @return Das angelegte Fahrzeug oder null, wenn die Registrierung fehlgeschlagen ist.
+     * @throws RemoteException Wenn ein Remote-Methodenaufruf fehlschlägt.
+     */
+    VehicleView createVehicle(String ownerUsername, String make, String model, int year, String location) throws RemoteException;
+
+    /**
+     * Importiert mehrere Fahrzeuge eines Besitzers in einem Durchgang.
+     * Ungültige Zeilen werden übersprungen und mit ihrer Zeilennummer im Ergebnis gemeldet. Die gültigen Zeilen
+     * eines Aufrufs werden in einer eigenen Transaktion gemeinsam übernommen oder gemeinsam abgelehnt.
+     *
+     * @param ownerUsername Der Benutzername des Fahrzeugbesitzers.
+     * @param rows Die zu importierenden Zeilen, höchstens 1000 je Aufruf.
+     * @return Die Anzahl der angelegten Fahrzeuge und die Fehler je Zeile.
+     * @throws RemoteException Wenn ein Remote-Methodenaufruf fehlschlägt.
+     */
+    VehicleImportResult importVehicles(String ownerUsername, List<VehicleImportRow> rows) throws RemoteException;
+
     /**
      * Sucht nach verfügbaren Fahrzeugen basierend auf den angegebenen Suchkriterien.
      *
@@ -37,6 +63,33 @@ public interface VehicleIf extends Remote {
      */
     List<Map<String, Object>> searchAvailableVehicles(Map<String, String> searchCriteria) throws RemoteException;
 
+    /**
+     * Sucht seitenweise nach verfügbaren Fahrzeugen basierend auf den angegebenen Suchkriterien.
+     *
+     * @param searchCriteria Eine Map, die die Suchkriterien (z.B. Marke, Modell, Baujahr) enthält.
+     * @param limit Die maximale Anzahl an Fahrzeugen der Seite.
+     * @param cursor Der Cursor aus der vorherigen Seite oder null für die erste Seite.
+     * @return Die Seite mit den gefundenen Fahrzeugen und dem Cursor für die nächste Seite.
+     * @throws RemoteException Wenn ein Remote-Methodenaufruf fehlschlägt.
+     */
+    VehiclePage searchAvailableVehicles(Map<String, String> searchCriteria, int limit, String cursor) throws RemoteException;
+
+    /**
+     * Sucht seitenweise nach Fahrzeugen, die im Zeitraum {@code [startTime, endTime)} durch keine Buchung
+     * oder Buchungsanfrage belegt sind und die Suchkriterien erfüllen.
+     *
+     * @param searchCriteria Eine Map, die die Suchkriterien (z.B. Marke, Modell, Baujahr) enthält.
+     * @param startTime Der Beginn des Zeitraums im Format {@code yyyy-mm-dd hh:mm:ss}.
+     * @param endTime Das Ende des Zeitraums im Format {@code yyyy-mm-dd hh:mm:ss}.
+     * @param limit Die maximale Anzahl an Fahrzeugen der Seite.
+     * @param cursor Der Cursor aus der vorherigen Seite oder null für die erste Seite.
+     * @return Die Seite mit den gefundenen Fahrzeugen und dem Cursor für die nächste Seite.
+     * @throws RemoteException Wenn ein Remote-Methodenaufruf fehlschlägt.
+     * @throws IllegalArgumentException Wenn der Zeitraum oder der Cursor ungültig ist.
+     */
+    VehiclePage searchVehiclesFreeBetween(Map<String, String> searchCriteria, String startTime, String endTime,
+                                          int limit, String cursor) throws RemoteException;
+
     /**
      * Aktualisiert die Informationen eines Fahrzeugs.
      *
@@ -69,6 +122,15 @@ public interface VehicleIf extends Remote {
      */
     boolean isVehicleOwner(String username, int vehicleId) throws RemoteException;
 
+    /**
+     * Ermittelt den Besitzer eines Fahrzeugs, z.B. um ihm eine Buchungsanfrage zuzustellen.
+     *
+     * @param vehicleId Die ID des Fahrzeugs.
+     * @return Der Benutzername des Besitzers oder null, wenn das Fahrzeug nicht existiert.
+     * @throws RemoteException Wenn ein Remote-Methodenaufruf fehlschlägt.
+     */
+    String getVehicleOwner(int vehicleId) throws RemoteException;
+
     /**
      * Ruft die ID des zuletzt eingefügten Fahrzeugs ab.
      *
@@ -76,4 +138,15 @@ public interface VehicleIf extends Remote {
      * @throws RemoteException Wenn ein Remote-Methodenaufruf fehlschlägt.
      */
     int getLastInsertedVehicleId() throws RemoteException;
+
+    /**
+     * Registriert einen Empfänger für die Änderungen aus dem transaktionalen Ausgang der Datenbank. Eine erneute
+     * Registrierung desselben Empfängers hat keine Wirkung; war er zwischenzeitlich entfernt worden, weil er nicht
+     * erreichbar war, können ihm Änderungen entgangen sein.
+     *
+     * @param listener Der per RMI exportierte Empfänger.
+     * @return true, wenn der Empfänger neu registriert wurde, false, wenn er bereits registriert war.
+     * @throws RemoteException Wenn ein Remote-Methodenaufruf fehlschlägt.
+     */
+    boolean addChangeListener(ChangeListener listener) throws RemoteException;
 }
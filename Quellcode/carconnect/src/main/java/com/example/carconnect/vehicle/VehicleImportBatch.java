@@ -0,0 +1,31 @@
+package com.example.carconnect.vehicle;
+
+import com.example.carconnect.rmi.CompactList;
+import com.example.carconnect.rmi.StringTable;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+/**
+ * Kompakt serialisierte Liste von {@link VehicleImportRow}-Objekten, die in einem RMI-Aufruf importiert werden.
+ *
+ * @autor Mohammed Al-Ozair
+ * @autor Nabeel Elamaireh
+ */
+public class VehicleImportBatch extends CompactList<VehicleImportRow> {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected void writeElement(ObjectOutput out, VehicleImportRow row, StringTable strings) throws IOException {
+        row.writeTo(out, strings);
+    }
+
+    @Override
+    protected VehicleImportRow readElement(ObjectInput in, StringTable strings) throws IOException {
+        VehicleImportRow row = new VehicleImportRow();
+        row.readFrom(in, strings);
+        return row;
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.carconnect.vehicle;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ergebnis eines Fahrzeugimports: die Anzahl der angelegten Fahrzeuge und die Fehler der abgelehnten Zeilen.
+ * Gespeichert werden nur die ersten {@link #MAX_REPORTED_ERRORS} Fehler; gezählt werden alle.
+ *
+ * @autor Mohammed Al-Ozair
+ * @autor Nabeel Elamaireh
+ */
+public class VehicleImportResult implements Serializable {
+
+    private static final long serialVersionUID = 2L;
+
+    /** Maximale Anzahl der gespeicherten Fehler. */
+    public static final int MAX_REPORTED_ERRORS = Integer.getInteger("carconnect.import.maxReportedErrors", 100);
+
+    /** Die Anzahl der angelegten Fahrzeuge. */
+    private int imported;
+
+    /** Die Anzahl aller abgelehnten Zeilen. */
+    private int errorCount;
+
+    /** Die ersten Fehler der abgelehnten Zeilen. */
+    private final List<RowError> errors = new ArrayList<>();
+
+    public int getImported() {
+        return imported;
+    }
+
+    public int getErrorCount() {
+        return errorCount;
+    }
+
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    /**
+     * Gibt an, ob mehr Zeilen abgelehnt wurden, als Fehler gespeichert sind.
+     *
+     * @return true, wenn Fehler weggelassen wurden.
+     */
+    public boolean isErrorsTruncated() {
+        return errorCount > errors.size();
+    }
+
+    /**
+     * Zählt angelegte Fahrzeuge hinzu.
+     *
+     * @param count Die Anzahl der angelegten Fahrzeuge.
+     */
+    public void addImported(int count) {
+        imported += count;
+    }
+
+    /**
+     * Fügt den Fehler einer abgelehnten Zeile hinzu; jenseits von {@link #MAX_REPORTED_ERRORS} wird er nur gezählt.
+     *
+     * @param line Die Zeilennummer in der hochgeladenen Datei.
+     * @param message Die Fehlerbeschreibung.
+     */
+    public void addError(int line, String message) {
+        errorCount++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new RowError(line, message));
+        }
+    }
+
+    /**
+     * Übernimmt die Anzahl der angelegten Fahrzeuge und die Fehler eines weiteren Ergebnisses.
+     *
+     * @param other Das zu übernehmende Ergebnis.
+     */
+    public void merge(VehicleImportResult other) {
+        imported += other.imported;
+        errorCount += other.errorCount;
+        for (RowError error : other.errors) {
+            if (errors.size() == MAX_REPORTED_ERRORS) {
+                break;
+            }
+            errors.add(error);
+        }
+    }
+
+    /**
+     * Der Fehler einer einzelnen Importzeile.
+     */
+    public static class RowError implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        /** Die Zeilennummer in der hochgeladenen Datei. */
+        private final int line;
+
+        /** Die Fehlerbeschreibung. */
+        private final String message;
+
+        public RowError(int line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        public int getLine() {
+            return line;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
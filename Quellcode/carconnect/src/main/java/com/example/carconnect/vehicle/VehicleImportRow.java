@@ -0,0 +1,95 @@
+package com.example.carconnect.vehicle;
+
+import com.example.carconnect.rmi.StringTable;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+/**
+ * Eine Zeile eines Fahrzeugimports, wie sie vom Web-Client per RMI an den Server übertragen wird.
+ * Die Zeilennummer bezieht sich auf die hochgeladene Datei und wird für Fehlermeldungen verwendet.
+ *
+ * @autor Mohammed Al-Ozair
+ * @autor Nabeel Elamaireh
+ */
+public class VehicleImportRow implements Externalizable {
+
+    private static final long serialVersionUID = 1L;
+
+    private int line;
+    private String make;
+    private String model;
+    private int year;
+    private String location;
+
+    /**
+     * Konstruktor für die Deserialisierung.
+     */
+    public VehicleImportRow() {
+    }
+
+    /**
+     * Konstruktor für VehicleImportRow.
+     *
+     * @param line Die Zeilennummer in der hochgeladenen Datei.
+     * @param make Die Marke des Fahrzeugs.
+     * @param model Das Modell des Fahrzeugs.
+     * @param year Das Baujahr des Fahrzeugs.
+     * @param location Der Standort des Fahrzeugs.
+     */
+    public VehicleImportRow(int line, String make, String model, int year, String location) {
+        this.line = line;
+        this.make = make;
+        this.model = model;
+        this.year = year;
+        this.location = location;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public String getMake() {
+        return make;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    void writeTo(ObjectOutput out, StringTable strings) throws IOException {
+        out.writeInt(line);
+        strings.write(out, make);
+        strings.write(out, model);
+        out.writeInt(year);
+        strings.write(out, location);
+    }
+
+    void readFrom(ObjectInput in, StringTable strings) throws IOException {
+        line = in.readInt();
+        make = strings.read(in);
+        model = strings.read(in);
+        year = in.readInt();
+        location = strings.read(in);
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        writeTo(out, new StringTable());
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        readFrom(in, new StringTable());
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.carconnect.vehicle;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.rmi.Naming;
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Servlet für den Massenimport von Fahrzeugen.
+ * Der Anfragekörper wird zeilenweise gelesen, entweder als CSV ({@code make,model,year,location},
+ * optional mit Kopfzeile) oder als NDJSON (ein JSON-Objekt je Zeile). Die Zeilen werden in Blöcken
+ * per RMI an den Server übertragen, der sie über das COPY-Protokoll von PostgreSQL einfügt.
+ * Jeder Block ist eine eigene Transaktion: Ein Upload ist nicht atomar, sondern übernimmt alle Zeilen, die nicht
+ * in den Fehlern gemeldet werden. Die Antwort nennt dazu die Blockgröße ({@code chunkSize}). Der Server schreibt je
+ * Block eine Benachrichtigung {@code bulkAdd} mit allen neuen Fahrzeugen in derselben Transaktion; sie erreicht
+ * die Clients über den {@code ChangeFeedNotifier}. Zurückgemeldet werden nur Anzahlen und die ersten
+ * {@link VehicleImportResult#MAX_REPORTED_ERRORS} Fehler, damit große Uploads keinen Speicher binden.
+ *
+ * @autor Mohammed Al-Ozair
+ * @autor Nabeel Elamaireh
+ */
+@WebServlet(name = "VehicleImportServlet", urlPatterns = {"/importVehicles"})
+public class VehicleImportServlet extends HttpServlet {
+
+    /** Anzahl der Zeilen, die in einem RMI-Aufruf übertragen werden. */
+    static final int CHUNK_SIZE = 500;
+
+    /** Die Spalten der Kopfzeile einer CSV-Datei. */
+    private static final String[] CSV_HEADER = {"make", "model", "year", "location"};
+
+    /** Remote-Referenz auf den Fahrzeugverwaltungsdienst. */
+    private VehicleIf vehicleIf;
+
+    /**
+     * Initialisiert das Servlet und stellt die Verbindung zum Fahrzeugverwaltungsdienst über RMI her.
+     *
+     * @throws ServletException Wenn die Verbindung zum RMI-Server fehlschlägt.
+     */
+    @Override
+    public void init() throws ServletException {
+        try {
+            vehicleIf = (VehicleIf) Naming.lookup("rmi://localhost:1099/VehicleIf");
+        } catch (Exception e) {
+            e.printStackTrace();
+            throw new ServletException("Failed to lookup RMI server", e);
+        }
+    }
+
+    /**
+     * Verarbeitet POST-Anfragen mit einer CSV- oder NDJSON-Datei im Anfragekörper.
+     * Der Besitzer wird über den Parameter {@code ownerUsername} angegeben, das Format über
+     * den Parameter {@code format} ({@code csv} oder {@code ndjson}) oder den Content-Type.
+     *
+     * @param request  Das HttpServletRequest-Objekt, das die Anfrage vom Client enthält.
+     * @param response Das HttpServletResponse-Objekt, das die Antwort an den Client sendet.
+     * @throws ServletException Wenn eine Servlet-spezifische Ausnahme auftritt.
+     * @throws IOException Wenn ein Ein-/Ausgabefehler auftritt.
+     */
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+        String ownerUsername = request.getParameter("ownerUsername");
+        response.setContentType("application/json");
+        if (ownerUsername == null || ownerUsername.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            response.getWriter().write(new JSONObject().put("success", false)
+                    .put("message", "ownerUsername is required").toString());
+            return;
+        }
+        boolean ndjson = isNdjson(request);
+
+        VehicleImportResult result = new VehicleImportResult();
+        boolean remoteFailed = false;
+        VehicleImportBatch chunk = new VehicleImportBatch();
+        BufferedReader reader = request.getReader();
+        String text;
+        int line = 0;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.trim().isEmpty() || (!ndjson && line == 1 && isHeader(text))) {
+                continue;
+            }
+            try {
+                chunk.add(ndjson ? parseJsonLine(line, text) : parseCsvLine(line, text));
+            } catch (IllegalArgumentException | JSONException e) {
+                result.addError(line, e.getMessage());
+                continue;
+            }
+            if (chunk.size() == CHUNK_SIZE) {
+                remoteFailed |= !send(ownerUsername, chunk, result);
+                chunk = new VehicleImportBatch();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            remoteFailed |= !send(ownerUsername, chunk, result);
+        }
+
+        JSONArray errors = new JSONArray();
+        for (VehicleImportResult.RowError error : result.getErrors()) {
+            errors.put(new JSONObject().put("line", error.getLine()).put("message", error.getMessage()));
+        }
+        JSONObject jsonResponse = new JSONObject();
+        jsonResponse.put("success", !remoteFailed && result.getErrorCount() == 0);
+        jsonResponse.put("imported", result.getImported());
+        jsonResponse.put("failed", result.getErrorCount());
+        jsonResponse.put("errors", errors);
+        jsonResponse.put("errorsTruncated", result.isErrorsTruncated());
+        jsonResponse.put("chunkSize", CHUNK_SIZE);
+        response.getWriter().write(jsonResponse.toString());
+    }
+
+    /**
+     * Überträgt einen Block von Zeilen an den Server und übernimmt dessen Ergebnis.
+     *
+     * @return true, wenn der RMI-Aufruf erfolgreich war.
+     */
+    private boolean send(String ownerUsername, VehicleImportBatch chunk, VehicleImportResult result) {
+        try {
+            result.merge(vehicleIf.importVehicles(ownerUsername, chunk));
+            return true;
+        } catch (RemoteException e) {
+            e.printStackTrace();
+            for (VehicleImportRow row : chunk) {
+                result.addError(row.getLine(), "Server unavailable");
+            }
+            return false;
+        }
+    }
+
+    private static boolean isNdjson(HttpServletRequest request) {
+        String format = request.getParameter("format");
+        if (format != null) {
+            return "ndjson".equalsIgnoreCase(format) || "json".equalsIgnoreCase(format);
+        }
+        String contentType = request.getContentType();
+        return contentType != null && (contentType.contains("ndjson") || contentType.contains("jsonl"));
+    }
+
+    /**
+     * Erkennt die Kopfzeile {@code make,model,year,location}; Groß-/Kleinschreibung, Leerzeichen um die Felder
+     * und Anführungszeichen werden ignoriert. Eine Datenzeile wie {@code Makeshift,...} ist keine Kopfzeile.
+     */
+    static boolean isHeader(String text) {
+        String[] fields = text.split(",", -1);
+        if (fields.length != CSV_HEADER.length) {
+            return false;
+        }
+        for (int i = 0; i < fields.length; i++) {
+            if (!fields[i].replace("\"", "").trim().equalsIgnoreCase(CSV_HEADER[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Liest eine Zeile im NDJSON-Format, z.B. {@code {"make":"VW","model":"Golf","year":2019,"location":"Berlin"}}.
+     */
+    static VehicleImportRow parseJsonLine(int line, String text) {
+        JSONObject json = new JSONObject(text);
+        return new VehicleImportRow(line, json.optString("make", null), json.optString("model", null),
+                json.getInt("year"), json.optString("location", null));
+    }
+
+    /**
+     * Liest eine CSV-Zeile mit den Spalten make, model, year und location.
+     * Felder dürfen in doppelte Anführungszeichen gesetzt werden; {@code ""} steht darin für ein Anführungszeichen.
+     */
+    static VehicleImportRow parseCsvLine(int line, String text) {
+        List<String> fields = new ArrayList<>(4);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quote");
+        }
+        fields.add(field.toString().trim());
+        if (fields.size() != 4) {
+            throw new IllegalArgumentException("Expected 4 columns (make,model,year,location) but found " + fields.size());
+        }
+        int year;
+        try {
+            year = Integer.parseInt(fields.get(2));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid year: " + fields.get(2));
+        }
+        return new VehicleImportRow(line, fields.get(0), fields.get(1), year, fields.get(3));
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.carconnect.vehicle;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Eine Seite von Suchergebnissen der Fahrzeugsuche, die per RMI an den Aufrufer zurückgegeben wird.
+ * Die Fahrzeuge werden als {@link VehicleViewList} kompakt serialisiert.
+ * Neben den Fahrzeugen der Seite enthält sie einen undurchsichtigen Cursor, mit dem die nächste Seite
+ * abgerufen werden kann.
+ *
+ * @autor Mohammed Al-Ozair
+ * @autor Nabeel Elamaireh
+ */
+public class VehiclePage implements Serializable {
+
+    private static final long serialVersionUID = 2L;
+
+    /** Die Fahrzeuge dieser Seite. */
+    private final List<VehicleView> vehicles;
+
+    /** Der Cursor für die nächste Seite oder null, wenn dies die letzte Seite ist. */
+    private final String nextCursor;
+
+    /**
+     * Konstruktor für VehiclePage.
+     *
+     * @param vehicles Die Fahrzeuge dieser Seite.
+     * @param nextCursor Der Cursor für die nächste Seite oder null, wenn dies die letzte Seite ist.
+     */
+    public VehiclePage(List<VehicleView> vehicles, String nextCursor) {
+        this.vehicles = vehicles instanceof VehicleViewList ? vehicles : new VehicleViewList(vehicles);
+        this.nextCursor = nextCursor;
+    }
+
+    public List<VehicleView> getVehicles() {
+        return vehicles;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * Gibt an, ob nach dieser Seite weitere Ergebnisse vorhanden sind.
+     *
+     * @return true, wenn eine weitere Seite abgerufen werden kann, false andernfalls.
+     */
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
@@ -1,6 +1,5 @@
 package com.example.carconnect.vehicle;
 
-import com.example.carconnect.websocket.NotificationEndpoint;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.HttpServlet;
@@ -14,7 +13,8 @@ import java.rmi.RemoteException;
 
 /**
  * Servlet zur Verwaltung der Fahrzeugregistrierung.
- * Dieses Servlet ermöglicht es, neue Fahrzeuge zu registrieren und sendet nach erfolgreicher Registrierung eine Benachrichtigung über Websockets.
+ * Dieses Servlet ermöglicht es, neue Fahrzeuge zu registrieren. Die Benachrichtigung über Websockets entsteht
+ * auf dem Server in derselben Transaktion und erreicht die Clients über den {@code ChangeFeedNotifier}.
  *
  * @autor Mohammed Al-Ozair
  * @autor Nabeel Elamaireh
@@ -57,31 +57,20 @@ public class VehicleRegistrationServlet extends HttpServlet {
         int year = Integer.parseInt(request.getParameter("year"));
         String location = request.getParameter("location");
 
-        boolean result = false;
+        VehicleView vehicle = null;
         try {
-            // Fahrzeugregistrierung durchführen
+            // Fahrzeugregistrierung durchführen; das Ergebnis enthält bereits die generierte ID
             System.out.println("Registering vehicle: " + make + " " + model + " " + year + " " + location); // Debugging Log
-            result = vehicleIf.registerVehicle(ownerUsername, make, model, year, location);
-            if (result) {
-                int vehicleId = vehicleIf.getLastInsertedVehicleId();
-                JSONObject newVehicle = new JSONObject();
-                newVehicle.put("vehicleId", vehicleId);
-                newVehicle.put("ownerName", ownerUsername);
-                newVehicle.put("make", make);
-                newVehicle.put("model", model);
-                newVehicle.put("year", year);
-                newVehicle.put("location", location);
-                newVehicle.put("action", "add");
-
-                // Senden einer Benachrichtigung über die neue Fahrzeugregistrierung
-                NotificationEndpoint.sendNotification(newVehicle.toString());
-            }
+            vehicle = vehicleIf.createVehicle(ownerUsername, make, model, year, location);
         } catch (RemoteException e) {
             e.printStackTrace();
         }
 
         JSONObject jsonResponse = new JSONObject();
-        jsonResponse.put("success", result);
+        jsonResponse.put("success", vehicle != null);
+        if (vehicle != null) {
+            jsonResponse.put("vehicleId", vehicle.getId());
+        }
         response.setContentType("application/json");
         response.getWriter().write(jsonResponse.toString());
     }
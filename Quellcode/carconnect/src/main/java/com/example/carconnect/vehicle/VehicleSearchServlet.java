@@ -12,7 +12,6 @@ import java.io.IOException;
 import java.rmi.Naming;
 import java.rmi.RemoteException;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -44,7 +43,8 @@ public class VehicleSearchServlet extends HttpServlet {
 
     /**
      * Verarbeitet POST-Anfragen zur Suche nach verfügbaren Fahrzeugen basierend auf den angegebenen Suchkriterien.
-     * Die Ergebnisse werden als JSON-Array zurückgegeben.
+     * Die Ergebnisse werden seitenweise als JSON-Objekt mit den Fahrzeugen und dem Cursor der nächsten Seite zurückgegeben.
+     * Sind {@code startTime} und {@code endTime} angegeben, werden nur Fahrzeuge geliefert, die in diesem Zeitraum frei sind.
      *
      * @param request  Das HttpServletRequest-Objekt, das die Anfrage vom Client enthält.
      * @param response Das HttpServletResponse-Objekt, das die Antwort an den Client sendet.
@@ -66,24 +66,33 @@ public class VehicleSearchServlet extends HttpServlet {
         if (year != null && !year.isEmpty()) searchCriteria.put("year", year);
         if (location != null && !location.isEmpty()) searchCriteria.put("location", location);
 
+        JSONObject jsonResponse = new JSONObject();
         JSONArray vehiclesArray = new JSONArray();
         try {
-            // Abrufen der verfügbaren Fahrzeuge basierend auf den Suchkriterien
-            List<Map<String, Object>> vehicles = vehicleIf.searchAvailableVehicles(searchCriteria);
-            for (Map<String, Object> vehicle : vehicles) {
-                JSONObject vehicleJson = new JSONObject();
-                vehicleJson.put("make", vehicle.get("make"));
-                vehicleJson.put("model", vehicle.get("model"));
-                vehicleJson.put("year", vehicle.get("year"));
-                vehicleJson.put("location", vehicle.get("location"));
-                vehicleJson.put("ownerName", vehicle.get("ownerName"));
-                vehiclesArray.put(vehicleJson); // Hinzufügen des Fahrzeugs zur JSON-Antwort
+            // Abrufen einer Seite der verfügbaren Fahrzeuge basierend auf den Suchkriterien
+            int limit = VehicleServlet.parseLimit(request.getParameter("limit"));
+            String startTime = request.getParameter("startTime");
+            String endTime = request.getParameter("endTime");
+            VehiclePage page;
+            if (startTime != null && !startTime.isEmpty() && endTime != null && !endTime.isEmpty()) {
+                // Suche nach Fahrzeugen, die im gewünschten Zeitraum frei sind
+                page = vehicleIf.searchVehiclesFreeBetween(searchCriteria, startTime, endTime, limit, request.getParameter("cursor"));
+            } else {
+                page = vehicleIf.searchAvailableVehicles(searchCriteria, limit, request.getParameter("cursor"));
             }
+            for (VehicleView vehicle : page.getVehicles()) {
+                vehiclesArray.put(VehicleServlet.toJson(vehicle)); // Hinzufügen des Fahrzeugs zur JSON-Antwort
+            }
+            jsonResponse.put("nextCursor", page.hasMore() ? page.getNextCursor() : JSONObject.NULL);
+        } catch (IllegalArgumentException e) {
+            jsonResponse.put("error", e.getMessage());
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST); // 400 Bad Request, z.B. bei ungültigem Cursor
         } catch (RemoteException e) {
             e.printStackTrace();
         }
+        jsonResponse.put("vehicles", vehiclesArray);
 
         response.setContentType("application/json");
-        response.getWriter().write(vehiclesArray.toString());
+        response.getWriter().write(jsonResponse.toString());
     }
 }
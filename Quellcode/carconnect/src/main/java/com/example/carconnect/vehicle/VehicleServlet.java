@@ -1,7 +1,6 @@
 package com.example.carconnect.vehicle;
 
 import com.example.carconnect.booking.BookingIf;
-import com.example.carconnect.websocket.NotificationEndpoint;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.HttpServlet;
@@ -14,13 +13,11 @@ import java.io.IOException;
 import java.rmi.Naming;
 import java.rmi.RemoteException;
 import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 
 /**
  * Servlet zur Verwaltung von Fahrzeugoperationen wie Suche, Aktualisierung, Löschung und Buchung.
- * Das Servlet kommuniziert über RMI mit dem Fahrzeug- und Buchungsservice und sendet Benachrichtigungen
- * über WebSocket-Verbindungen.
+ * Das Servlet kommuniziert über RMI mit dem Fahrzeug- und Buchungsservice; die Benachrichtigungen über
+ * WebSocket-Verbindungen entstehen auf dem Server in der Transaktion der Änderung.
  *
  * @autor Mohammed Al-Ozair
  * @autor Nabeel Elamaireh
@@ -28,6 +25,9 @@ import java.util.Map;
 @WebServlet(name = "VehicleServlet", urlPatterns = {"/vehicles"})
 public class VehicleServlet extends HttpServlet {
 
+    /** Seitengröße, wenn der Client keinen Parameter {@code limit} angibt. */
+    static final int DEFAULT_PAGE_SIZE = 50;
+
     /** Remote-Referenz auf den Fahrzeugverwaltungsdienst */
     private VehicleIf vehicleIf;
 
@@ -75,15 +75,19 @@ public class VehicleServlet extends HttpServlet {
         JSONObject jsonResponse = new JSONObject();
 
         try {
-            // Abrufen der verfügbaren Fahrzeuge
-            List<Map<String, Object>> vehicles = vehicleIf.searchAvailableVehicles(new HashMap<>());
+            // Abrufen einer Seite der verfügbaren Fahrzeuge
+            int limit = parseLimit(request.getParameter("limit"));
+            VehiclePage page = vehicleIf.searchAvailableVehicles(new HashMap<>(), limit, request.getParameter("cursor"));
             JSONArray vehicleArray = new JSONArray();
-            for (Map<String, Object> vehicle : vehicles) {
-                JSONObject vehicleJson = new JSONObject(vehicle);
-                vehicleArray.put(vehicleJson);
+            for (VehicleView vehicle : page.getVehicles()) {
+                vehicleArray.put(toJson(vehicle));
             }
             jsonResponse.put("vehicles", vehicleArray);
+            jsonResponse.put("nextCursor", page.hasMore() ? page.getNextCursor() : JSONObject.NULL);
             System.out.println("Vehicles found: " + vehicleArray.length());
+        } catch (IllegalArgumentException e) {
+            jsonResponse.put("error", e.getMessage());
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST); // 400 Bad Request, z.B. bei ungültigem Cursor
         } catch (RemoteException e) {
             jsonResponse.put("error", e.getMessage());
             response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR); // 500 Internal Server Error
@@ -97,6 +101,42 @@ public class VehicleServlet extends HttpServlet {
     }
 
 
+    /**
+     * Wandelt ein Fahrzeug in seine JSON-Darstellung für den Web-Client um.
+     *
+     * @param vehicle Das Fahrzeug.
+     * @return Das Fahrzeug als JSON-Objekt.
+     */
+    static JSONObject toJson(VehicleView vehicle) {
+        JSONObject vehicleJson = new JSONObject();
+        vehicleJson.put("id", vehicle.getId());
+        vehicleJson.put("ownerName", vehicle.getOwnerName());
+        vehicleJson.put("make", vehicle.getMake());
+        vehicleJson.put("model", vehicle.getModel());
+        vehicleJson.put("year", vehicle.getYear());
+        vehicleJson.put("location", vehicle.getLocation());
+        vehicleJson.put("available", vehicle.isAvailable());
+        return vehicleJson;
+    }
+
+    /**
+     * Liest die gewünschte Seitengröße aus dem Anfrageparameter.
+     *
+     * @param limit Der Wert des Parameters {@code limit} oder null.
+     * @return Die Seitengröße, oder {@link #DEFAULT_PAGE_SIZE}, wenn kein Wert angegeben wurde.
+     * @throws IllegalArgumentException Wenn der Wert keine positive Zahl ist.
+     */
+    static int parseLimit(String limit) {
+        if (limit == null || limit.isEmpty()) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        int value = Integer.parseInt(limit);
+        if (value < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        return value;
+    }
+
     /**
      * Verarbeitet POST-Anfragen zur Verwaltung von Fahrzeugen, einschließlich Aktualisierung, Löschung und Buchung.
      *
@@ -126,30 +166,10 @@ public class VehicleServlet extends HttpServlet {
                         int year = Integer.parseInt(request.getParameter("year"));
                         String location = request.getParameter("location");
                         result = vehicleIf.updateVehicle(vehicleId, make, model, year, location);
-                        if (result) {
-                            // Senden einer Benachrichtigung über die Aktualisierung des Fahrzeugs
-                            JSONObject updatedVehicle = new JSONObject();
-                            updatedVehicle.put("vehicleId", vehicleId);
-                            updatedVehicle.put("make", make);
-                            updatedVehicle.put("model", model);
-                            updatedVehicle.put("year", year);
-                            updatedVehicle.put("location", location);
-                            updatedVehicle.put("action", "update");
-
-                            NotificationEndpoint.sendNotification(updatedVehicle.toString());
-                        }
                         break;
                     case "delete":
                         // Fahrzeug löschen
                         result = vehicleIf.deleteVehicle(vehicleId);
-                        if (result) {
-                            // Senden einer Benachrichtigung über das Löschen des Fahrzeugs
-                            JSONObject deletedVehicle = new JSONObject();
-                            deletedVehicle.put("vehicleId", vehicleId);
-                            deletedVehicle.put("action", "delete");
-
-                            NotificationEndpoint.sendNotification(deletedVehicle.toString());
-                        }
                         break;
                     case "book":
                         // Fahrzeug buchen
@@ -0,0 +1,48 @@
+package com.example.carconnect.vehicle;
+
+import com.example.carconnect.rmi.CompactList;
+import com.example.carconnect.rmi.StringTable;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Collection;
+
+/**
+ * Kompakt serialisierte Liste von {@link VehicleView}-Objekten.
+ *
+ * @autor Mohammed Al-Ozair
+ * @autor Nabeel Elamaireh
+ */
+public class VehicleViewList extends CompactList<VehicleView> {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Erstellt eine leere Liste.
+     */
+    public VehicleViewList() {
+        super();
+    }
+
+    /**
+     * Erstellt eine Liste mit den übergebenen Fahrzeugen.
+     *
+     * @param vehicles Die Fahrzeuge.
+     */
+    public VehicleViewList(Collection<VehicleView> vehicles) {
+        super(vehicles);
+    }
+
+    @Override
+    protected void writeElement(ObjectOutput out, VehicleView vehicle, StringTable strings) throws IOException {
+        vehicle.writeTo(out, strings);
+    }
+
+    @Override
+    protected VehicleView readElement(ObjectInput in, StringTable strings) throws IOException {
+        VehicleView vehicle = new VehicleView();
+        vehicle.readFrom(in, strings);
+        return vehicle;
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.carconnect.websocket;
+
+import com.example.carconnect.feed.ChangeEvent;
+import com.example.carconnect.feed.ChangeListener;
+import com.example.carconnect.vehicle.VehicleIf;
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletContextListener;
+import jakarta.servlet.annotation.WebListener;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.rmi.Naming;
+import java.rmi.NoSuchObjectException;
+import java.rmi.RemoteException;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leitet die Änderungen, die der RMI-Server aus seinem transaktionalen Ausgang meldet, als WebSocket-
+ * Benachrichtigungen an die Clients dieses Knotens weiter. Da der Server jede übernommene Änderung meldet,
+ * erreichen auch Änderungen anderer RMI-Clients und Folgeänderungen wie der Verfügbarkeitswechsel zu Beginn
+ * einer Buchung die Clients. Die Themen werden anhand der Aktion ermittelt; jeder Knoten empfängt den Feed
+ * selbst und verteilt ihn daher nur lokal.
+ *
+ * Der Empfänger wird beim Start der Webanwendung per RMI exportiert und beim Server registriert. Die
+ * Registrierung wird regelmäßig wiederholt, damit sie auch dann zustande kommt, wenn der Server später
+ * startet oder neu gestartet wurde. Musste der Server den Empfänger zwischenzeitlich neu aufnehmen, können
+ * Änderungen fehlen, und die Clients werden zum Neuladen aufgefordert. Ein Server stellt Änderungen mindestens
+ * einmal zu; doppelt gemeldete Änderungen werden anhand ihrer ID verworfen.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+@WebListener
+public class ChangeFeedNotifier implements ServletContextListener, ChangeListener {
+
+    /** Abstand zwischen zwei Registrierungen in Sekunden. */
+    private static final long REGISTER_INTERVAL_SECONDS = Long.getLong("carconnect.feed.registerIntervalSeconds", 30L);
+
+    /** Anzahl der gemerkten IDs zugestellter Änderungen. */
+    private static final int DEDUP_CAPACITY = 4096;
+
+    /** Die IDs der zuletzt zugestellten Änderungen, die älteste zuerst. */
+    private final Map<Long, Boolean> delivered = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+            return size() > DEDUP_CAPACITY;
+        }
+    };
+
+    /** Thread für die wiederholte Registrierung beim Server. */
+    private ScheduledExecutorService registrar;
+
+    /** Gesetzt nach der ersten erfolgreichen Registrierung; nur vom Registrierungs-Thread verwendet. */
+    private boolean registered;
+
+    /**
+     * Exportiert den Empfänger und startet die Registrierung beim RMI-Server.
+     *
+     * @param event Das Ereignis beim Start der Webanwendung.
+     */
+    @Override
+    public void contextInitialized(ServletContextEvent event) {
+        try {
+            UnicastRemoteObject.exportObject(this, 0);
+        } catch (RemoteException e) {
+            e.printStackTrace();
+            return;
+        }
+        registrar = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "change-listener-registrar");
+            thread.setDaemon(true);
+            return thread;
+        });
+        registrar.scheduleWithFixedDelay(this::register, 0, REGISTER_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Beendet die Registrierung, nimmt den Empfänger vom Netz und beendet die WebSocket-Verteilung.
+     *
+     * @param event Das Ereignis beim Beenden der Webanwendung.
+     */
+    @Override
+    public void contextDestroyed(ServletContextEvent event) {
+        if (registrar != null) {
+            registrar.shutdownNow();
+        }
+        try {
+            UnicastRemoteObject.unexportObject(this, true);
+        } catch (NoSuchObjectException e) {
+            // Nicht exportiert, nichts zu tun
+        }
+        NotificationEndpoint.shutdown();  // Einziger Lebenszyklus-Hook der WebSocket-Benachrichtigungen
+    }
+
+    /**
+     * Verteilt die Änderungen in ihrer Reihenfolge an die Abonnenten ihrer Themen.
+     *
+     * @param changes Die Änderungen eines Abrufs.
+     */
+    @Override
+    public void changesPublished(List<ChangeEvent> changes) {
+        for (ChangeEvent change : changes) {
+            synchronized (delivered) {
+                if (delivered.put(change.getId(), Boolean.TRUE) != null) {
+                    continue;  // Bereits zugestellt
+                }
+            }
+            try {
+                JSONObject notification = new JSONObject(change.getPayload());
+                NotificationEndpoint.sendLocalNotification(notification, topicsOf(notification, change.getRecipient()));
+            } catch (JSONException e) {
+                System.err.println("Ignoring malformed change " + change.getId() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Ermittelt die Themen einer Benachrichtigung anhand ihrer Aktion.
+     *
+     * @param notification Die Benachrichtigung.
+     * @param recipient Der Benutzer, dessen Posteingang sie zusätzlich erhält, oder null.
+     * @return Die Themen.
+     */
+    private static Set<String> topicsOf(JSONObject notification, String recipient) {
+        Set<String> topics = new LinkedHashSet<>();
+        switch (notification.optString("action")) {
+            case "newBookingRequest":
+                break;  // Nur an den Posteingang des Besitzers
+            case "add":
+                topics.add(Topics.VEHICLES);
+                topics.add(Topics.vehicle(notification.getInt("vehicleId")));
+                topics.add(Topics.location(notification.getString("location")));
+                break;
+            case "update":
+            case "delete":
+            case "approveBookingRequest":
+                // Der bisherige Standort ist unbekannt bzw. die Verfügbarkeit ändert sich unabhängig vom Standort
+                topics.add(Topics.VEHICLES);
+                topics.add(Topics.vehicle(notification.getInt("vehicleId")));
+                topics.add(Topics.ALL_LOCATIONS);
+                break;
+            case "bulkAdd":
+            case "availability":
+                // Eine Nachricht für alle Fahrzeuge; Abonnenten erhalten sie, wenn eines ihrer Fahrzeuge oder Standorte dabei ist
+                topics.add(Topics.VEHICLES);
+                JSONArray vehicles = notification.getJSONArray("vehicles");
+                for (int i = 0; i < vehicles.length(); i++) {
+                    JSONObject vehicle = vehicles.getJSONObject(i);
+                    if ("availability".equals(notification.optString("action"))) {
+                        topics.add(Topics.vehicle(vehicle.getInt("vehicleId")));
+                    }
+                    topics.add(Topics.location(vehicle.getString("location")));
+                }
+                break;
+            default:
+                topics.add(Topics.VEHICLES);
+        }
+        if (recipient != null) {
+            topics.add(Topics.inbox(recipient));
+        }
+        return topics;
+    }
+
+    private void register() {
+        try {
+            VehicleIf vehicleIf = (VehicleIf) Naming.lookup("rmi://localhost:1099/VehicleIf");
+            if (vehicleIf.addChangeListener(this) && registered) {
+                NotificationEndpoint.resync();  // Der Server hatte den Empfänger entfernt oder wurde neu gestartet
+            }
+            registered = true;
+        } catch (Exception e) {
+            System.err.println("Change listener not registered: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.carconnect.websocket;
+
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Fasst die innerhalb eines Zeitfensters veröffentlichten Benachrichtigungen je Fahrzeug zusammen, bevor
+ * {@link FanOut} sie verteilt:
+ * <ul>
+ *     <li>{@code add} gefolgt von {@code update} ergibt ein {@code add} mit den geänderten Werten,</li>
+ *     <li>{@code add} gefolgt von {@code delete} hebt sich auf,</li>
+ *     <li>sonst gewinnt die letzte Benachrichtigung, z.B. bei mehreren {@code update} oder {@code update}
+ *     gefolgt von {@code delete}; ebenso bei mehreren Genehmigungen für dasselbe Fahrzeug.</li>
+ * </ul>
+ * Zusammengefasste Benachrichtigungen erhalten die Themen beider Benachrichtigungen und rücken an die Stelle
+ * der letzten. Alle anderen Benachrichtigungen werden unverändert in ihrer Reihenfolge weitergegeben.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+class Coalescer {
+
+    /** Die wartenden Benachrichtigungen nach Schlüssel, in der Reihenfolge ihrer letzten Änderung. */
+    private final Map<String, FanOut.Event> pending = new LinkedHashMap<>();
+
+    /** Anzahl der aufgenommenen Benachrichtigungen seit dem letzten {@link #drain()}. */
+    private int received;
+
+    /** Zähler für Schlüssel von Benachrichtigungen, die nicht zusammengefasst werden. */
+    private long sequence;
+
+    /**
+     * Nimmt eine Benachrichtigung auf und fasst sie ggf. mit einer wartenden zusammen.
+     *
+     * @param event Die Benachrichtigung.
+     */
+    void add(FanOut.Event event) {
+        received++;
+        String key = keyOf(event.getJson());
+        FanOut.Event previous = key != null ? pending.remove(key) : null;
+        if (key == null) {
+            key = "#" + sequence++;
+        }
+        if (previous == null) {
+            pending.put(key, event);
+            return;
+        }
+        String before = previous.getJson().optString("action");
+        String after = event.getJson().optString("action");
+        if ("add".equals(before) && "delete".equals(after)) {
+            return;  // Hebt sich auf
+        }
+        JSONObject json = event.getJson();
+        if ("add".equals(before) && "update".equals(after)) {
+            json = new JSONObject(previous.getJson(), JSONObject.getNames(previous.getJson()));
+            for (String name : event.getJson().keySet()) {
+                if (!"action".equals(name)) {
+                    json.put(name, event.getJson().get(name));
+                }
+            }
+        }
+        Set<String> topics = new LinkedHashSet<>(previous.getTopics());
+        topics.addAll(event.getTopics());
+        pending.put(key, new FanOut.Event(json, List.copyOf(topics), previous.getPublishedNanos()));
+    }
+
+    /**
+     * @return Die Anzahl der aufgenommenen Benachrichtigungen seit dem letzten {@link #drain()}.
+     */
+    int getReceived() {
+        return received;
+    }
+
+    /**
+     * Liefert die zusammengefassten Benachrichtigungen und leert den Puffer.
+     *
+     * @return Die Benachrichtigungen in der Reihenfolge ihrer letzten Änderung.
+     */
+    List<FanOut.Event> drain() {
+        List<FanOut.Event> events = new ArrayList<>(pending.values());
+        pending.clear();
+        received = 0;
+        return events;
+    }
+
+    /**
+     * @return Der Schlüssel, unter dem die Benachrichtigung zusammengefasst wird, oder null.
+     */
+    private static String keyOf(JSONObject json) {
+        switch (json.optString("action")) {
+            case "add":
+            case "update":
+            case "delete":
+                return "vehicle:" + json.optInt("vehicleId");
+            case "approveBookingRequest":
+                return "approval:" + json.optInt("vehicleId");
+            default:
+                return null;
+        }
+    }
+}
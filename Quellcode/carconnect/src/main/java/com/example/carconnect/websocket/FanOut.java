@@ -0,0 +1,431 @@
+package com.example.carconnect.websocket;
+
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.Session;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verteilt Benachrichtigungen asynchron an die WebSocket-Clients, die eines ihrer {@link Topics} abonniert haben.
+ *
+ * {@link #publish(JSONObject, Collection)} legt die Nachricht nur in eine begrenzte Eingangswarteschlange und kehrt
+ * unabhängig von der Anzahl der Clients sofort zurück; ist die Warteschlange voll, wird die älteste Nachricht
+ * verworfen. Ein eigener Thread sammelt die Nachrichten eines Zeitfensters, fasst sie mit dem {@link Coalescer}
+ * je Fahrzeug zusammen und ermittelt über den {@link SubscriptionIndex} die Abonnenten. Jeder Client erhält je
+ * Zeitfenster höchstens einen Frame mit einem JSON-Array seiner Nachrichten; Clients mit denselben Nachrichten
+ * teilen sich den serialisierten Frame. Die Frames werden über die {@link SessionQueue} der Clients mit
+ * {@code getAsyncRemote()} gesendet. Überlastete Clients werden auf einem weiteren Thread mit
+ * {@link CloseReason.CloseCodes#TRY_AGAIN_LATER} getrennt, damit ein hängendes Schließen die Verteilung nicht aufhält.
+ *
+ * Jede Nachricht erhält beim Veröffentlichen eine fortlaufende Sequenznummer {@code seq} und wird im
+ * {@link ReplayBuffer} abgelegt. Abonnements werden auf dem Verteil-Thread ausgeführt: Nennt der Client die zuletzt
+ * empfangene Sequenznummer, erhält er zusammen mit der Bestätigung die verpassten Nachrichten seiner Themen,
+ * bevor ihn neue Frames erreichen; liegt die Lücke nicht mehr im Puffer, wird er zum Neuladen aufgefordert
+ * ({@code snapshot}). Gehen Nachrichten verloren, weil eine Warteschlange voll ist, erhält der Client stattdessen
+ * {@code {"action":"resync"}} und holt die Lücke auf dieselbe Weise nach.
+ *
+ * Konfiguration über System-Properties:
+ * {@code carconnect.websocket.publishCapacity} (Eingangswarteschlange, 1024),
+ * {@code carconnect.websocket.queueCapacity} (Warteschlange je Client, 64),
+ * {@code carconnect.websocket.maxTopics} (Themen je Client, 64),
+ * {@code carconnect.websocket.coalesceMillis} (Zeitfenster, 100),
+ * {@code carconnect.websocket.replayCapacity} (Ringpuffer, 4096) und
+ * {@code carconnect.websocket.sendTimeoutMillis} (Sende-Timeout, nach dem ein Client getrennt wird, 10000).
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+public class FanOut {
+
+    private static final int PUBLISH_CAPACITY = Integer.getInteger("carconnect.websocket.publishCapacity", 1024);
+    private static final int QUEUE_CAPACITY = Integer.getInteger("carconnect.websocket.queueCapacity", 64);
+    private static final int MAX_TOPICS = Integer.getInteger("carconnect.websocket.maxTopics", 64);
+    private static final long SEND_TIMEOUT_MILLIS = Long.getLong("carconnect.websocket.sendTimeoutMillis", 10_000L);
+    private static final long COALESCE_NANOS =
+            TimeUnit.MILLISECONDS.toNanos(Long.getLong("carconnect.websocket.coalesceMillis", 100L));
+    private static final int REPLAY_CAPACITY = Integer.getInteger("carconnect.websocket.replayCapacity", 4096);
+
+    /** Frame, der den Client auffordert, verpasste Nachrichten nachzuholen. */
+    static final String RESYNC = "[{\"action\":\"resync\"}]";
+
+    /** Weckt den Verteil-Thread für einen Auftrag, ohne selbst verteilt zu werden. */
+    private static final Event WAKE = new Event(null, List.of(), 0);
+
+    /** Veröffentlichte, noch nicht verteilte Nachrichten. */
+    private final BlockingQueue<Event> published = new ArrayBlockingQueue<>(PUBLISH_CAPACITY);
+
+    /** Die Warteschlangen der verbundenen Clients nach Session-ID. */
+    private final Map<String, SessionQueue> sessions = new ConcurrentHashMap<>();
+
+    /** Die Abonnenten je Thema; wird außer beim Trennen nur vom Verteil-Thread geändert. */
+    private final SubscriptionIndex index = new SubscriptionIndex();
+
+    /** Die zuletzt veröffentlichten Nachrichten. */
+    private final ReplayBuffer replay = new ReplayBuffer(REPLAY_CAPACITY);
+
+    /** Aufträge wie Abonnements, die der Verteil-Thread zwischen zwei Zeitfenstern ausführt. */
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+    /** Die Sequenznummer der zuletzt verteilten Nachricht; nur vom Verteil-Thread verwendet. */
+    private long lastDispatchedSeq;
+
+    private final FanOutMetrics metrics = new FanOutMetrics();
+
+    /** Thread, der die veröffentlichten Nachrichten verteilt. */
+    private final Thread dispatcher;
+
+    /** Thread, der überlastete Clients trennt. */
+    private final ExecutorService evictor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "websocket-evictor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public FanOut() {
+        dispatcher = new Thread(this::dispatch, "websocket-fan-out");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    /**
+     * Nimmt einen neu verbundenen Client in die Verteilung auf.
+     *
+     * @param session Die Session des Clients.
+     */
+    public void register(Session session) {
+        session.getAsyncRemote().setSendTimeout(SEND_TIMEOUT_MILLIS);
+        sessions.put(session.getId(), new SessionQueue(session, this, QUEUE_CAPACITY));
+    }
+
+    /**
+     * Entfernt einen Client aus der Verteilung und verwirft seine wartenden Nachrichten.
+     *
+     * @param session Die Session des Clients.
+     */
+    public void unregister(Session session) {
+        SessionQueue queue = sessions.remove(session.getId());
+        if (queue != null) {
+            queue.close();
+            removeSubscriptions(queue);
+        }
+    }
+
+    /**
+     * Abonniert Themen für einen Client und holt auf Wunsch verpasste Nachrichten nach. Die Antwort
+     * {@code {"action":"subscribed","topics":[...],"rejected":[...],"epoch":...,"seq":...}} wird als letztes
+     * Element eines Frames gesendet, vor ihr stehen die nachgeholten Nachrichten; kann die Lücke nicht
+     * geschlossen werden, enthält sie {@code "snapshot":true}.
+     *
+     * @param session Die Session des Clients.
+     * @param topics Die geprüften Themen.
+     * @param rejected Bereits abgelehnte Themen, die in der Antwort genannt werden.
+     * @param epoch Die Epoche der zuletzt empfangenen Sequenznummer oder null.
+     * @param since Die zuletzt empfangene Sequenznummer oder -1, wenn nichts nachgeholt werden soll.
+     */
+    public void subscribe(Session session, List<String> topics, JSONArray rejected, String epoch, long since) {
+        tasks.add(() -> {
+            SessionQueue queue = sessions.get(session.getId());
+            if (queue == null) {
+                return;
+            }
+            JSONArray accepted = new JSONArray();
+            for (String topic : topics) {
+                if (subscribe(queue, topic)) {
+                    accepted.put(topic);
+                } else {
+                    rejected.put(topic);
+                }
+            }
+            JSONObject reply = new JSONObject();
+            reply.put("action", "subscribed");
+            reply.put("topics", accepted);
+            reply.put("rejected", rejected);
+            reply.put("epoch", replay.getEpoch());
+            reply.put("seq", lastDispatchedSeq);
+            StringBuilder frame = new StringBuilder("[");
+            if (since >= 0) {
+                List<Event> missed = replay.getEpoch().equals(epoch) ? replay.since(since, lastDispatchedSeq) : null;
+                if (missed == null) {
+                    reply.put("snapshot", true);
+                } else {
+                    Coalescer coalescer = new Coalescer();
+                    for (Event event : missed) {
+                        if (index.matches(queue, event.getTopics())) {
+                            coalescer.add(event);
+                        }
+                    }
+                    for (Event event : coalescer.drain()) {
+                        frame.append(event.getJson()).append(',');
+                    }
+                }
+            }
+            queue.offer(new Message(frame.append(reply).append(']').toString(), System.nanoTime()));
+        });
+        published.offer(WAKE);  // Ist die Warteschlange voll, läuft der Verteil-Thread ohnehin
+    }
+
+    private boolean subscribe(SessionQueue queue, String topic) {
+        if (!queue.addTopic(topic, MAX_TOPICS)) {
+            return queue.hasTopic(topic);  // Bereits abonniert oder zu viele Themen
+        }
+        index.subscribe(queue, topic);
+        if (queue.isClosed()) {
+            index.unsubscribe(queue, topic);  // Gleichzeitig getrennt
+        }
+        return true;
+    }
+
+    /**
+     * Beendet das Abonnement eines Themas für einen Client.
+     *
+     * @param session Die Session des Clients.
+     * @param topic Das Thema.
+     */
+    public void unsubscribe(Session session, String topic) {
+        SessionQueue queue = sessions.get(session.getId());
+        if (queue != null && queue.removeTopic(topic)) {
+            index.unsubscribe(queue, topic);
+        }
+    }
+
+    /**
+     * Veröffentlicht eine Nachricht an die Abonnenten der Themen, ohne auf die Zustellung zu warten. Ein Client,
+     * der mehrere der Themen abonniert hat, erhält die Nachricht einmal. Die Nachricht darf danach nicht mehr
+     * verändert werden.
+     *
+     * @param json Die Nachricht.
+     * @param topics Die Themen der Nachricht.
+     */
+    public void publish(JSONObject json, Collection<String> topics) {
+        Event event = new Event(json, List.copyOf(topics), System.nanoTime());
+        metrics.recordPublished();
+        synchronized (replay) {  // Sequenznummern in der Reihenfolge der Warteschlange
+            replay.append(event);
+            while (!published.offer(event)) {
+                Event oldest = published.poll();
+                if (oldest != null && oldest != WAKE) {
+                    metrics.recordRejected();  // Älteste Nachricht verwerfen; der Verteil-Thread erkennt die Lücke
+                }
+            }
+        }
+    }
+
+    /**
+     * Fordert alle Clients zum Neuladen auf, weil Nachrichten verloren gegangen sein können, die nicht im
+     * {@link ReplayBuffer} liegen, z.B. Änderungen, die der Server während einer Unterbrechung gemeldet hat.
+     * Dazu wird eine neue Epoche vergeben und alle Clients erhalten {@code {"action":"resync"}}; ihr
+     * anschließendes Abonnement antwortet mit {@code snapshot}.
+     */
+    public void reset() {
+        tasks.add(() -> {
+            replay.renewEpoch();
+            for (SessionQueue queue : sessions.values()) {
+                queue.offer(new Message(RESYNC, System.nanoTime()));
+            }
+        });
+        published.offer(WAKE);
+    }
+
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    public FanOutMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Liefert den aktuellen Zustand der Verteilung zusammen mit ihren Kennzahlen.
+     *
+     * @return Die Anzahl der verbundenen Clients und {@link FanOutMetrics#toMap()}.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("sessions", getSessionCount());
+        stats.putAll(metrics.toMap());
+        return stats;
+    }
+
+    /**
+     * Beendet die Verteilung; noch nicht verteilte Nachrichten werden verworfen.
+     */
+    public void close() {
+        dispatcher.interrupt();
+        evictor.shutdownNow();
+    }
+
+    /**
+     * Trennt einen überlasteten Client.
+     *
+     * @param queue Die Warteschlange des Clients.
+     * @param reason Der Grund, der dem Client mitgeteilt wird.
+     */
+    void evict(SessionQueue queue, String reason) {
+        Session session = queue.getSession();
+        if (!sessions.remove(session.getId(), queue)) {
+            return;  // Bereits getrennt
+        }
+        removeSubscriptions(queue);
+        metrics.recordEvicted();
+        System.err.println("Evicting websocket session id: " + session.getId() + ": " + reason);
+        evictor.execute(() -> {
+            try {
+                session.close(new CloseReason(CloseReason.CloseCodes.TRY_AGAIN_LATER, "Slow consumer"));
+            } catch (IOException e) {
+                System.err.println("Failed to close session id: " + session.getId() + ": " + e.getMessage());
+            }
+        });
+    }
+
+    private void dispatch() {
+        Coalescer coalescer = new Coalescer();
+        while (!Thread.currentThread().isInterrupted()) {
+            boolean gap = false;
+            try {
+                Event event = published.take();
+                long deadline = System.nanoTime() + COALESCE_NANOS;
+                while (event != null) {
+                    if (event != WAKE) {
+                        gap |= event.getSeq() != lastDispatchedSeq + 1;
+                        lastDispatchedSeq = event.getSeq();
+                        coalescer.add(event);
+                    }
+                    if (!tasks.isEmpty()) {
+                        break;  // Abonnements nicht bis zum Ende des Zeitfensters aufschieben
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    event = remaining > 0 ? published.poll(remaining, TimeUnit.NANOSECONDS) : published.poll();
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (gap) {
+                // Verworfene Nachrichten: Alle Clients holen die Lücke nach und ignorieren bis dahin neue Frames
+                for (SessionQueue queue : sessions.values()) {
+                    queue.offer(new Message(RESYNC, System.nanoTime()));
+                }
+            }
+            int received = coalescer.getReceived();
+            if (received > 0) {
+                List<Event> events = coalescer.drain();
+                metrics.recordCoalesced(received, events.size());
+                deliver(events);
+            }
+            for (Runnable task = tasks.poll(); task != null; task = tasks.poll()) {
+                task.run();
+            }
+        }
+    }
+
+    /**
+     * Sendet jedem Abonnenten einen Frame mit den für ihn bestimmten Nachrichten.
+     *
+     * @param events Die zusammengefassten Nachrichten eines Zeitfensters.
+     */
+    private void deliver(List<Event> events) {
+        Map<SessionQueue, List<Integer>> selected = new LinkedHashMap<>();
+        for (int i = 0; i < events.size(); i++) {
+            for (SessionQueue queue : index.resolve(events.get(i).getTopics())) {
+                selected.computeIfAbsent(queue, q -> new ArrayList<>()).add(i);
+            }
+        }
+        String[] texts = new String[events.size()];
+        Map<List<Integer>, Message> frames = new HashMap<>();
+        for (Map.Entry<SessionQueue, List<Integer>> entry : selected.entrySet()) {
+            Message frame = frames.computeIfAbsent(entry.getValue(), indices -> {
+                StringBuilder text = new StringBuilder("[");
+                long publishedNanos = Long.MAX_VALUE;
+                for (int i : indices) {
+                    if (texts[i] == null) {
+                        texts[i] = events.get(i).getJson().toString();
+                    }
+                    text.append(text.length() > 1 ? "," : "").append(texts[i]);
+                    publishedNanos = Math.min(publishedNanos, events.get(i).getPublishedNanos());
+                }
+                return new Message(text.append(']').toString(), publishedNanos);
+            });
+            entry.getKey().offer(frame);
+        }
+    }
+
+    private void removeSubscriptions(SessionQueue queue) {
+        for (String topic : queue.clearTopics()) {
+            index.unsubscribe(queue, topic);
+        }
+    }
+
+    /**
+     * Eine veröffentlichte Nachricht mit ihren Themen und dem Zeitpunkt der Veröffentlichung.
+     */
+    static final class Event {
+
+        private final JSONObject json;
+        private final List<String> topics;
+        private final long publishedNanos;
+        private long seq;
+
+        Event(JSONObject json, List<String> topics, long publishedNanos) {
+            this.json = json;
+            this.topics = topics;
+            this.publishedNanos = publishedNanos;
+        }
+
+        JSONObject getJson() {
+            return json;
+        }
+
+        List<String> getTopics() {
+            return topics;
+        }
+
+        long getPublishedNanos() {
+            return publishedNanos;
+        }
+
+        long getSeq() {
+            return seq;
+        }
+
+        void setSeq(long seq) {
+            this.seq = seq;
+        }
+    }
+
+    /**
+     * Ein Frame für einen oder mehrere Clients mit dem Zeitpunkt der Veröffentlichung seiner ältesten Nachricht.
+     */
+    static final class Message {
+
+        private final String text;
+        private final long publishedNanos;
+
+        Message(String text, long publishedNanos) {
+            this.text = text;
+            this.publishedNanos = publishedNanos;
+        }
+
+        String getText() {
+            return text;
+        }
+
+        long getPublishedNanos() {
+            return publishedNanos;
+        }
+    }
+}
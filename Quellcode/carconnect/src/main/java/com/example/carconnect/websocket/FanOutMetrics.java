@@ -0,0 +1,163 @@
+package com.example.carconnect.websocket;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sammelt Kennzahlen der WebSocket-Verteilung: veröffentlichte und zusammengefasste Nachrichten, zugestellte,
+ * verworfene und fehlgeschlagene Frames, wegen Überlastung getrennte Clients sowie die Dauer von der
+ * Veröffentlichung bis zur Zustellung.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+public class FanOutMetrics {
+
+    /** Anzahl veröffentlichter Nachrichten. */
+    private final LongAdder published = new LongAdder();
+
+    /** Anzahl der Nachrichten, die wegen einer vollen Eingangswarteschlange verworfen worden sind. */
+    private final LongAdder rejected = new LongAdder();
+
+    /** Anzahl der an einzelne Clients zugestellten Frames. */
+    private final LongAdder delivered = new LongAdder();
+
+    /** Anzahl der Frames, die wegen einer vollen Warteschlange eines Clients verworfen worden sind. */
+    private final LongAdder dropped = new LongAdder();
+
+    /** Anzahl fehlgeschlagener Sendevorgänge. */
+    private final LongAdder failed = new LongAdder();
+
+    /** Anzahl der Clients, die wegen Überlastung getrennt worden sind. */
+    private final LongAdder evicted = new LongAdder();
+
+    /** Summe der Zustelldauern in Nanosekunden. */
+    private final LongAdder latencyNanos = new LongAdder();
+
+    /** Anzahl der Nachrichten vor dem Zusammenfassen. */
+    private final LongAdder coalescedIn = new LongAdder();
+
+    /** Anzahl der Nachrichten nach dem Zusammenfassen. */
+    private final LongAdder coalescedOut = new LongAdder();
+
+    /** Höchste Zustelldauer in Nanosekunden. */
+    private final LongAccumulator maxLatencyNanos = new LongAccumulator(Math::max, 0);
+
+    void recordPublished() {
+        published.increment();
+    }
+
+    void recordRejected() {
+        rejected.increment();
+    }
+
+    void recordDelivered(long nanos) {
+        delivered.increment();
+        latencyNanos.add(nanos);
+        maxLatencyNanos.accumulate(nanos);
+    }
+
+    void recordCoalesced(int in, int out) {
+        coalescedIn.add(in);
+        coalescedOut.add(out);
+    }
+
+    void recordDropped(int count) {
+        dropped.add(count);
+    }
+
+    void recordFailed() {
+        failed.increment();
+    }
+
+    void recordEvicted() {
+        evicted.increment();
+    }
+
+    public long getPublished() {
+        return published.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getDelivered() {
+        return delivered.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    public long getEvicted() {
+        return evicted.sum();
+    }
+
+    public long getCoalescedIn() {
+        return coalescedIn.sum();
+    }
+
+    public long getCoalescedOut() {
+        return coalescedOut.sum();
+    }
+
+    /**
+     * @return Das Verhältnis der Nachrichten vor und nach dem Zusammenfassen, mindestens 1.
+     */
+    public double getCoalescingRatio() {
+        long out = coalescedOut.sum();
+        return out == 0 ? 1.0 : (double) coalescedIn.sum() / out;
+    }
+
+    /**
+     * @return Die mittlere Dauer von der Veröffentlichung bis zur Zustellung in Mikrosekunden.
+     */
+    public long getAverageLatencyMicros() {
+        long count = delivered.sum();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(latencyNanos.sum() / count);
+    }
+
+    /**
+     * @return Die höchste Dauer von der Veröffentlichung bis zur Zustellung in Mikrosekunden.
+     */
+    public long getMaxLatencyMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(maxLatencyNanos.get());
+    }
+
+    /**
+     * Liefert eine Momentaufnahme der Kennzahlen, z.B. für die Ausgabe unter {@code /metrics}.
+     *
+     * @return Die Kennzahlen nach Namen, in derselben Reihenfolge wie {@link #toString()}.
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("published", getPublished());
+        map.put("rejected", getRejected());
+        map.put("coalescedIn", getCoalescedIn());
+        map.put("coalescedOut", getCoalescedOut());
+        map.put("coalescingRatio", getCoalescingRatio());
+        map.put("delivered", getDelivered());
+        map.put("dropped", getDropped());
+        map.put("failed", getFailed());
+        map.put("evicted", getEvicted());
+        map.put("avgLatencyUs", getAverageLatencyMicros());
+        map.put("maxLatencyUs", getMaxLatencyMicros());
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        return "published=" + getPublished() + ", rejected=" + getRejected()
+                + ", coalescingRatio=" + String.format("%.2f", getCoalescingRatio()) + ", delivered=" + getDelivered()
+                + ", dropped=" + getDropped() + ", failed=" + getFailed() + ", evicted=" + getEvicted()
+                + ", avgLatency=" + getAverageLatencyMicros() + "us, maxLatency=" + getMaxLatencyMicros() + "us";
+    }
+}
@@ -1,19 +1,33 @@
 package com.example.carconnect.websocket;
 
+import com.example.carconnect.auth.TokenService;
 import jakarta.websocket.OnClose;
 import jakarta.websocket.OnError;
 import jakarta.websocket.OnMessage;
 import jakarta.websocket.OnOpen;
 import jakarta.websocket.Session;
 import jakarta.websocket.server.ServerEndpoint;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
 
-import java.io.IOException;
-import java.util.Set;
-import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 /**
  * WebSocket-Endpunkt zur Verwaltung von Benachrichtigungen. Dieser Endpunkt ermöglicht es dem Server,
- * Benachrichtigungen an alle verbundenen Clients zu senden.
+ * Benachrichtigungen an die Clients zu senden, die eines ihrer {@link Topics} abonniert haben. Die Zustellung
+ * übernimmt asynchron {@link FanOut}, sodass ein langsamer Client weder andere Clients noch den
+ * veröffentlichenden Servlet-Thread aufhält.
+ *
+ * Clients abonnieren Themen mit {@code {"action":"subscribe","topics":[...],"token":"..."}} und beenden
+ * Abonnements mit {@code {"action":"unsubscribe","topics":[...]}}. Der Posteingang {@code inbox:<Benutzer>}
+ * kann nur mit einem gültigen Token dieses Benutzers abonniert werden. Nach einem Wiederverbinden oder
+ * {@code {"action":"resync"}} nennt der Client zusätzlich {@code "epoch"} und {@code "since"} aus der letzten
+ * Antwort bzw. Benachrichtigung und erhält nur die verpassten Benachrichtigungen, siehe
+ * {@link FanOut#subscribe(Session, List, JSONArray, String, long)}. Alle Frames sind JSON-Arrays.
  *
  * @autor Mohammed Al-Ozair
  * @autor Nabeel Elamaireh
@@ -21,11 +35,8 @@ import java.util.concurrent.CopyOnWriteArraySet;
 @ServerEndpoint("/notifications")
 public class NotificationEndpoint {
 
-    /** Set zur Verwaltung aller aktiven Verbindungen zu diesem WebSocket-Endpunkt. */
-    private static final Set<NotificationEndpoint> connections = new CopyOnWriteArraySet<>();
-
-    /** Die WebSocket-Session, die mit dem Client verbunden ist. */
-    private Session session;
+    /** Verteilung an alle aktiven Verbindungen zu diesem WebSocket-Endpunkt. */
+    private static final FanOut fanOut = new FanOut();
 
     /**
      * Methode, die aufgerufen wird, wenn eine neue WebSocket-Verbindung geöffnet wird.
@@ -34,8 +45,7 @@ public class NotificationEndpoint {
      */
     @OnOpen
     public void onOpen(Session session) {
-        this.session = session;
-        connections.add(this); // Fügt die neue Verbindung zur Liste der aktiven Verbindungen hinzu
+        fanOut.register(session); // Fügt die neue Verbindung zur Verteilung hinzu
     }
 
     /**
@@ -46,7 +56,69 @@ public class NotificationEndpoint {
      */
     @OnMessage
     public void onMessage(String message, Session session) {
-        System.out.println("Received message from session id: " + session.getId() + ": " + message);
+        JSONObject request;
+        try {
+            request = new JSONObject(message);
+        } catch (JSONException e) {
+            System.out.println("Received message from session id: " + session.getId() + ": " + message);
+            return;
+        }
+        JSONArray topics = request.optJSONArray("topics");
+        if (topics == null) {
+            return;
+        }
+        String action = request.optString("action");
+        if ("subscribe".equals(action)) {
+            String username = request.has("token") ? TokenService.getInstance().verify(request.getString("token")) : null;
+            List<String> valid = new ArrayList<>();
+            JSONArray rejected = new JSONArray();
+            for (int i = 0; i < topics.length(); i++) {
+                String topic = normalizeTopic(topics.optString(i), username, true);
+                if (topic != null) {
+                    valid.add(topic);
+                } else {
+                    rejected.put(topics.opt(i));
+                }
+            }
+            fanOut.subscribe(session, valid, rejected, request.optString("epoch", null), request.optLong("since", -1));
+        } else if ("unsubscribe".equals(action)) {
+            for (int i = 0; i < topics.length(); i++) {
+                String topic = normalizeTopic(topics.optString(i), null, false);
+                if (topic != null) {
+                    fanOut.unsubscribe(session, topic);
+                }
+            }
+        }
+    }
+
+    /**
+     * Prüft ein Thema und bringt es in die Form, unter der veröffentlicht wird.
+     *
+     * @param topic Das vom Client angegebene Thema.
+     * @param username Der Benutzer aus dem Token oder null.
+     * @param subscribing Ob abonniert wird; nur dann muss ein Posteingang dem Benutzer gehören.
+     * @return Das Thema oder null, wenn es ungültig ist oder nicht abonniert werden darf.
+     */
+    private static String normalizeTopic(String topic, String username, boolean subscribing) {
+        if (Topics.VEHICLES.equals(topic)) {
+            return topic;
+        }
+        if (topic.startsWith(Topics.VEHICLE_PREFIX)) {
+            try {
+                return Topics.vehicle(Integer.parseInt(topic.substring(Topics.VEHICLE_PREFIX.length())));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        if (topic.startsWith(Topics.INBOX_PREFIX)) {
+            String owner = topic.substring(Topics.INBOX_PREFIX.length());
+            return !subscribing || owner.equals(username) ? Topics.inbox(owner) : null;
+        }
+        if (topic.startsWith(Topics.LOCATION_PREFIX)) {
+            String prefix = Topics.normalize(topic.substring(Topics.LOCATION_PREFIX.length()));
+            return prefix.isEmpty() || prefix.equals("*") ? null : Topics.LOCATION_PREFIX + prefix;
+        }
+        return null;
     }
 
     /**
@@ -56,7 +128,7 @@ public class NotificationEndpoint {
      */
     @OnClose
     public void onClose(Session session) {
-        connections.remove(this); // Entfernt die Verbindung aus der Liste der aktiven Verbindungen
+        fanOut.unregister(session); // Entfernt die Verbindung aus der Verteilung
     }
 
     /**
@@ -71,21 +143,43 @@ public class NotificationEndpoint {
     }
 
     /**
-     * Sendet eine Benachrichtigung an alle verbundenen Clients.
+     * Verteilt eine Benachrichtigung an die Abonnenten der Themen dieses Knotens, ohne auf die Zustellung zu
+     * warten. Nachrichten innerhalb eines kurzen Zeitfensters werden zusammengefasst und als JSON-Array gesendet.
+     * Andere Knoten erhalten die Änderung über ihren eigenen Änderungsfeed, siehe {@link ChangeFeedNotifier}.
      *
-     * @param message Die Nachricht, die an alle Clients gesendet werden soll.
+     * @param message Die Nachricht; sie darf danach nicht mehr verändert werden.
+     * @param topics Die Themen der Nachricht, siehe {@link Topics}.
      */
-    public static void sendNotification(String message) {
-        for (NotificationEndpoint endpoint : connections) {
-            synchronized (endpoint) { // Synchronisiert den Zugriff auf die Session, um Thread-Sicherheit zu gewährleisten
-                try {
-                    endpoint.session.getBasicRemote().sendText(message); // Sendet die Nachricht an den Client
-                    System.out.println("Sent message to session id: " + endpoint.session.getId() + ": " + message);
-                } catch (IOException e) {
-                    System.err.println("Failed to send message to session id: " + endpoint.session.getId() + ": " + e.getMessage());
-                    e.printStackTrace();
-                }
-            }
-        }
+    public static void sendLocalNotification(JSONObject message, Collection<String> topics) {
+        fanOut.publish(message, topics);
+    }
+
+    /**
+     * Fordert alle Clients dieses Knotens zum Neuladen auf, weil ihnen Benachrichtigungen entgangen sein können.
+     */
+    public static void resync() {
+        fanOut.reset();
+    }
+
+    /**
+     * @return Die Kennzahlen der Verteilung.
+     */
+    public static FanOutMetrics getMetrics() {
+        return fanOut.getMetrics();
+    }
+
+    /**
+     * @return Die Anzahl der verbundenen Clients und die Kennzahlen der Verteilung.
+     */
+    public static Map<String, Object> getStats() {
+        return fanOut.getStats();
+    }
+
+    /**
+     * Beendet die Verteilung und gibt ihre Kennzahlen aus.
+     */
+    public static void shutdown() {
+        fanOut.close();
+        System.out.println("WebSocket fan-out: " + fanOut.getMetrics());
     }
 }
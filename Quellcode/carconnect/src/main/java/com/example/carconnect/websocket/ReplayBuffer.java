@@ -0,0 +1,79 @@
+package com.example.carconnect.websocket;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ringpuffer der zuletzt veröffentlichten Benachrichtigungen mit fortlaufenden Sequenznummern. Ein Client,
+ * der sich neu verbindet, nennt die zuletzt empfangene Sequenznummer und erhält die verpassten
+ * Benachrichtigungen aus dem Puffer; liegt die Lücke nicht mehr im Puffer, muss er die Liste neu laden.
+ *
+ * Die Sequenznummern beginnen bei jedem Start neu; zur Unterscheidung dient die {@link #getEpoch() Epoche}.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+class ReplayBuffer {
+
+    /** Kennung dieses Starts, damit Sequenznummern eines früheren Starts nicht verwechselt werden. */
+    private volatile String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    /** Die Benachrichtigungen, Index ist die Sequenznummer modulo Kapazität. */
+    private final FanOut.Event[] events;
+
+    /** Anzahl der {@link #renewEpoch() erneuerten} Epochen. */
+    private int renewals;
+
+    /** Die zuletzt vergebene Sequenznummer, 0 vor der ersten Benachrichtigung. */
+    private long lastSeq;
+
+    ReplayBuffer(int capacity) {
+        this.events = new FanOut.Event[capacity];
+    }
+
+    String getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Vergibt eine neue Epoche, z.B. wenn Änderungen des Servers verloren gegangen sein können. Clients, die
+     * mit der bisherigen Epoche nachholen wollen, müssen danach neu laden.
+     */
+    synchronized void renewEpoch() {
+        epoch = Long.toString(System.currentTimeMillis(), 36) + "." + ++renewals;
+    }
+
+    /**
+     * Vergibt die nächste Sequenznummer, trägt sie als {@code seq} in die Benachrichtigung ein und legt sie ab.
+     * Damit die Reihenfolge mit der Eingangswarteschlange übereinstimmt, synchronisiert {@link FanOut} beim
+     * Veröffentlichen ebenfalls auf diesem Objekt.
+     *
+     * @param event Die Benachrichtigung.
+     * @return Die Sequenznummer.
+     */
+    synchronized long append(FanOut.Event event) {
+        long seq = ++lastSeq;
+        event.setSeq(seq);
+        event.getJson().put("seq", seq);
+        events[(int) (seq % events.length)] = event;
+        return seq;
+    }
+
+    /**
+     * Liefert die Benachrichtigungen mit einer Sequenznummer größer {@code since} bis einschließlich {@code upTo}.
+     *
+     * @param since Die zuletzt empfangene Sequenznummer.
+     * @param upTo Die höchste Sequenznummer, die geliefert werden soll.
+     * @return Die Benachrichtigungen in ihrer Reihenfolge oder null, wenn die Lücke nicht mehr im Puffer liegt.
+     */
+    synchronized List<FanOut.Event> since(long since, long upTo) {
+        if (since < 0 || since > upTo || upTo > lastSeq || since < lastSeq - events.length) {
+            return null;
+        }
+        List<FanOut.Event> result = new ArrayList<>((int) (upTo - since));
+        for (long seq = since + 1; seq <= upTo; seq++) {
+            result.add(events[(int) (seq % events.length)]);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.carconnect.websocket;
+
+import jakarta.websocket.SendResult;
+import jakarta.websocket.Session;
+
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Begrenzte Ausgangswarteschlange eines WebSocket-Clients. Es ist höchstens eine Nachricht gleichzeitig
+ * über {@code getAsyncRemote()} unterwegs; ist sie zugestellt, wird die nächste gesendet. Ist die
+ * Warteschlange voll, werden alle wartenden Nachrichten durch {@link FanOut#RESYNC} ersetzt; der Client holt
+ * sie anschließend aus dem {@link ReplayBuffer} nach.
+ *
+ * Ein Client gilt als überlastet, wenn die Warteschlange erneut voll ist, bevor seit dem letzten Überlauf ein
+ * Frame zugestellt worden ist, oder wenn ein Sendevorgang fehlschlägt, z.B. durch das Sende-Timeout.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+class SessionQueue {
+
+    /** Die Verbindung zum Client. */
+    private final Session session;
+
+    /** Die Verteilung, an die Zustellungen und Überlastungen gemeldet werden. */
+    private final FanOut fanOut;
+
+    /** Höchstzahl wartender Nachrichten. */
+    private final int capacity;
+
+    /** Wartende Nachrichten, die älteste zuerst. */
+    private final ArrayDeque<FanOut.Message> queue = new ArrayDeque<>();
+
+    /** Ob gerade eine Nachricht unterwegs ist. */
+    private boolean sending;
+
+    /** Ob die Warteschlange seit der letzten Zustellung übergelaufen ist. */
+    private boolean overflowed;
+
+    /** Ob der Client getrennt worden ist. */
+    private boolean closed;
+
+    /** Die abonnierten Themen. */
+    private final Set<String> topics = new HashSet<>();
+
+    SessionQueue(Session session, FanOut fanOut, int capacity) {
+        this.session = session;
+        this.fanOut = fanOut;
+        this.capacity = capacity;
+    }
+
+    Session getSession() {
+        return session;
+    }
+
+    /**
+     * Merkt sich ein abonniertes Thema.
+     *
+     * @return true, wenn das Thema neu ist und die Höchstzahl an Themen nicht erreicht ist.
+     */
+    synchronized boolean addTopic(String topic, int maxTopics) {
+        return !closed && topics.size() < maxTopics && topics.add(topic);
+    }
+
+    synchronized boolean hasTopic(String topic) {
+        return topics.contains(topic);
+    }
+
+    synchronized boolean isClosed() {
+        return closed;
+    }
+
+    synchronized boolean removeTopic(String topic) {
+        return topics.remove(topic);
+    }
+
+    /**
+     * @return Die abonnierten Themen; danach sind keine mehr gespeichert.
+     */
+    synchronized Set<String> clearTopics() {
+        Set<String> removed = new HashSet<>(topics);
+        topics.clear();
+        return removed;
+    }
+
+    /**
+     * Stellt eine Nachricht in die Warteschlange und beginnt mit dem Senden, falls nichts unterwegs ist.
+     *
+     * @param message Die Nachricht.
+     */
+    void offer(FanOut.Message message) {
+        FanOut.Message next;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            if (queue.size() >= capacity) {
+                fanOut.getMetrics().recordDropped(queue.size() + 1);
+                queue.clear();
+                if (overflowed) {
+                    closed = true;
+                    fanOut.evict(this, "Slow consumer");
+                    return;
+                }
+                overflowed = true;
+                queue.addLast(new FanOut.Message(FanOut.RESYNC, System.nanoTime()));  // Statt der verworfenen Frames
+                return;
+            }
+            queue.addLast(message);
+            if (sending) {
+                return;
+            }
+            sending = true;
+            next = queue.pollFirst();
+        }
+        send(next);
+    }
+
+    /**
+     * Verwirft alle wartenden Nachrichten.
+     */
+    synchronized void close() {
+        closed = true;
+        queue.clear();
+    }
+
+    private void send(FanOut.Message message) {
+        try {
+            session.getAsyncRemote().sendText(message.getText(), result -> onResult(message, result));
+        } catch (RuntimeException e) {
+            onFailure(e);  // Sitzung bereits geschlossen
+        }
+    }
+
+    private void onResult(FanOut.Message message, SendResult result) {
+        if (!result.isOK()) {
+            onFailure(result.getException());
+            return;
+        }
+        fanOut.getMetrics().recordDelivered(System.nanoTime() - message.getPublishedNanos());
+        FanOut.Message next;
+        synchronized (this) {
+            overflowed = false;
+            next = closed ? null : queue.pollFirst();
+            if (next == null) {
+                sending = false;
+                return;
+            }
+        }
+        send(next);
+    }
+
+    private void onFailure(Throwable cause) {
+        fanOut.getMetrics().recordFailed();
+        synchronized (this) {
+            sending = false;
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.clear();
+        }
+        fanOut.evict(this, "Send failed: " + (cause != null ? cause.getMessage() : "unknown"));
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.carconnect.websocket;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index von Themen auf die Warteschlangen der Clients, die sie abonniert haben, sodass eine Veröffentlichung
+ * nur die interessierten Clients berührt.
+ *
+ * Standort-Abonnements werden unter ihrem Präfix abgelegt; eine Veröffentlichung an einen Standort sucht
+ * alle Präfixe des Standorts nach, also höchstens so viele Einträge, wie der Standort Zeichen hat.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+class SubscriptionIndex {
+
+    /** Die Abonnenten je Thema. */
+    private final Map<String, Set<SessionQueue>> subscribers = new ConcurrentHashMap<>();
+
+    /** Alle Clients mit mindestens einem Standort-Abonnement. */
+    private final Map<SessionQueue, Integer> locationSubscribers = new ConcurrentHashMap<>();
+
+    void subscribe(SessionQueue queue, String topic) {
+        subscribers.compute(topic, (t, queues) -> {
+            Set<SessionQueue> result = queues != null ? queues : ConcurrentHashMap.newKeySet();
+            result.add(queue);  // Innerhalb von compute, damit ein gleichzeitiges Entfernen der Menge nichts verliert
+            return result;
+        });
+        if (topic.startsWith(Topics.LOCATION_PREFIX)) {
+            locationSubscribers.merge(queue, 1, Integer::sum);
+        }
+    }
+
+    void unsubscribe(SessionQueue queue, String topic) {
+        boolean[] removed = new boolean[1];
+        subscribers.computeIfPresent(topic, (t, queues) -> {
+            removed[0] = queues.remove(queue);
+            return queues.isEmpty() ? null : queues;
+        });
+        if (removed[0] && topic.startsWith(Topics.LOCATION_PREFIX)) {
+            locationSubscribers.computeIfPresent(queue, (q, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    /**
+     * Ermittelt die Clients, die mindestens eines der Themen abonniert haben; jeder Client höchstens einmal.
+     *
+     * @param topics Die Themen einer Veröffentlichung.
+     * @return Die Warteschlangen der Abonnenten.
+     */
+    Set<SessionQueue> resolve(Collection<String> topics) {
+        Set<SessionQueue> result = new LinkedHashSet<>();
+        for (String topic : topics) {
+            if (Topics.ALL_LOCATIONS.equals(topic)) {
+                result.addAll(locationSubscribers.keySet());
+            } else if (topic.startsWith(Topics.LOCATION_PREFIX)) {
+                for (int end = Topics.LOCATION_PREFIX.length() + 1; end <= topic.length(); end++) {
+                    addAll(result, topic.substring(0, end));
+                }
+            } else {
+                addAll(result, topic);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Prüft, ob ein Client mindestens eines der Themen abonniert hat, z.B. beim Nachholen verpasster Nachrichten.
+     *
+     * @param queue Die Warteschlange des Clients.
+     * @param topics Die Themen einer Veröffentlichung.
+     * @return true, wenn der Client die Nachricht erhalten hätte.
+     */
+    boolean matches(SessionQueue queue, Collection<String> topics) {
+        for (String topic : topics) {
+            if (Topics.ALL_LOCATIONS.equals(topic)) {
+                if (locationSubscribers.containsKey(queue)) {
+                    return true;
+                }
+            } else if (topic.startsWith(Topics.LOCATION_PREFIX)) {
+                for (int end = Topics.LOCATION_PREFIX.length() + 1; end <= topic.length(); end++) {
+                    if (queue.hasTopic(topic.substring(0, end))) {
+                        return true;
+                    }
+                }
+            } else if (queue.hasTopic(topic)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void addAll(Set<SessionQueue> result, String topic) {
+        Set<SessionQueue> queues = subscribers.get(topic);
+        if (queues != null) {
+            result.addAll(queues);
+        }
+    }
+}
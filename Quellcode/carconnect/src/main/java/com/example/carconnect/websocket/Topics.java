@@ -0,0 +1,55 @@
+package com.example.carconnect.websocket;
+
+import java.util.Locale;
+
+/**
+ * Themen, die WebSocket-Clients abonnieren können und an die Benachrichtigungen veröffentlicht werden:
+ * <ul>
+ *     <li>{@code vehicles}: alle Änderungen an Fahrzeugen,</li>
+ *     <li>{@code vehicle:<id>}: Änderungen an einem Fahrzeug,</li>
+ *     <li>{@code inbox:<Benutzername>}: persönliche Benachrichtigungen, z.B. Buchungsanfragen an den Besitzer;
+ *     nur mit dem Token dieses Benutzers abonnierbar,</li>
+ *     <li>{@code location:<Präfix>}: Fahrzeuge, deren Standort mit dem Präfix beginnt (ohne Groß-/Kleinschreibung).</li>
+ * </ul>
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+public final class Topics {
+
+    /** Alle Änderungen an Fahrzeugen. */
+    public static final String VEHICLES = "vehicles";
+
+    static final String VEHICLE_PREFIX = "vehicle:";
+    static final String INBOX_PREFIX = "inbox:";
+    static final String LOCATION_PREFIX = "location:";
+
+    /**
+     * Veröffentlicht an alle Standort-Abonnements, z.B. wenn der bisherige Standort eines geänderten oder
+     * gelöschten Fahrzeugs unbekannt ist.
+     */
+    public static final String ALL_LOCATIONS = LOCATION_PREFIX + "*";
+
+    private Topics() {
+    }
+
+    public static String vehicle(int vehicleId) {
+        return VEHICLE_PREFIX + vehicleId;
+    }
+
+    public static String inbox(String username) {
+        return INBOX_PREFIX + username;
+    }
+
+    /**
+     * @param location Der vollständige Standort eines Fahrzeugs.
+     * @return Das Thema, das alle Abonnements mit einem passenden Standort-Präfix erreicht.
+     */
+    public static String location(String location) {
+        return LOCATION_PREFIX + normalize(location);
+    }
+
+    static String normalize(String location) {
+        return location == null ? "" : location.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -4,48 +4,108 @@ document.addEventListener("DOMContentLoaded", function () {
     let authToken = localStorage.getItem('token');
     let username = localStorage.getItem('username');
 
+    // Anzahl der Fahrzeuge, die pro Seite geladen werden
+    const PAGE_SIZE = 50;
+
     // Überprüfung, ob Authentifizierungstoken und Benutzername vorhanden sind
     if (!authToken || !username) {
         console.error("Auth token or username is not defined. Please login again.");
         return;
     }
 
-    // WebSocket-Verbindung zu Benachrichtigungen herstellen
-    const socket = new WebSocket("ws://localhost:8080/carconnect_war_exploded/notifications");
+    // Stand der Benachrichtigungen: Epoche des Servers und zuletzt empfangene Sequenznummer
+    let epoch = null;
+    let lastSeq = -1;
+    // Nach "resync" werden neue Frames bis zur Antwort auf das erneute Abonnement ignoriert
+    let resyncing = false;
+    let reconnectDelay = 1000;
+    let socket;
+
+    // WebSocket-Verbindung zu Benachrichtigungen herstellen; nach einem Abbruch wird sie erneut aufgebaut
+    function connect() {
+        socket = new WebSocket("ws://localhost:8080/carconnect_war_exploded/notifications");
+
+        // Event-Handler für die Eröffnung der WebSocket-Verbindung
+        socket.onopen = function () {
+            console.log("WebSocket connection established");
+            reconnectDelay = 1000;
+            subscribe();
+        };
+
+        // Event-Handler für empfangene WebSocket-Nachrichten
+        socket.onmessage = function (event) {
+            console.log("WebSocket message received:", event.data);
+            JSON.parse(event.data).forEach(data => {
+                if (data.action === "resync") {
+                    // Nachrichten sind verloren gegangen: ab der letzten Sequenznummer nachholen
+                    resyncing = true;
+                    subscribe();
+                } else if (data.action === "subscribed") {
+                    resyncing = false;
+                    epoch = data.epoch;
+                    lastSeq = Math.max(lastSeq, data.seq);
+                    if (data.snapshot) {
+                        fetchVehiclePage(null); // Lücke nicht mehr nachholbar: Liste neu laden
+                    }
+                } else if (!resyncing) {
+                    lastSeq = Math.max(lastSeq, data.seq);
+                    handleNotification(data);
+                }
+            });
+        };
+
+        // Event-Handler für das Schließen der WebSocket-Verbindung
+        socket.onclose = function () {
+            console.log("WebSocket connection closed");
+            setTimeout(connect, reconnectDelay);
+            reconnectDelay = Math.min(reconnectDelay * 2, 30000);
+        };
 
-    // Event-Handler für die Eröffnung der WebSocket-Verbindung
-    socket.onopen = function () {
-        console.log("WebSocket connection established");
-    };
+        // Event-Handler für WebSocket-Fehler
+        socket.onerror = function (error) {
+            console.error("WebSocket error:", error);
+        };
+    }
 
-    // Event-Handler für empfangene WebSocket-Nachrichten
-    socket.onmessage = function (event) {
-        console.log("WebSocket message received:", event.data);
-        const data = JSON.parse(event.data);
+    // Nur Änderungen an Fahrzeugen abonnieren; beim Wiederverbinden nur die verpassten Änderungen anfordern
+    function subscribe() {
+        const request = {action: "subscribe", topics: ["vehicles"], token: authToken};
+        if (epoch !== null) {
+            request.epoch = epoch;
+            request.since = lastSeq;
+        }
+        socket.send(JSON.stringify(request));
+    }
 
-        // Verarbeitung der empfangenen Nachricht basierend auf der Aktion
+    // Verarbeitung einer Benachrichtigung basierend auf der Aktion
+    function handleNotification(data) {
         if (data.action === 'newVehicle') {
             addVehicleToTable(data.vehicle);
         } else if (data.action === 'approveBookingRequest') {
-            removeVehicleFromTable(data.vehicleId);
+            // Nur Buchungen, die bereits begonnen haben, sperren das Fahrzeug sofort
+            if (data.available === false) {
+                removeVehicleFromTable(data.vehicleId);
+            }
         } else if (data.action === "update") {
             updateVehicleRow(data);
         } else if (data.action === "delete") {
             deleteVehicleRow(data.vehicleId);
         } else if (data.action === "add") {
             addVehicleRow(data);
+        } else if (data.action === "bulkAdd") {
+            data.vehicles.forEach(addVehicleRow);
+        } else if (data.action === "availability") {
+            // Buchungen haben begonnen oder sind beendet: Fahrzeuge ausblenden bzw. wieder anzeigen
+            data.vehicles.forEach(vehicle => {
+                removeVehicleFromTable(vehicle.vehicleId);
+                if (vehicle.available) {
+                    addVehicleRow(vehicle);
+                }
+            });
         }
-    };
-
-    // Event-Handler für das Schließen der WebSocket-Verbindung
-    socket.onclose = function () {
-        console.log("WebSocket connection closed");
-    };
+    }
 
-    // Event-Handler für WebSocket-Fehler
-    socket.onerror = function (error) {
-        console.error("WebSocket error:", error);
-    };
+    connect();
 
     // Formular für Fahrzeugbuchungen
     const bookVehicleForm = document.getElementById("bookVehicleForm");
@@ -157,13 +217,57 @@ document.addEventListener("DOMContentLoaded", function () {
         });
     }
 
-    // Funktion zum Abrufen aller Fahrzeuge
+    // Zuletzt ausgeführte Abfrage und Cursor der nächsten Seite
+    let currentQuery = null;
+    let nextCursor = null;
+
+    // Funktion zum Abrufen aller Fahrzeuge (erste Seite)
     function fetchAllVehicles() {
-        fetch("http://localhost:8080/carconnect_war_exploded/vehicles", {
-            method: "GET",
-            headers: {
-                "Authorization": `Bearer ${authToken}`
-            }
+        currentQuery = {url: "http://localhost:8080/carconnect_war_exploded/vehicles", method: "GET", body: ""};
+        fetchVehiclePage(null);
+    }
+
+    // Funktion zum Suchen von Fahrzeugen (erste Seite)
+    function searchVehicles() {
+        const make = document.getElementById("searchMake").value;
+        const model = document.getElementById("searchModel").value;
+        const year = document.getElementById("searchYear").value;
+        const from = document.getElementById("searchFrom").value;
+        const until = document.getElementById("searchUntil").value;
+
+        let body = `make=${encodeURIComponent(make)}&model=${encodeURIComponent(model)}&year=${encodeURIComponent(year)}`;
+        if (from && until) {
+            // Gleiches Zeitformat wie bei der Buchungsanfrage
+            const startTime = new Date(from).toISOString().slice(0, 19).replace('T', ' ');
+            const endTime = new Date(until).toISOString().slice(0, 19).replace('T', ' ');
+            body += `&startTime=${encodeURIComponent(startTime)}&endTime=${encodeURIComponent(endTime)}`;
+        }
+
+        currentQuery = {
+            url: "http://localhost:8080/carconnect_war_exploded/searchVehicles",
+            method: "POST",
+            body: body
+        };
+        fetchVehiclePage(null);
+    }
+
+    // Funktion zum Abrufen einer Seite der aktuellen Abfrage; ohne Cursor wird die Tabelle neu befüllt
+    function fetchVehiclePage(cursor) {
+        let params = `limit=${PAGE_SIZE}`;
+        if (cursor) {
+            params += `&cursor=${encodeURIComponent(cursor)}`;
+        }
+        const isGet = currentQuery.method === "GET";
+        const url = isGet ? `${currentQuery.url}?${params}` : currentQuery.url;
+        const headers = {"Authorization": `Bearer ${authToken}`};
+        if (!isGet) {
+            headers["Content-Type"] = "application/x-www-form-urlencoded";
+        }
+
+        fetch(url, {
+            method: currentQuery.method,
+            headers: headers,
+            body: isGet ? undefined : `${currentQuery.body}&${params}`
         })
             .then(response => {
                 if (!response.ok) { // Prüfe, ob der Statuscode 2xx ist
@@ -177,36 +281,19 @@ document.addEventListener("DOMContentLoaded", function () {
                 return response.json(); // Versuche, JSON zu parsen
             })
             .then(data => {
-                populateVehiclesTable(data.vehicles);
+                populateVehiclesTable(data.vehicles, cursor !== null);
+                nextCursor = data.nextCursor;
+                document.getElementById("loadMoreButton").classList.toggle("d-none", !nextCursor);
             })
             .catch(error => console.error('Error fetching vehicles:', error));
     }
 
-    // Funktion zum Suchen von Fahrzeugen
-    function searchVehicles() {
-        const make = document.getElementById("searchMake").value;
-        const model = document.getElementById("searchModel").value;
-        const year = document.getElementById("searchYear").value;
-
-        fetch("http://localhost:8080/carconnect_war_exploded/searchVehicles", {
-            method: "POST",
-            headers: {
-                "Content-Type": "application/x-www-form-urlencoded",
-                "Authorization": `Bearer ${authToken}`
-            },
-            body: `make=${make}&model=${model}&year=${year}`
-        })
-            .then(response => response.json())
-            .then(data => {
-                populateVehiclesTable(data);
-            })
-            .catch(error => console.error('Error searching vehicles:', error));
-    }
-
     // Funktion zum Befüllen der Fahrzeugtabelle
-    function populateVehiclesTable(vehicles) {
+    function populateVehiclesTable(vehicles, append) {
         const tbody = document.getElementById("allVehiclesTableBody");
-        tbody.innerHTML = "";
+        if (!append) {
+            tbody.innerHTML = "";
+        }
         if (vehicles && vehicles.length > 0) {
             vehicles.forEach(vehicle => {
                 const row = document.createElement("tr");
@@ -225,7 +312,7 @@ document.addEventListener("DOMContentLoaded", function () {
                 row.setAttribute("data-id", vehicle.id);
                 tbody.appendChild(row);
             });
-        } else {
+        } else if (!append) {
             tbody.innerHTML = "<tr><td colspan='5' class='text-center'>No vehicles found</td></tr>";
         }
     }
@@ -303,6 +390,13 @@ document.addEventListener("DOMContentLoaded", function () {
         searchVehicles();
     });
 
+    // Event-Listener zum Nachladen der nächsten Seite
+    document.getElementById("loadMoreButton").addEventListener("click", function () {
+        if (nextCursor) {
+            fetchVehiclePage(nextCursor);
+        }
+    });
+
     // Initiales Abrufen aller Fahrzeuge, wenn die Seite geladen wird
     if (document.getElementById("allVehicles")) {
         fetchAllVehicles();
@@ -81,7 +81,7 @@ document.addEventListener("DOMContentLoaded", function() {
                         alert("Login successful");
                         window.location.href = "landing.html"; // Weiterleiten zur Landing-Page
                     } else {
-                        alert("Login failed");
+                        alert(data.error ? "Login failed: " + data.error : "Login failed");
                     }
                 });
         });
@@ -6,11 +6,21 @@ document.addEventListener("DOMContentLoaded", function() {
     // Event-Handler für die erfolgreiche WebSocket-Verbindung
     socket.onopen = function() {
         console.log("WebSocket connection established");
+        // Posteingang abonnieren: Buchungsanfragen an eigene Fahrzeuge und Genehmigungen eigener Anfragen
+        socket.send(JSON.stringify({
+            action: "subscribe",
+            topics: [`inbox:${localStorage.getItem('username')}`],
+            token: localStorage.getItem('token')
+        }));
     };
 
     // Event-Handler für empfangene WebSocket-Nachrichten
     socket.onmessage = function(event) {
         console.log("WebSocket message received:", event.data);
+        // Die Antwort auf das Abonnement allein löst kein Neuladen aus
+        if (JSON.parse(event.data).every(data => data.action === "subscribed")) {
+            return;
+        }
         // Aktualisierung der Buchungsanfragen und des Nutzungshistorien, wenn eine Nachricht empfangen wird
         fetchBookingRequests();
         fetchUsageHistory();
@@ -98,7 +108,7 @@ document.addEventListener("DOMContentLoaded", function() {
                 if (data.success) {
                     alert("Booking approved");
                     document.getElementById(`action-buttons-${requestId}`).innerHTML = '';
-                    socket.send("refresh"); // Aufforderung zur Aktualisierung über WebSocket
+                    fetchBookingRequests();
                 } else {
                     alert("Failed to approve booking: " + (data.message || "Unknown error"));
                 }
@@ -121,7 +131,7 @@ document.addEventListener("DOMContentLoaded", function() {
                 if (data.success) {
                     alert("Booking rejected");
                     document.getElementById(`action-buttons-${requestId}`).innerHTML = '';
-                    socket.send("refresh"); // Aufforderung zur Aktualisierung über WebSocket
+                    fetchBookingRequests();
                 } else {
                     alert("Failed to reject booking: " + (data.message || "Unknown error"));
                 }
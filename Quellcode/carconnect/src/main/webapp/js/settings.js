@@ -50,9 +50,20 @@ document.addEventListener("DOMContentLoaded", function() {
 
     // Event-Listener für den Logout-Button
     document.getElementById('logoutButton').addEventListener('click', function() {
-        // Entfernen des Tokens und Benutzernamens aus dem lokalen Speicher und Weiterleitung zur Login-Seite
-        localStorage.removeItem('token');
-        localStorage.removeItem('username');
-        window.location.href = 'login.html';
+        // Widerruf des Tokens auf dem Server, danach Entfernen aus dem lokalen Speicher und Weiterleitung zur Login-Seite
+        fetch("http://localhost:8080/carconnect_war_exploded/auth", {
+            method: "POST",
+            headers: {
+                "Content-Type": "application/x-www-form-urlencoded",
+                "Authorization": `Bearer ${authToken}`
+            },
+            body: "action=logout"
+        })
+            .catch(error => console.error('Error logging out:', error))
+            .finally(() => {
+                localStorage.removeItem('token');
+                localStorage.removeItem('username');
+                window.location.href = 'login.html';
+            });
     });
 });
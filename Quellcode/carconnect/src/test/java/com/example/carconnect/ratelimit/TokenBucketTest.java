@@ -0,0 +1,78 @@
+package com.example.carconnect.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests für den {@link TokenBucket} mit einer Kapazität von drei Tokens und einem Token je 100 ns.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+class TokenBucketTest {
+
+    private static final long INTERVAL = 100;
+
+    private static final long BURST = 3 * INTERVAL;
+
+    private static final long START = 1_000;
+
+    @Test
+    void allowsABurstUpToTheCapacity() {
+        TokenBucket bucket = new TokenBucket(START);
+
+        assertEquals(0, bucket.tryAcquire(START, INTERVAL, BURST));
+        assertEquals(0, bucket.tryAcquire(START, INTERVAL, BURST));
+        assertEquals(0, bucket.tryAcquire(START, INTERVAL, BURST));
+        assertEquals(INTERVAL, bucket.tryAcquire(START, INTERVAL, BURST));
+    }
+
+    @Test
+    void reportsTheRemainingWait() {
+        TokenBucket bucket = new TokenBucket(START);
+        for (int i = 0; i < 3; i++) {
+            bucket.tryAcquire(START, INTERVAL, BURST);
+        }
+
+        assertEquals(60, bucket.tryAcquire(START + 40, INTERVAL, BURST));
+        assertEquals(60, bucket.tryAcquire(START + 40, INTERVAL, BURST));  // Abgelehnte Anfragen zählen nicht
+    }
+
+    @Test
+    void refillsOneTokenPerInterval() {
+        TokenBucket bucket = new TokenBucket(START);
+        for (int i = 0; i < 3; i++) {
+            bucket.tryAcquire(START, INTERVAL, BURST);
+        }
+
+        assertEquals(0, bucket.tryAcquire(START + INTERVAL, INTERVAL, BURST));
+        assertTrue(bucket.tryAcquire(START + INTERVAL, INTERVAL, BURST) > 0);
+        assertEquals(0, bucket.tryAcquire(START + 2 * INTERVAL, INTERVAL, BURST));
+    }
+
+    @Test
+    void refillStopsAtTheCapacity() {
+        TokenBucket bucket = new TokenBucket(START);
+        long later = START + 100 * INTERVAL;
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire(later, INTERVAL, BURST));
+        }
+        assertEquals(INTERVAL, bucket.tryAcquire(later, INTERVAL, BURST));
+    }
+
+    @Test
+    void isIdleOnceFull() {
+        TokenBucket bucket = new TokenBucket(START);
+        assertTrue(bucket.isIdle(START));
+
+        bucket.tryAcquire(START, INTERVAL, BURST);
+        bucket.tryAcquire(START, INTERVAL, BURST);
+
+        assertFalse(bucket.isIdle(START + INTERVAL));
+        assertTrue(bucket.isIdle(START + 2 * INTERVAL));
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.carconnect.vehicle;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests für das Zählen und Begrenzen der Fehler im {@link VehicleImportResult}.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+class VehicleImportResultTest {
+
+    @Test
+    void keepsOnlyTheFirstErrorsButCountsAll() {
+        VehicleImportResult result = new VehicleImportResult();
+        for (int line = 1; line <= VehicleImportResult.MAX_REPORTED_ERRORS + 5; line++) {
+            result.addError(line, "Invalid year");
+        }
+
+        assertEquals(VehicleImportResult.MAX_REPORTED_ERRORS + 5, result.getErrorCount());
+        assertEquals(VehicleImportResult.MAX_REPORTED_ERRORS, result.getErrors().size());
+        assertEquals(1, result.getErrors().get(0).getLine());
+        assertTrue(result.isErrorsTruncated());
+    }
+
+    @Test
+    void mergeAddsCountsAndRespectsTheCap() {
+        VehicleImportResult total = new VehicleImportResult();
+        total.addImported(3);
+        total.addError(1, "first");
+        VehicleImportResult chunk = new VehicleImportResult();
+        chunk.addImported(497);
+        for (int line = 2; line <= VehicleImportResult.MAX_REPORTED_ERRORS + 1; line++) {
+            chunk.addError(line, "chunk");
+        }
+
+        total.merge(chunk);
+
+        assertEquals(500, total.getImported());
+        assertEquals(VehicleImportResult.MAX_REPORTED_ERRORS + 1, total.getErrorCount());
+        assertEquals(VehicleImportResult.MAX_REPORTED_ERRORS, total.getErrors().size());
+        assertEquals("first", total.getErrors().get(0).getMessage());
+        assertTrue(total.isErrorsTruncated());
+    }
+
+    @Test
+    void isNotTruncatedBelowTheCap() {
+        VehicleImportResult result = new VehicleImportResult();
+        result.addError(7, "make, model and location are required");
+
+        assertEquals(1, result.getErrorCount());
+        assertFalse(result.isErrorsTruncated());
+    }
+}
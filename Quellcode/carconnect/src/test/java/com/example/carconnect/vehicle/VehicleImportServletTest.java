@@ -0,0 +1,85 @@
+package com.example.carconnect.vehicle;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests für das Lesen von CSV-Zeilen im {@link VehicleImportServlet}.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+class VehicleImportServletTest {
+
+    @Test
+    void parsesPlainFields() {
+        VehicleImportRow row = VehicleImportServlet.parseCsvLine(3, "VW,Golf,2019,Berlin");
+
+        assertEquals(3, row.getLine());
+        assertEquals("VW", row.getMake());
+        assertEquals("Golf", row.getModel());
+        assertEquals(2019, row.getYear());
+        assertEquals("Berlin", row.getLocation());
+    }
+
+    @Test
+    void trimsFields() {
+        VehicleImportRow row = VehicleImportServlet.parseCsvLine(1, " VW , Golf ,\t2019 , Berlin ");
+
+        assertEquals("VW", row.getMake());
+        assertEquals("Golf", row.getModel());
+        assertEquals(2019, row.getYear());
+        assertEquals("Berlin", row.getLocation());
+    }
+
+    @Test
+    void quotedFieldsMayContainCommas() {
+        VehicleImportRow row = VehicleImportServlet.parseCsvLine(1, "\"Mercedes, Benz\",\"E-Klasse\",2020,\"Frankfurt, Main\"");
+
+        assertEquals("Mercedes, Benz", row.getMake());
+        assertEquals("E-Klasse", row.getModel());
+        assertEquals("Frankfurt, Main", row.getLocation());
+    }
+
+    @Test
+    void doubledQuotesAreEscapedQuotes() {
+        VehicleImportRow row = VehicleImportServlet.parseCsvLine(1, "VW,\"Golf \"\"GTI\"\"\",2019,\"\"");
+
+        assertEquals("Golf \"GTI\"", row.getModel());
+        assertEquals("", row.getLocation());
+    }
+
+    @Test
+    void rejectsUnterminatedQuote() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> VehicleImportServlet.parseCsvLine(1, "VW,\"Golf,2019,Berlin"));
+        assertEquals("Unterminated quote", e.getMessage());
+    }
+
+    @Test
+    void rejectsWrongColumnCount() {
+        assertThrows(IllegalArgumentException.class, () -> VehicleImportServlet.parseCsvLine(1, "VW,Golf,2019"));
+        assertThrows(IllegalArgumentException.class,
+                () -> VehicleImportServlet.parseCsvLine(1, "VW,Golf,2019,Berlin,extra"));
+    }
+
+    @Test
+    void rejectsInvalidYear() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> VehicleImportServlet.parseCsvLine(1, "VW,Golf,neu,Berlin"));
+        assertEquals("Invalid year: neu", e.getMessage());
+    }
+
+    @Test
+    void recognizesOnlyTheExactHeader() {
+        assertTrue(VehicleImportServlet.isHeader("make,model,year,location"));
+        assertTrue(VehicleImportServlet.isHeader("\"Make\", \"Model\", \"Year\", \"Location\""));
+        assertFalse(VehicleImportServlet.isHeader("Makeshift,Model T,1920,Berlin"));
+        assertFalse(VehicleImportServlet.isHeader("make,model,year"));
+        assertFalse(VehicleImportServlet.isHeader("make,model,year,location,color"));
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.carconnect.websocket;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests für den {@link Coalescer}.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+class CoalescerTest {
+
+    private static FanOut.Event event(String action, int vehicleId, long publishedNanos, String... topics) {
+        return new FanOut.Event(new JSONObject().put("action", action).put("vehicleId", vehicleId),
+                List.of(topics), publishedNanos);
+    }
+
+    @Test
+    void laterUpdateReplacesEarlierUpdate() {
+        Coalescer coalescer = new Coalescer();
+        coalescer.add(event("update", 1, 10, Topics.VEHICLES));
+        FanOut.Event later = event("update", 1, 20, Topics.VEHICLES);
+        later.getJson().put("location", "Berlin");
+        coalescer.add(later);
+
+        List<FanOut.Event> events = coalescer.drain();
+        assertEquals(1, events.size());
+        assertEquals("Berlin", events.get(0).getJson().getString("location"));
+        assertEquals(10, events.get(0).getPublishedNanos());  // Latenz ab der ältesten Nachricht
+    }
+
+    @Test
+    void addFollowedByUpdateStaysAnAdd() {
+        Coalescer coalescer = new Coalescer();
+        FanOut.Event add = event("add", 1, 10, Topics.VEHICLES, Topics.location("Berlin"));
+        add.getJson().put("make", "VW").put("location", "Berlin");
+        coalescer.add(add);
+        FanOut.Event update = event("update", 1, 20, Topics.VEHICLES, Topics.ALL_LOCATIONS);
+        update.getJson().put("location", "Hamburg");
+        coalescer.add(update);
+
+        List<FanOut.Event> events = coalescer.drain();
+        assertEquals(1, events.size());
+        JSONObject json = events.get(0).getJson();
+        assertEquals("add", json.getString("action"));
+        assertEquals("VW", json.getString("make"));
+        assertEquals("Hamburg", json.getString("location"));
+        assertEquals(List.of(Topics.VEHICLES, Topics.location("Berlin"), Topics.ALL_LOCATIONS),
+                events.get(0).getTopics());
+    }
+
+    @Test
+    void addFollowedByDeleteCancelsOut() {
+        Coalescer coalescer = new Coalescer();
+        coalescer.add(event("add", 1, 10, Topics.VEHICLES));
+        coalescer.add(event("delete", 1, 20, Topics.VEHICLES));
+
+        assertEquals(2, coalescer.getReceived());
+        assertTrue(coalescer.drain().isEmpty());
+        assertEquals(0, coalescer.getReceived());
+    }
+
+    @Test
+    void keysSeparateVehiclesAndApprovals() {
+        Coalescer coalescer = new Coalescer();
+        coalescer.add(event("update", 1, 10, Topics.VEHICLES));
+        coalescer.add(event("update", 2, 20, Topics.VEHICLES));
+        coalescer.add(event("approveBookingRequest", 1, 30, Topics.VEHICLES));
+        coalescer.add(event("approveBookingRequest", 1, 40, Topics.VEHICLES));
+
+        List<FanOut.Event> events = coalescer.drain();
+        assertEquals(3, events.size());
+        assertEquals("update", events.get(0).getJson().getString("action"));
+        assertEquals(2, events.get(1).getJson().getInt("vehicleId"));
+        assertEquals("approveBookingRequest", events.get(2).getJson().getString("action"));
+    }
+
+    @Test
+    void unkeyedActionsPassThroughInOrder() {
+        Coalescer coalescer = new Coalescer();
+        coalescer.add(event("availability", 0, 10, Topics.VEHICLES));
+        coalescer.add(event("update", 1, 20, Topics.VEHICLES));
+        coalescer.add(event("availability", 0, 30, Topics.VEHICLES));
+
+        List<FanOut.Event> events = coalescer.drain();
+        assertEquals(3, events.size());
+        assertEquals(10, events.get(0).getPublishedNanos());
+        assertEquals(20, events.get(1).getPublishedNanos());
+        assertEquals(30, events.get(2).getPublishedNanos());
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.carconnect.websocket;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests für den {@link ReplayBuffer}.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+class ReplayBufferTest {
+
+    private static FanOut.Event event(int vehicleId) {
+        return new FanOut.Event(new JSONObject().put("action", "update").put("vehicleId", vehicleId),
+                List.of(Topics.VEHICLES), System.nanoTime());
+    }
+
+    @Test
+    void appendNumbersEventsConsecutively() {
+        ReplayBuffer buffer = new ReplayBuffer(4);
+        FanOut.Event first = event(1);
+
+        assertEquals(1, buffer.append(first));
+        assertEquals(2, buffer.append(event(2)));
+        assertEquals(1, first.getSeq());
+        assertEquals(1, first.getJson().getLong("seq"));
+    }
+
+    @Test
+    void wraparoundKeepsTheNewestEvents() {
+        ReplayBuffer buffer = new ReplayBuffer(4);
+        for (int i = 1; i <= 10; i++) {
+            buffer.append(event(i));
+        }
+
+        List<FanOut.Event> events = buffer.since(6, 10);
+        assertNotNull(events);
+        assertEquals(4, events.size());
+        for (int i = 0; i < events.size(); i++) {
+            assertEquals(7 + i, events.get(i).getSeq());
+            assertEquals(7 + i, events.get(i).getJson().getInt("vehicleId"));
+        }
+    }
+
+    @Test
+    void sinceAtTheOldestRetainedEventIsComplete() {
+        ReplayBuffer buffer = new ReplayBuffer(4);
+        for (int i = 1; i <= 10; i++) {
+            buffer.append(event(i));
+        }
+
+        assertNotNull(buffer.since(6, 10));  // 7 bis 10 sind noch vorhanden
+        assertNull(buffer.since(5, 10));     // 6 ist bereits überschrieben
+    }
+
+    @Test
+    void sinceRejectsInvalidRanges() {
+        ReplayBuffer buffer = new ReplayBuffer(4);
+        for (int i = 1; i <= 3; i++) {
+            buffer.append(event(i));
+        }
+
+        assertNull(buffer.since(-1, 3));
+        assertNull(buffer.since(3, 2));
+        assertNull(buffer.since(0, 4));  // Noch nicht veröffentlicht
+        assertTrue(buffer.since(3, 3).isEmpty());
+        assertEquals(3, buffer.since(0, 3).size());
+    }
+
+    @Test
+    void renewEpochChangesTheEpoch() {
+        ReplayBuffer buffer = new ReplayBuffer(4);
+        String before = buffer.getEpoch();
+
+        buffer.renewEpoch();
+        String renewed = buffer.getEpoch();
+        buffer.renewEpoch();
+
+        assertNotEquals(before, renewed);
+        assertNotEquals(renewed, buffer.getEpoch());  // Auch innerhalb derselben Millisekunde
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.carconnect.websocket;
+
+import jakarta.websocket.RemoteEndpoint;
+import jakarta.websocket.SendHandler;
+import jakarta.websocket.SendResult;
+import jakarta.websocket.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests für die {@link SessionQueue}. Der Client bestätigt gesendete Frames erst, wenn der Test es verlangt,
+ * sodass sich die Warteschlange wie bei einem langsamen Client füllt.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+class SessionQueueTest {
+
+    private final FanOut fanOut = new FanOut();
+
+    /** Die gesendeten Frames in ihrer Reihenfolge. */
+    private final List<String> sent = new ArrayList<>();
+
+    /** Die Rückrufe der noch nicht bestätigten Frames. */
+    private final List<SendHandler> handlers = new ArrayList<>();
+
+    private final SessionQueue queue = new SessionQueue(slowSession(), fanOut, 2);
+
+    @AfterEach
+    void closeFanOut() {
+        fanOut.close();
+    }
+
+    private Session slowSession() {
+        RemoteEndpoint.Async async = (RemoteEndpoint.Async) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{RemoteEndpoint.Async.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("sendText") && args.length == 2) {
+                        sent.add((String) args[0]);
+                        handlers.add((SendHandler) args[1]);
+                    }
+                    return null;
+                });
+        return (Session) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Session.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getAsyncRemote":
+                            return async;
+                        case "getId":
+                            return "test";
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            return null;
+                    }
+                });
+    }
+
+    private static FanOut.Message message(String text) {
+        return new FanOut.Message(text, System.nanoTime());
+    }
+
+    private void acknowledge() {
+        handlers.remove(0).onResult(new SendResult());
+    }
+
+    @Test
+    void sendsOneFrameAtATime() {
+        queue.offer(message("1"));
+        queue.offer(message("2"));
+
+        assertEquals(List.of("1"), sent);
+        acknowledge();
+        assertEquals(List.of("1", "2"), sent);
+    }
+
+    @Test
+    void overflowReplacesQueuedFramesWithResync() {
+        queue.offer(message("1"));  // Unterwegs
+        queue.offer(message("2"));
+        queue.offer(message("3"));
+        queue.offer(message("4"));  // Warteschlange voll
+
+        assertFalse(queue.isClosed());
+        assertEquals(3, fanOut.getMetrics().getDropped());
+        acknowledge();
+        assertEquals(List.of("1", FanOut.RESYNC), sent);
+    }
+
+    @Test
+    void secondOverflowWithoutDeliveryEvicts() {
+        queue.offer(message("1"));
+        queue.offer(message("2"));
+        queue.offer(message("3"));
+        queue.offer(message("4"));  // Überlauf, RESYNC wartet
+        queue.offer(message("5"));
+        queue.offer(message("6"));  // Erneut voll, ohne dass etwas zugestellt wurde
+
+        assertTrue(queue.isClosed());
+        assertEquals(List.of("1"), sent);
+        queue.offer(message("7"));
+        acknowledge();
+        assertEquals(List.of("1"), sent);  // Ein getrennter Client erhält nichts mehr
+    }
+
+    @Test
+    void deliveryAfterOverflowResetsTheOverflow() {
+        queue.offer(message("1"));
+        queue.offer(message("2"));
+        queue.offer(message("3"));
+        queue.offer(message("4"));  // Überlauf
+        acknowledge();              // "1" zugestellt, RESYNC unterwegs
+        queue.offer(message("5"));
+        queue.offer(message("6"));
+        queue.offer(message("7"));  // Erneut voll, aber seit dem Überlauf wurde zugestellt
+
+        assertFalse(queue.isClosed());
+        acknowledge();
+        assertEquals(List.of("1", FanOut.RESYNC, FanOut.RESYNC), sent);
+    }
+}
@@ -0,0 +1,67 @@
+import com.example.carconnect.booking.AvailabilityEngine;
+import com.example.carconnect.booking.Reservation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Misst den In-Memory-Anteil der Zeitraumsuche: den Aufbau der {@link AvailabilityEngine} und die Latenz von
+ * {@link AvailabilityEngine#busyBetween(long, long)}, das die belegten Fahrzeuge für den Ausschluss in der
+ * Datenbankabfrage bestimmt. Der Datenbankanteil (Bereichsabfragen über den Primärschlüssel mit je höchstens
+ * 1024 ausgeschlossenen IDs) ist nicht enthalten; sein Plan lässt sich mit {@code search-plans.sql} prüfen.
+ * Die Vorgabe entspricht 100.000 Fahrzeugen mit zusammen 10 Mio. Reservierungen.
+ *
+ * Aufruf (aus dem Verzeichnis db-connnect, nach {@code mvn compile}):
+ *   java -Xmx6g -cp target/classes benchmark/AvailabilityBenchmark.java [Fahrzeuge] [Reservierungen je Fahrzeug] [Abfragen]
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+public class AvailabilityBenchmark {
+
+    private static final long HOUR = 3_600_000L;
+
+    public static void main(String[] args) {
+        int vehicles = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int perVehicle = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int queries = args.length > 2 ? Integer.parseInt(args[2]) : 20_000;
+        long horizon = perVehicle * 24 * HOUR;  // Im Mittel eine Reservierung pro Tag und Fahrzeug
+
+        Random random = new Random(42);
+        List<Reservation> reservations = new ArrayList<>(vehicles * perVehicle);
+        int id = 1;
+        for (int vehicle = 1; vehicle <= vehicles; vehicle++) {
+            long time = 0;
+            for (int i = 0; i < perVehicle; i++) {
+                time += HOUR * (1 + random.nextInt(24));
+                long length = HOUR * (1 + random.nextInt(48));
+                reservations.add(new Reservation(Reservation.Kind.REQUEST, id++, vehicle, time, time + length));
+                time += length;
+            }
+        }
+
+        AvailabilityEngine engine = new AvailabilityEngine();
+        long start = System.nanoTime();
+        engine.load(reservations);
+        System.out.printf("load: %d reservations in %.0f ms%n", engine.size(), (System.nanoTime() - start) / 1e6);
+
+        long[] latencies = new long[queries];
+        long busy = 0;
+        for (int q = -queries / 10; q < queries; q++) {  // Die ersten Abfragen dienen dem Aufwärmen
+            long from = (long) (random.nextDouble() * horizon);
+            long to = from + HOUR * (1 + random.nextInt(72));
+            long begin = System.nanoTime();
+            int[] excluded = engine.busyBetween(from, to);
+            if (q >= 0) {
+                latencies[q] = System.nanoTime() - begin;
+                busy += excluded.length;
+            }
+        }
+        Arrays.sort(latencies);
+        System.out.printf("busy vehicles: p50=%.3f ms, p99=%.3f ms, max=%.3f ms (%.1f busy vehicles per query)%n",
+                latencies[queries / 2] / 1e6, latencies[(int) (queries * 0.99)] / 1e6, latencies[queries - 1] / 1e6,
+                (double) busy / queries);
+    }
+}
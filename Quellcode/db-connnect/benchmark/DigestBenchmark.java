@@ -0,0 +1,83 @@
+import com.example.carconnect.auth.Digests;
+
+import java.lang.management.ManagementFactory;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Vergleicht Dauer und Allokation je Anmeldung zwischen der bisherigen Berechnung der Hashes
+ * ({@link MessageDigest#getInstance(String)}, String-Verkettung und {@code Integer.toHexString} je Byte) und
+ * {@link Digests} für den Passwort-Hash, den {@code AuthServlet} vor jeder Anmeldung berechnet. Vorab wird geprüft,
+ * dass beide Varianten gleiche Hashes liefern.
+ *
+ * Aufruf (aus dem Verzeichnis db-connnect, nach {@code mvn compile}):
+ *   java -cp target/classes benchmark/DigestBenchmark.java [Anmeldungen]
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+public class DigestBenchmark {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static long sink;
+
+    public static void main(String[] args) throws NoSuchAlgorithmException {
+        int logins = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+
+        String[] passwords = {"", "geheim", "Passwort mit Leerzeichen", "pässwörd", "x".repeat(1000)};
+        for (String password : passwords) {
+            check(legacyHash(password), Digests.sha256Hex(password));
+        }
+
+        for (int round = 0; round < 2; round++) {  // Erste Runde zum Aufwärmen
+            report("legacy", logins, round, () -> sink += legacyHash("geheim" + (sink & 7)).charAt(0));
+            report("digests", logins, round, () -> sink += Digests.sha256Hex("geheim" + (sink & 7)).charAt(0));
+        }
+    }
+
+    private interface Login {
+        void run() throws NoSuchAlgorithmException;
+    }
+
+    private static void report(String label, int logins, int round, Login login) throws NoSuchAlgorithmException {
+        long thread = Thread.currentThread().getId();
+        long[] latencies = new long[logins];
+        long bytesBefore = THREADS.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < logins; i++) {
+            long start = System.nanoTime();
+            login.run();
+            latencies[i] = System.nanoTime() - start;
+        }
+        long bytes = THREADS.getThreadAllocatedBytes(thread) - bytesBefore;
+        if (round == 0) {
+            return;
+        }
+        Arrays.sort(latencies);
+        System.out.printf("%s: %.0f bytes/login, p50=%.2f us, p99=%.2f us (%d logins)%n", label,
+                (double) bytes / logins, latencies[logins / 2] / 1e3, latencies[(int) (logins * 0.99)] / 1e3, logins);
+    }
+
+    private static void check(String expected, String actual) {
+        if (!expected.equals(actual)) {
+            throw new IllegalStateException("Mismatch: " + expected + " != " + actual);
+        }
+    }
+
+    /** Die bisherige Berechnung aus AuthServlet und AuthImpl. */
+    private static String legacyHash(String input) throws NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        byte[] encodedHash = digest.digest(input.getBytes());
+        StringBuilder hexString = new StringBuilder(2 * encodedHash.length);
+        for (byte b : encodedHash) {
+            String hex = Integer.toHexString(0xff & b);
+            if (hex.length() == 1) {
+                hexString.append('0');
+            }
+            hexString.append(hex);
+        }
+        return hexString.toString();
+    }
+}
@@ -0,0 +1,88 @@
+import com.example.carconnect.booking.UsageEntry;
+import com.example.carconnect.booking.UsageEntryList;
+import com.example.carconnect.vehicle.VehicleView;
+import com.example.carconnect.vehicle.VehicleViewList;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Vergleicht Größe und Dauer der Java-Serialisierung der bisherigen RMI-Ergebnisse (Liste von HashMaps)
+ * mit den kompakten Listen {@link VehicleViewList} und {@link UsageEntryList}.
+ *
+ * Aufruf (aus dem Verzeichnis db-connnect, nach {@code mvn compile}):
+ *   java -cp target/classes benchmark/PayloadBenchmark.java [Zeilen] [Runden]
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+public class PayloadBenchmark {
+
+    private static final String[] MAKES = {"BMW", "Audi", "Volkswagen", "Mercedes", "Opel", "Ford", "Toyota", "Skoda"};
+    private static final String[] MODELS = {"Golf", "Polo", "A3", "A4", "320i", "Corsa", "Focus", "Yaris", "Octavia"};
+    private static final String[] LOCATIONS = {"Berlin", "Hamburg", "München", "Köln", "Frankfurt", "Stuttgart"};
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+        VehicleViewList vehicles = new VehicleViewList();
+        UsageEntryList usages = new UsageEntryList();
+        for (int i = 0; i < rows; i++) {
+            vehicles.add(new VehicleView(i + 1, "user" + (i % 200), MAKES[i % MAKES.length],
+                    MODELS[(i / 8) % MODELS.length], 1995 + i % 30, LOCATIONS[(i / 72) % LOCATIONS.length], true));
+            usages.add(new UsageEntry(i % 300, 1_700_000_000_000L + i * 3_600_000L, 1_700_000_000_000L + i * 3_600_000L + 7_200_000L,
+                    MAKES[i % MAKES.length], MODELS[(i / 8) % MODELS.length], 1995 + i % 30));
+        }
+        List<Map<String, Object>> vehicleMaps = new ArrayList<>();
+        vehicles.forEach(vehicle -> vehicleMaps.add(vehicle.toMap()));
+        List<Map<String, Object>> usageMaps = new ArrayList<>();
+        usages.forEach(usage -> usageMaps.add(usage.toMap()));
+
+        System.out.printf("%d Zeilen, %d Runden%n", rows, rounds);
+        System.out.printf("%-28s %12s %14s %14s%n", "Ergebnis", "Bytes", "Schreiben µs", "Lesen µs");
+        run("Fahrzeuge List<Map>", new ArrayList<>(vehicleMaps), rounds);
+        run("Fahrzeuge VehicleViewList", vehicles, rounds);
+        run("Nutzung List<Map>", new ArrayList<>(usageMaps), rounds);
+        run("Nutzung UsageEntryList", usages, rounds);
+    }
+
+    private static void run(String name, Object payload, int rounds) throws Exception {
+        byte[] bytes = serialize(payload);
+        for (int i = 0; i < rounds; i++) {  // Aufwärmen des JIT
+            deserialize(serialize(payload));
+        }
+        long writeNanos = 0;
+        long readNanos = 0;
+        for (int i = 0; i < rounds; i++) {
+            long start = System.nanoTime();
+            bytes = serialize(payload);
+            long middle = System.nanoTime();
+            deserialize(bytes);
+            readNanos += System.nanoTime() - middle;
+            writeNanos += middle - start;
+        }
+        System.out.printf("%-28s %12d %14.1f %14.1f%n", name, bytes.length,
+                writeNanos / 1000.0 / rounds, readNanos / 1000.0 / rounds);
+    }
+
+    private static byte[] serialize(Object payload) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(buffer)) {
+            out.writeObject(payload);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        }
+    }
+}
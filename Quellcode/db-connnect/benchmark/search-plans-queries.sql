@@ -0,0 +1,51 @@
+-- Die Abfragen der Repositories mit festen Beispielwerten; wird von search-plans.sql zweimal eingebunden.
+
+\echo '--- VehicleRepository.searchAvailableVehicles (Marke, erste Seite)'
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT v.id, v.make, v.model, v.year, v.location, v.available, u.username AS owner_name
+FROM vehicles v JOIN users u ON v.owner_id = u.id
+WHERE v.available = true AND v.id > 0 AND LOWER(v.make) LIKE '%olksw%'
+ORDER BY v.id LIMIT 51;
+
+\echo '--- VehicleRepository.searchAvailableVehicles (Modell und Standort, seltene Treffer)'
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT v.id, v.make, v.model, v.year, v.location, v.available, u.username AS owner_name
+FROM vehicles v JOIN users u ON v.owner_id = u.id
+WHERE v.available = true AND v.id > 0 AND LOWER(v.model) LIKE '%octavia 42%' AND LOWER(v.location) LIKE '%leipzig-4%'
+ORDER BY v.id LIMIT 51;
+
+\echo '--- VehicleRepository.searchAvailableVehicles (Keyset-Seite in der Mitte)'
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT v.id, v.make, v.model, v.year, v.location, v.available, u.username AS owner_name
+FROM vehicles v JOIN users u ON v.owner_id = u.id
+WHERE v.available = true AND v.id > 100000
+ORDER BY v.id LIMIT 51;
+
+\echo '--- VehicleRepository.searchVehicles (ein Bereich mit 1024 ausgeschlossenen IDs, jede zweite ID belegt)'
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT v.id, v.make, v.model, v.year, v.location, v.available, u.username AS owner_name
+FROM vehicles v JOIN users u ON v.owner_id = u.id
+WHERE v.id > 0 AND v.id <= 2048 AND v.id <> ALL ((SELECT array_agg(g) FROM generate_series(2, 2048, 2) g)::integer[])
+ORDER BY v.id LIMIT 51;
+
+\echo '--- UserRepository.getHash'
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT hash FROM users WHERE username = 'user12345';
+
+\echo '--- BookingRepository.getBookingRequests'
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT br.id, v.make || ' ' || v.model || ' (' || v.year || ')' AS vehicle, br.requester, br.start_time, br.end_time, br.status
+FROM booking_requests br
+JOIN vehicles v ON br.vehicle_id = v.id
+WHERE v.owner_id = (SELECT id FROM users WHERE username = 'user777');
+
+\echo '--- BookingRepository.getUsageHistory'
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT uh.vehicle_id, uh.start_time, uh.end_time, v.make, v.model, v.year
+FROM usage_history uh
+JOIN vehicles v ON uh.vehicle_id = v.id
+WHERE uh.username = 'user777';
+
+\echo '--- VehicleRepository.deleteVehicle (Buchungsanfragen des Fahrzeugs)'
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT 1 FROM booking_requests WHERE vehicle_id = 4242;
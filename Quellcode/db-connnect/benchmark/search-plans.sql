@@ -0,0 +1,107 @@
+-- Vergleicht die Abfragepläne der Repository-Abfragen vor und nach den Indizes aus V2__search_indexes.sql.
+-- Das Skript arbeitet in einem eigenen Schema "bench" mit generierten Daten und entfernt es am Ende wieder.
+--
+-- Aufruf (aus dem Verzeichnis db-connnect):
+--   psql -h localhost -U carconnectuser -d carconnectdb -f benchmark/search-plans.sql > benchmark/plans.txt
+--
+-- Die Größe des Datenbestands kann angepasst werden, z.B. mit -v vehicles=1000000.
+
+\set ON_ERROR_STOP on
+\if :{?users}
+\else
+    \set users 20000
+\endif
+\if :{?vehicles}
+\else
+    \set vehicles 200000
+\endif
+\if :{?usages}
+\else
+    \set usages 1000000
+\endif
+
+DROP SCHEMA IF EXISTS bench CASCADE;
+CREATE SCHEMA bench;
+SET search_path = bench, public;
+
+CREATE TABLE users (
+    id       SERIAL PRIMARY KEY,
+    username VARCHAR(255) NOT NULL,
+    hash     TEXT         NOT NULL
+);
+CREATE TABLE vehicles (
+    id        SERIAL PRIMARY KEY,
+    owner_id  INTEGER      NOT NULL REFERENCES users (id),
+    make      VARCHAR(255) NOT NULL,
+    model     VARCHAR(255) NOT NULL,
+    year      INTEGER      NOT NULL,
+    location  VARCHAR(255) NOT NULL,
+    available BOOLEAN      NOT NULL DEFAULT true
+);
+CREATE TABLE booking_requests (
+    id         SERIAL PRIMARY KEY,
+    vehicle_id INTEGER      NOT NULL REFERENCES vehicles (id),
+    requester  VARCHAR(255) NOT NULL,
+    start_time TIMESTAMP    NOT NULL,
+    end_time   TIMESTAMP    NOT NULL,
+    status     VARCHAR(32)  NOT NULL DEFAULT 'PENDING'
+);
+CREATE TABLE bookings (
+    id         SERIAL PRIMARY KEY,
+    vehicle_id INTEGER      NOT NULL REFERENCES vehicles (id),
+    username   VARCHAR(255) NOT NULL,
+    start_time TIMESTAMP    NOT NULL,
+    end_time   TIMESTAMP    NOT NULL,
+    status     VARCHAR(32)  NOT NULL DEFAULT 'PENDING'
+);
+CREATE TABLE usage_history (
+    id         SERIAL PRIMARY KEY,
+    username   VARCHAR(255) NOT NULL,
+    vehicle_id INTEGER      NOT NULL REFERENCES vehicles (id),
+    start_time TIMESTAMP    NOT NULL,
+    end_time   TIMESTAMP    NOT NULL
+);
+
+-- Generierte Daten
+INSERT INTO users (username, hash)
+SELECT 'user' || g, md5(g::text) || md5((g + 1)::text)
+FROM generate_series(1, :users) g;
+
+INSERT INTO vehicles (owner_id, make, model, year, location, available)
+SELECT 1 + (g % :users),
+       (ARRAY['BMW', 'Audi', 'Volkswagen', 'Mercedes', 'Opel', 'Ford', 'Toyota', 'Skoda'])[1 + g % 8],
+       (ARRAY['Golf', 'Polo', 'A3', 'A4', '320i', 'Corsa', 'Focus', 'Yaris', 'Octavia', 'C-Klasse'])[1 + (g / 8) % 10]
+           || ' ' || (g % 97),
+       1995 + g % 30,
+       (ARRAY['Berlin', 'Hamburg', 'München', 'Köln', 'Frankfurt', 'Stuttgart', 'Düsseldorf', 'Leipzig'])[1 + (g / 80) % 8]
+           || '-' || (g % 500),
+       g % 5 <> 0
+FROM generate_series(1, :vehicles) g;
+
+INSERT INTO booking_requests (vehicle_id, requester, start_time, end_time, status)
+SELECT 1 + (g % :vehicles), 'user' || (1 + g % :users),
+       timestamp '2024-01-01' + (g % 365) * interval '1 day',
+       timestamp '2024-01-01' + (g % 365) * interval '1 day' + interval '4 hours',
+       (ARRAY['PENDING', 'APPROVED', 'REJECTED'])[1 + g % 3]
+FROM generate_series(1, :vehicles / 2) g;
+
+INSERT INTO usage_history (username, vehicle_id, start_time, end_time)
+SELECT 'user' || (1 + g % :users), 1 + (g % :vehicles),
+       timestamp '2020-01-01' + (g % 1500) * interval '1 day',
+       timestamp '2020-01-01' + (g % 1500) * interval '1 day' + interval '2 hours'
+FROM generate_series(1, :usages) g;
+
+ANALYZE;
+
+\echo '==================== Pläne ohne Indizes ===================='
+\ir search-plans-queries.sql
+
+\echo '==================== Indizes aus V2 anlegen ===================='
+\timing on
+\ir ../src/main/resources/db/migration/V2__search_indexes.sql
+\timing off
+
+\echo '==================== Pläne mit Indizes ===================='
+\ir search-plans-queries.sql
+
+DROP SCHEMA bench CASCADE;
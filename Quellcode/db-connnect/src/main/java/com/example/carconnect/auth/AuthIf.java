@@ -21,6 +21,16 @@ public interface AuthIf extends Remote {
      */
     long generateNewSessionId(String username) throws RemoteException;
 
+    /**
+     * Beginnt eine Anmeldung: Stellt eine einmalige Sitzungs-ID aus und liefert Salt und Iterationen,
+     * mit denen der Aufrufer den Passwort-Schlüssel für die Antwort an {@link #validateUser(long, String)} ableitet.
+     *
+     * @param username Der Benutzername, der sich anmelden möchte.
+     * @return Die Challenge für die Anmeldung.
+     * @throws RemoteException Wenn ein Remote-Methodenaufruf fehlschlägt.
+     */
+    LoginChallenge beginLogin(String username) throws RemoteException;
+
     /**
      * Überprüft, ob ein Benutzer anhand der Sitzungs-ID und eines Hashes gültig ist.
      *
@@ -1,14 +1,13 @@
 package com.example.carconnect.auth;
 
-import com.example.carconnect.repository.UserRepository;
-
 import java.nio.charset.StandardCharsets;
 import java.rmi.RemoteException;
 import java.rmi.server.UnicastRemoteObject;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.util.Date;
-import java.util.HashMap;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.Map;
 
 /**
@@ -20,45 +19,68 @@ import java.util.Map;
  */
 public class AuthImpl extends UnicastRemoteObject implements AuthIf {
 
-    /** Repository für Benutzerinformationen. */
-    private final UserRepository userRepository;
+    /** Zwischengespeicherter Zugriff auf die Anmeldedaten der Benutzer. */
+    private final CredentialCache credentialCache;
+
+    /** Speicher, der offene Sitzungs-IDs den Benutzernamen zuordnet. */
+    private final SessionStore sessionStore;
 
-    /** Map, die Sitzungs-IDs den Benutzernamen zuordnet. */
-    private Map<Long, String> sessionToUserMap = new HashMap<>();
+    /** Leitet die gespeicherten Passwort-Schlüssel mit PBKDF2 ab. */
+    private final PasswordHasher passwordHasher;
+
+    /** Zufälliger Schlüssel für die Schein-Salts unbekannter Benutzer. */
+    private final byte[] decoySecret = new byte[32];
 
     /**
      * Konstruktor für AuthImpl.
      *
-     * @param userRepository Das Repository zur Verwaltung von Benutzerinformationen.
+     * @param credentialCache Der Cache vor dem Repository der Benutzerinformationen.
+     * @param sessionStore Der Speicher für offene Sitzungs-IDs.
+     * @param passwordHasher Der bereits kalibrierte PBKDF2-Hasher.
      * @throws RemoteException Wenn ein Remote-Methodenaufruf fehlschlägt.
      */
-    public AuthImpl(UserRepository userRepository) throws RemoteException {
+    public AuthImpl(CredentialCache credentialCache, SessionStore sessionStore, PasswordHasher passwordHasher) throws RemoteException {
         super();
-        this.userRepository = userRepository;
+        this.credentialCache = credentialCache;
+        this.sessionStore = sessionStore;
+        this.passwordHasher = passwordHasher;
+        new SecureRandom().nextBytes(decoySecret);
     }
 
     /**
      * Generiert eine neue Sitzungs-ID für einen Benutzer. Wenn der Benutzer bereits eine aktive Sitzung hat,
-     * wird die existierende Sitzungs-ID zurückgegeben.
+     * wird die existierende Sitzungs-ID zurückgegeben. Nicht eingelöste Sitzungs-IDs laufen ab.
      *
      * @param username Der Benutzername, für den eine neue Sitzungs-ID erstellt werden soll.
      * @return Die neue oder bestehende Sitzungs-ID.
      */
     @Override
     public long generateNewSessionId(String username) {
-        // Überprüfung, ob eine Sitzung bereits existiert
-        for (Map.Entry<Long, String> entry : sessionToUserMap.entrySet()) {
-            if (entry.getValue().equals(username)) {
-                return entry.getKey();  // Rückgabe der existierenden Sitzungs-ID
-            }
+        return sessionStore.issue(username);  // Bestehende oder neue, zufällige Sitzungs-ID
+    }
+
+    /**
+     * Beginnt eine Anmeldung und liefert neben der Sitzungs-ID Salt und Iterationen des gespeicherten Hashes.
+     * Für unbekannte Benutzer und Benutzer ohne gültigen PBKDF2-Hash wird ein gleichbleibendes Schein-Salt
+     * geliefert, damit die Antwort nicht verrät, ob der Benutzer existiert.
+     *
+     * @param username Der Benutzername, der sich anmelden möchte.
+     * @return Die Challenge für die Anmeldung.
+     */
+    @Override
+    public LoginChallenge beginLogin(String username) {
+        long sessionId = sessionStore.issue(username);
+        Credential credential = credentialCache.get(username);
+        String[] parts = credential != null && credential.exists() ? PasswordHasher.split(credential.getHash()) : null;
+        if (parts != null) {
+            return new LoginChallenge(sessionId, parts[2], Integer.parseInt(parts[1]));
         }
-        long newSessionId = new Date().getTime();  // Neue Sitzungs-ID basierend auf der aktuellen Zeit
-        sessionToUserMap.put(newSessionId, username);  // Speichern der neuen Sitzungs-ID und des Benutzernamens
-        return newSessionId;
+        return new LoginChallenge(sessionId, decoySalt(username), passwordHasher.getIterations());
     }
 
     /**
-     * Validiert einen Benutzer anhand der Sitzungs-ID und eines Hashes.
+     * Validiert einen Benutzer anhand der Sitzungs-ID und eines Hashes. Der Hash ist der Nachweis aus
+     * {@link PasswordHasher#challengeProof(long, String, String, int)}.
      *
      * @param sessionId Die Sitzungs-ID, die überprüft werden soll.
      * @param hash Der übermittelte Hash zur Validierung.
@@ -66,33 +88,27 @@ public class AuthImpl extends UnicastRemoteObject implements AuthIf {
      */
     @Override
     public boolean validateUser(long sessionId, String hash) {
-        String username = sessionToUserMap.get(sessionId);  // Abrufen des Benutzernamens anhand der Sitzungs-ID
+        String username = sessionStore.consume(sessionId);  // Abrufen des Benutzernamens; die Sitzungs-ID wird dabei eingelöst
         System.out.println("Validating user: " + username);
         if (username == null) {
             System.out.println("Username not found for session ID: " + sessionId);
             return false;  // Abbruch, wenn der Benutzername nicht gefunden wird
         }
-        if (!userRepository.checkUserExistence(username)) {
+        Credential credential = credentialCache.get(username);  // Existenz und Hash in einem Zugriff
+        if (credential == null) {
+            System.out.println("Credentials could not be loaded for user: " + username);
+            return false;  // Abbruch bei einem Datenbankfehler
+        }
+        if (!credential.exists()) {
             System.out.println("User does not exist: " + username);
             return false;  // Abbruch, wenn der Benutzer nicht existiert
         }
-        String userHash = userRepository.getHash(username);  // Abrufen des gespeicherten Hashes
+        String userHash = credential.getHash();  // Der gespeicherte Hash
         if (userHash == null) {
             System.out.println("Hash not found for user: " + username);
             return false;  // Abbruch, wenn kein Hash gefunden wird
         }
-        try {
-            // Erstellen eines neuen Hashes basierend auf der Sitzungs-ID und dem Benutzerhash
-            MessageDigest digester = MessageDigest.getInstance("SHA-256");
-            byte[] encodedHash = digester.digest((sessionId + userHash).getBytes(StandardCharsets.UTF_8));
-            String newHash = bytesToHex(encodedHash);  // Umwandeln des Hashes in Hexadezimal-Format
-            sessionToUserMap.remove(sessionId);  // Entfernen der Sitzungs-ID nach Validierung
-            System.out.println("Expected hash: " + newHash + ", Received hash: " + hash);
-            return newHash.equals(hash);  // Vergleich des neuen Hashes mit dem übermittelten Hash
-        } catch (NoSuchAlgorithmException e) {
-            e.printStackTrace();
-        }
-        return false;  // Rückgabe von false im Fehlerfall
+        return PasswordHasher.verifyProof(sessionId, hash, userHash);  // Der StoredKey allein ergibt keinen gültigen Nachweis
     }
 
     /**
@@ -105,12 +121,20 @@ public class AuthImpl extends UnicastRemoteObject implements AuthIf {
     @Override
     public boolean registerUser(String username, String hash) {
         System.out.println("Registering user: " + username);
-        boolean userExists = userRepository.checkUserExistence(username);  // Überprüfen, ob der Benutzer bereits existiert
+        Credential credential = credentialCache.get(username);  // Überprüfen, ob der Benutzer bereits existiert
+        boolean userExists = credential == null || credential.exists();  // Im Fehlerfall nicht registrieren
         System.out.println("User exists: " + userExists);
         if (userExists) {
             return false;  // Abbruch, wenn der Benutzer bereits existiert
         }
-        boolean registrationResult = userRepository.registerNewUser(username, hash);  // Registrierung des neuen Benutzers
+        String storedHash;
+        try {
+            storedHash = passwordHasher.hash(hash);  // Gespeichert wird der StoredKey zum PBKDF2-Schlüssel des übermittelten Hashes
+        } catch (PasswordHasher.HashingUnavailableException e) {
+            System.err.println("Registration rejected for " + username + ": " + e.getMessage());
+            return false;
+        }
+        boolean registrationResult = credentialCache.registerNewUser(username, storedHash);  // Registrierung des neuen Benutzers
         System.out.println("Registration result: " + registrationResult);
         return registrationResult;
     }
@@ -126,35 +150,63 @@ public class AuthImpl extends UnicastRemoteObject implements AuthIf {
     @Override
     public boolean changePassword(String username, String oldPassword, String newPassword) {
         try {
-            String currentHash = userRepository.getHash(username);  // Abrufen des aktuellen Passwort-Hashes
-            MessageDigest digester = MessageDigest.getInstance("SHA-256");
-            byte[] oldPasswordHash = digester.digest(oldPassword.getBytes());  // Hashen des alten Passworts
-            if (!currentHash.equals(bytesToHex(oldPasswordHash))) {
+            Credential credential = credentialCache.get(username);
+            String currentHash = credential != null ? credential.getHash() : null;  // Abrufen des aktuellen Passwort-Hashes
+            if (currentHash == null) {
+                return false;  // Abbruch, wenn der Benutzer nicht existiert oder kein Hash hinterlegt ist
+            }
+            String oldPasswordHash = Digests.sha256Hex(oldPassword);  // Hashen des alten Passworts
+            if (PasswordHasher.split(currentHash) == null || !passwordHasher.verify(oldPasswordHash, currentHash)) {
                 return false;  // Abbruch, wenn der alte Passwort-Hash nicht übereinstimmt
             }
-            byte[] newPasswordHash = digester.digest(newPassword.getBytes());  // Hashen des neuen Passworts
-            return userRepository.updateUserPassword(username, bytesToHex(newPasswordHash));  // Aktualisieren des Passworts
-        } catch (NoSuchAlgorithmException e) {
-            e.printStackTrace();
-            return false;  // Rückgabe von false im Fehlerfall
+            String newPasswordHash = Digests.sha256Hex(newPassword);  // Hashen des neuen Passworts
+            return credentialCache.updateUserPassword(username, passwordHasher.hash(newPasswordHash));  // Aktualisieren des Passworts
+        } catch (PasswordHasher.HashingUnavailableException e) {
+            System.err.println("Password change rejected for " + username + ": " + e.getMessage());
+            return false;
         }
     }
 
     /**
-     * Hilfsmethode, die ein Byte-Array in eine hexadezimale Zeichenkette umwandelt.
+     * Ersetzt die noch gespeicherten SHA-256-Alt-Hashes durch PBKDF2-Hashes. Als Eingabe dient der Alt-Hash selbst,
+     * sodass das Passwort dafür nicht benötigt wird. Wird beim Start aufgerufen, bevor der Dienst Anmeldungen
+     * annimmt, da ein Alt-Hash passwortgleich ist und keine Anmeldung mit ihm mehr möglich ist.
      *
-     * @param hash Das Byte-Array, das umgewandelt werden soll.
-     * @return Eine hexadezimale Darstellung des Byte-Arrays.
+     * @param legacyHashes Die Alt-Hashes je Benutzername, z.B. aus {@code UserRepository.getLegacyHashes()}, oder null.
+     * @return Die Anzahl der umgestellten Benutzer oder -1, wenn die Alt-Hashes nicht gelesen werden konnten.
      */
-    private static String bytesToHex(byte[] hash) {
-        StringBuilder hexString = new StringBuilder(2 * hash.length);
-        for (byte b : hash) {
-            String hex = Integer.toHexString(0xff & b);  // Umwandlung jedes Bytes in einen hexadezimalen Wert
-            if (hex.length() == 1) {
-                hexString.append('0');  // Hinzufügen einer führenden Null, falls nötig
+    public int upgradeLegacyHashes(Map<String, String> legacyHashes) {
+        if (legacyHashes == null) {
+            System.err.println("Legacy password hashes could not be loaded");
+            return -1;
+        }
+        int upgraded = 0;
+        for (Map.Entry<String, String> legacy : legacyHashes.entrySet()) {
+            try {
+                if (credentialCache.updateUserPassword(legacy.getKey(), passwordHasher.hash(legacy.getValue()))) {
+                    upgraded++;
+                }
+            } catch (PasswordHasher.HashingUnavailableException e) {
+                System.err.println("Password hash upgrade failed for " + legacy.getKey() + ": " + e.getMessage());
             }
-            hexString.append(hex);
         }
-        return hexString.toString();
+        if (!legacyHashes.isEmpty()) {
+            System.out.println("Upgraded legacy password hashes: " + upgraded + " of " + legacyHashes.size());
+        }
+        return upgraded;
+    }
+
+    /**
+     * Liefert ein Schein-Salt für einen unbekannten Benutzer, das für denselben Namen stets gleich bleibt.
+     */
+    private String decoySalt(String username) {
+        try {
+            MessageDigest digester = MessageDigest.getInstance("SHA-256");
+            digester.update(decoySecret);
+            byte[] digest = digester.digest(username.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(Arrays.copyOf(digest, 16));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 }
@@ -0,0 +1,36 @@
+package com.example.carconnect.auth;
+
+/**
+ * Die für die Anmeldung benötigten Daten eines Benutzers: ob er existiert und sein Passwort-Hash.
+ * Unbekannte Benutzer werden durch {@link #UNKNOWN} dargestellt, damit auch sie zwischengespeichert werden können.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+public final class Credential {
+
+    /** Ein Benutzer, der nicht existiert. */
+    public static final Credential UNKNOWN = new Credential(false, null);
+
+    private final boolean exists;
+    private final String hash;
+
+    /**
+     * Konstruktor für Credential.
+     *
+     * @param exists Ob der Benutzer existiert.
+     * @param hash Der gespeicherte Passwort-Hash oder null, wenn keiner hinterlegt ist.
+     */
+    public Credential(boolean exists, String hash) {
+        this.exists = exists;
+        this.hash = hash;
+    }
+
+    public boolean exists() {
+        return exists;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.carconnect.auth;
+
+import com.example.carconnect.repository.UserRepository;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Zwischenspeicher für die Anmeldedaten der Benutzer vor dem {@link UserRepository}.
+ *
+ * Bei einem Fehlschlag werden Existenz und Passwort-Hash mit einer einzigen Abfrage geladen; gleichzeitige
+ * Fehlschläge für denselben Benutzer warten auf dieselbe Abfrage. Bekannte Benutzer bleiben
+ * {@code carconnect.auth.credentialTtlSeconds} im Cache, unbekannte kürzer
+ * ({@code carconnect.auth.negativeTtlSeconds}), damit neu angelegte Benutzer auch ohne Invalidierung bald
+ * sichtbar werden. Der Cache ist auf {@code carconnect.auth.credentialCacheSize} Einträge begrenzt und
+ * verdrängt die am längsten nicht verwendeten.
+ *
+ * Registrierung und Passwortänderung laufen über den Cache, der den Eintrag des Benutzers danach verwirft.
+ * Ein Generationszähler verhindert, dass eine vor der Änderung begonnene Abfrage den alten Stand einträgt.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+public class CredentialCache {
+
+    /** Maximale Anzahl an Einträgen. */
+    private static final int MAX_SIZE = Integer.getInteger("carconnect.auth.credentialCacheSize", 10_000);
+
+    /** Gültigkeitsdauer eines Eintrags für einen bekannten Benutzer in Millisekunden. */
+    private static final long TTL_MILLIS = TimeUnit.SECONDS.toMillis(Long.getLong("carconnect.auth.credentialTtlSeconds", 300L));
+
+    /** Gültigkeitsdauer eines Eintrags für einen unbekannten Benutzer in Millisekunden. */
+    private static final long NEGATIVE_TTL_MILLIS = TimeUnit.SECONDS.toMillis(Long.getLong("carconnect.auth.negativeTtlSeconds", 30L));
+
+    /** Repository für Benutzerinformationen. */
+    private final UserRepository userRepository;
+
+    /** Die Einträge in Zugriffsreihenfolge; alle Zugriffe erfolgen unter der Sperre dieser Map. */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            if (size() > MAX_SIZE) {
+                metrics.recordEviction();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    /** Laufende Abfragen je Benutzer, auf die gleichzeitige Fehlschläge warten. */
+    private final Map<String, CompletableFuture<Credential>> loading = new ConcurrentHashMap<>();
+
+    /** Kennzahlen des Caches. */
+    private final CredentialCacheMetrics metrics = new CredentialCacheMetrics();
+
+    /** Wird bei jeder Invalidierung erhöht; nur unter der Sperre von {@link #entries} verwendet. */
+    private long generation;
+
+    /**
+     * Konstruktor für CredentialCache.
+     *
+     * @param userRepository Das Repository zur Verwaltung von Benutzerinformationen.
+     */
+    public CredentialCache(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Liefert die Anmeldedaten eines Benutzers, bei Bedarf aus der Datenbank.
+     *
+     * @param username Der Benutzername.
+     * @return Die Anmeldedaten, {@link Credential#UNKNOWN} für unbekannte Benutzer oder null im Fehlerfall.
+     */
+    public Credential get(String username) {
+        long now = System.currentTimeMillis();
+        long loadGeneration;
+        synchronized (entries) {
+            Entry entry = entries.get(username);
+            if (entry != null && entry.expiresAt > now) {
+                metrics.recordHit(!entry.credential.exists());
+                return entry.credential;
+            }
+            loadGeneration = generation;
+        }
+        metrics.recordMiss();
+
+        CompletableFuture<Credential> load = new CompletableFuture<>();
+        CompletableFuture<Credential> running = loading.putIfAbsent(username, load);
+        if (running != null) {
+            return running.join();  // Eine Abfrage für alle gleichzeitigen Anmeldungen desselben Benutzers
+        }
+        Credential credential = null;
+        try {
+            long start = System.nanoTime();
+            credential = userRepository.findCredential(username);
+            metrics.recordLoad(System.nanoTime() - start, credential == null);
+            if (credential != null) {
+                long ttl = credential.exists() ? TTL_MILLIS : NEGATIVE_TTL_MILLIS;
+                synchronized (entries) {
+                    if (generation == loadGeneration) {  // Zwischenzeitlich geänderte Daten nicht eintragen
+                        entries.put(username, new Entry(credential, System.currentTimeMillis() + ttl));
+                    }
+                }
+            }
+            return credential;
+        } finally {
+            loading.remove(username, load);
+            load.complete(credential);
+        }
+    }
+
+    /**
+     * Registriert einen neuen Benutzer und verwirft einen zwischengespeicherten Eintrag für ihn.
+     *
+     * @param username Der Benutzername des neuen Benutzers.
+     * @param hash Der Passwort-Hash des neuen Benutzers.
+     * @return true, wenn die Registrierung erfolgreich war, false andernfalls.
+     */
+    public boolean registerNewUser(String username, String hash) {
+        try {
+            return userRepository.registerNewUser(username, hash);
+        } finally {
+            invalidate(username);
+        }
+    }
+
+    /**
+     * Aktualisiert den Passwort-Hash eines Benutzers und verwirft dessen zwischengespeicherten Eintrag.
+     *
+     * @param username Der Benutzername.
+     * @param newPasswordHash Der neue Passwort-Hash.
+     * @return true, wenn die Aktualisierung erfolgreich war, false andernfalls.
+     */
+    public boolean updateUserPassword(String username, String newPasswordHash) {
+        try {
+            return userRepository.updateUserPassword(username, newPasswordHash);
+        } finally {
+            invalidate(username);
+        }
+    }
+
+    /**
+     * Verwirft den Eintrag eines Benutzers.
+     *
+     * @param username Der Benutzername.
+     */
+    public void invalidate(String username) {
+        synchronized (entries) {
+            generation++;
+            entries.remove(username);
+        }
+    }
+
+    /**
+     * @return Die Anzahl der Einträge.
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * @return Die Kennzahlen des Caches.
+     */
+    public CredentialCacheMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Liefert den aktuellen Zustand des Caches zusammen mit seinen Kennzahlen.
+     *
+     * @return Die Anzahl der Einträge und {@link CredentialCacheMetrics#toMap()}.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", size());
+        stats.putAll(metrics.toMap());
+        return stats;
+    }
+
+    /**
+     * Ein zwischengespeicherter Eintrag mit Ablaufzeitpunkt.
+     */
+    private static final class Entry {
+
+        private final Credential credential;
+        private final long expiresAt;
+
+        Entry(Credential credential, long expiresAt) {
+            this.credential = credential;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.carconnect.auth;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sammelt Kennzahlen des {@link CredentialCache}: Treffer, davon für unbekannte Benutzer, Fehlschläge,
+ * Datenbankabfragen samt Dauer, fehlgeschlagene Abfragen und verdrängte Einträge.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+public class CredentialCacheMetrics {
+
+    /** Anzahl der aus dem Cache beantworteten Abfragen. */
+    private final LongAdder hits = new LongAdder();
+
+    /** Anzahl der Treffer für unbekannte Benutzer. */
+    private final LongAdder negativeHits = new LongAdder();
+
+    /** Anzahl der Abfragen, die nicht aus dem Cache beantwortet werden konnten. */
+    private final LongAdder misses = new LongAdder();
+
+    /** Anzahl der Datenbankabfragen; gleichzeitige Fehlschläge für denselben Benutzer teilen sich eine. */
+    private final LongAdder loads = new LongAdder();
+
+    /** Anzahl der fehlgeschlagenen Datenbankabfragen. */
+    private final LongAdder loadFailures = new LongAdder();
+
+    /** Summe aller Ladezeiten in Nanosekunden. */
+    private final LongAdder totalLoadNanos = new LongAdder();
+
+    /** Anzahl der wegen der Größenbeschränkung verdrängten Einträge. */
+    private final LongAdder evictions = new LongAdder();
+
+    void recordHit(boolean negative) {
+        hits.increment();
+        if (negative) {
+            negativeHits.increment();
+        }
+    }
+
+    void recordMiss() {
+        misses.increment();
+    }
+
+    void recordLoad(long loadNanos, boolean failed) {
+        loads.increment();
+        totalLoadNanos.add(loadNanos);
+        if (failed) {
+            loadFailures.increment();
+        }
+    }
+
+    void recordEviction() {
+        evictions.increment();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getNegativeHits() {
+        return negativeHits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getLoads() {
+        return loads.sum();
+    }
+
+    public long getLoadFailures() {
+        return loadFailures.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Liefert den Anteil der Abfragen, die aus dem Cache beantwortet wurden.
+     *
+     * @return Die Trefferquote zwischen 0 und 1.
+     */
+    public double getHitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    /**
+     * Liefert die durchschnittliche Dauer einer Datenbankabfrage.
+     *
+     * @return Die mittlere Ladezeit in Millisekunden.
+     */
+    public double getAverageLoadMillis() {
+        long count = loads.sum();
+        return count == 0 ? 0.0 : totalLoadNanos.sum() / 1_000_000.0 / count;
+    }
+
+    /**
+     * Liefert eine Momentaufnahme der Kennzahlen, z.B. für die Ausgabe über RMI.
+     *
+     * @return Die Kennzahlen nach Namen, in derselben Reihenfolge wie {@link #toString()}.
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("hits", getHits());
+        map.put("negativeHits", getNegativeHits());
+        map.put("misses", getMisses());
+        map.put("hitRatio", getHitRatio());
+        map.put("loads", getLoads());
+        map.put("loadFailures", getLoadFailures());
+        map.put("avgLoadMs", getAverageLoadMillis());
+        map.put("evictions", getEvictions());
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        return "hits=" + getHits() + ", negativeHits=" + getNegativeHits() + ", misses=" + getMisses()
+                + ", hitRatio=" + String.format("%.3f", getHitRatio()) + ", loads=" + getLoads()
+                + ", loadFailures=" + getLoadFailures() + ", avgLoadMs=" + String.format("%.3f", getAverageLoadMillis())
+                + ", evictions=" + getEvictions();
+    }
+}
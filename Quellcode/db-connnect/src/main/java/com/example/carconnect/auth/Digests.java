@@ -0,0 +1,116 @@
+package com.example.carconnect.auth;
+
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * SHA-256-Hilfsfunktionen für den Anmeldepfad, die außer dem Ergebnis-String nichts allokieren.
+ *
+ * Jeder Thread verwendet eine eigene {@link MessageDigest}-Instanz sowie eigene Puffer für die Eingabe-Bytes
+ * und die Hex-Zeichen, statt bei jedem Aufruf {@link MessageDigest#getInstance(String)} aufzurufen und
+ * Zwischen-Strings zu erzeugen. Eingaben aus ASCII-Zeichen werden direkt in den Puffer geschrieben; andere
+ * Eingaben werden wie bisher mit dem Standard-Zeichensatz kodiert, damit bestehende Hashes gültig bleiben.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+public final class Digests {
+
+    /** Hex-Ziffern für die Kodierung per Tabelle. */
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /** Die Puffer des aktuellen Threads. */
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private Digests() {
+    }
+
+    /**
+     * Berechnet den SHA-256-Hash einer Zeichenkette als Hex-Zeichenkette, z.B. den Passwort-Hash.
+     *
+     * @param input Die Eingabe.
+     * @return Der Hash mit 64 Hex-Zeichen in Kleinbuchstaben.
+     */
+    public static String sha256Hex(String input) {
+        Scratch scratch = SCRATCH.get();
+        int length = scratch.appendAscii(0, input);
+        if (length < 0) {
+            scratch.sha256.update(input.getBytes());  // Nicht-ASCII: wie bisher mit dem Standard-Zeichensatz
+        } else {
+            scratch.sha256.update(scratch.bytes, 0, length);
+        }
+        return scratch.finishHex();
+    }
+
+    /**
+     * Wandelt ein Byte-Array per Tabelle in eine Hex-Zeichenkette um.
+     *
+     * @param bytes Die Bytes.
+     * @return Die Hex-Darstellung in Kleinbuchstaben.
+     */
+    public static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[2 * i] = HEX[(bytes[i] >> 4) & 0xf];
+            chars[2 * i + 1] = HEX[bytes[i] & 0xf];
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Digest und Puffer eines Threads.
+     */
+    private static final class Scratch {
+
+        private final MessageDigest sha256;
+        private final byte[] digest = new byte[32];
+        private final char[] hex = new char[64];
+        private byte[] bytes = new byte[256];
+
+        Scratch() {
+            try {
+                sha256 = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        /**
+         * Schreibt die Zeichen ab {@code offset} in den Puffer.
+         *
+         * @return Die neue Länge oder -1, wenn die Eingabe Nicht-ASCII-Zeichen enthält.
+         */
+        int appendAscii(int offset, String input) {
+            int length = offset + input.length();
+            if (length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(length, bytes.length * 2));
+            }
+            for (int i = 0; i < input.length(); i++) {
+                char c = input.charAt(i);
+                if (c >= 0x80) {
+                    return -1;
+                }
+                bytes[offset + i] = (byte) c;
+            }
+            return length;
+        }
+
+        /**
+         * Schließt den Hash ab und liefert ihn als Hex-Zeichenkette.
+         */
+        String finishHex() {
+            try {
+                sha256.digest(digest, 0, digest.length);
+            } catch (DigestException e) {
+                throw new IllegalStateException(e);
+            }
+            for (int i = 0; i < digest.length; i++) {
+                hex[2 * i] = HEX[(digest[i] >> 4) & 0xf];
+                hex[2 * i + 1] = HEX[digest[i] & 0xf];
+            }
+            return new String(hex);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.carconnect.auth;
+
+import java.io.Serializable;
+
+/**
+ * Challenge für eine Anmeldung, die per RMI an den Aufrufer zurückgegeben wird: die einmalige Sitzungs-ID
+ * sowie Salt und Iterationen, mit denen der Aufrufer den Passwort-Schlüssel ableitet.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+public class LoginChallenge implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Die einmalige Sitzungs-ID. */
+    private final long sessionId;
+
+    /** Das Base64-kodierte Salt. */
+    private final String salt;
+
+    /** Die Anzahl der PBKDF2-Iterationen. */
+    private final int iterations;
+
+    /**
+     * Konstruktor für LoginChallenge.
+     *
+     * @param sessionId Die einmalige Sitzungs-ID.
+     * @param salt Das Base64-kodierte Salt.
+     * @param iterations Die Anzahl der PBKDF2-Iterationen.
+     */
+    public LoginChallenge(long sessionId, String salt, int iterations) {
+        this.sessionId = sessionId;
+        this.salt = salt;
+        this.iterations = iterations;
+    }
+
+    public long getSessionId() {
+        return sessionId;
+    }
+
+    public String getSalt() {
+        return salt;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+}
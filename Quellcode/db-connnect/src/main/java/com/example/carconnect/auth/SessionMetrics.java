@@ -0,0 +1,91 @@
+package com.example.carconnect.auth;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sammelt Kennzahlen des {@link SessionStore}: ausgestellte, wiederverwendete, eingelöste und abgelaufene
+ * Sitzungs-IDs sowie Anmeldeversuche mit unbekannter Sitzungs-ID.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+public class SessionMetrics {
+
+    /** Anzahl neu ausgestellter Sitzungs-IDs. */
+    private final LongAdder issued = new LongAdder();
+
+    /** Anzahl der Anfragen, die eine noch offene Sitzungs-ID des Benutzers erhalten haben. */
+    private final LongAdder reused = new LongAdder();
+
+    /** Anzahl eingelöster Sitzungs-IDs. */
+    private final LongAdder consumed = new LongAdder();
+
+    /** Anzahl der Sitzungs-IDs, die ohne Einlösung abgelaufen und entfernt worden sind. */
+    private final LongAdder expired = new LongAdder();
+
+    /** Anzahl der Einlöseversuche mit unbekannter oder abgelaufener Sitzungs-ID. */
+    private final LongAdder unknown = new LongAdder();
+
+    void recordIssued() {
+        issued.increment();
+    }
+
+    void recordReused() {
+        reused.increment();
+    }
+
+    void recordConsumed() {
+        consumed.increment();
+    }
+
+    void recordExpired() {
+        expired.increment();
+    }
+
+    void recordUnknown() {
+        unknown.increment();
+    }
+
+    public long getIssued() {
+        return issued.sum();
+    }
+
+    public long getReused() {
+        return reused.sum();
+    }
+
+    public long getConsumed() {
+        return consumed.sum();
+    }
+
+    public long getExpired() {
+        return expired.sum();
+    }
+
+    public long getUnknown() {
+        return unknown.sum();
+    }
+
+    /**
+     * Liefert eine Momentaufnahme der Kennzahlen, z.B. für die Ausgabe über RMI.
+     *
+     * @return Die Kennzahlen nach Namen, in derselben Reihenfolge wie {@link #toString()}.
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("issued", getIssued());
+        map.put("reused", getReused());
+        map.put("consumed", getConsumed());
+        map.put("expired", getExpired());
+        map.put("unknown", getUnknown());
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        return "issued=" + getIssued() + ", reused=" + getReused() + ", consumed=" + getConsumed()
+                + ", expired=" + getExpired() + ", unknown=" + getUnknown();
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.carconnect.auth;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verwaltet die offenen Sitzungs-IDs der Anmeldung (Challenges) für gleichzeitige RMI-Aufrufe.
+ *
+ * Zwei {@link ConcurrentHashMap}s ordnen Sitzungs-IDs den Benutzern und Benutzer ihrer offenen Sitzungs-ID zu,
+ * sodass beide Richtungen in O(1) nachgeschlagen werden. Sitzungs-IDs sind zufällige 64-Bit-Werte aus einem
+ * {@link SecureRandom}; eine Kollision mit einer offenen ID wird beim Eintragen erkannt und neu gezogen.
+ *
+ * Nicht eingelöste Sitzungs-IDs laufen nach {@code carconnect.auth.challengeTtlSeconds} ab. Dafür liegt jede
+ * ID zusätzlich in einem Zeitrad mit Fächern zu je einer Sekunde; ein Hintergrund-Thread leert jede Sekunde
+ * das fällige Fach, statt alle Einträge zu durchsuchen.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+public class SessionStore implements AutoCloseable {
+
+    /** Gültigkeitsdauer einer Sitzungs-ID in Millisekunden. */
+    private static final long TTL_MILLIS = TimeUnit.SECONDS.toMillis(Long.getLong("carconnect.auth.challengeTtlSeconds", 60L));
+
+    /** Dauer eines Fachs des Zeitrads in Millisekunden. */
+    private static final long TICK_MILLIS = 1000L;
+
+    /** Anzahl der Fächer; eine Zweierpotenz, damit das Fach per Maske bestimmt werden kann. */
+    private static final int WHEEL_SIZE = 64;
+
+    /** Benutzer je offener Sitzungs-ID. */
+    private final Map<Long, Challenge> bySession = new ConcurrentHashMap<>();
+
+    /** Offene Sitzungs-ID je Benutzer. */
+    private final Map<String, Challenge> byUser = new ConcurrentHashMap<>();
+
+    /** Die Fächer des Zeitrads; ein Eintrag liegt im Fach seines Ablauf-Ticks. */
+    @SuppressWarnings("unchecked")
+    private final Queue<Challenge>[] wheel = new Queue[WHEEL_SIZE];
+
+    /** Quelle der Sitzungs-IDs. */
+    private final SecureRandom random = new SecureRandom();
+
+    /** Kennzahlen des Speichers. */
+    private final SessionMetrics metrics = new SessionMetrics();
+
+    /** Thread, der das Zeitrad weiterdreht. */
+    private final ScheduledExecutorService housekeeper;
+
+    /** Der zuletzt abgearbeitete Tick; nur vom Hintergrund-Thread verwendet. */
+    private long lastTick;
+
+    /**
+     * Erstellt einen leeren Speicher und startet den Hintergrund-Thread für das Zeitrad.
+     */
+    public SessionStore() {
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel[i] = new ConcurrentLinkedQueue<>();
+        }
+        lastTick = System.currentTimeMillis() / TICK_MILLIS;
+        housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        housekeeper.scheduleAtFixedRate(this::advance, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Liefert die offene Sitzungs-ID des Benutzers oder stellt eine neue aus.
+     *
+     * @param username Der Benutzername.
+     * @return Die Sitzungs-ID.
+     */
+    public long issue(String username) {
+        long now = System.currentTimeMillis();
+        Challenge[] created = new Challenge[1];
+        Challenge challenge = byUser.compute(username, (user, existing) -> {
+            if (existing != null && existing.expiresAt > now) {
+                return existing;
+            }
+            if (existing != null) {
+                bySession.remove(existing.id, existing);
+            }
+            Challenge fresh;
+            do {
+                fresh = new Challenge(random.nextLong(), user, now + TTL_MILLIS);
+            } while (bySession.putIfAbsent(fresh.id, fresh) != null);  // Kollision mit einer offenen ID
+            created[0] = fresh;
+            return fresh;
+        });
+        if (created[0] != null) {
+            long tick = Math.floorDiv(challenge.expiresAt + TICK_MILLIS - 1, TICK_MILLIS);
+            wheel[(int) (tick & (WHEEL_SIZE - 1))].add(challenge);
+            metrics.recordIssued();
+        } else {
+            metrics.recordReused();
+        }
+        return challenge.id;
+    }
+
+    /**
+     * Löst eine Sitzungs-ID ein; sie ist danach nicht mehr gültig.
+     *
+     * @param sessionId Die Sitzungs-ID.
+     * @return Der zugehörige Benutzername oder null, wenn die ID unbekannt oder abgelaufen ist.
+     */
+    public String consume(long sessionId) {
+        Challenge challenge = bySession.remove(sessionId);
+        if (challenge == null) {
+            metrics.recordUnknown();
+            return null;
+        }
+        byUser.remove(challenge.username, challenge);
+        if (challenge.expiresAt <= System.currentTimeMillis()) {
+            metrics.recordExpired();  // Abgelaufen, aber vom Zeitrad noch nicht entfernt
+            return null;
+        }
+        metrics.recordConsumed();
+        return challenge.username;
+    }
+
+    /**
+     * @return Die Anzahl der offenen Sitzungs-IDs.
+     */
+    public int size() {
+        return bySession.size();
+    }
+
+    /**
+     * @return Die Kennzahlen des Speichers.
+     */
+    public SessionMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Liefert den aktuellen Zustand des Speichers zusammen mit seinen Kennzahlen.
+     *
+     * @return Die Anzahl der offenen Sitzungs-IDs und {@link SessionMetrics#toMap()}.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("open", size());
+        stats.putAll(metrics.toMap());
+        return stats;
+    }
+
+    /**
+     * Arbeitet alle seit dem letzten Aufruf fälligen Ticks ab, auch wenn der Thread verspätet lief.
+     */
+    private void advance() {
+        long now = System.currentTimeMillis() / TICK_MILLIS;
+        for (long tick = lastTick + 1; tick <= now; tick++) {
+            Queue<Challenge> slot = wheel[(int) (tick & (WHEEL_SIZE - 1))];
+            List<Challenge> later = new ArrayList<>();
+            Challenge challenge;
+            while ((challenge = slot.poll()) != null) {
+                if (challenge.expiresAt > tick * TICK_MILLIS) {
+                    later.add(challenge);  // Erst in einer späteren Umdrehung fällig
+                } else if (bySession.remove(challenge.id, challenge)) {
+                    byUser.remove(challenge.username, challenge);
+                    metrics.recordExpired();
+                }
+            }
+            slot.addAll(later);
+            lastTick = tick;
+        }
+    }
+
+    /**
+     * Beendet den Hintergrund-Thread.
+     */
+    @Override
+    public void close() {
+        housekeeper.shutdownNow();
+        System.out.println("Session store closed: open=" + size() + ", " + metrics);
+    }
+
+    /**
+     * Eine offene Sitzungs-ID.
+     */
+    private static final class Challenge {
+
+        private final long id;
+        private final String username;
+        private final long expiresAt;
+
+        Challenge(long id, String username, long expiresAt) {
+            this.id = id;
+            this.username = username;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
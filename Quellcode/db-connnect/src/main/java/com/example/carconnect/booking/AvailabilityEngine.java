@@ -0,0 +1,470 @@
+package com.example.carconnect.booking;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+
+/**
+ * Hält für jedes Fahrzeug die belegten Zeiträume aus Buchungen und offenen bzw. genehmigten
+ * Buchungsanfragen im Speicher, damit Überschneidungen erkannt werden, bevor die Datenbank berührt wird.
+ *
+ * Die Zeiträume eines Fahrzeugs liegen überschneidungsfrei in einer nach Beginn sortierten {@link TreeMap};
+ * ob {@code [start, end)} frei ist, ergibt sich daher aus dem Vorgänger und dem Nachfolger von {@code start}
+ * in O(log n). Beim Einlesen gefundene Altlasten, die sich bereits in der Datenbank überschneiden,
+ * werden in einer separaten, normalerweise leeren Liste geführt und zusätzlich geprüft.
+ *
+ * Für die Suche nach freien Fahrzeugen in einem Zeitraum führt ein {@link OccupancyIndex} zusätzlich
+ * halbstündliche Belegungs-Bitmaps über alle Fahrzeuge, sodass die belegten Fahrzeuge meist allein aus den Bits
+ * feststehen. Reservierungen, die länger als das Abfragefenster der Bitmaps sind, z.B. Altlasten aus der Datenbank,
+ * werden nicht eingetragen, sondern je Fahrzeug gezählt und bei jeder Suche exakt geprüft.
+ *
+ * Neue Reservierungen über {@link #hold(int, long, long)} dürfen nicht in der Vergangenheit beginnen und höchstens
+ * {@code carconnect.booking.maxDays} Tage (Vorgabe 30) dauern.
+ *
+ * Zugriffe sind über gestreifte Sperren nach Fahrzeug-ID geschützt, sodass gleichzeitige Buchungen
+ * verschiedener Fahrzeuge sich praktisch nie gegenseitig blockieren. Die Datenbank bleibt die maßgebliche
+ * Quelle; der Index wird beim Start mit {@link #load(Collection)} neu aufgebaut. Wie dort werden beendete
+ * Reservierungen nicht dauerhaft gehalten: Sie werden einen Tag nach ihrem Ende entfernt, sodass der Index
+ * nur mit den anstehenden Reservierungen wächst.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+public class AvailabilityEngine {
+
+    /** Höchste Dauer einer neuen Reservierung; sollte unter dem Abfragefenster des {@link OccupancyIndex} liegen. */
+    private static final long MAX_BOOKING_MILLIS = TimeUnit.DAYS.toMillis(Long.getLong("carconnect.booking.maxDays", 30L));
+
+    /** Spielraum für den Beginn, da Zeitangaben minutengenau sind und Uhren voneinander abweichen. */
+    private static final long PAST_TOLERANCE_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    /** Anzahl der Sperren; eine Zweierpotenz, damit der Index per Maske bestimmt werden kann. */
+    private static final int STRIPES = 64;
+
+    /** Die Sperren, über die die Fahrzeuge verteilt werden. */
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    /** Die belegten Zeiträume je Fahrzeug. */
+    private final Map<Integer, Schedule> schedules = new ConcurrentHashMap<>();
+
+    /** Die gespeicherten Reservierungen nach Herkunft und ID, z.B. zum Freigeben nach einer Ablehnung. */
+    private final Map<Long, Reservation> reservations = new ConcurrentHashMap<>();
+
+    /** Halbstündliche Belegung aller Fahrzeuge für die Suche nach freien Fahrzeugen. */
+    private final OccupancyIndex occupancy = new OccupancyIndex();
+
+    /** Anzahl der nicht in {@link #occupancy} eingetragenen, zu langen Reservierungen je Fahrzeug. */
+    private final Map<Integer, Integer> unindexed = new ConcurrentHashMap<>();
+
+    /**
+     * Erstellt einen leeren Index. Ein Hintergrund-Thread entfernt stündlich die Reservierungen und
+     * Belegungs-Bitmaps vergangener Tage.
+     */
+    public AvailabilityEngine() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        ScheduledExecutorService housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "availability-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        housekeeper.scheduleWithFixedDelay(() -> prune(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(1)),
+                1, 1, TimeUnit.HOURS);
+    }
+
+    /**
+     * Baut den Index aus den aktuellen Reservierungen der Datenbank neu auf.
+     *
+     * @param loaded Die Reservierungen, typischerweise aus {@code BookingRepository.getActiveReservations()}.
+     */
+    public void load(Collection<Reservation> loaded) {
+        schedules.clear();
+        reservations.clear();
+        occupancy.clear();
+        unindexed.clear();
+        int overlapping = 0;
+        for (Reservation reservation : loaded) {
+            if (reservation.getEnd() <= reservation.getStart()) {
+                continue;  // Leere Zeiträume belegen nichts
+            }
+            ReentrantLock lock = lockFor(reservation.getVehicleId());
+            lock.lock();
+            try {
+                Schedule schedule = schedules.computeIfAbsent(reservation.getVehicleId(), id -> new Schedule());
+                if (!schedule.add(reservation)) {
+                    schedule.legacyOverlaps.add(reservation);
+                    overlapping++;
+                }
+                index(reservation);
+            } finally {
+                lock.unlock();
+            }
+            reservations.put(key(reservation.getKind(), reservation.getId()), reservation);
+        }
+        System.out.println("Availability index loaded: " + reservations.size() + " reservations for "
+                + schedules.size() + " vehicles" + (overlapping > 0 ? ", " + overlapping + " already overlapping" : ""));
+    }
+
+    /**
+     * Prüft, ob ein Fahrzeug im Zeitraum {@code [start, end)} frei ist.
+     *
+     * @param vehicleId Die ID des Fahrzeugs.
+     * @param start Der Beginn in Millisekunden seit der Epoche.
+     * @param end Das Ende in Millisekunden seit der Epoche.
+     * @return true, wenn sich keine Reservierung mit dem Zeitraum überschneidet.
+     */
+    public boolean isFree(int vehicleId, long start, long end) {
+        ReentrantLock lock = lockFor(vehicleId);
+        lock.lock();
+        try {
+            Schedule schedule = schedules.get(vehicleId);
+            return schedule == null || schedule.isFree(start, end);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Liefert die Fahrzeuge, die im Zeitraum {@code [start, end)} belegt sind, z.B. um sie in der Zeitraumsuche
+     * direkt in der Datenbankabfrage auszuschließen. Die Belegungs-Bitmaps werden dafür einmal je Suche
+     * zusammengefasst; nur Fahrzeuge, die ausschließlich in einem angeschnittenen Randfenster belegt sind,
+     * werden anschließend exakt geprüft, ebenso Fahrzeuge mit Reservierungen, die zu lang für die Bitmaps sind.
+     * Bei sehr langen oder vergangenen Zeiträumen wird jedes Fahrzeug mit Reservierungen exakt geprüft.
+     *
+     * @param start Der Beginn in Millisekunden seit der Epoche.
+     * @param end Das Ende in Millisekunden seit der Epoche, nach dem Beginn.
+     * @return Die IDs der belegten Fahrzeuge, aufsteigend sortiert.
+     */
+    public int[] busyBetween(long start, long end) {
+        OccupancyIndex.Probe probe = occupancy.probe(start, end);
+        int[] candidates = probe != null ? withUnindexed(probe.occupied())
+                : schedules.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+        int count = 0;
+        for (int vehicleId : candidates) {
+            if ((probe != null && probe.test(vehicleId) == OccupancyIndex.BUSY) || !isFree(vehicleId, start, end)) {
+                candidates[count++] = vehicleId;
+            }
+        }
+        return Arrays.copyOf(candidates, count);
+    }
+
+    /**
+     * Belegt den Zeitraum vorläufig, sofern er frei ist. Die Reservierung muss nach dem Speichern mit
+     * {@link #confirm(Reservation, Reservation.Kind, int)} bestätigt oder bei einem Fehler mit
+     * {@link #release(Reservation)} wieder freigegeben werden. Zeiträume, die in der Vergangenheit beginnen oder
+     * länger als {@code carconnect.booking.maxDays} dauern, werden abgelehnt.
+     *
+     * @param vehicleId Die ID des Fahrzeugs.
+     * @param start Der Beginn in Millisekunden seit der Epoche.
+     * @param end Das Ende in Millisekunden seit der Epoche.
+     * @return Die vorläufige Reservierung oder null, wenn der Zeitraum leer, vergangen oder zu lang ist oder sich
+     *         mit einer bestehenden überschneidet.
+     */
+    public Reservation hold(int vehicleId, long start, long end) {
+        if (end <= start || end - start > MAX_BOOKING_MILLIS
+                || start < System.currentTimeMillis() - PAST_TOLERANCE_MILLIS) {
+            return null;
+        }
+        Reservation reservation = new Reservation(null, 0, vehicleId, start, end);
+        ReentrantLock lock = lockFor(vehicleId);
+        lock.lock();
+        try {
+            Schedule schedule = schedules.computeIfAbsent(vehicleId, id -> new Schedule());
+            if (!schedule.isFree(start, end) || !schedule.add(reservation)) {
+                return null;
+            }
+            index(reservation);
+            return reservation;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Bestätigt eine vorläufige Reservierung, nachdem sie in der Datenbank gespeichert wurde.
+     *
+     * @param reservation Die vorläufige Reservierung.
+     * @param kind Die Herkunft der gespeicherten Zeile.
+     * @param id Die ID der gespeicherten Zeile.
+     */
+    public void confirm(Reservation reservation, Reservation.Kind kind, int id) {
+        reservation.assign(kind, id);
+        reservations.put(key(kind, id), reservation);
+    }
+
+    /**
+     * Gibt eine Reservierung frei, z.B. wenn das Speichern fehlgeschlagen ist.
+     *
+     * @param reservation Die freizugebende Reservierung.
+     */
+    public void release(Reservation reservation) {
+        forget(reservation);
+        ReentrantLock lock = lockFor(reservation.getVehicleId());
+        lock.lock();
+        try {
+            Schedule schedule = schedules.get(reservation.getVehicleId());
+            if (schedule != null) {
+                schedule.remove(reservation);
+                if (schedule.isEmpty()) {
+                    schedules.remove(reservation.getVehicleId());
+                }
+                if (!OccupancyIndex.isIndexed(reservation.getStart(), reservation.getEnd())) {
+                    unindexed.computeIfPresent(reservation.getVehicleId(), (id, count) -> count > 1 ? count - 1 : null);
+                    return;
+                }
+                // Bits nur in den Zeitfenstern löschen, die keine andere Reservierung des Fahrzeugs mehr berührt
+                long last = OccupancyIndex.bucketOf(reservation.getEnd() - 1);
+                for (long bucket = OccupancyIndex.bucketOf(reservation.getStart()); bucket <= last; bucket++) {
+                    long bucketStart = bucket * OccupancyIndex.BUCKET_MILLIS;
+                    if (schedule.isFree(bucketStart, bucketStart + OccupancyIndex.BUCKET_MILLIS)) {
+                        occupancy.unmark(reservation.getVehicleId(), bucket);
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gibt die Reservierung einer Buchung oder Buchungsanfrage frei, z.B. nach einer Ablehnung.
+     *
+     * @param kind Die Herkunft der Reservierung.
+     * @param id Die ID der Buchung bzw. Buchungsanfrage.
+     * @return true, wenn eine Reservierung freigegeben wurde.
+     */
+    public boolean release(Reservation.Kind kind, int id) {
+        Reservation reservation = reservations.get(key(kind, id));
+        if (reservation == null) {
+            return false;
+        }
+        release(reservation);
+        return true;
+    }
+
+    /**
+     * Gibt alle Reservierungen eines Fahrzeugs frei, z.B. nachdem es samt seinen Buchungsanfragen gelöscht wurde.
+     *
+     * @param vehicleId Die ID des Fahrzeugs.
+     * @return Die Anzahl der freigegebenen Reservierungen.
+     */
+    public int releaseVehicle(int vehicleId) {
+        ReentrantLock lock = lockFor(vehicleId);
+        lock.lock();
+        try {
+            Schedule schedule = schedules.remove(vehicleId);
+            if (schedule == null) {
+                return 0;
+            }
+            unindexed.remove(vehicleId);
+            List<Reservation> released = schedule.overlapping(Long.MIN_VALUE, Long.MAX_VALUE);
+            for (Reservation reservation : released) {
+                forget(reservation);
+                if (!OccupancyIndex.isIndexed(reservation.getStart(), reservation.getEnd())) {
+                    continue;
+                }
+                long last = OccupancyIndex.bucketOf(reservation.getEnd() - 1);
+                for (long bucket = OccupancyIndex.bucketOf(reservation.getStart()); bucket <= last; bucket++) {
+                    occupancy.unmark(vehicleId, bucket);
+                }
+            }
+            return released.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Entfernt die Reservierungen, die spätestens zum angegebenen Zeitpunkt geendet haben, sowie die
+     * Belegungs-Bitmaps davor.
+     *
+     * @param before Der Zeitpunkt in Millisekunden seit der Epoche.
+     * @return Die Anzahl der entfernten Reservierungen.
+     */
+    int prune(long before) {
+        int pruned = 0;
+        for (Integer vehicleId : schedules.keySet()) {
+            ReentrantLock lock = lockFor(vehicleId);
+            lock.lock();
+            try {
+                Schedule schedule = schedules.get(vehicleId);
+                if (schedule == null) {
+                    continue;
+                }
+                for (Reservation reservation : schedule.removeEnded(before)) {
+                    forget(reservation);
+                    if (!OccupancyIndex.isIndexed(reservation.getStart(), reservation.getEnd())) {
+                        unindexed.computeIfPresent(vehicleId, (id, count) -> count > 1 ? count - 1 : null);
+                    }
+                    pruned++;
+                }
+                if (schedule.isEmpty()) {
+                    schedules.remove(vehicleId);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        occupancy.prune(before);
+        return pruned;
+    }
+
+    /**
+     * Liefert die Reservierungen eines Fahrzeugs, die sich mit dem Zeitraum {@code [start, end)} überschneiden.
+     *
+     * @param vehicleId Die ID des Fahrzeugs.
+     * @param start Der Beginn in Millisekunden seit der Epoche.
+     * @param end Das Ende in Millisekunden seit der Epoche.
+     * @return Die überschneidenden Reservierungen, nach Beginn sortiert.
+     */
+    public List<Reservation> conflicts(int vehicleId, long start, long end) {
+        ReentrantLock lock = lockFor(vehicleId);
+        lock.lock();
+        try {
+            Schedule schedule = schedules.get(vehicleId);
+            return schedule == null ? new ArrayList<>() : schedule.overlapping(start, end);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** @return Die Anzahl der gespeicherten Reservierungen im Index. */
+    public int size() {
+        return reservations.size();
+    }
+
+    /**
+     * Trägt eine Reservierung in die Belegungs-Bitmaps ein oder zählt sie, falls sie dafür zu lang ist.
+     * Nur unter der Sperre des Fahrzeugs aufrufen.
+     */
+    private void index(Reservation reservation) {
+        if (!occupancy.mark(reservation.getVehicleId(), reservation.getStart(), reservation.getEnd())) {
+            unindexed.merge(reservation.getVehicleId(), 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Ergänzt die Fahrzeuge aus den Bitmaps um die Fahrzeuge mit zu langen Reservierungen.
+     */
+    private int[] withUnindexed(int[] occupied) {
+        if (unindexed.isEmpty()) {
+            return occupied;
+        }
+        return IntStream.concat(Arrays.stream(occupied), unindexed.keySet().stream().mapToInt(Integer::intValue))
+                .sorted().distinct().toArray();
+    }
+
+    private void forget(Reservation reservation) {
+        if (reservation.getKind() != null) {
+            reservations.remove(key(reservation.getKind(), reservation.getId()), reservation);
+        }
+    }
+
+    private ReentrantLock lockFor(int vehicleId) {
+        int hash = vehicleId * 0x9E3779B9;  // Streut aufeinanderfolgende IDs über alle Sperren
+        return locks[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+
+    private static long key(Reservation.Kind kind, int id) {
+        return ((long) kind.ordinal() << 32) | (id & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Die belegten Zeiträume eines Fahrzeugs. Wird nur unter der Sperre des Fahrzeugs benutzt.
+     */
+    private static final class Schedule {
+
+        /** Überschneidungsfreie Reservierungen, sortiert nach Beginn. */
+        private final TreeMap<Long, Reservation> byStart = new TreeMap<>();
+
+        /** Beim Einlesen gefundene Reservierungen, die sich bereits mit anderen überschneiden. */
+        private final List<Reservation> legacyOverlaps = new ArrayList<>(0);
+
+        boolean isFree(long start, long end) {
+            Map.Entry<Long, Reservation> before = byStart.floorEntry(start);
+            if (before != null && before.getValue().getEnd() > start) {
+                return false;
+            }
+            Map.Entry<Long, Reservation> after = byStart.ceilingEntry(start);
+            if (after != null && after.getKey() < end) {
+                return false;
+            }
+            for (Reservation reservation : legacyOverlaps) {
+                if (reservation.overlaps(start, end)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Fügt eine Reservierung in die sortierte Menge ein, sofern sie sich mit keiner dort überschneidet.
+         */
+        boolean add(Reservation reservation) {
+            long start = reservation.getStart();
+            Map.Entry<Long, Reservation> before = byStart.floorEntry(start);
+            Map.Entry<Long, Reservation> after = byStart.ceilingEntry(start);
+            if ((before != null && before.getValue().getEnd() > start)
+                    || (after != null && after.getKey() < reservation.getEnd())) {
+                return false;
+            }
+            byStart.put(start, reservation);
+            return true;
+        }
+
+        void remove(Reservation reservation) {
+            if (!byStart.remove(reservation.getStart(), reservation)) {
+                legacyOverlaps.remove(reservation);
+            }
+        }
+
+        /**
+         * Entfernt die Reservierungen, die spätestens zum angegebenen Zeitpunkt enden.
+         */
+        List<Reservation> removeEnded(long before) {
+            List<Reservation> ended = new ArrayList<>();
+            Iterator<Reservation> iterator = byStart.values().iterator();
+            while (iterator.hasNext()) {
+                Reservation reservation = iterator.next();
+                if (reservation.getEnd() > before) {
+                    break;  // Überschneidungsfrei, daher enden alle folgenden ebenfalls später
+                }
+                ended.add(reservation);
+                iterator.remove();
+            }
+            legacyOverlaps.removeIf(reservation -> reservation.getEnd() <= before && ended.add(reservation));
+            return ended;
+        }
+
+        List<Reservation> overlapping(long start, long end) {
+            List<Reservation> result = new ArrayList<>();
+            Map.Entry<Long, Reservation> before = byStart.lowerEntry(start);
+            if (before != null && before.getValue().overlaps(start, end)) {
+                result.add(before.getValue());
+            }
+            result.addAll(byStart.subMap(start, true, end, false).values());
+            for (Reservation reservation : legacyOverlaps) {
+                if (reservation.overlaps(start, end)) {
+                    result.add(reservation);
+                }
+            }
+            result.sort((a, b) -> Long.compare(a.getStart(), b.getStart()));
+            return result;
+        }
+
+        boolean isEmpty() {
+            return byStart.isEmpty() && legacyOverlaps.isEmpty();
+        }
+    }
+}
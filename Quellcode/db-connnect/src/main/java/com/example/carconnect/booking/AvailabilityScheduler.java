@@ -0,0 +1,185 @@
+package com.example.carconnect.booking;
+
+import com.example.carconnect.repository.VehicleRepository;
+import com.example.carconnect.vehicle.VehicleViewList;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plant die Verfügbarkeitswechsel der Fahrzeuge zu Beginn und Ende genehmigter Buchungen.
+ *
+ * Für jede genehmigte Buchung liegen zwei Zeitpunkte in einer {@link DelayQueue}; ein Hintergrund-Thread
+ * wartet auf den nächsten fälligen Zeitpunkt, sammelt alle gleichzeitig fälligen Fahrzeuge ein und gleicht
+ * deren Verfügbarkeit mit einem einzigen UPDATE über {@link VehicleRepository#reconcileAvailability(int[])}
+ * ab. Da der Abgleich den Status aus den genehmigten Buchungen ableitet, statt ihn blind umzuschalten,
+ * sind doppelte oder verspätete Zeitpunkte unschädlich. Die geänderten Fahrzeuge meldet der Abgleich über den
+ * transaktionalen Ausgang an die Webanwendung.
+ *
+ * Die Zeitpunkte werden nicht gespeichert: Beim Start gleicht {@link #start(Collection)} zunächst alle
+ * Fahrzeuge ab, um während eines Stillstands verpasste Wechsel nachzuholen, und plant anschließend die
+ * anstehenden Zeitpunkte aus der Datenbank neu ein.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+public class AvailabilityScheduler implements AutoCloseable {
+
+    /** Wartezeit nach einem Buchungswechsel, damit die Datenbankzeit den Wechsel sicher erreicht hat. */
+    private static final long GRACE_MILLIS = Long.getLong("carconnect.availability.graceMillis", 1000L);
+
+    /** Wartezeit bis zum erneuten Versuch, wenn der Abgleich fehlgeschlagen ist. */
+    private static final long RETRY_MILLIS = Long.getLong("carconnect.availability.retryMillis", 5000L);
+
+    /** Maximale Anzahl an Zeitpunkten, die in einem UPDATE abgeglichen werden. */
+    private static final int MAX_BATCH = Integer.getInteger("carconnect.availability.maxBatch", 1000);
+
+    /** Die anstehenden Zeitpunkte, sortiert nach Fälligkeit. */
+    private final DelayQueue<Transition> transitions = new DelayQueue<>();
+
+    /** Repository für den Abgleich der Verfügbarkeit. */
+    private final VehicleRepository vehicleRepository;
+
+    /** Der Thread, der die fälligen Zeitpunkte abarbeitet. */
+    private final Thread worker;
+
+    /** Gesetzt, sobald der Scheduler beendet wird. */
+    private volatile boolean stopped;
+
+    /**
+     * Konstruktor für AvailabilityScheduler.
+     *
+     * @param vehicleRepository Das Repository für den Abgleich der Verfügbarkeit.
+     */
+    public AvailabilityScheduler(VehicleRepository vehicleRepository) {
+        this.vehicleRepository = vehicleRepository;
+        this.worker = new Thread(this::run, "availability-scheduler");
+        this.worker.setDaemon(true);
+    }
+
+    /**
+     * Holt verpasste Wechsel nach, plant die anstehenden Zeitpunkte ein und startet den Hintergrund-Thread.
+     *
+     * @param approved Die genehmigten, noch nicht beendeten Buchungen,
+     *                 typischerweise aus {@code BookingRepository.getApprovedReservations()}.
+     */
+    public void start(Collection<Reservation> approved) {
+        VehicleViewList changed = vehicleRepository.reconcileAvailability(null);
+        if (changed != null && !changed.isEmpty()) {
+            System.out.println("Availability reconciled on startup: " + changed.size() + " vehicles changed");
+        }
+        for (Reservation reservation : approved) {
+            schedule(reservation.getVehicleId(), reservation.getStart(), reservation.getEnd());
+        }
+        System.out.println("Availability scheduler started with " + transitions.size() + " pending transitions");
+        worker.start();
+    }
+
+    /**
+     * Plant die Verfügbarkeitswechsel einer soeben genehmigten Buchung ein.
+     *
+     * @param approval Das Ergebnis der Genehmigung.
+     */
+    public void schedule(BookingApproval approval) {
+        try {
+            schedule(approval.getVehicleId(), Timestamp.valueOf(approval.getStartTime()).getTime(),
+                    Timestamp.valueOf(approval.getEndTime()).getTime());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Invalid booking period for request " + approval.getRequestId() + ": "
+                    + approval.getStartTime() + " - " + approval.getEndTime());
+        }
+    }
+
+    /**
+     * @return Die Anzahl der anstehenden Zeitpunkte.
+     */
+    public int pending() {
+        return transitions.size();
+    }
+
+    private void schedule(int vehicleId, long start, long end) {
+        long now = System.currentTimeMillis();
+        if (start > now) {
+            transitions.add(new Transition(vehicleId, start + GRACE_MILLIS));
+        }
+        if (end > now) {
+            transitions.add(new Transition(vehicleId, end + GRACE_MILLIS));
+        }
+    }
+
+    private void run() {
+        List<Transition> due = new ArrayList<>();
+        while (!stopped) {
+            try {
+                Transition first = transitions.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                due.add(first);
+                transitions.drainTo(due, MAX_BATCH - 1);  // Alle bereits fälligen Zeitpunkte in einem UPDATE
+                int[] vehicleIds = due.stream().mapToInt(Transition::getVehicleId).distinct().toArray();
+                VehicleViewList changed = vehicleRepository.reconcileAvailability(vehicleIds);
+                if (changed == null) {
+                    long retryAt = System.currentTimeMillis() + RETRY_MILLIS;
+                    for (int vehicleId : vehicleIds) {
+                        transitions.add(new Transition(vehicleId, retryAt));
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            } finally {
+                due.clear();
+            }
+        }
+    }
+
+    /**
+     * Beendet den Hintergrund-Thread. Nicht abgearbeitete Zeitpunkte werden beim nächsten Start neu geladen.
+     */
+    @Override
+    public void close() {
+        stopped = true;
+        worker.interrupt();
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Ein Zeitpunkt, zu dem die Verfügbarkeit eines Fahrzeugs abgeglichen werden muss.
+     */
+    private static final class Transition implements Delayed {
+
+        private final int vehicleId;
+        private final long dueMillis;
+
+        Transition(int vehicleId, long dueMillis) {
+            this.vehicleId = vehicleId;
+            this.dueMillis = dueMillis;
+        }
+
+        int getVehicleId() {
+            return vehicleId;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueMillis, ((Transition) other).dueMillis);
+        }
+    }
+}
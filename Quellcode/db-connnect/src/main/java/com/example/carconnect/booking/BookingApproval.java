@@ -0,0 +1,93 @@
+package com.example.carconnect.booking;
+
+import java.io.Serializable;
+
+/**
+ * Ergebnis einer Genehmigung einer Buchungsanfrage, das per RMI an den Aufrufer zurückgegeben wird.
+ * Enthält die betroffene Anfrage, das gebuchte Fahrzeug und dessen neuen Verfügbarkeitsstatus,
+ * sodass der Aufrufer keine weiteren Abfragen für die Benachrichtigung benötigt.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+public class BookingApproval implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Die ID der genehmigten Buchungsanfrage. */
+    private final int requestId;
+
+    /** Die ID des gebuchten Fahrzeugs. */
+    private final int vehicleId;
+
+    /** Der Benutzername des Anfragenden. */
+    private final String requester;
+
+    /** Die Startzeit der Buchung. */
+    private final String startTime;
+
+    /** Die Endzeit der Buchung. */
+    private final String endTime;
+
+    /** Der neue Status der Buchungsanfrage. */
+    private final String status;
+
+    /** Die Verfügbarkeit des Fahrzeugs nach der Genehmigung. */
+    private final boolean vehicleAvailable;
+
+    /**
+     * Konstruktor für BookingApproval.
+     *
+     * @param requestId Die ID der genehmigten Buchungsanfrage.
+     * @param vehicleId Die ID des gebuchten Fahrzeugs.
+     * @param requester Der Benutzername des Anfragenden.
+     * @param startTime Die Startzeit der Buchung.
+     * @param endTime Die Endzeit der Buchung.
+     * @param status Der neue Status der Buchungsanfrage.
+     * @param vehicleAvailable Die Verfügbarkeit des Fahrzeugs nach der Genehmigung.
+     */
+    public BookingApproval(int requestId, int vehicleId, String requester, String startTime, String endTime,
+                           String status, boolean vehicleAvailable) {
+        this.requestId = requestId;
+        this.vehicleId = vehicleId;
+        this.requester = requester;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.status = status;
+        this.vehicleAvailable = vehicleAvailable;
+    }
+
+    public int getRequestId() {
+        return requestId;
+    }
+
+    public int getVehicleId() {
+        return vehicleId;
+    }
+
+    public String getRequester() {
+        return requester;
+    }
+
+    public String getStartTime() {
+        return startTime;
+    }
+
+    public String getEndTime() {
+        return endTime;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public boolean isVehicleAvailable() {
+        return vehicleAvailable;
+    }
+
+    @Override
+    public String toString() {
+        return "BookingApproval[requestId=" + requestId + ", vehicleId=" + vehicleId + ", requester=" + requester
+                + ", status=" + status + ", vehicleAvailable=" + vehicleAvailable + "]";
+    }
+}
@@ -36,11 +36,22 @@ public interface BookingIf extends Remote {
      */
     boolean approveBookingRequest(int requestId) throws RemoteException;
 
+    /**
+     * Genehmigt eine Buchungsanfrage atomar und liefert das Ergebnis der Genehmigung zurück.
+     * Statusänderung, Eintrag in die Nutzungshistorie und Sperren des Fahrzeugs erfolgen in einer Transaktion.
+     *
+     * @param requestId Die ID der Buchungsanfrage, die genehmigt werden soll.
+     * @return Das Ergebnis der Genehmigung oder null, wenn die Anfrage nicht genehmigt werden konnte.
+     * @throws RemoteException Wenn ein Remote-Methodenaufruf fehlschlägt.
+     */
+    BookingApproval approveBooking(int requestId) throws RemoteException;
+
     /**
      * Lehnt eine Buchungsanfrage basierend auf der Anfrage-ID ab.
      *
      * @param requestId Die ID der Buchungsanfrage, die abgelehnt werden soll.
-     * @return true, wenn die Buchungsanfrage erfolgreich abgelehnt wurde, false andernfalls.
+     * @return true, wenn die Buchungsanfrage erfolgreich abgelehnt wurde, false, wenn sie nicht existiert, nicht
+     *         mehr offen ist oder ein Fehler aufgetreten ist.
      * @throws RemoteException Wenn ein Remote-Methodenaufruf fehlschlägt.
      */
     boolean rejectBookingRequest(int requestId) throws RemoteException;
@@ -54,6 +65,15 @@ public interface BookingIf extends Remote {
      */
     List<Map<String, Object>> getBookingRequests(String username) throws RemoteException;
 
+    /**
+     * Ruft die Buchungsanfragen für die Fahrzeuge eines Benutzers als typisierte Objekte ab.
+     *
+     * @param username Der Benutzername des Fahrzeugbesitzers.
+     * @return Die Buchungsanfragen; die Liste wird kompakt serialisiert.
+     * @throws RemoteException Wenn ein Remote-Methodenaufruf fehlschlägt.
+     */
+    List<BookingRequestView> getBookingRequestViews(String username) throws RemoteException;
+
     /**
      * Ruft die Fahrzeug-ID basierend auf der Anfrage-ID ab.
      *
@@ -95,4 +115,13 @@ public interface BookingIf extends Remote {
      * @throws RemoteException Wenn ein Remote-Methodenaufruf fehlschlägt.
      */
     List<Map<String, Object>> getUsageHistory(String username) throws RemoteException;
+
+    /**
+     * Ruft die Nutzungshistorie eines Benutzers als typisierte Objekte ab.
+     *
+     * @param username Der Benutzername des Nutzers, für den die Nutzungshistorie abgerufen werden soll.
+     * @return Die Einträge der Nutzungshistorie; die Liste wird kompakt serialisiert.
+     * @throws RemoteException Wenn ein Remote-Methodenaufruf fehlschlägt.
+     */
+    List<UsageEntry> getUsageEntries(String username) throws RemoteException;
 }
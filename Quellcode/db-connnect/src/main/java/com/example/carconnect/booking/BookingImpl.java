@@ -1,10 +1,11 @@
 package com.example.carconnect.booking;
 
 import com.example.carconnect.repository.BookingRepository;
-import com.example.carconnect.repository.VehicleRepository;
 
 import java.rmi.RemoteException;
 import java.rmi.server.UnicastRemoteObject;
+import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -21,24 +22,31 @@ public class BookingImpl extends UnicastRemoteObject implements BookingIf {
     /** Repository für Buchungsinformationen. */
     private final BookingRepository bookingRepository;
 
-    /** Repository für Fahrzeuginformationen. */
-    private final VehicleRepository vehicleRepository;
+    /** Index der belegten Zeiträume je Fahrzeug zur Erkennung von Überschneidungen. */
+    private final AvailabilityEngine availabilityEngine;
+
+    /** Scheduler, der die Verfügbarkeit zu Beginn und Ende genehmigter Buchungen umschaltet. */
+    private final AvailabilityScheduler availabilityScheduler;
 
     /**
      * Konstruktor für BookingImpl.
      *
      * @param bookingRepository Das Repository zur Verwaltung von Buchungsinformationen.
-     * @param vehicleRepository Das Repository zur Verwaltung von Fahrzeuginformationen.
+     * @param availabilityEngine Der bereits geladene Index der belegten Zeiträume.
+     * @param availabilityScheduler Der Scheduler der Verfügbarkeitswechsel.
      * @throws RemoteException Wenn ein Remote-Methodenaufruf fehlschlägt.
      */
-    public BookingImpl(BookingRepository bookingRepository, VehicleRepository vehicleRepository) throws RemoteException {
+    public BookingImpl(BookingRepository bookingRepository, AvailabilityEngine availabilityEngine,
+                       AvailabilityScheduler availabilityScheduler) throws RemoteException {
         super();
         this.bookingRepository = bookingRepository;
-        this.vehicleRepository = vehicleRepository;
+        this.availabilityEngine = availabilityEngine;
+        this.availabilityScheduler = availabilityScheduler;
     }
 
     /**
      * Bucht ein Fahrzeug für einen bestimmten Benutzer und zeichnet die Nutzung auf.
+     * Überschneidet sich der Zeitraum mit einer bestehenden Reservierung, wird die Buchung ohne Datenbankzugriff abgelehnt.
      *
      * @param username Der Benutzername des Nutzers, der die Buchung durchführt.
      * @param vehicleId Die ID des Fahrzeugs, das gebucht werden soll.
@@ -50,10 +58,18 @@ public class BookingImpl extends UnicastRemoteObject implements BookingIf {
     @Override
     public boolean bookVehicle(String username, int vehicleId, String startTime, String endTime) throws RemoteException {
         try {
-            boolean result = bookingRepository.bookVehicle(username, vehicleId, startTime, endTime);
+            Reservation hold = hold(vehicleId, startTime, endTime);
+            if (hold == null) {
+                return false;
+            }
+            int bookingId = bookingRepository.bookVehicle(username, vehicleId, startTime, endTime);
+            boolean result = bookingId > 0;
             if (result) {
+                availabilityEngine.confirm(hold, Reservation.Kind.BOOKING, bookingId);
                 bookingRepository.recordUsage(username, vehicleId, startTime, endTime);  // Aufzeichnung der Nutzung bei erfolgreicher Buchung
                 System.out.println("Booking result for vehicle " + vehicleId + ": " + result);
+            } else {
+                availabilityEngine.release(hold);
             }
             return result;
         } catch (Exception e) {
@@ -64,6 +80,7 @@ public class BookingImpl extends UnicastRemoteObject implements BookingIf {
 
     /**
      * Fügt eine neue Buchungsanfrage für ein Fahrzeug hinzu.
+     * Überschneidet sich der Zeitraum mit einer bestehenden Reservierung, wird die Anfrage ohne Datenbankzugriff abgelehnt.
      *
      * @param username Der Benutzername des Nutzers, der die Buchung anfragt.
      * @param vehicleId Die ID des Fahrzeugs, das gebucht werden soll.
@@ -74,7 +91,40 @@ public class BookingImpl extends UnicastRemoteObject implements BookingIf {
      */
     @Override
     public boolean insertBookingRequest(String username, int vehicleId, String startTime, String endTime) throws RemoteException {
-        return bookingRepository.insertBookingRequest(username, vehicleId, startTime, endTime);
+        Reservation hold = hold(vehicleId, startTime, endTime);
+        if (hold == null) {
+            return false;
+        }
+        int requestId = bookingRepository.insertBookingRequest(username, vehicleId, startTime, endTime);
+        if (requestId < 0) {
+            availabilityEngine.release(hold);
+            return false;
+        }
+        availabilityEngine.confirm(hold, Reservation.Kind.REQUEST, requestId);
+        return true;
+    }
+
+    /**
+     * Belegt den Zeitraum im Verfügbarkeitsindex vorläufig.
+     *
+     * @return Die vorläufige Reservierung oder null, wenn der Zeitraum ungültig, vergangen, zu lang oder bereits belegt ist.
+     */
+    private Reservation hold(int vehicleId, String startTime, String endTime) {
+        long start;
+        long end;
+        try {
+            start = Timestamp.valueOf(startTime).getTime();
+            end = Timestamp.valueOf(endTime).getTime();
+        } catch (IllegalArgumentException | NullPointerException e) {
+            System.err.println("Invalid booking period for vehicle " + vehicleId + ": " + startTime + " - " + endTime);
+            return null;
+        }
+        Reservation hold = availabilityEngine.hold(vehicleId, start, end);
+        if (hold == null) {
+            System.out.println("Booking period rejected for vehicle " + vehicleId + " (conflict, past or too long): "
+                    + startTime + " - " + endTime);
+        }
+        return hold;
     }
 
     /**
@@ -86,24 +136,46 @@ public class BookingImpl extends UnicastRemoteObject implements BookingIf {
      */
     @Override
     public boolean approveBookingRequest(int requestId) throws RemoteException {
-        boolean result = bookingRepository.updateBookingRequestStatus(requestId, "APPROVED");
-        if (result) {
-            int vehicleId = bookingRepository.getVehicleIdFromBookingRequest(requestId);
-            vehicleRepository.updateVehicleAvailability(vehicleId, false);  // Setzt die Fahrzeugverfügbarkeit auf "nicht verfügbar"
+        return approveBooking(requestId) != null;
+    }
+
+    /**
+     * Genehmigt eine Buchungsanfrage atomar und liefert das Ergebnis der Genehmigung zurück.
+     * Statusänderung, Eintrag in die Nutzungshistorie und Sperren des Fahrzeugs erfolgen in einer Transaktion.
+     * Beginn und Ende der Buchung werden anschließend für die Verfügbarkeitswechsel eingeplant.
+     *
+     * @param requestId Die ID der Buchungsanfrage, die genehmigt werden soll.
+     * @return Das Ergebnis der Genehmigung oder null, wenn die Anfrage nicht offen ist oder nicht genehmigt
+     *         werden konnte.
+     * @throws RemoteException Wenn ein Remote-Methodenaufruf fehlschlägt.
+     */
+    @Override
+    public BookingApproval approveBooking(int requestId) throws RemoteException {
+        BookingApproval approval = bookingRepository.approveBookingRequest(requestId);  // Ein Roundtrip statt einzelner UPDATE-/INSERT-/SELECT-Aufrufe
+        if (approval != null) {
+            availabilityScheduler.schedule(approval);
         }
-        return result;
+        return approval;
     }
 
     /**
      * Lehnt eine Buchungsanfrage basierend auf der Anfrage-ID ab.
      *
+     * Nur offene Anfragen werden abgelehnt; der Zeitraum wird nur freigegeben, wenn die Anfrage tatsächlich
+     * abgelehnt wurde, damit eine genehmigte Buchung nicht ein zweites Mal vergeben werden kann.
+     *
      * @param requestId Die ID der Buchungsanfrage, die abgelehnt werden soll.
-     * @return true, wenn die Buchungsanfrage erfolgreich abgelehnt wurde, false andernfalls.
+     * @return true, wenn die Buchungsanfrage erfolgreich abgelehnt wurde, false, wenn sie nicht existiert, nicht
+     *         mehr offen ist oder ein Fehler aufgetreten ist.
      * @throws RemoteException Wenn ein Remote-Methodenaufruf fehlschlägt.
      */
     @Override
     public boolean rejectBookingRequest(int requestId) throws RemoteException {
-        return bookingRepository.updateBookingRequestStatus(requestId, "REJECTED");
+        boolean result = bookingRepository.rejectBookingRequest(requestId);
+        if (result) {
+            availabilityEngine.release(Reservation.Kind.REQUEST, requestId);  // Der Zeitraum ist wieder frei
+        }
+        return result;
     }
 
     /**
@@ -115,6 +187,22 @@ public class BookingImpl extends UnicastRemoteObject implements BookingIf {
      */
     @Override
     public List<Map<String, Object>> getBookingRequests(String username) throws RemoteException {
+        List<Map<String, Object>> requests = new ArrayList<>();
+        for (BookingRequestView request : bookingRepository.getBookingRequests(username)) {
+            requests.add(request.toMap());
+        }
+        return requests;
+    }
+
+    /**
+     * Ruft die Buchungsanfragen für die Fahrzeuge eines Benutzers als typisierte Objekte ab.
+     *
+     * @param username Der Benutzername des Fahrzeugbesitzers.
+     * @return Die Buchungsanfragen; die Liste wird kompakt serialisiert.
+     * @throws RemoteException Wenn ein Remote-Methodenaufruf fehlschlägt.
+     */
+    @Override
+    public List<BookingRequestView> getBookingRequestViews(String username) throws RemoteException {
         return bookingRepository.getBookingRequests(username);
     }
 
@@ -154,6 +242,22 @@ public class BookingImpl extends UnicastRemoteObject implements BookingIf {
      */
     @Override
     public List<Map<String, Object>> getUsageHistory(String username) throws RemoteException {
+        List<Map<String, Object>> usageHistory = new ArrayList<>();
+        for (UsageEntry entry : bookingRepository.getUsageHistory(username)) {
+            usageHistory.add(entry.toMap());
+        }
+        return usageHistory;
+    }
+
+    /**
+     * Ruft die Nutzungshistorie eines Benutzers als typisierte Objekte ab.
+     *
+     * @param username Der Benutzername des Nutzers, für den die Nutzungshistorie abgerufen werden soll.
+     * @return Die Einträge der Nutzungshistorie; die Liste wird kompakt serialisiert.
+     * @throws RemoteException Wenn ein Remote-Methodenaufruf fehlschlägt.
+     */
+    @Override
+    public List<UsageEntry> getUsageEntries(String username) throws RemoteException {
         return bookingRepository.getUsageHistory(username);
     }
 }
@@ -0,0 +1,31 @@
+package com.example.carconnect.booking;
+
+import com.example.carconnect.rmi.CompactList;
+import com.example.carconnect.rmi.StringTable;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+/**
+ * Kompakt serialisierte Liste von {@link BookingRequestView}-Objekten.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+public class BookingRequestViewList extends CompactList<BookingRequestView> {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected void writeElement(ObjectOutput out, BookingRequestView request, StringTable strings) throws IOException {
+        request.writeTo(out, strings);
+    }
+
+    @Override
+    protected BookingRequestView readElement(ObjectInput in, StringTable strings) throws IOException {
+        BookingRequestView request = new BookingRequestView();
+        request.readFrom(in, strings);
+        return request;
+    }
+}
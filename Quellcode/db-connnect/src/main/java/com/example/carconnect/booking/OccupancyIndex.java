@@ -0,0 +1,210 @@
+package com.example.carconnect.booking;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Belegung aller Fahrzeuge in Zeitfenstern von einer halben Stunde als Bitmaps: Für jedes Zeitfenster ist das Bit
+ * eines Fahrzeugs gesetzt, wenn sich mindestens eine seiner Reservierungen mit diesem Fenster überschneidet.
+ * Damit lässt sich für einen Suchzeitraum mit wenigen ODER-Verknüpfungen bestimmen, welche Fahrzeuge sicher
+ * belegt, sicher frei oder nur in den angeschnittenen Randfenstern belegt sind; nur letztere müssen exakt
+ * geprüft werden. Halbe Stunden statt ganzer sorgen dafür, dass auch eine einstündige Suche ein vollständig
+ * überdecktes Fenster enthält und nicht jedes belegte Fahrzeug exakt geprüft werden muss.
+ *
+ * Die Bitmaps sind in Seiten zu je 65.536 Fahrzeug-IDs aufgeteilt und werden bei Bedarf angelegt.
+ * Bits werden atomar gesetzt und gelöscht; Änderungen für ein Fahrzeug erfolgen unter dessen Sperre
+ * in der {@link AvailabilityEngine}.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+class OccupancyIndex {
+
+    /** Länge eines Zeitfensters in Millisekunden. */
+    static final long BUCKET_MILLIS = 1_800_000L;
+
+    /** Maximale Anzahl an Zeitfenstern je Abfrage; längere Zeiträume werden exakt je Fahrzeug geprüft. */
+    static final int MAX_PROBE_BUCKETS = 2 * 24 * 62;
+
+    /** Anzahl der Fahrzeug-IDs je Seite als Zweierpotenz. */
+    private static final int PAGE_SHIFT = 16;
+
+    /** Anzahl der long-Werte je Seite. */
+    private static final int PAGE_WORDS = (1 << PAGE_SHIFT) / 64;
+
+    /** Ergebnis einer Abfrage: sicher frei. */
+    static final int FREE = 0;
+
+    /** Ergebnis einer Abfrage: sicher belegt. */
+    static final int BUSY = 1;
+
+    /** Ergebnis einer Abfrage: nur in einem angeschnittenen Randfenster belegt, exakte Prüfung nötig. */
+    static final int MAYBE = 2;
+
+    /** Die Seiten der Bitmaps, geschlüsselt nach Zeitfenster und Seitennummer. */
+    private final Map<Long, AtomicLongArray> pages = new ConcurrentHashMap<>();
+
+    /** Die größte bisher verwendete Seitennummer. */
+    private final AtomicInteger maxPage = new AtomicInteger();
+
+    /** Zeitpunkt, vor dem die Zeitfenster bereits entfernt wurden. */
+    private volatile long prunedBefore = Long.MIN_VALUE;
+
+    /**
+     * Setzt das Bit des Fahrzeugs in allen Zeitfenstern, die sich mit {@code [start, end)} überschneiden.
+     * Zeiträume über mehr als {@link #MAX_PROBE_BUCKETS} Fenster werden nicht eingetragen, da sonst eine einzige
+     * Reservierung beliebig viele Seiten anlegen könnte; die {@link AvailabilityEngine} prüft sie exakt.
+     *
+     * @return false, wenn der Zeitraum zu lang ist und nichts gesetzt wurde.
+     */
+    boolean mark(int vehicleId, long start, long end) {
+        if (!isIndexed(start, end)) {
+            return false;
+        }
+        int page = vehicleId >>> PAGE_SHIFT;
+        maxPage.accumulateAndGet(page, Math::max);
+        int word = (vehicleId & ((1 << PAGE_SHIFT) - 1)) >>> 6;
+        long bit = 1L << vehicleId;
+        for (long bucket = bucketOf(start), last = bucketOf(end - 1); bucket <= last; bucket++) {
+            pages.computeIfAbsent(key(bucket, page), k -> new AtomicLongArray(PAGE_WORDS))
+                    .accumulateAndGet(word, bit, (current, mask) -> current | mask);
+        }
+        return true;
+    }
+
+    /**
+     * Löscht das Bit des Fahrzeugs in einem Zeitfenster.
+     */
+    void unmark(int vehicleId, long bucket) {
+        AtomicLongArray words = pages.get(key(bucket, vehicleId >>> PAGE_SHIFT));
+        if (words != null) {
+            long bit = 1L << vehicleId;
+            words.accumulateAndGet((vehicleId & ((1 << PAGE_SHIFT) - 1)) >>> 6, bit, (current, mask) -> current & ~mask);
+        }
+    }
+
+    /**
+     * Fasst die Zeitfenster des Zeitraums {@code [start, end)} zusammen.
+     *
+     * @return Die Zusammenfassung oder null, wenn der Zeitraum zu lang ist oder vor bereits entfernten Fenstern beginnt.
+     */
+    Probe probe(long start, long end) {
+        long first = bucketOf(start);
+        long last = bucketOf(end - 1);
+        if (start < prunedBefore || !isIndexed(start, end)) {
+            return null;
+        }
+        int pageCount = maxPage.get() + 1;
+        long[][] busy = new long[pageCount][];
+        long[][] maybe = new long[pageCount][];
+        for (long bucket = first; bucket <= last; bucket++) {
+            // Vollständig im Zeitraum liegende Fenster belegen sicher; angeschnittene Randfenster nur möglicherweise
+            boolean covered = bucket * BUCKET_MILLIS >= start && (bucket + 1) * BUCKET_MILLIS <= end;
+            long[][] target = covered ? busy : maybe;
+            for (int page = 0; page < pageCount; page++) {
+                AtomicLongArray words = pages.get(key(bucket, page));
+                if (words == null) {
+                    continue;
+                }
+                if (target[page] == null) {
+                    target[page] = new long[PAGE_WORDS];
+                }
+                long[] into = target[page];
+                for (int i = 0; i < PAGE_WORDS; i++) {
+                    into[i] |= words.get(i);
+                }
+            }
+        }
+        return new Probe(busy, maybe);
+    }
+
+    /**
+     * Entfernt alle Zeitfenster.
+     */
+    void clear() {
+        pages.clear();
+    }
+
+    /**
+     * Entfernt alle Zeitfenster, die vor dem angegebenen Zeitpunkt enden.
+     *
+     * @param before Der Zeitpunkt in Millisekunden seit der Epoche.
+     */
+    void prune(long before) {
+        long firstKept = bucketOf(before);
+        prunedBefore = firstKept * BUCKET_MILLIS;  // Zuerst setzen, damit Abfragen die Lücke nicht als frei deuten
+        pages.keySet().removeIf(key -> (key >> 15) < firstKept);
+    }
+
+    /**
+     * @return true, wenn der Zeitraum {@code [start, end)} kurz genug für die Bitmaps ist.
+     */
+    static boolean isIndexed(long start, long end) {
+        return bucketOf(end - 1) - bucketOf(start) < MAX_PROBE_BUCKETS;
+    }
+
+    static long bucketOf(long time) {
+        return Math.floorDiv(time, BUCKET_MILLIS);
+    }
+
+    private static long key(long bucket, int page) {
+        return (bucket << 15) | page;
+    }
+
+    /**
+     * Zusammengefasste Belegung eines Suchzeitraums.
+     */
+    static final class Probe {
+
+        private final long[][] busy;
+        private final long[][] maybe;
+
+        Probe(long[][] busy, long[][] maybe) {
+            this.busy = busy;
+            this.maybe = maybe;
+        }
+
+        /**
+         * @return {@link #FREE}, {@link #BUSY} oder {@link #MAYBE} für das Fahrzeug.
+         */
+        int test(int vehicleId) {
+            int page = vehicleId >>> PAGE_SHIFT;
+            if (page >= busy.length) {
+                return FREE;  // Fahrzeug ohne jede Reservierung
+            }
+            int word = (vehicleId & ((1 << PAGE_SHIFT) - 1)) >>> 6;
+            long bit = 1L << vehicleId;
+            if (busy[page] != null && (busy[page][word] & bit) != 0) {
+                return BUSY;
+            }
+            return maybe[page] != null && (maybe[page][word] & bit) != 0 ? MAYBE : FREE;
+        }
+
+        /**
+         * @return Die Fahrzeuge, die sicher oder möglicherweise belegt sind, aufsteigend sortiert.
+         */
+        int[] occupied() {
+            int[] vehicleIds = new int[64];
+            int count = 0;
+            for (int page = 0; page < busy.length; page++) {
+                if (busy[page] == null && maybe[page] == null) {
+                    continue;
+                }
+                for (int word = 0; word < PAGE_WORDS; word++) {
+                    long bits = (busy[page] != null ? busy[page][word] : 0) | (maybe[page] != null ? maybe[page][word] : 0);
+                    while (bits != 0) {
+                        if (count == vehicleIds.length) {
+                            vehicleIds = Arrays.copyOf(vehicleIds, count * 2);
+                        }
+                        vehicleIds[count++] = (page << PAGE_SHIFT) | (word << 6) | Long.numberOfTrailingZeros(bits);
+                        bits &= bits - 1;
+                    }
+                }
+            }
+            return Arrays.copyOf(vehicleIds, count);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.carconnect.booking;
+
+/**
+ * Ein belegter Zeitraum {@code [start, end)} eines Fahrzeugs, wie ihn die {@link AvailabilityEngine} verwaltet.
+ * Eine Reservierung stammt entweder aus einer Buchung oder aus einer offenen bzw. genehmigten Buchungsanfrage.
+ * Solange sie noch nicht in der Datenbank gespeichert ist, hat sie die ID 0 und hält den Zeitraum nur vorläufig.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+public final class Reservation {
+
+    /** Herkunft einer Reservierung. */
+    public enum Kind {
+        /** Eine Zeile der Tabelle {@code bookings}. */
+        BOOKING,
+        /** Eine Zeile der Tabelle {@code booking_requests}. */
+        REQUEST
+    }
+
+    private final int vehicleId;
+    private final long start;
+    private final long end;
+    private volatile Kind kind;
+    private volatile int id;
+
+    /**
+     * Konstruktor für Reservation.
+     *
+     * @param kind Die Herkunft der Reservierung oder null für eine vorläufige Reservierung.
+     * @param id Die ID der Buchung bzw. Buchungsanfrage oder 0 für eine vorläufige Reservierung.
+     * @param vehicleId Die ID des Fahrzeugs.
+     * @param start Der Beginn in Millisekunden seit der Epoche (einschließlich).
+     * @param end Das Ende in Millisekunden seit der Epoche (ausschließlich).
+     */
+    public Reservation(Kind kind, int id, int vehicleId, long start, long end) {
+        this.kind = kind;
+        this.id = id;
+        this.vehicleId = vehicleId;
+        this.start = start;
+        this.end = end;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getVehicleId() {
+        return vehicleId;
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public long getEnd() {
+        return end;
+    }
+
+    /**
+     * Prüft, ob sich die Reservierung mit dem Zeitraum {@code [start, end)} überschneidet.
+     *
+     * @param start Der Beginn des Zeitraums.
+     * @param end Das Ende des Zeitraums.
+     * @return true bei einer Überschneidung.
+     */
+    public boolean overlaps(long start, long end) {
+        return this.start < end && start < this.end;
+    }
+
+    void assign(Kind kind, int id) {
+        this.kind = kind;
+        this.id = id;
+    }
+
+    @Override
+    public String toString() {
+        return kind + "#" + id + "[vehicle=" + vehicleId + ", " + start + ".." + end + ")";
+    }
+}
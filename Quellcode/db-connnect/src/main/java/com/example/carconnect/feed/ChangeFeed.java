@@ -0,0 +1,130 @@
+package com.example.carconnect.feed;
+
+import com.example.carconnect.repository.ChangeOutbox;
+
+import java.rmi.RemoteException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stellt die Änderungen aus dem {@link ChangeOutbox} an die registrierten {@link ChangeListener} zu.
+ *
+ * Ein Hintergrund-Thread wird nach jedem Commit mit neuen Zeilen geweckt und fragt den Ausgang zusätzlich in
+ * einem festen Intervall ab, um auch Änderungen anderer Server zu erfassen. Jeder Abruf liest bis zu
+ * {@code batchSize} Zeilen und meldet sie mit einem einzigen Aufruf je Empfänger; gibt es mehr Zeilen, wird
+ * sofort weiter gelesen. Empfänger, die nicht mehr erreichbar sind, werden entfernt und müssen sich neu
+ * registrieren; sie erkennen das am Ergebnis von {@link #addListener(ChangeListener)}.
+ *
+ * Konfiguration über System-Properties: {@code carconnect.feed.pollMillis} (Abrufintervall, 1000),
+ * {@code carconnect.feed.batchSize} (Zeilen je Abruf, 256) und {@code carconnect.feed.leaseSeconds}
+ * (Reservierung der Zeilen eines Abrufs, 60).
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+public class ChangeFeed implements AutoCloseable {
+
+    /** Abrufintervall, falls kein Commit den Thread weckt. */
+    private static final long POLL_MILLIS = Long.getLong("carconnect.feed.pollMillis", 1000L);
+
+    /** Höchste Anzahl an Zeilen je Abruf. */
+    private static final int BATCH_SIZE = Integer.getInteger("carconnect.feed.batchSize", 256);
+
+    /** Die registrierten Empfänger. */
+    private final Set<ChangeListener> listeners = new CopyOnWriteArraySet<>();
+
+    /** Anzahl der zugestellten Änderungen. */
+    private final LongAdder published = new LongAdder();
+
+    /** Anzahl der Abrufe mit mindestens einer Änderung. */
+    private final LongAdder batches = new LongAdder();
+
+    /** Der Ausgang, aus dem gelesen wird. */
+    private final ChangeOutbox outbox;
+
+    /** Der Thread, der den Ausgang abarbeitet. */
+    private final Thread worker;
+
+    /** Gesetzt, sobald der Feed beendet wird. */
+    private volatile boolean stopped;
+
+    /**
+     * Konstruktor für ChangeFeed.
+     *
+     * @param outbox Der Ausgang, aus dem gelesen wird.
+     */
+    public ChangeFeed(ChangeOutbox outbox) {
+        this.outbox = outbox;
+        this.worker = new Thread(this::run, "change-feed");
+        this.worker.setDaemon(true);
+    }
+
+    /**
+     * Startet den Hintergrund-Thread; bereits vorhandene Zeilen werden sofort zugestellt.
+     */
+    public void start() {
+        worker.start();
+    }
+
+    /**
+     * Registriert einen Empfänger. Eine wiederholte Registrierung ist wirkungslos.
+     *
+     * @param listener Der Empfänger.
+     * @return true, wenn der Empfänger neu registriert wurde, false, wenn er bereits registriert war.
+     */
+    public boolean addListener(ChangeListener listener) {
+        return listeners.add(listener);
+    }
+
+    private void run() {
+        while (!stopped) {
+            try {
+                outbox.awaitSignal(POLL_MILLIS);
+                int count;
+                do {
+                    count = outbox.drain(BATCH_SIZE, this::notifyListeners);
+                } while (count == BATCH_SIZE && !stopped);
+                if (count < 0) {
+                    TimeUnit.MILLISECONDS.sleep(POLL_MILLIS);  // Datenbank nicht erreichbar
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void notifyListeners(List<ChangeEvent> changes) {
+        batches.increment();
+        published.add(changes.size());
+        for (ChangeListener listener : listeners) {
+            try {
+                listener.changesPublished(changes);
+            } catch (RemoteException e) {
+                listeners.remove(listener);  // Der Empfänger meldet sich erneut an und lädt dann neu
+                System.err.println("Removed unreachable change listener: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Beendet den Hintergrund-Thread. Nicht zugestellte Zeilen bleiben im Ausgang und werden nach Ablauf ihrer
+     * Reservierung bzw. beim nächsten Start zugestellt.
+     */
+    @Override
+    public void close() {
+        stopped = true;
+        worker.interrupt();
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.println("Change feed: published=" + published.sum() + ", batches=" + batches.sum());
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.carconnect.feed;
+
+import com.example.carconnect.vehicle.VehicleIf;
+
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+import java.util.List;
+
+/**
+ * Rückruf-Schnittstelle, über die der Server die Änderungen aus dem transaktionalen Ausgang meldet.
+ * Die Webanwendung exportiert eine Implementierung per RMI und registriert sie über
+ * {@link VehicleIf#addChangeListener(ChangeListener)}.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+public interface ChangeListener extends Remote {
+
+    /**
+     * Wird mit den Änderungen eines Abrufs in der Reihenfolge ihrer IDs aufgerufen.
+     *
+     * @param changes Die Änderungen.
+     * @throws RemoteException Wenn ein Remote-Methodenaufruf fehlschlägt.
+     */
+    void changesPublished(List<ChangeEvent> changes) throws RemoteException;
+}
@@ -0,0 +1,23 @@
+package com.example.carconnect.metrics;
+
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+import java.util.Map;
+
+/**
+ * Schnittstelle für das Auslesen der Kennzahlen des Servers über RMI.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+public interface MetricsIf extends Remote {
+
+    /**
+     * Liefert eine Momentaufnahme der Kennzahlen aller registrierten Komponenten.
+     *
+     * @return Je Komponente (z.B. {@code connectionPool}) die Kennzahlen nach Namen; die Werte sind Zahlen
+     *         oder Zahlen-Arrays (Histogramme).
+     * @throws RemoteException Wenn ein Remote-Methodenaufruf fehlschlägt.
+     */
+    Map<String, Map<String, Object>> getMetrics() throws RemoteException;
+}
@@ -0,0 +1,55 @@
+package com.example.carconnect.metrics;
+
+import java.rmi.RemoteException;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Implementierung der `MetricsIf`-Schnittstelle, die über RMI verfügbar ist.
+ * Die Komponenten des Servers werden beim Start mit einer Quelle ihrer Kennzahlen registriert;
+ * jeder Aufruf liest alle Quellen neu aus.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+public class MetricsImpl extends UnicastRemoteObject implements MetricsIf {
+
+    /** Die Quellen der Kennzahlen je Komponente, in der Reihenfolge ihrer Registrierung. */
+    private final Map<String, Supplier<Map<String, Object>>> sources = new LinkedHashMap<>();
+
+    /**
+     * Konstruktor für `MetricsImpl`.
+     *
+     * @throws RemoteException Wenn ein Remote-Methodenaufruf fehlschlägt.
+     */
+    public MetricsImpl() throws RemoteException {
+        super();
+    }
+
+    /**
+     * Registriert die Kennzahlen einer Komponente.
+     *
+     * @param name Der Name der Komponente in der Ausgabe.
+     * @param source Liefert bei jedem Aufruf eine Momentaufnahme der Kennzahlen.
+     */
+    public synchronized void register(String name, Supplier<Map<String, Object>> source) {
+        sources.put(name, source);
+    }
+
+    /**
+     * Liefert eine Momentaufnahme der Kennzahlen aller registrierten Komponenten.
+     *
+     * @return Je Komponente die Kennzahlen nach Namen.
+     * @throws RemoteException Wenn ein Remote-Methodenaufruf fehlschlägt.
+     */
+    @Override
+    public synchronized Map<String, Map<String, Object>> getMetrics() throws RemoteException {
+        Map<String, Map<String, Object>> metrics = new LinkedHashMap<>();
+        for (Map.Entry<String, Supplier<Map<String, Object>>> source : sources.entrySet()) {
+            metrics.put(source.getKey(), source.getValue().get());
+        }
+        return metrics;
+    }
+}
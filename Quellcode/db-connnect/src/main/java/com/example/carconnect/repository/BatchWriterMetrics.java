@@ -0,0 +1,168 @@
+package com.example.carconnect.repository;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sammelt Kennzahlen des {@link UsageHistoryWriter}: geschriebene Stapel und Zeilen, fehlgeschlagene
+ * und wegen voller Warteschlange abgewiesene Zeilen sowie Histogramme der Stapelgrößen und der Schreibdauer.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+public class BatchWriterMetrics {
+
+    /** Obere Grenzen der Histogramm-Klassen für Stapelgrößen. */
+    private static final long[] BATCH_SIZE_BOUNDS = {1, 2, 5, 10, 50, 100, 500};
+
+    /** Obere Grenzen der Histogramm-Klassen für die Schreibdauer in Millisekunden. */
+    private static final long[] FLUSH_BUCKET_BOUNDS_MILLIS = {1, 5, 10, 50, 100, 500, 1000};
+
+    /** Anzahl geschriebener Stapel. */
+    private final LongAdder batches = new LongAdder();
+
+    /** Anzahl erfolgreich geschriebener Zeilen. */
+    private final LongAdder rows = new LongAdder();
+
+    /** Anzahl der Zeilen, die nicht geschrieben werden konnten. */
+    private final LongAdder failedRows = new LongAdder();
+
+    /** Anzahl der Zeilen, die wegen voller Warteschlange abgewiesen wurden. */
+    private final LongAdder rejected = new LongAdder();
+
+    /** Summe aller Schreibdauern in Nanosekunden. */
+    private final LongAdder totalFlushNanos = new LongAdder();
+
+    /** Größter bisher geschriebener Stapel. */
+    private final LongAccumulator maxBatchSize = new LongAccumulator(Math::max, 0);
+
+    /** Histogramm der Stapelgrößen; die letzte Klasse nimmt alle Werte über der größten Grenze auf. */
+    private final AtomicLongArray batchSizeHistogram = new AtomicLongArray(BATCH_SIZE_BOUNDS.length + 1);
+
+    /** Histogramm der Schreibdauer; die letzte Klasse nimmt alle Werte über der größten Grenze auf. */
+    private final AtomicLongArray flushHistogram = new AtomicLongArray(FLUSH_BUCKET_BOUNDS_MILLIS.length + 1);
+
+    void recordFlush(int batchSize, int failed, long flushNanos) {
+        batches.increment();
+        rows.add(batchSize - failed);
+        failedRows.add(failed);
+        totalFlushNanos.add(flushNanos);
+        maxBatchSize.accumulate(batchSize);
+        batchSizeHistogram.incrementAndGet(bucket(BATCH_SIZE_BOUNDS, batchSize));
+        flushHistogram.incrementAndGet(bucket(FLUSH_BUCKET_BOUNDS_MILLIS, TimeUnit.NANOSECONDS.toMillis(flushNanos)));
+    }
+
+    void recordRejected() {
+        rejected.increment();
+    }
+
+    private static int bucket(long[] bounds, long value) {
+        int bucket = 0;
+        while (bucket < bounds.length && value > bounds[bucket]) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    public long getRows() {
+        return rows.sum();
+    }
+
+    public long getFailedRows() {
+        return failedRows.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getMaxBatchSize() {
+        return maxBatchSize.get();
+    }
+
+    /**
+     * Liefert die durchschnittliche Anzahl Zeilen je Stapel.
+     *
+     * @return Die mittlere Stapelgröße.
+     */
+    public double getAverageBatchSize() {
+        long count = batches.sum();
+        return count == 0 ? 0.0 : (double) (rows.sum() + failedRows.sum()) / count;
+    }
+
+    /**
+     * Liefert die durchschnittliche Dauer eines Schreibvorgangs.
+     *
+     * @return Die mittlere Schreibdauer in Millisekunden.
+     */
+    public double getAverageFlushMillis() {
+        long count = batches.sum();
+        return count == 0 ? 0.0 : totalFlushNanos.sum() / 1_000_000.0 / count;
+    }
+
+    /** @return Eine Kopie des Histogramms der Stapelgrößen, passend zu den Grenzen {@code 1, 2, 5, 10, 50, 100, 500}. */
+    public long[] getBatchSizeHistogram() {
+        return copy(batchSizeHistogram);
+    }
+
+    /** @return Eine Kopie des Histogramms der Schreibdauer, passend zu den Grenzen {@code 1, 5, 10, 50, 100, 500, 1000} ms. */
+    public long[] getFlushHistogram() {
+        return copy(flushHistogram);
+    }
+
+    private static long[] copy(AtomicLongArray histogram) {
+        long[] copy = new long[histogram.length()];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = histogram.get(i);
+        }
+        return copy;
+    }
+
+    private static String format(long[] bounds, long[] counts, String unit) {
+        StringBuilder histogram = new StringBuilder();
+        for (int i = 0; i < counts.length; i++) {
+            histogram.append(i < bounds.length ? "<=" + bounds[i] + unit : ">" + bounds[bounds.length - 1] + unit);
+            histogram.append('=').append(counts[i]).append(i < counts.length - 1 ? ", " : "");
+        }
+        return histogram.toString();
+    }
+
+    /**
+     * Liefert eine Momentaufnahme der Kennzahlen, z.B. für die Ausgabe über RMI.
+     *
+     * @return Die Kennzahlen nach Namen, in derselben Reihenfolge wie {@link #toString()}.
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("batches", getBatches());
+        map.put("rows", getRows());
+        map.put("failedRows", getFailedRows());
+        map.put("rejected", getRejected());
+        map.put("maxBatchSize", getMaxBatchSize());
+        map.put("avgBatchSize", getAverageBatchSize());
+        map.put("avgFlushMs", getAverageFlushMillis());
+        map.put("batchSizeBounds", BATCH_SIZE_BOUNDS.clone());
+        map.put("batchSizeHistogram", getBatchSizeHistogram());
+        map.put("flushBucketBoundsMs", FLUSH_BUCKET_BOUNDS_MILLIS.clone());
+        map.put("flushHistogram", getFlushHistogram());
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        return "batches=" + getBatches() + ", rows=" + getRows() + ", failedRows=" + getFailedRows()
+                + ", rejected=" + getRejected() + ", maxBatchSize=" + getMaxBatchSize()
+                + ", avgBatchSize=" + String.format("%.1f", getAverageBatchSize())
+                + ", avgFlushMs=" + String.format("%.3f", getAverageFlushMillis())
+                + ", batchSizes=[" + format(BATCH_SIZE_BOUNDS, getBatchSizeHistogram(), "") + "]"
+                + ", flushLatency=[" + format(FLUSH_BUCKET_BOUNDS_MILLIS, getFlushHistogram(), "ms") + "]";
+    }
+}
@@ -1,14 +1,21 @@
 package com.example.carconnect.repository;
 
+import com.example.carconnect.booking.AvailabilityEngine;
+import com.example.carconnect.booking.BookingApproval;
+import com.example.carconnect.booking.BookingRequestView;
+import com.example.carconnect.booking.BookingRequestViewList;
+import com.example.carconnect.booking.Reservation;
+import com.example.carconnect.booking.UsageEntry;
+import com.example.carconnect.booking.UsageEntryList;
+import org.json.JSONObject;
+
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Repository-Klasse, die für den Zugriff auf die Datenbank und die Verwaltung von Buchungsdaten verantwortlich ist.
@@ -22,13 +29,24 @@ public class BookingRepository {
     /** Verbindungsmanager für die Datenbank. */
     private final DBConnectionManager dbConnectionManager;
 
+    /** Gebündelter Schreiber für die Nutzungshistorie. */
+    private final UsageHistoryWriter usageHistoryWriter;
+
+    /** Ausgang für die Änderungsbenachrichtigungen. */
+    private final ChangeOutbox changeOutbox;
+
     /**
      * Konstruktor für das BookingRepository.
      *
      * @param dbConnectionManager Ein Manager, der die Datenbankverbindungen verwaltet.
+     * @param usageHistoryWriter Der Schreiber, über den die Nutzungshistorie gebündelt eingefügt wird.
+     * @param changeOutbox Der Ausgang, in den Änderungen in ihrer Transaktion geschrieben werden.
      */
-    public BookingRepository(DBConnectionManager dbConnectionManager) {
+    public BookingRepository(DBConnectionManager dbConnectionManager, UsageHistoryWriter usageHistoryWriter,
+                             ChangeOutbox changeOutbox) {
         this.dbConnectionManager = dbConnectionManager;
+        this.usageHistoryWriter = usageHistoryWriter;
+        this.changeOutbox = changeOutbox;
     }
 
     /**
@@ -38,109 +56,250 @@ public class BookingRepository {
      * @param vehicleId Die ID des zu buchenden Fahrzeugs.
      * @param startTime Die Startzeit der Buchung.
      * @param endTime Die Endzeit der Buchung.
-     * @return true, wenn die Buchung erfolgreich war, false andernfalls.
+     * @return Die ID der neuen Buchung oder -1 im Fehlerfall.
      */
-    public boolean bookVehicle(String username, int vehicleId, String startTime, String endTime) {
-        try {
-            Connection connection = dbConnectionManager.getConnection();
-            String query = "INSERT INTO bookings (start_time, end_time, vehicle_id, username, status) VALUES (?, ?, ?, ?, 'PENDING')";
-            PreparedStatement statement = connection.prepareStatement(query);
+    public int bookVehicle(String username, int vehicleId, String startTime, String endTime) {
+        String query = "INSERT INTO bookings (start_time, end_time, vehicle_id, username, status) VALUES (?, ?, ?, ?, 'PENDING') RETURNING id";
+        try (Connection connection = dbConnectionManager.getConnection();
+             PreparedStatement statement = connection.prepareStatement(query)) {
             statement.setTimestamp(1, Timestamp.valueOf(startTime));
             statement.setTimestamp(2, Timestamp.valueOf(endTime));
             statement.setInt(3, vehicleId);
             statement.setString(4, username);
-            statement.execute();  // Ausführung des SQL-Befehls zum Einfügen der Buchung
-            return true;
+            try (ResultSet resultSet = statement.executeQuery()) {  // Einfügen der Buchung samt Rückgabe der ID
+                if (resultSet.next()) {
+                    return resultSet.getInt("id");
+                }
+            }
         } catch (SQLException e) {
             e.printStackTrace();
-            return false;  // Rückgabe von false bei SQL-Ausnahme
         }
+        return -1;  // Rückgabe von -1 im Fehlerfall
     }
 
     /**
-     * Fügt eine neue Buchungsanfrage in die Datenbank ein.
+     * Fügt eine neue Buchungsanfrage in die Datenbank ein und schreibt die Benachrichtigung
+     * {@code newBookingRequest} für den Posteingang des Fahrzeugbesitzers in derselben Transaktion in den
+     * {@link ChangeOutbox}.
      *
      * @param username Der Benutzername des Nutzers, der die Anfrage stellt.
      * @param vehicleId Die ID des Fahrzeugs, das angefragt wird.
      * @param startTime Die Startzeit der Buchung.
      * @param endTime Die Endzeit der Buchung.
-     * @return true, wenn die Anfrage erfolgreich war, false andernfalls.
+     * @return Die ID der neuen Buchungsanfrage oder -1 im Fehlerfall.
      */
-    public boolean insertBookingRequest(String username, int vehicleId, String startTime, String endTime) {
-        try {
-            Connection connection = dbConnectionManager.getConnection();
-            String query = "INSERT INTO booking_requests (vehicle_id, requester, start_time, end_time, status) VALUES (?, ?, ?, ?, 'PENDING')";
-            PreparedStatement statement = connection.prepareStatement(query);
-            statement.setInt(1, vehicleId);
-            statement.setString(2, username);
-            statement.setTimestamp(3, Timestamp.valueOf(startTime));
-            statement.setTimestamp(4, Timestamp.valueOf(endTime));
-            statement.execute();  // Ausführung des SQL-Befehls zum Einfügen der Buchungsanfrage
-            return true;
+    public int insertBookingRequest(String username, int vehicleId, String startTime, String endTime) {
+        String query = "INSERT INTO booking_requests (vehicle_id, requester, start_time, end_time, status) VALUES (?, ?, ?, ?, 'PENDING') " +
+                "RETURNING id, (SELECT u.username FROM vehicles v JOIN users u ON u.id = v.owner_id WHERE v.id = vehicle_id) AS owner";
+        try (Connection connection = dbConnectionManager.getConnection()) {
+            connection.setAutoCommit(false);
+            int requestId = -1;
+            String owner = null;
+            try (PreparedStatement statement = connection.prepareStatement(query)) {
+                statement.setInt(1, vehicleId);
+                statement.setString(2, username);
+                statement.setTimestamp(3, Timestamp.valueOf(startTime));
+                statement.setTimestamp(4, Timestamp.valueOf(endTime));
+                try (ResultSet resultSet = statement.executeQuery()) {  // Einfügen der Buchungsanfrage samt Rückgabe der ID und des Besitzers
+                    if (resultSet.next()) {
+                        requestId = resultSet.getInt("id");
+                        owner = resultSet.getString("owner");
+                    }
+                }
+            }
+            if (owner != null) {
+                JSONObject payload = new JSONObject();
+                payload.put("action", "newBookingRequest");
+                payload.put("username", username);
+                payload.put("vehicleId", vehicleId);
+                payload.put("startTime", startTime);
+                payload.put("endTime", endTime);
+                changeOutbox.append(connection, payload, owner);
+            }
+            connection.commit();
+            if (owner != null) {
+                changeOutbox.signal();
+            }
+            return requestId;
         } catch (SQLException e) {
             e.printStackTrace();
-            return false;  // Rückgabe von false bei SQL-Ausnahme
         }
+        return -1;  // Rückgabe von -1 im Fehlerfall
     }
 
     /**
-     * Aktualisiert den Status einer Buchungsanfrage und fügt bei Genehmigung die Nutzungshistorie ein.
+     * Lädt alle Reservierungen, die ein Fahrzeug in Zukunft noch belegen: Buchungen, die nicht abgelehnt
+     * oder storniert wurden, sowie offene und genehmigte Buchungsanfragen.
+     * Wird beim Start verwendet, um die {@link AvailabilityEngine} aufzubauen.
      *
-     * @param requestId Die ID der Buchungsanfrage, deren Status aktualisiert werden soll.
-     * @param status Der neue Status der Buchungsanfrage (z.B. "APPROVED" oder "REJECTED").
-     * @return true, wenn die Aktualisierung erfolgreich war, false andernfalls.
+     * @return Die noch nicht beendeten Reservierungen.
      */
-    public boolean updateBookingRequestStatus(int requestId, String status) {
-        try {
-            Connection connection = dbConnectionManager.getConnection();
-            String query = "UPDATE booking_requests SET status = ? WHERE id = ?";
-            PreparedStatement statement = connection.prepareStatement(query);
-            statement.setString(1, status);
-            statement.setInt(2, requestId);
-            int rowsAffected = statement.executeUpdate();  // Aktualisierung des Status der Buchungsanfrage
-
-            if (status.equals("APPROVED") && rowsAffected > 0) {
-                String usageQuery = "INSERT INTO usage_history (username, vehicle_id, start_time, end_time) " +
-                        "SELECT requester, vehicle_id, start_time, end_time " +
-                        "FROM booking_requests WHERE id = ?";
-                PreparedStatement usageStatement = connection.prepareStatement(usageQuery);
-                usageStatement.setInt(1, requestId);
-                usageStatement.executeUpdate();  // Einfügen der Nutzungshistorie bei Genehmigung der Anfrage
+    public List<Reservation> getActiveReservations() {
+        List<Reservation> reservations = new ArrayList<>();
+        String query = "SELECT 'BOOKING' AS kind, id, vehicle_id, start_time, end_time FROM bookings " +
+                "WHERE status NOT IN ('REJECTED', 'CANCELLED') AND end_time > LOCALTIMESTAMP " +
+                "UNION ALL " +
+                "SELECT 'REQUEST' AS kind, id, vehicle_id, start_time, end_time FROM booking_requests " +
+                "WHERE status IN ('PENDING', 'APPROVED') AND end_time > LOCALTIMESTAMP";
+        try (Connection connection = dbConnectionManager.getConnection()) {
+            connection.setAutoCommit(false);  // Nur so liefert der Treiber die Ergebnisse in Blöcken
+            try (PreparedStatement statement = connection.prepareStatement(query)) {
+                statement.setFetchSize(1000);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        reservations.add(new Reservation(
+                                Reservation.Kind.valueOf(resultSet.getString("kind")),
+                                resultSet.getInt("id"),
+                                resultSet.getInt("vehicle_id"),
+                                resultSet.getTimestamp("start_time").getTime(),
+                                resultSet.getTimestamp("end_time").getTime()));
+                    }
+                }
             }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return reservations;
+    }
 
-            return rowsAffected > 0;
+    /**
+     * Lehnt eine offene Buchungsanfrage ab. Nur eine Anfrage im Status {@code PENDING} wird abgelehnt; eine bereits
+     * genehmigte Anfrage behält ihre Nutzungshistorie und ihren Zeitraum.
+     *
+     * @param requestId Die ID der Buchungsanfrage.
+     * @return true, wenn die Anfrage abgelehnt wurde, false, wenn sie nicht existiert, nicht mehr offen ist oder
+     *         ein Fehler aufgetreten ist.
+     */
+    public boolean rejectBookingRequest(int requestId) {
+        String query = "UPDATE booking_requests SET status = 'REJECTED' WHERE id = ? AND status = 'PENDING'";
+        try (Connection connection = dbConnectionManager.getConnection();
+             PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setInt(1, requestId);
+            return statement.executeUpdate() > 0;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;  // Rückgabe von false bei SQL-Ausnahme
         }
     }
 
+    /**
+     * Genehmigt eine Buchungsanfrage atomar mit einer einzigen Anweisung.
+     * Eine datenverändernde CTE setzt den Status der Anfrage, trägt die Nutzung in die Nutzungshistorie ein
+     * und markiert das Fahrzeug als nicht verfügbar, falls der Buchungszeitraum bereits begonnen hat; spätere
+     * Buchungen übernimmt der {@code AvailabilityScheduler}. Da alle Teile in einer Anweisung laufen, werden sie
+     * gemeinsam übernommen oder verworfen. Nur eine offene Anfrage ({@code PENDING}) wird genehmigt: eine bereits
+     * genehmigte Anfrage wird auch bei zwei gleichzeitigen Genehmigungen nicht erneut genehmigt, und eine
+     * abgelehnte Anfrage, deren Zeitraum bereits wieder freigegeben wurde, bleibt abgelehnt. Die Benachrichtigung {@code approveBookingRequest}
+     * wird in derselben Transaktion in den {@link ChangeOutbox} geschrieben.
+     *
+     * @param requestId Die ID der Buchungsanfrage.
+     * @return Das Ergebnis der Genehmigung oder null, wenn die Anfrage nicht existiert, nicht mehr offen ist
+     *         oder ein Fehler aufgetreten ist.
+     */
+    public BookingApproval approveBookingRequest(int requestId) {
+        String query = "WITH approved AS (" +
+                "UPDATE booking_requests SET status = 'APPROVED' " +
+                "WHERE id = ? AND status = 'PENDING' " +
+                "RETURNING id, vehicle_id, requester, start_time, end_time, status" +
+                "), usage AS (" +
+                "INSERT INTO usage_history (username, vehicle_id, start_time, end_time) " +
+                "SELECT requester, vehicle_id, start_time, end_time FROM approved" +
+                "), vehicle AS (" +
+                "UPDATE vehicles v SET available = false FROM approved a WHERE v.id = a.vehicle_id " +
+                "AND a.start_time <= LOCALTIMESTAMP AND a.end_time > LOCALTIMESTAMP " +
+                "RETURNING v.id, v.available" +
+                ") " +
+                "SELECT a.id, a.vehicle_id, a.requester, a.start_time, a.end_time, a.status, " +
+                "COALESCE(v.available, cur.available) AS available " +
+                "FROM approved a LEFT JOIN vehicle v ON v.id = a.vehicle_id LEFT JOIN vehicles cur ON cur.id = a.vehicle_id";
+        try (Connection connection = dbConnectionManager.getConnection()) {
+            connection.setAutoCommit(false);
+            BookingApproval approval = null;
+            try (PreparedStatement statement = connection.prepareStatement(query)) {
+                statement.setInt(1, requestId);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    if (resultSet.next()) {
+                        approval = new BookingApproval(
+                                resultSet.getInt("id"),
+                                resultSet.getInt("vehicle_id"),
+                                resultSet.getString("requester"),
+                                resultSet.getTimestamp("start_time").toString(),
+                                resultSet.getTimestamp("end_time").toString(),
+                                resultSet.getString("status"),
+                                resultSet.getBoolean("available"));
+                    }
+                }
+            }
+            if (approval != null) {
+                JSONObject payload = new JSONObject();
+                payload.put("action", "approveBookingRequest");
+                payload.put("vehicleId", approval.getVehicleId());
+                payload.put("available", approval.isVehicleAvailable());
+                changeOutbox.append(connection, payload, approval.getRequester());
+            }
+            connection.commit();
+            if (approval != null) {
+                changeOutbox.signal();
+            }
+            return approval;
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Lädt alle genehmigten Buchungsanfragen, die noch nicht beendet sind.
+     * Wird beim Start verwendet, um die anstehenden Verfügbarkeitswechsel neu einzuplanen.
+     *
+     * @return Die genehmigten, noch nicht beendeten Buchungen.
+     */
+    public List<Reservation> getApprovedReservations() {
+        List<Reservation> reservations = new ArrayList<>();
+        String query = "SELECT id, vehicle_id, start_time, end_time FROM booking_requests " +
+                "WHERE status = 'APPROVED' AND end_time > LOCALTIMESTAMP";
+        try (Connection connection = dbConnectionManager.getConnection();
+             PreparedStatement statement = connection.prepareStatement(query);
+             ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                reservations.add(new Reservation(
+                        Reservation.Kind.REQUEST,
+                        resultSet.getInt("id"),
+                        resultSet.getInt("vehicle_id"),
+                        resultSet.getTimestamp("start_time").getTime(),
+                        resultSet.getTimestamp("end_time").getTime()));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return reservations;
+    }
+
     /**
      * Ruft die Buchungsanfragen für einen bestimmten Benutzer ab.
      *
      * @param username Der Benutzername, für den die Anfragen abgerufen werden sollen.
-     * @return Eine Liste von Maps, die die Details der Buchungsanfragen enthalten.
+     * @return Die Buchungsanfragen als kompakt serialisierbare Liste.
      */
-    public List<Map<String, Object>> getBookingRequests(String username) {
-        List<Map<String, Object>> bookingRequests = new ArrayList<>();
-        try {
-            Connection connection = dbConnectionManager.getConnection();
-            String query = "SELECT br.id, v.make || ' ' || v.model || ' (' || v.year || ')' as vehicle, br.requester, br.start_time, br.end_time, br.status " +
-                    "FROM booking_requests br " +
-                    "JOIN vehicles v ON br.vehicle_id = v.id " +
-                    "WHERE v.owner_id = (SELECT id FROM users WHERE username = ?)";
-            PreparedStatement statement = connection.prepareStatement(query);
+    public BookingRequestViewList getBookingRequests(String username) {
+        BookingRequestViewList bookingRequests = new BookingRequestViewList();
+        String query = "SELECT br.id, v.make || ' ' || v.model || ' (' || v.year || ')' as vehicle, br.requester, br.start_time, br.end_time, br.status " +
+                "FROM booking_requests br " +
+                "JOIN vehicles v ON br.vehicle_id = v.id " +
+                "WHERE v.owner_id = (SELECT id FROM users WHERE username = ?)";
+        try (Connection connection = dbConnectionManager.getConnection();
+             PreparedStatement statement = connection.prepareStatement(query)) {
             statement.setString(1, username);
-            ResultSet resultSet = statement.executeQuery();
-            while (resultSet.next()) {
-                Map<String, Object> request = new HashMap<>();
-                request.put("id", resultSet.getInt("id"));
-                request.put("vehicle", resultSet.getString("vehicle"));
-                request.put("requester", resultSet.getString("requester"));
-                request.put("start_time", resultSet.getTimestamp("start_time").toString());
-                request.put("end_time", resultSet.getTimestamp("end_time").toString());
-                request.put("status", resultSet.getString("status"));
-                bookingRequests.add(request);  // Hinzufügen der Buchungsanfrage zur Liste
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    bookingRequests.add(new BookingRequestView(
+                            resultSet.getInt("id"),
+                            resultSet.getString("vehicle"),
+                            resultSet.getString("requester"),
+                            resultSet.getTimestamp("start_time").getTime(),
+                            resultSet.getTimestamp("end_time").getTime(),
+                            resultSet.getString("status")));  // Hinzufügen der Buchungsanfrage zur Liste
+                }
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -155,14 +314,14 @@ public class BookingRepository {
      * @return Die Fahrzeug-ID, die mit der Buchungsanfrage verknüpft ist, oder -1 im Fehlerfall.
      */
     public int getVehicleIdFromBookingRequest(int requestId) {
-        try {
-            Connection connection = dbConnectionManager.getConnection();
-            String query = "SELECT vehicle_id FROM booking_requests WHERE id = ?";
-            PreparedStatement statement = connection.prepareStatement(query);
+        String query = "SELECT vehicle_id FROM booking_requests WHERE id = ?";
+        try (Connection connection = dbConnectionManager.getConnection();
+             PreparedStatement statement = connection.prepareStatement(query)) {
             statement.setInt(1, requestId);
-            ResultSet resultSet = statement.executeQuery();
-            if (resultSet.next()) {
-                return resultSet.getInt("vehicle_id");  // Rückgabe der Fahrzeug-ID
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (resultSet.next()) {
+                    return resultSet.getInt("vehicle_id");  // Rückgabe der Fahrzeug-ID
+                }
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -172,56 +331,43 @@ public class BookingRepository {
 
     /**
      * Zeichnet die Nutzung eines Fahrzeugs in der Datenbank auf.
+     * Die Zeile wird über den {@link UsageHistoryWriter} zusammen mit gleichzeitigen Aufrufen in einem Stapel geschrieben.
      *
      * @param username Der Benutzername des Nutzers, der das Fahrzeug nutzt.
      * @param vehicleId Die ID des genutzten Fahrzeugs.
      * @param startTime Die Startzeit der Nutzung.
      * @param endTime Die Endzeit der Nutzung.
-     * @return true, wenn die Nutzung erfolgreich aufgezeichnet wurde, false andernfalls.
+     * @return true, wenn die Nutzung erfolgreich aufgezeichnet (bzw. im asynchronen Modus angenommen) wurde, false andernfalls.
      */
     public boolean recordUsage(String username, int vehicleId, String startTime, String endTime) {
-        try {
-            Connection connection = dbConnectionManager.getConnection();
-            String query = "INSERT INTO usage_history (username, vehicle_id, start_time, end_time) VALUES (?, ?, ?, ?)";
-            PreparedStatement statement = connection.prepareStatement(query);
-            statement.setString(1, username);
-            statement.setInt(2, vehicleId);
-            statement.setTimestamp(3, Timestamp.valueOf(startTime));
-            statement.setTimestamp(4, Timestamp.valueOf(endTime));
-            statement.execute();  // Ausführung des SQL-Befehls zum Einfügen der Nutzungshistorie
-            return true;
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return false;  // Rückgabe von false bei SQL-Ausnahme
-        }
+        return usageHistoryWriter.record(username, vehicleId, Timestamp.valueOf(startTime), Timestamp.valueOf(endTime));
     }
 
     /**
      * Ruft die Nutzungshistorie für einen bestimmten Benutzer ab.
      *
      * @param username Der Benutzername, für den die Nutzungshistorie abgerufen werden soll.
-     * @return Eine Liste von Maps, die die Details der Nutzungshistorie enthalten.
+     * @return Die Einträge der Nutzungshistorie als kompakt serialisierbare Liste.
      */
-    public List<Map<String, Object>> getUsageHistory(String username) {
-        List<Map<String, Object>> usageHistory = new ArrayList<>();
-        try {
-            Connection connection = dbConnectionManager.getConnection();
-            String query = "SELECT uh.vehicle_id, uh.start_time, uh.end_time, v.make, v.model, v.year " +
-                    "FROM usage_history uh " +
-                    "JOIN vehicles v ON uh.vehicle_id = v.id " +
-                    "WHERE uh.username = ?";
-            PreparedStatement statement = connection.prepareStatement(query);
+    public UsageEntryList getUsageHistory(String username) {
+        UsageEntryList usageHistory = new UsageEntryList();
+        String query = "SELECT uh.vehicle_id, uh.start_time, uh.end_time, v.make, v.model, v.year " +
+                "FROM usage_history uh " +
+                "JOIN vehicles v ON uh.vehicle_id = v.id " +
+                "WHERE uh.username = ?";
+        try (Connection connection = dbConnectionManager.getConnection();
+             PreparedStatement statement = connection.prepareStatement(query)) {
             statement.setString(1, username);
-            ResultSet resultSet = statement.executeQuery();
-            while (resultSet.next()) {
-                Map<String, Object> usage = new HashMap<>();
-                usage.put("vehicleId", resultSet.getInt("vehicle_id"));
-                usage.put("startTime", resultSet.getTimestamp("start_time").toString());
-                usage.put("endTime", resultSet.getTimestamp("end_time").toString());
-                usage.put("make", resultSet.getString("make"));
-                usage.put("model", resultSet.getString("model"));
-                usage.put("year", resultSet.getInt("year"));
-                usageHistory.add(usage);  // Hinzufügen des Nutzungseintrags zur Liste
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    usageHistory.add(new UsageEntry(
+                            resultSet.getInt("vehicle_id"),
+                            resultSet.getTimestamp("start_time").getTime(),
+                            resultSet.getTimestamp("end_time").getTime(),
+                            resultSet.getString("make"),
+                            resultSet.getString("model"),
+                            resultSet.getInt("year")));  // Hinzufügen des Nutzungseintrags zur Liste
+                }
             }
         } catch (SQLException e) {
             e.printStackTrace();
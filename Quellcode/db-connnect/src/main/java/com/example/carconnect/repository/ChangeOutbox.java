@@ -0,0 +1,135 @@
+package com.example.carconnect.repository;
+
+import com.example.carconnect.feed.ChangeEvent;
+import org.json.JSONObject;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Transaktionaler Ausgang für Änderungsbenachrichtigungen in der Tabelle {@code change_outbox}.
+ *
+ * Die Repositories schreiben mit {@link #append(Connection, JSONObject, String)} eine Zeile in derselben
+ * Transaktion wie die Änderung, sodass eine Benachrichtigung genau dann entsteht, wenn die Änderung übernommen
+ * wird, unabhängig davon, über welchen Aufruf sie erfolgt. Nach dem Commit weckt {@link #signal()} den
+ * {@code ChangeFeed}, der die Zeilen mit {@link #drain(int, Consumer)} gebündelt reserviert, zustellt und löscht.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+public class ChangeOutbox {
+
+    /** Verbindungsmanager für die Datenbank. */
+    private final DBConnectionManager dbConnectionManager;
+
+    /** Dauer, für die ein Abruf seine Zeilen reserviert, in Sekunden. */
+    private static final long LEASE_SECONDS = Long.getLong("carconnect.feed.leaseSeconds", 60L);
+
+    /** Weckt den Abruf nach einem Commit, statt bis zum nächsten Abrufintervall zu warten. */
+    private final Semaphore pending = new Semaphore(0);
+
+    /**
+     * Konstruktor für den ChangeOutbox.
+     *
+     * @param dbConnectionManager Ein Manager, der die Datenbankverbindungen verwaltet.
+     */
+    public ChangeOutbox(DBConnectionManager dbConnectionManager) {
+        this.dbConnectionManager = dbConnectionManager;
+    }
+
+    /**
+     * Schreibt eine Benachrichtigung in den Ausgang. Muss in der Transaktion der Änderung aufgerufen werden.
+     *
+     * @param connection Die Verbindung der laufenden Transaktion.
+     * @param payload Die Benachrichtigung für die Clients.
+     * @param recipient Der Benutzer, dessen Posteingang die Benachrichtigung zusätzlich erhält, oder null.
+     * @throws SQLException Wenn das Einfügen fehlschlägt; die Transaktion muss dann zurückgerollt werden.
+     */
+    public void append(Connection connection, JSONObject payload, String recipient) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO change_outbox (payload, recipient) VALUES (?, ?)")) {
+            statement.setString(1, payload.toString());
+            statement.setString(2, recipient);
+            statement.executeUpdate();
+        }
+    }
+
+    /**
+     * Meldet, dass eine Transaktion mit neuen Zeilen übernommen wurde.
+     */
+    public void signal() {
+        pending.release();
+    }
+
+    /**
+     * Wartet auf ein {@link #signal()} oder bis das Zeitlimit abgelaufen ist.
+     *
+     * @param millis Das Zeitlimit in Millisekunden.
+     * @throws InterruptedException Wenn der Thread unterbrochen wird.
+     */
+    public void awaitSignal(long millis) throws InterruptedException {
+        if (pending.tryAcquire(millis, TimeUnit.MILLISECONDS)) {
+            pending.drainPermits();  // Ein Abruf liest alle bis dahin übernommenen Zeilen
+        }
+    }
+
+    /**
+     * Übernimmt die ältesten Zeilen, übergibt sie dem Empfänger und löscht sie anschließend. Die Zeilen werden
+     * mit {@code FOR UPDATE SKIP LOCKED} ausgewählt und in einer eigenen, sofort übernommenen Anweisung für
+     * {@code carconnect.feed.leaseSeconds} Sekunden reserviert, sodass die Zustellung keine Transaktion offen hält
+     * und mehrere Server denselben Ausgang abarbeiten können. Bricht die Zustellung oder das Löschen ab, liest ein
+     * späterer Abruf die Zeilen nach Ablauf der Reservierung erneut; die Empfänger verwerfen doppelte Änderungen
+     * anhand ihrer ID. Zeilen, die später mit einer kleineren ID übernommen werden, liest der nächste Abruf.
+     *
+     * @param limit Die höchste Anzahl an Zeilen.
+     * @param deliver Der Empfänger der gelesenen Änderungen in der Reihenfolge ihrer IDs.
+     * @return Die Anzahl der zugestellten Zeilen oder -1 im Fehlerfall.
+     */
+    public int drain(int limit, Consumer<List<ChangeEvent>> deliver) {
+        String claim = "UPDATE change_outbox SET claimed_until = LOCALTIMESTAMP + make_interval(secs => ?) " +
+                "WHERE id IN (SELECT id FROM change_outbox " +
+                "WHERE claimed_until IS NULL OR claimed_until < LOCALTIMESTAMP " +
+                "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED) " +
+                "RETURNING id, payload, recipient";
+        List<ChangeEvent> changes = new ArrayList<>();
+        try (Connection connection = dbConnectionManager.getConnection();
+             PreparedStatement statement = connection.prepareStatement(claim)) {
+            statement.setLong(1, LEASE_SECONDS);
+            statement.setInt(2, limit);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    changes.add(new ChangeEvent(resultSet.getLong("id"), resultSet.getString("payload"),
+                            resultSet.getString("recipient")));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace(); // Fehlerbehandlung bei SQL-Ausnahme
+            return -1;
+        }
+        if (changes.isEmpty()) {
+            return 0;
+        }
+        changes.sort(Comparator.comparingLong(ChangeEvent::getId));  // RETURNING liefert keine feste Reihenfolge
+        deliver.accept(changes);
+        Long[] ids = new Long[changes.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = changes.get(i).getId();
+        }
+        try (Connection connection = dbConnectionManager.getConnection();
+             PreparedStatement statement = connection.prepareStatement("DELETE FROM change_outbox WHERE id = ANY (?)")) {
+            statement.setArray(1, connection.createArrayOf("bigint", ids));
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            e.printStackTrace(); // Die Zeilen werden nach Ablauf der Reservierung erneut zugestellt
+        }
+        return changes.size();
+    }
+}
@@ -0,0 +1,304 @@
+package com.example.carconnect.repository;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Begrenzter, thread-sicherer Pool von JDBC-Verbindungen.
+ * Die Anzahl gleichzeitig ausgeliehener Verbindungen wird über ein faires Semaphor auf die
+ * Maximalgröße begrenzt. Freie Verbindungen werden vor der Ausleihe geprüft, defekte Verbindungen
+ * (z.B. nach einem Neustart von PostgreSQL) verworfen und bei Bedarf neu aufgebaut.
+ * Ein Hintergrund-Thread baut Verbindungen ab, die zu lange im Leerlauf waren, und hält die Mindestgröße ein.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    /** Zeitlimit für die Gültigkeitsprüfung einer Verbindung in Sekunden. */
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    /** Die URL der Datenbankverbindung. */
+    private final String url;
+
+    /** Der Benutzername für die Datenbankverbindung. */
+    private final String user;
+
+    /** Das Passwort für die Datenbankverbindung. */
+    private final String password;
+
+    /** Anzahl der Verbindungen, die mindestens offen gehalten werden. */
+    private final int minSize;
+
+    /** Maximale Anzahl gleichzeitig ausgeliehener Verbindungen. */
+    private final int maxSize;
+
+    /** Maximale Wartezeit beim Ausleihen in Millisekunden. */
+    private final long leaseTimeoutMillis;
+
+    /** Leerlaufzeit in Nanosekunden, nach der eine Verbindung über der Mindestgröße abgebaut wird. */
+    private final long idleTimeoutNanos;
+
+    /** Leerlaufzeit in Nanosekunden, ab der eine Verbindung vor der Ausleihe geprüft wird. */
+    private final long validationIntervalNanos;
+
+    /** Maximale Anzahl zwischengespeicherter Anweisungen je Verbindung. */
+    private final int statementCacheSize;
+
+    /** Begrenzt die Anzahl gleichzeitig ausgeliehener Verbindungen. */
+    private final Semaphore permits;
+
+    /** Freie Verbindungen; die zuletzt zurückgegebene wird zuerst wieder ausgeliehen. */
+    private final Deque<PooledConnection> idle = new ConcurrentLinkedDeque<>();
+
+    /** Anzahl der aktuell ausgeliehenen Verbindungen. */
+    private final AtomicInteger active = new AtomicInteger();
+
+    /** Anzahl der aktuell freien Verbindungen. */
+    private final AtomicInteger idleCount = new AtomicInteger();
+
+    /** Kennzahlen des Pools. */
+    private final PoolMetrics metrics = new PoolMetrics();
+
+    /** Hintergrund-Thread für Leerlauf-Abbau und Auffüllen auf die Mindestgröße. */
+    private final ScheduledExecutorService housekeeper;
+
+    /** Gibt an, ob der Pool geschlossen wurde. */
+    private volatile boolean closed;
+
+    /**
+     * Erstellt einen neuen Verbindungspool und baut die Mindestanzahl an Verbindungen auf.
+     *
+     * @param url Die URL der Datenbank.
+     * @param user Der Benutzername für die Datenbank.
+     * @param password Das Passwort für die Datenbank.
+     * @param minSize Die Mindestanzahl offener Verbindungen.
+     * @param maxSize Die maximale Anzahl gleichzeitig ausgeliehener Verbindungen.
+     * @param leaseTimeoutMillis Die maximale Wartezeit beim Ausleihen in Millisekunden.
+     * @param idleTimeoutMillis Die Leerlaufzeit in Millisekunden, nach der überzählige Verbindungen abgebaut werden.
+     * @param validationIntervalMillis Die Leerlaufzeit in Millisekunden, ab der eine Verbindung vor der Ausleihe geprüft wird.
+     * @param statementCacheSize Die maximale Anzahl zwischengespeicherter Anweisungen je Verbindung.
+     */
+    public ConnectionPool(String url, String user, String password, int minSize, int maxSize,
+                          long leaseTimeoutMillis, long idleTimeoutMillis, long validationIntervalMillis,
+                          int statementCacheSize) {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.leaseTimeoutMillis = leaseTimeoutMillis;
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        this.validationIntervalNanos = TimeUnit.MILLISECONDS.toNanos(validationIntervalMillis);
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(maxSize, true);
+
+        fillToMinimum();  // Vorwärmen des Pools
+
+        long period = Math.max(1000, idleTimeoutMillis / 2);
+        housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "db-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        housekeeper.scheduleWithFixedDelay(this::housekeep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Leiht eine Verbindung aus dem Pool aus. Die Verbindung muss nach der Nutzung mit {@code close()}
+     * zurückgegeben werden, am besten über try-with-resources.
+     *
+     * @return Eine geprüfte Verbindung zur Datenbank.
+     * @throws SQLException Wenn innerhalb des Zeitlimits keine Verbindung frei wird oder keine aufgebaut werden kann.
+     */
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(leaseTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        if (!acquired) {
+            metrics.recordTimeout(System.nanoTime() - start);
+            throw new SQLTimeoutException("No database connection available within " + leaseTimeoutMillis + " ms");
+        }
+        try {
+            PooledConnection pooled = takeValidIdle();
+            if (pooled == null) {
+                pooled = open();
+            }
+            active.incrementAndGet();
+            metrics.recordBorrow(System.nanoTime() - start);
+            return pooled.lease();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Nimmt die zuletzt zurückgegebene freie Verbindung und prüft sie, falls sie länger ungenutzt war.
+     *
+     * @return Eine gültige freie Verbindung oder null, wenn keine vorhanden ist.
+     */
+    private PooledConnection takeValidIdle() {
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            idleCount.decrementAndGet();
+            if (pooled.idleNanos() < validationIntervalNanos || isValid(pooled)) {
+                return pooled;
+            }
+            metrics.recordValidationFailure();
+            discard(pooled);
+        }
+        return null;
+    }
+
+    private boolean isValid(PooledConnection pooled) {
+        try {
+            return pooled.physical().isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledConnection open() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, user, password);
+        metrics.recordCreated();
+        return new PooledConnection(this, physical, statementCacheSize);
+    }
+
+    private void discard(PooledConnection pooled) {
+        pooled.closePhysical();
+        metrics.recordDestroyed();
+    }
+
+    /**
+     * Wird vom Proxy aufgerufen, wenn eine ausgeliehene Verbindung geschlossen wird.
+     *
+     * @param pooled Die zurückgegebene Verbindung.
+     */
+    void giveBack(PooledConnection pooled) {
+        pooled.reset();
+        active.decrementAndGet();
+        if (closed || pooled.isBroken()) {
+            discard(pooled);
+        } else {
+            idle.offerFirst(pooled);
+            idleCount.incrementAndGet();
+        }
+        permits.release();
+    }
+
+    /**
+     * Baut Verbindungen ab, die länger als das Leerlauflimit ungenutzt waren, solange die Mindestgröße
+     * erhalten bleibt, und füllt den Pool anschließend wieder auf die Mindestgröße auf.
+     */
+    private void housekeep() {
+        try {
+            Iterator<PooledConnection> oldestFirst = idle.descendingIterator();
+            while (oldestFirst.hasNext() && active.get() + idleCount.get() > minSize) {
+                PooledConnection pooled = oldestFirst.next();
+                if (pooled.idleNanos() > idleTimeoutNanos && idle.remove(pooled)) {
+                    idleCount.decrementAndGet();
+                    discard(pooled);
+                }
+            }
+            fillToMinimum();
+        } catch (RuntimeException e) {
+            e.printStackTrace();  // Der Hintergrund-Thread darf nicht abbrechen
+        }
+    }
+
+    private void fillToMinimum() {
+        while (!closed && active.get() + idleCount.get() < minSize) {
+            try {
+                idle.offerLast(open());
+                idleCount.incrementAndGet();
+            } catch (SQLException e) {
+                System.err.println("Could not open database connection: " + e.getMessage());
+                return;  // Erneuter Versuch beim nächsten Durchlauf, z.B. während die Datenbank neu startet
+            }
+        }
+    }
+
+    /** @return Die Anzahl der aktuell ausgeliehenen Verbindungen. */
+    public int getActiveConnections() {
+        return active.get();
+    }
+
+    /** @return Die Anzahl der aktuell freien Verbindungen. */
+    public int getIdleConnections() {
+        return idleCount.get();
+    }
+
+    /** @return Die geschätzte Anzahl der Threads, die auf eine Verbindung warten. */
+    public int getWaitingThreads() {
+        return permits.getQueueLength();
+    }
+
+    /** @return Die maximale Anzahl gleichzeitig ausgeliehener Verbindungen. */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /** @return Die gesammelten Kennzahlen des Pools. */
+    public PoolMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Liefert den aktuellen Zustand des Pools zusammen mit seinen Kennzahlen.
+     *
+     * @return Die ausgeliehenen, freien und wartenden Verbindungen, die Maximalgröße und {@link PoolMetrics#toMap()}.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("active", getActiveConnections());
+        stats.put("idle", getIdleConnections());
+        stats.put("waiting", getWaitingThreads());
+        stats.put("max", maxSize);
+        stats.putAll(metrics.toMap());
+        return stats;
+    }
+
+    /**
+     * Schließt den Pool und alle freien Verbindungen. Ausgeliehene Verbindungen werden bei ihrer Rückgabe geschlossen.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            idleCount.decrementAndGet();
+            discard(pooled);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "active=" + getActiveConnections() + ", idle=" + getIdleConnections()
+                + ", waiting=" + getWaitingThreads() + ", max=" + maxSize + ", " + metrics;
+    }
+}
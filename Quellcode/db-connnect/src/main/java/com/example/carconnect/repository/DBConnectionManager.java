@@ -1,12 +1,20 @@
 package com.example.carconnect.repository;
 
+import org.postgresql.PGStatement;
+
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
 /**
- * DBConnectionManager ist eine Klasse, die eine Verbindung zur Datenbank verwaltet.
- * Sie stellt sicher, dass nur eine einzige Instanz der Datenbankverbindung verwendet wird (Singleton-Pattern).
+ * DBConnectionManager ist eine Klasse, die die Verbindungen zur Datenbank verwaltet.
+ * Statt einer einzigen gemeinsamen Verbindung stellt sie einen begrenzten {@link ConnectionPool} bereit,
+ * sodass parallele RMI-Aufrufe auf mehreren PostgreSQL-Verbindungen gleichzeitig arbeiten können.
+ * Jede über {@link #getConnection()} ausgeliehene Verbindung muss nach der Nutzung geschlossen werden,
+ * wodurch sie an den Pool zurückgegeben wird.
+ *
+ * Die Poolgröße und die Zeitlimits können über System-Properties (z.B. {@code -Dcarconnect.db.pool.max=20})
+ * angepasst werden.
  *
  * Diese Klasse verwendet PostgreSQL als Datenbankmanagementsystem.
  *
@@ -15,8 +23,8 @@ import java.sql.SQLException;
  */
 public class DBConnectionManager {
 
-    /** Die URL der Datenbankverbindung. */
-    private static final String DB_URL = "jdbc:postgresql://localhost:5432/carconnectdb";
+    /** Die URL der Datenbankverbindung; JDBC-Batches von INSERTs werden vom Treiber zu mehrzeiligen INSERTs zusammengefasst. */
+    private static final String DB_URL = "jdbc:postgresql://localhost:5432/carconnectdb?reWriteBatchedInserts=true";
 
     /** Der Benutzername für die Datenbankverbindung. */
     private static final String USER = "carconnectuser";
@@ -24,31 +32,80 @@ public class DBConnectionManager {
     /** Das Passwort für die Datenbankverbindung. */
     private static final String PASSWORD = "12345";
 
-    /** Die Singleton-Instanz der Datenbankverbindung. */
-    private static Connection connection;
+    /** Mindestanzahl offener Verbindungen. */
+    private static final int POOL_MIN = Integer.getInteger("carconnect.db.pool.min", 2);
+
+    /** Maximale Anzahl gleichzeitig ausgeliehener Verbindungen. */
+    private static final int POOL_MAX = Integer.getInteger("carconnect.db.pool.max",
+            Math.max(4, Runtime.getRuntime().availableProcessors() * 2));
+
+    /** Maximale Wartezeit beim Ausleihen einer Verbindung in Millisekunden. */
+    private static final long LEASE_TIMEOUT_MILLIS = Long.getLong("carconnect.db.pool.leaseTimeoutMillis", 5_000);
+
+    /** Leerlaufzeit in Millisekunden, nach der überzählige Verbindungen abgebaut werden. */
+    private static final long IDLE_TIMEOUT_MILLIS = Long.getLong("carconnect.db.pool.idleTimeoutMillis", 300_000);
+
+    /** Leerlaufzeit in Millisekunden, ab der eine Verbindung vor der Ausleihe geprüft wird. */
+    private static final long VALIDATION_INTERVAL_MILLIS = Long.getLong("carconnect.db.pool.validationIntervalMillis", 5_000);
+
+    /** Maximale Anzahl zwischengespeicherter vorbereiteter Anweisungen je Verbindung. */
+    private static final int STATEMENT_CACHE_SIZE = Integer.getInteger("carconnect.db.statementCacheSize", 64);
+
+    /** Der Verbindungspool. */
+    private final ConnectionPool pool;
 
     /**
      * Konstruktor für DBConnectionManager.
-     * Ruft die Datenbankverbindung ab und stellt sicher, dass sie initialisiert ist.
+     * Lädt den JDBC-Treiber und baut den Verbindungspool auf.
      */
     public DBConnectionManager() {
-        getConnection();  // Verbindungsaufbau bei Instanzierung des Managers
+        try {
+            Class.forName("org.postgresql.Driver");  // Lädt den PostgreSQL JDBC-Treiber
+        } catch (ClassNotFoundException e) {
+            e.printStackTrace();  // Fehlerbehandlung bei Problemen mit dem Treiber
+        }
+        pool = new ConnectionPool(DB_URL, USER, PASSWORD, Math.min(POOL_MIN, POOL_MAX), POOL_MAX,
+                LEASE_TIMEOUT_MILLIS, IDLE_TIMEOUT_MILLIS, VALIDATION_INTERVAL_MILLIS, STATEMENT_CACHE_SIZE);
     }
 
     /**
-     * Stellt eine Verbindung zur Datenbank her, falls diese noch nicht existiert.
+     * Leiht eine Verbindung aus dem Pool aus. Die Verbindung muss nach der Nutzung geschlossen werden.
      *
-     * @return Die Singleton-Instanz der Datenbankverbindung.
+     * @return Eine Verbindung zur Datenbank.
+     * @throws SQLException Wenn keine Verbindung innerhalb des Zeitlimits verfügbar ist.
      */
-    public static Connection getConnection() {
-        if (connection == null) {  // Überprüft, ob die Verbindung bereits besteht
-            try {
-                Class.forName("org.postgresql.Driver");  // Lädt den PostgreSQL JDBC-Treiber
-                connection = DriverManager.getConnection(DB_URL, USER, PASSWORD);  // Baut die Verbindung zur Datenbank auf
-            } catch (ClassNotFoundException | SQLException e) {
-                e.printStackTrace();  // Fehlerbehandlung bei Problemen mit dem Treiber oder der Verbindung
-            }
+    public Connection getConnection() throws SQLException {
+        return pool.borrow();
+    }
+
+    /**
+     * Lässt PostgreSQL die Anweisung bereits ab der ersten Ausführung serverseitig vorbereiten.
+     * Gedacht für häufig ausgeführte Abfragen, deren Anweisung über den Anweisungs-Cache wiederverwendet wird.
+     *
+     * @param statement Die vorbereitete Anweisung.
+     * @return Dieselbe Anweisung.
+     * @throws SQLException Wenn die Anweisung nicht angepasst werden kann.
+     */
+    public static PreparedStatement serverPrepared(PreparedStatement statement) throws SQLException {
+        if (statement.isWrapperFor(PGStatement.class)) {
+            statement.unwrap(PGStatement.class).setPrepareThreshold(1);
         }
-        return connection;  // Rückgabe der bestehenden oder neu erstellten Verbindung
+        return statement;
+    }
+
+    /**
+     * Liefert den zugrunde liegenden Pool, z.B. um dessen Kennzahlen auszulesen.
+     *
+     * @return Der Verbindungspool.
+     */
+    public ConnectionPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Schließt den Verbindungspool.
+     */
+    public void close() {
+        pool.close();
     }
 }
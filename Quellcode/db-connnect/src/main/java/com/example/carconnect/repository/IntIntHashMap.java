@@ -0,0 +1,178 @@
+package com.example.carconnect.repository;
+
+/**
+ * Hash-Tabelle mit offener Adressierung von {@code int} nach {@code int}, ohne Boxing und ohne
+ * Eintragsobjekte. Kollisionen werden linear aufgelöst; beim Entfernen rücken nachfolgende Einträge auf,
+ * sodass keine Grabsteine entstehen. Der Schlüssel 0 ist als Markierung für freie Plätze reserviert.
+ *
+ * Die Klasse ist nicht synchronisiert. {@link #get(int)} wirft jedoch auch bei gleichzeitigen Änderungen
+ * keine Ausnahme und terminiert immer, sodass sie für optimistische Lesezugriffe unter einem
+ * {@link java.util.concurrent.locks.StampedLock} geeignet ist.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+final class IntIntHashMap {
+
+    /** Maximaler Füllgrad, bevor die Tabelle verdoppelt wird. */
+    private static final float LOAD_FACTOR = 0.5f;
+
+    /** Der Rückgabewert, wenn ein Schlüssel nicht enthalten ist. */
+    private final int missingValue;
+
+    /** Schlüssel und Werte; werden beim Vergrößern gemeinsam ersetzt. */
+    private volatile Table table;
+
+    /** Anzahl der Einträge. */
+    private int size;
+
+    /**
+     * Erstellt eine leere Tabelle.
+     *
+     * @param expectedSize Die erwartete Anzahl an Einträgen.
+     * @param missingValue Der Wert, den {@link #get(int)} für fehlende Schlüssel liefert.
+     */
+    IntIntHashMap(int expectedSize, int missingValue) {
+        this.missingValue = missingValue;
+        this.table = new Table(capacityFor(expectedSize));
+    }
+
+    /**
+     * Liefert den Wert zu einem Schlüssel.
+     *
+     * @param key Der Schlüssel, ungleich 0.
+     * @return Der Wert oder der beim Erstellen angegebene Wert für fehlende Schlüssel.
+     */
+    int get(int key) {
+        Table current = table;
+        int[] keys = current.keys;
+        int mask = keys.length - 1;
+        int index = mix(key) & mask;
+        for (int probes = 0; probes < keys.length; probes++) {
+            int candidate = keys[index];
+            if (candidate == key) {
+                return current.values[index];
+            }
+            if (candidate == 0) {
+                return missingValue;
+            }
+            index = (index + 1) & mask;
+        }
+        return missingValue;
+    }
+
+    /**
+     * Setzt den Wert zu einem Schlüssel.
+     *
+     * @param key Der Schlüssel, ungleich 0.
+     * @param value Der Wert.
+     */
+    void put(int key, int value) {
+        if (key == 0) {
+            throw new IllegalArgumentException("Key 0 is reserved");
+        }
+        if (size + 1 > table.keys.length * LOAD_FACTOR) {
+            resize(table.keys.length * 2);
+        }
+        Table current = table;
+        int mask = current.keys.length - 1;
+        int index = mix(key) & mask;
+        while (current.keys[index] != 0) {
+            if (current.keys[index] == key) {
+                current.values[index] = value;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+        current.values[index] = value;  // Wert vor dem Schlüssel schreiben, damit Leser keinen leeren Wert sehen
+        current.keys[index] = key;
+        size++;
+    }
+
+    /**
+     * Entfernt einen Schlüssel.
+     *
+     * @param key Der Schlüssel.
+     */
+    void remove(int key) {
+        Table current = table;
+        int[] keys = current.keys;
+        int mask = keys.length - 1;
+        int index = mix(key) & mask;
+        while (keys[index] != key) {
+            if (keys[index] == 0) {
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+        // Nachfolgende Einträge derselben Kette aufrücken lassen
+        int gap = index;
+        int next = (gap + 1) & mask;
+        while (keys[next] != 0) {
+            int home = mix(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                current.values[gap] = current.values[next];
+                keys[gap] = keys[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = 0;
+        size--;
+    }
+
+    /** @return Die Anzahl der Einträge. */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Entfernt alle Einträge.
+     */
+    void clear() {
+        table = new Table(table.keys.length);
+        size = 0;
+    }
+
+    private void resize(int capacity) {
+        Table old = table;
+        Table resized = new Table(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < old.keys.length; i++) {
+            int key = old.keys[i];
+            if (key != 0) {
+                int index = mix(key) & mask;
+                while (resized.keys[index] != 0) {
+                    index = (index + 1) & mask;
+                }
+                resized.keys[index] = key;
+                resized.values[index] = old.values[i];
+            }
+        }
+        table = resized;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = 16;
+        while (capacity * LOAD_FACTOR < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /** Schlüssel- und Wertefeld gleicher Länge (Zweierpotenz). */
+    private static final class Table {
+        final int[] keys;
+        final int[] values;
+
+        Table(int capacity) {
+            keys = new int[capacity];
+            values = new int[capacity];
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.carconnect.repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Speicherinterner Index der Fahrzeugbesitzer für die Besitzerprüfung bei jeder Änderung eines Fahrzeugs.
+ * Hält die Zuordnung Fahrzeug-ID zu Besitzer-ID in einer {@link IntIntHashMap} sowie die Zuordnung
+ * zwischen Benutzer-ID und Benutzername. Eine Prüfung über den Index erzeugt keine Objekte und
+ * benötigt keinen Datenbank-Roundtrip.
+ *
+ * Der Index wird beim Start geladen und von den Repositories beim Registrieren und Löschen von Fahrzeugen
+ * sowie beim Registrieren von Benutzern aktuell gehalten. Fehlt ein Eintrag, fragen die Repositories die
+ * Datenbank ab und ergänzen den Index.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+public class OwnershipIndex {
+
+    /** Rückgabewert für unbekannte Fahrzeuge oder Benutzer. */
+    public static final int UNKNOWN = -1;
+
+    /** Verbindungsmanager für die Datenbank. */
+    private final DBConnectionManager dbConnectionManager;
+
+    /** Fahrzeug-ID zu Besitzer-ID; geschützt durch {@link #lock}. */
+    private final IntIntHashMap vehicleOwners = new IntIntHashMap(1024, UNKNOWN);
+
+    /** Schützt {@link #vehicleOwners}; Lesezugriffe laufen optimistisch ohne Sperre. */
+    private final StampedLock lock = new StampedLock();
+
+    /** Benutzername zu Benutzer-ID. */
+    private final Map<String, Integer> userIds = new ConcurrentHashMap<>();
+
+    /** Benutzer-ID zu Benutzername. */
+    private final Map<Integer, String> usernames = new ConcurrentHashMap<>();
+
+    /**
+     * Konstruktor für den OwnershipIndex.
+     *
+     * @param dbConnectionManager Ein Manager, der die Datenbankverbindungen verwaltet.
+     */
+    public OwnershipIndex(DBConnectionManager dbConnectionManager) {
+        this.dbConnectionManager = dbConnectionManager;
+    }
+
+    /**
+     * Lädt alle Benutzer und Fahrzeugbesitzer aus der Datenbank in den Index.
+     *
+     * @return true, wenn der Index geladen wurde, false andernfalls.
+     */
+    public boolean load() {
+        try (Connection connection = dbConnectionManager.getConnection()) {
+            try (PreparedStatement statement = connection.prepareStatement("SELECT id, username FROM users");
+                 ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    putUser(resultSet.getInt("id"), resultSet.getString("username"));
+                }
+            }
+            try (PreparedStatement statement = connection.prepareStatement("SELECT id, owner_id FROM vehicles");
+                 ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    putVehicle(resultSet.getInt("id"), resultSet.getInt("owner_id"));
+                }
+            }
+            System.out.println("Ownership index loaded: " + usernames.size() + " users, " + vehicleCount() + " vehicles");
+            return true;
+        } catch (SQLException e) {
+            e.printStackTrace();  // Der Index bleibt leer; die Repositories fragen dann die Datenbank ab
+        }
+        return false;
+    }
+
+    /**
+     * Liefert die Besitzer-ID eines Fahrzeugs.
+     *
+     * @param vehicleId Die ID des Fahrzeugs.
+     * @return Die ID des Besitzers oder {@link #UNKNOWN}, wenn das Fahrzeug nicht im Index ist.
+     */
+    public int ownerOf(int vehicleId) {
+        long stamp = lock.tryOptimisticRead();
+        int ownerId = vehicleOwners.get(vehicleId);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                ownerId = vehicleOwners.get(vehicleId);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return ownerId;
+    }
+
+    /**
+     * Liefert die ID eines Benutzers.
+     *
+     * @param username Der Benutzername.
+     * @return Die ID des Benutzers oder {@link #UNKNOWN}, wenn der Benutzer nicht im Index ist.
+     */
+    public int userIdOf(String username) {
+        Integer userId = userIds.get(username);
+        return userId != null ? userId : UNKNOWN;
+    }
+
+    /**
+     * Liefert den Benutzernamen zu einer Benutzer-ID.
+     *
+     * @param userId Die ID des Benutzers.
+     * @return Der Benutzername oder null, wenn der Benutzer nicht im Index ist.
+     */
+    public String usernameOf(int userId) {
+        return usernames.get(userId);
+    }
+
+    /**
+     * Nimmt ein Fahrzeug in den Index auf oder aktualisiert seinen Besitzer.
+     *
+     * @param vehicleId Die ID des Fahrzeugs.
+     * @param ownerId Die ID des Besitzers.
+     */
+    public void putVehicle(int vehicleId, int ownerId) {
+        long stamp = lock.writeLock();
+        try {
+            vehicleOwners.put(vehicleId, ownerId);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Entfernt ein Fahrzeug aus dem Index.
+     *
+     * @param vehicleId Die ID des Fahrzeugs.
+     */
+    public void removeVehicle(int vehicleId) {
+        long stamp = lock.writeLock();
+        try {
+            vehicleOwners.remove(vehicleId);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Nimmt einen Benutzer in den Index auf.
+     *
+     * @param userId Die ID des Benutzers.
+     * @param username Der Benutzername.
+     */
+    public void putUser(int userId, String username) {
+        userIds.put(username, userId);
+        usernames.put(userId, username);
+    }
+
+    /** @return Die Anzahl der Fahrzeuge im Index. */
+    public int vehicleCount() {
+        long stamp = lock.readLock();
+        try {
+            return vehicleOwners.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.carconnect.repository;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sammelt Kennzahlen des {@link ConnectionPool}: Anzahl der Ausleihen, Zeitüberschreitungen,
+ * auf- und abgebaute physische Verbindungen, ein Histogramm der Wartezeiten beim Ausleihen sowie
+ * Treffer, Fehlschläge und Verdrängungen der Anweisungs-Caches aller Verbindungen.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+public class PoolMetrics {
+
+    /** Obere Grenzen der Histogramm-Klassen für Wartezeiten in Millisekunden. */
+    private static final long[] WAIT_BUCKET_BOUNDS_MILLIS = {1, 5, 10, 50, 100, 500, 1000, 5000};
+
+    /** Anzahl erfolgreicher Ausleihen. */
+    private final LongAdder borrowed = new LongAdder();
+
+    /** Anzahl der Ausleihen, die wegen Zeitüberschreitung abgebrochen wurden. */
+    private final LongAdder timeouts = new LongAdder();
+
+    /** Anzahl neu aufgebauter physischer Verbindungen. */
+    private final LongAdder created = new LongAdder();
+
+    /** Anzahl verworfener physischer Verbindungen (ungültig, defekt oder im Leerlauf abgebaut). */
+    private final LongAdder destroyed = new LongAdder();
+
+    /** Anzahl der Verbindungen, die bei der Prüfung vor der Ausleihe ungültig waren. */
+    private final LongAdder validationFailures = new LongAdder();
+
+    /** Anzahl der Anweisungen, die aus einem Anweisungs-Cache geliefert wurden. */
+    private final LongAdder statementCacheHits = new LongAdder();
+
+    /** Anzahl der Anweisungen, die neu vorbereitet werden mussten. */
+    private final LongAdder statementCacheMisses = new LongAdder();
+
+    /** Anzahl der Anweisungen, die aus einem Anweisungs-Cache verdrängt wurden. */
+    private final LongAdder statementEvictions = new LongAdder();
+
+    /** Summe aller Wartezeiten in Nanosekunden. */
+    private final LongAdder totalWaitNanos = new LongAdder();
+
+    /** Histogramm der Wartezeiten; die letzte Klasse nimmt alle Werte über der größten Grenze auf. */
+    private final AtomicLongArray waitHistogram = new AtomicLongArray(WAIT_BUCKET_BOUNDS_MILLIS.length + 1);
+
+    void recordBorrow(long waitNanos) {
+        borrowed.increment();
+        recordWait(waitNanos);
+    }
+
+    void recordTimeout(long waitNanos) {
+        timeouts.increment();
+        recordWait(waitNanos);
+    }
+
+    void recordCreated() {
+        created.increment();
+    }
+
+    void recordDestroyed() {
+        destroyed.increment();
+    }
+
+    void recordValidationFailure() {
+        validationFailures.increment();
+    }
+
+    void recordStatementCacheHit() {
+        statementCacheHits.increment();
+    }
+
+    void recordStatementCacheMiss() {
+        statementCacheMisses.increment();
+    }
+
+    void recordStatementEviction() {
+        statementEvictions.increment();
+    }
+
+    private void recordWait(long waitNanos) {
+        totalWaitNanos.add(waitNanos);
+        long waitMillis = TimeUnit.NANOSECONDS.toMillis(waitNanos);
+        int bucket = 0;
+        while (bucket < WAIT_BUCKET_BOUNDS_MILLIS.length && waitMillis > WAIT_BUCKET_BOUNDS_MILLIS[bucket]) {
+            bucket++;
+        }
+        waitHistogram.incrementAndGet(bucket);
+    }
+
+    public long getBorrowed() {
+        return borrowed.sum();
+    }
+
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    public long getCreated() {
+        return created.sum();
+    }
+
+    public long getDestroyed() {
+        return destroyed.sum();
+    }
+
+    public long getValidationFailures() {
+        return validationFailures.sum();
+    }
+
+    public long getStatementCacheHits() {
+        return statementCacheHits.sum();
+    }
+
+    public long getStatementCacheMisses() {
+        return statementCacheMisses.sum();
+    }
+
+    public long getStatementEvictions() {
+        return statementEvictions.sum();
+    }
+
+    /**
+     * Liefert die durchschnittliche Wartezeit pro Ausleihversuch.
+     *
+     * @return Die mittlere Wartezeit in Millisekunden.
+     */
+    public double getAverageWaitMillis() {
+        long attempts = borrowed.sum() + timeouts.sum();
+        return attempts == 0 ? 0.0 : totalWaitNanos.sum() / 1_000_000.0 / attempts;
+    }
+
+    /**
+     * Liefert eine Kopie des Wartezeit-Histogramms.
+     *
+     * @return Die Anzahl der Ausleihversuche je Klasse, passend zu {@link #getWaitBucketBoundsMillis()}.
+     */
+    public long[] getWaitHistogram() {
+        long[] copy = new long[waitHistogram.length()];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = waitHistogram.get(i);
+        }
+        return copy;
+    }
+
+    /**
+     * Liefert die oberen Klassengrenzen des Wartezeit-Histogramms.
+     *
+     * @return Die Grenzen in Millisekunden; die letzte Klasse des Histogramms ist nach oben offen.
+     */
+    public static long[] getWaitBucketBoundsMillis() {
+        return WAIT_BUCKET_BOUNDS_MILLIS.clone();
+    }
+
+    /**
+     * Liefert eine Momentaufnahme der Kennzahlen, z.B. für die Ausgabe über RMI.
+     *
+     * @return Die Kennzahlen nach Namen, in derselben Reihenfolge wie {@link #toString()}.
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("borrowed", getBorrowed());
+        map.put("timeouts", getTimeouts());
+        map.put("created", getCreated());
+        map.put("destroyed", getDestroyed());
+        map.put("validationFailures", getValidationFailures());
+        map.put("statementCacheHits", getStatementCacheHits());
+        map.put("statementCacheMisses", getStatementCacheMisses());
+        map.put("statementEvictions", getStatementEvictions());
+        map.put("avgWaitMs", getAverageWaitMillis());
+        map.put("waitBucketBoundsMs", getWaitBucketBoundsMillis());
+        map.put("waitHistogram", getWaitHistogram());
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder histogram = new StringBuilder();
+        long[] counts = getWaitHistogram();
+        for (int i = 0; i < counts.length; i++) {
+            histogram.append(i < WAIT_BUCKET_BOUNDS_MILLIS.length ? "<=" + WAIT_BUCKET_BOUNDS_MILLIS[i] + "ms" : ">"
+                    + WAIT_BUCKET_BOUNDS_MILLIS[WAIT_BUCKET_BOUNDS_MILLIS.length - 1] + "ms");
+            histogram.append('=').append(counts[i]).append(i < counts.length - 1 ? ", " : "");
+        }
+        return "borrowed=" + getBorrowed() + ", timeouts=" + getTimeouts() + ", created=" + getCreated()
+                + ", destroyed=" + getDestroyed() + ", validationFailures=" + getValidationFailures()
+                + ", statementCacheHits=" + getStatementCacheHits() + ", statementCacheMisses=" + getStatementCacheMisses()
+                + ", statementEvictions=" + getStatementEvictions()
+                + ", avgWaitMs=" + String.format("%.3f", getAverageWaitMillis()) + ", waitHistogram=[" + histogram + "]";
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.carconnect.repository;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Hülle um eine physische Datenbankverbindung, die vom {@link ConnectionPool} verwaltet wird.
+ * An die Repositories wird je Ausleihe ein eigener Proxy herausgegeben, dessen {@code close()} die Verbindung
+ * an den Pool zurückgibt, statt sie physisch zu schließen. Nach dem Schließen ist der Proxy unbrauchbar, auch
+ * wenn die Verbindung inzwischen erneut ausgeliehen wurde; ein wiederholtes {@code close()} ist wirkungslos.
+ * Anweisungen, die mit
+ * {@code prepareStatement(String)} vorbereitet werden, kommen aus dem {@link StatementCache} der Verbindung.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+class PooledConnection {
+
+    /** SQLState-Klasse für Verbindungsfehler (z.B. nach einem Neustart von PostgreSQL). */
+    private static final String CONNECTION_EXCEPTION_CLASS = "08";
+
+    /** Der Pool, dem diese Verbindung gehört. */
+    private final ConnectionPool pool;
+
+    /** Die physische JDBC-Verbindung. */
+    private final Connection physical;
+
+    /** Cache der vorbereiteten Anweisungen dieser Verbindung. */
+    private final StatementCache statementCache;
+
+    /** Gibt an, ob bei der Nutzung ein Verbindungsfehler aufgetreten ist. */
+    private volatile boolean broken;
+
+    /** Zeitpunkt der letzten Rückgabe an den Pool (System.nanoTime). */
+    private volatile long lastReturnedNanos = System.nanoTime();
+
+    PooledConnection(ConnectionPool pool, Connection physical, int statementCacheSize) {
+        this.pool = pool;
+        this.physical = physical;
+        this.statementCache = new StatementCache(this, statementCacheSize, pool.getMetrics());
+    }
+
+    /**
+     * @return Ein neuer Proxy für diese Ausleihe.
+     */
+    Connection lease() {
+        return (Connection) Proxy.newProxyInstance(
+                PooledConnection.class.getClassLoader(), new Class<?>[]{Connection.class}, new Lease());
+    }
+
+    Connection physical() {
+        return physical;
+    }
+
+    boolean isBroken() {
+        return broken;
+    }
+
+    long idleNanos() {
+        return System.nanoTime() - lastReturnedNanos;
+    }
+
+    /**
+     * Setzt den Zustand der Verbindung vor der Rückgabe an den Pool zurück, damit der nächste
+     * Ausleiher eine Verbindung im Auto-Commit-Modus ohne offene Transaktion erhält.
+     */
+    void reset() {
+        statementCache.releaseAll();
+        try {
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            physical.clearWarnings();
+        } catch (SQLException e) {
+            broken = true;
+        }
+        lastReturnedNanos = System.nanoTime();
+    }
+
+    void closePhysical() {
+        statementCache.closeAll();
+        try {
+            physical.close();
+        } catch (SQLException e) {
+            e.printStackTrace();  // Fehlerbehandlung beim Schließen einer verworfenen Verbindung
+        }
+    }
+
+    /**
+     * Markiert die Verbindung als defekt, wenn der Fehler auf eine unterbrochene Verbindung hinweist.
+     * Die Verbindung wird dann bei der Rückgabe verworfen und später neu aufgebaut.
+     *
+     * @param failure Der aufgetretene Fehler.
+     */
+    void inspect(Throwable failure) {
+        if (failure instanceof SQLException) {
+            String state = ((SQLException) failure).getSQLState();
+            if (state != null && state.startsWith(CONNECTION_EXCEPTION_CLASS)) {
+                broken = true;
+            }
+        }
+    }
+
+    /**
+     * Eine einzelne Ausleihe. Jeder Proxy hat seinen eigenen Zustand, sodass ein Aufrufer, der seine Referenz
+     * nach dem Schließen behält, weder die Transaktion des nächsten Ausleihers benutzen noch dessen Verbindung
+     * zurückgeben kann.
+     */
+    private final class Lease implements InvocationHandler {
+
+        /** Gesetzt, sobald diese Ausleihe zurückgegeben wurde. */
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        @Override
+        public Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (closed.compareAndSet(false, true)) {
+                        pool.giveBack(PooledConnection.this);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed.get() || physical.isClosed();
+                case "equals":
+                    return target == args[0];
+                case "hashCode":
+                    return System.identityHashCode(target);
+                case "toString":
+                    return "PooledConnection[" + physical + "]";
+                default:
+                    break;
+            }
+            if (closed.get()) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            try {
+                if ("prepareStatement".equals(method.getName()) && args != null && args.length == 1) {
+                    return statementCache.prepare((String) args[0]);
+                }
+                return method.invoke(physical, args);
+            } catch (InvocationTargetException | SQLException e) {
+                Throwable cause = e instanceof InvocationTargetException ? e.getCause() : e;
+                inspect(cause);
+                throw cause;
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.carconnect.repository;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Führt die versionierten Schema-Migrationen aus {@code db/migration} beim Start des Servers aus.
+ * Bereits angewendete Versionen werden in der Tabelle {@code schema_version} festgehalten; jede Migration
+ * läuft zusammen mit ihrem Eintrag in einer eigenen Transaktion. Eine Advisory-Lock verhindert, dass
+ * mehrere gleichzeitig startende Server dieselbe Migration anwenden.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+public class SchemaMigrator {
+
+    /** Verzeichnis der Migrationsskripte im Klassenpfad. */
+    private static final String LOCATION = "/db/migration/";
+
+    /** Die Migrationsskripte in der Reihenfolge ihrer Versionen (Namensschema {@code V<version>__<beschreibung>.sql}). */
+    private static final String[] MIGRATIONS = {
+            "V1__create_tables.sql",
+            "V2__search_indexes.sql",
+            "V3__change_outbox.sql",
+            "V4__change_outbox_lease.sql",
+            "V5__password_stored_keys.sql"
+    };
+
+    /** Schlüssel der Advisory-Lock, unter der migriert wird. */
+    private static final long LOCK_KEY = 0x6361_7263_6f6e_6eL;
+
+    /** Verbindungsmanager für die Datenbank. */
+    private final DBConnectionManager dbConnectionManager;
+
+    /**
+     * Konstruktor für den SchemaMigrator.
+     *
+     * @param dbConnectionManager Ein Manager, der die Datenbankverbindungen verwaltet.
+     */
+    public SchemaMigrator(DBConnectionManager dbConnectionManager) {
+        this.dbConnectionManager = dbConnectionManager;
+    }
+
+    /**
+     * Wendet alle noch nicht angewendeten Migrationen in aufsteigender Reihenfolge an.
+     * Schlägt eine Migration fehl, wird ihre Transaktion zurückgerollt und keine weitere Migration ausgeführt.
+     *
+     * @return true, wenn das Schema auf dem neuesten Stand ist, false andernfalls.
+     */
+    public boolean migrate() {
+        try (Connection connection = dbConnectionManager.getConnection()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE IF NOT EXISTS schema_version (" +
+                        "version INTEGER PRIMARY KEY, " +
+                        "script VARCHAR(255) NOT NULL, " +
+                        "applied_at TIMESTAMP NOT NULL DEFAULT now())");
+            }
+
+            connection.setAutoCommit(false);
+            for (String script : MIGRATIONS) {
+                int version = versionOf(script);
+                try (PreparedStatement lock = connection.prepareStatement("SELECT pg_advisory_xact_lock(?)")) {
+                    lock.setLong(1, LOCK_KEY);
+                    lock.execute();  // Wird mit dem Ende der Transaktion freigegeben
+                }
+                if (isApplied(connection, version)) {
+                    connection.commit();
+                    continue;
+                }
+                try (Statement statement = connection.createStatement()) {
+                    for (String sql : readStatements(script)) {
+                        statement.execute(sql);
+                    }
+                }
+                try (PreparedStatement record = connection.prepareStatement(
+                        "INSERT INTO schema_version (version, script) VALUES (?, ?)")) {
+                    record.setInt(1, version);
+                    record.setString(2, script);
+                    record.executeUpdate();
+                }
+                connection.commit();
+                System.out.println("Applied schema migration " + script);
+            }
+            return true;
+        } catch (SQLException | IOException e) {
+            e.printStackTrace();  // Die Transaktion der fehlgeschlagenen Migration wird vom Pool zurückgerollt
+        }
+        return false;
+    }
+
+    private static boolean isApplied(Connection connection, int version) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT 1 FROM schema_version WHERE version = ?")) {
+            statement.setInt(1, version);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next();
+            }
+        }
+    }
+
+    private static int versionOf(String script) {
+        return Integer.parseInt(script.substring(1, script.indexOf("__")));
+    }
+
+    /**
+     * Liest ein Migrationsskript und zerlegt es in einzelne Anweisungen. Anweisungen enden mit einem Semikolon
+     * am Zeilenende; Zeilen, die mit {@code --} beginnen, werden übersprungen.
+     */
+    private static List<String> readStatements(String script) throws IOException {
+        InputStream in = SchemaMigrator.class.getResourceAsStream(LOCATION + script);
+        if (in == null) {
+            throw new IOException("Migration script not found: " + script);
+        }
+        List<String> statements = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            StringBuilder current = new StringBuilder();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                    continue;
+                }
+                current.append(line).append('\n');
+                if (trimmed.endsWith(";")) {
+                    statements.add(current.substring(0, current.lastIndexOf(";")));
+                    current.setLength(0);
+                }
+            }
+            if (current.toString().trim().length() > 0) {
+                statements.add(current.toString());
+            }
+        }
+        return statements;
+    }
+}
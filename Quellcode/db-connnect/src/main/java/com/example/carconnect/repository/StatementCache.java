@@ -0,0 +1,200 @@
+package com.example.carconnect.repository;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU-Cache für vorbereitete Anweisungen einer einzelnen gepoolten Verbindung, geschlüsselt nach dem SQL-Text.
+ * Die Repositories schließen ihre Anweisungen wie gewohnt; der herausgegebene Proxy legt die Anweisung dabei
+ * nur in den Cache zurück. Erst beim Verdrängen aus dem Cache oder beim Abbau der Verbindung wird sie
+ * physisch geschlossen, sodass PostgreSQL den Parse- und Planungsschritt nicht bei jedem Aufruf wiederholt.
+ *
+ * Eine Verbindung wird immer nur von einem Thread gleichzeitig genutzt, daher ist der Cache nicht synchronisiert.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+class StatementCache {
+
+    /** Die gepoolte Verbindung, zu der der Cache gehört. */
+    private final PooledConnection owner;
+
+    /** Die physische Verbindung, auf der die Anweisungen vorbereitet werden. */
+    private final Connection physical;
+
+    /** Kennzahlen des Pools, in denen Treffer, Fehlschläge und Verdrängungen gezählt werden. */
+    private final PoolMetrics metrics;
+
+    /** Die zwischengespeicherten Anweisungen in Zugriffsreihenfolge. */
+    private final LinkedHashMap<String, CachedStatement> statements;
+
+    /**
+     * Erstellt einen neuen Cache.
+     *
+     * @param owner Die gepoolte Verbindung, zu der der Cache gehört.
+     * @param maxSize Die maximale Anzahl zwischengespeicherter Anweisungen; 0 deaktiviert den Cache.
+     * @param metrics Die Kennzahlen des Pools.
+     */
+    StatementCache(PooledConnection owner, int maxSize, PoolMetrics metrics) {
+        this.owner = owner;
+        this.physical = owner.physical();
+        this.metrics = metrics;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                if (size() > maxSize) {
+                    eldest.getValue().evict();
+                    metrics.recordStatementEviction();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Liefert eine vorbereitete Anweisung für den SQL-Text, bevorzugt aus dem Cache.
+     * Ist die zwischengespeicherte Anweisung gerade in Benutzung (z.B. bei verschachtelter Verwendung
+     * desselben SQL-Textes), wird eine ungecachte Anweisung zurückgegeben.
+     *
+     * @param sql Der SQL-Text.
+     * @return Eine vorbereitete Anweisung, deren {@code close()} sie in den Cache zurücklegt.
+     * @throws SQLException Wenn die Anweisung nicht vorbereitet werden kann.
+     */
+    PreparedStatement prepare(String sql) throws SQLException {
+        CachedStatement cached = statements.get(sql);
+        if (cached != null && cached.evicted) {
+            statements.remove(sql);  // Anweisung wurde nach einem Fehler verworfen
+            cached = null;
+        }
+        if (cached != null) {
+            if (cached.inUse) {
+                metrics.recordStatementCacheMiss();
+                return physical.prepareStatement(sql);
+            }
+            metrics.recordStatementCacheHit();
+            cached.inUse = true;
+            return cached.proxy;
+        }
+        metrics.recordStatementCacheMiss();
+        cached = new CachedStatement(physical.prepareStatement(sql));
+        cached.inUse = true;
+        statements.put(sql, cached);
+        return cached.proxy;
+    }
+
+    /**
+     * Gibt alle Anweisungen frei, die beim Zurückgeben der Verbindung noch als benutzt markiert sind.
+     */
+    void releaseAll() {
+        for (CachedStatement cached : statements.values()) {
+            if (cached.inUse) {
+                cached.release();
+            }
+        }
+    }
+
+    /**
+     * Schließt alle zwischengespeicherten Anweisungen physisch.
+     */
+    void closeAll() {
+        Iterator<CachedStatement> iterator = statements.values().iterator();
+        while (iterator.hasNext()) {
+            iterator.next().evict();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Eine zwischengespeicherte Anweisung samt Proxy, der {@code close()} abfängt.
+     */
+    private final class CachedStatement implements InvocationHandler {
+
+        /** Die physische Anweisung. */
+        private final PreparedStatement delegate;
+
+        /** Der an die Aufrufer herausgegebene Proxy. */
+        private final PreparedStatement proxy;
+
+        /** Gibt an, ob die Anweisung gerade ausgegeben ist. */
+        private boolean inUse;
+
+        /** Gibt an, ob die Anweisung aus dem Cache verdrängt wurde. */
+        private boolean evicted;
+
+        CachedStatement(PreparedStatement delegate) {
+            this.delegate = delegate;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(
+                    StatementCache.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, this);
+        }
+
+        /**
+         * Legt die Anweisung in den Cache zurück; offene Ergebnismengen und Parameter werden dabei verworfen.
+         */
+        void release() {
+            inUse = false;
+            if (evicted) {
+                closeQuietly();
+                return;
+            }
+            try {
+                delegate.clearParameters();
+                delegate.clearWarnings();
+            } catch (SQLException e) {
+                evicted = true;
+                closeQuietly();
+            }
+        }
+
+        /**
+         * Markiert die Anweisung als verdrängt und schließt sie, sofern sie nicht gerade benutzt wird.
+         */
+        void evict() {
+            evicted = true;
+            if (!inUse) {
+                closeQuietly();
+            }
+        }
+
+        private void closeQuietly() {
+            try {
+                delegate.close();
+            } catch (SQLException e) {
+                e.printStackTrace();  // Fehlerbehandlung beim Schließen einer verdrängten Anweisung
+            }
+        }
+
+        @Override
+        public Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (inUse) {
+                        release();
+                    }
+                    return null;
+                case "isClosed":
+                    return !inUse || delegate.isClosed();
+                case "equals":
+                    return target == args[0];
+                case "hashCode":
+                    return System.identityHashCode(target);
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(delegate, args);
+            } catch (InvocationTargetException e) {
+                owner.inspect(e.getCause());
+                throw e.getCause();
+            }
+        }
+    }
+}
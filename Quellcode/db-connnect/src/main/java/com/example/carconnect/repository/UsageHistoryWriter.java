@@ -0,0 +1,339 @@
+package com.example.carconnect.repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schreibt Einträge der Nutzungshistorie gebündelt in die Datenbank (Group Commit).
+ * Aufrufer legen ihre Zeilen in eine begrenzte Warteschlange; ein Hintergrund-Thread sammelt sie, bis
+ * die Stapelgröße erreicht oder die Wartezeit abgelaufen ist, und schreibt den Stapel mit einem
+ * JDBC-Batch in einer einzigen Transaktion. Schlägt ein Stapel fehl, werden seine Zeilen einzeln
+ * wiederholt, damit eine fehlerhafte Zeile nicht die übrigen verwirft.
+ *
+ * Mit {@link Durability#SYNC} wartet der Aufrufer, bis sein Stapel festgeschrieben ist, und erhält das
+ * tatsächliche Ergebnis; mit {@link Durability#ASYNC} kehrt er zurück, sobald die Zeile angenommen wurde.
+ * Ist die Warteschlange voll, wartet der Aufrufer höchstens das Annahme-Zeitlimit und die Zeile wird
+ * danach abgewiesen.
+ *
+ * Die Parameter können über System-Properties (z.B. {@code -Dcarconnect.usage.batchSize=200}) angepasst werden.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+public class UsageHistoryWriter implements AutoCloseable {
+
+    /** Bestätigungsmodus für geschriebene Zeilen. */
+    public enum Durability {
+        /** Der Aufrufer wartet, bis die Zeile festgeschrieben ist. */
+        SYNC,
+        /** Der Aufrufer kehrt zurück, sobald die Zeile in der Warteschlange liegt. */
+        ASYNC
+    }
+
+    /** Maximale Anzahl Zeilen je Stapel. */
+    private static final int BATCH_SIZE = Integer.getInteger("carconnect.usage.batchSize", 100);
+
+    /** Maximale Wartezeit in Millisekunden, bis ein unvollständiger Stapel geschrieben wird. */
+    private static final long LINGER_MILLIS = Long.getLong("carconnect.usage.lingerMillis", 5);
+
+    /** Kapazität der Warteschlange. */
+    private static final int QUEUE_CAPACITY = Integer.getInteger("carconnect.usage.queueCapacity", 10_000);
+
+    /** Maximale Wartezeit in Millisekunden, wenn die Warteschlange voll ist. */
+    private static final long OFFER_TIMEOUT_MILLIS = Long.getLong("carconnect.usage.offerTimeoutMillis", 1_000);
+
+    /** Der voreingestellte Bestätigungsmodus. */
+    private static final Durability DURABILITY =
+            Durability.valueOf(System.getProperty("carconnect.usage.durability", "SYNC").toUpperCase());
+
+    /** Maximale Wartezeit in Millisekunden auf den Hintergrund-Thread beim Schließen. */
+    private static final long CLOSE_TIMEOUT_MILLIS = 10_000;
+
+    private static final String INSERT_QUERY =
+            "INSERT INTO usage_history (username, vehicle_id, start_time, end_time) VALUES (?, ?, ?, ?)";
+
+    /** Verbindungsmanager für die Datenbank. */
+    private final DBConnectionManager dbConnectionManager;
+
+    /** Maximale Anzahl Zeilen je Stapel. */
+    private final int batchSize;
+
+    /** Maximale Wartezeit in Nanosekunden, bis ein unvollständiger Stapel geschrieben wird. */
+    private final long lingerNanos;
+
+    /** Maximale Wartezeit in Millisekunden, wenn die Warteschlange voll ist. */
+    private final long offerTimeoutMillis;
+
+    /** Der Bestätigungsmodus. */
+    private final Durability durability;
+
+    /** Die Warteschlange der noch nicht geschriebenen Zeilen. */
+    private final BlockingQueue<Entry> queue;
+
+    /** Kennzahlen des Schreibers. */
+    private final BatchWriterMetrics metrics = new BatchWriterMetrics();
+
+    /** Der Hintergrund-Thread, der die Stapel schreibt. */
+    private final Thread flusher;
+
+    /** Gibt an, ob der Schreiber geschlossen wurde. */
+    private volatile boolean closed;
+
+    /** Gibt an, ob der Hintergrund-Thread seine Schleife verlassen hat. */
+    private volatile boolean stopped;
+
+    /**
+     * Erstellt einen Schreiber mit den über System-Properties konfigurierten Parametern.
+     *
+     * @param dbConnectionManager Ein Manager, der die Datenbankverbindungen verwaltet.
+     */
+    public UsageHistoryWriter(DBConnectionManager dbConnectionManager) {
+        this(dbConnectionManager, BATCH_SIZE, LINGER_MILLIS, QUEUE_CAPACITY, OFFER_TIMEOUT_MILLIS, DURABILITY);
+    }
+
+    /**
+     * Erstellt einen Schreiber und startet den Hintergrund-Thread.
+     *
+     * @param dbConnectionManager Ein Manager, der die Datenbankverbindungen verwaltet.
+     * @param batchSize Die maximale Anzahl Zeilen je Stapel.
+     * @param lingerMillis Die maximale Wartezeit in Millisekunden, bis ein unvollständiger Stapel geschrieben wird.
+     * @param queueCapacity Die Kapazität der Warteschlange.
+     * @param offerTimeoutMillis Die maximale Wartezeit in Millisekunden, wenn die Warteschlange voll ist.
+     * @param durability Der Bestätigungsmodus.
+     */
+    public UsageHistoryWriter(DBConnectionManager dbConnectionManager, int batchSize, long lingerMillis,
+                              int queueCapacity, long offerTimeoutMillis, Durability durability) {
+        if (batchSize < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Invalid writer size: batch=" + batchSize + ", queue=" + queueCapacity);
+        }
+        this.dbConnectionManager = dbConnectionManager;
+        this.batchSize = batchSize;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.durability = durability;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.flusher = new Thread(this::run, "usage-history-writer");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Nimmt einen Eintrag der Nutzungshistorie zum Schreiben an.
+     *
+     * @param username Der Benutzername des Nutzers, der das Fahrzeug nutzt.
+     * @param vehicleId Die ID des genutzten Fahrzeugs.
+     * @param startTime Die Startzeit der Nutzung.
+     * @param endTime Die Endzeit der Nutzung.
+     * @return Bei {@link Durability#SYNC} true, wenn die Zeile festgeschrieben wurde; bei {@link Durability#ASYNC}
+     *         true, wenn sie angenommen wurde. false, wenn sie abgewiesen wurde oder nicht geschrieben werden konnte.
+     */
+    public boolean record(String username, int vehicleId, Timestamp startTime, Timestamp endTime) {
+        if (closed) {
+            return false;
+        }
+        Entry entry = new Entry(username, vehicleId, startTime, endTime);
+        try {
+            if (!queue.offer(entry, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                metrics.recordRejected();
+                System.err.println("Usage history queue is full, rejecting entry for vehicle " + vehicleId);
+                return false;
+            }
+            if (stopped && queue.remove(entry)) {
+                return false;  // Der Schreiber wurde während des Einreihens geschlossen
+            }
+            if (durability == Durability.ASYNC) {
+                return true;
+            }
+            return entry.done.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Schleife des Hintergrund-Threads: sammelt Stapel und schreibt sie, bis der Schreiber geschlossen
+     * und die Warteschlange leer ist.
+     */
+    private void run() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                Entry first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    Entry next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                closed = true;  // Beim Unterbrechen wird der Rest der Warteschlange noch geschrieben
+            } catch (RuntimeException e) {
+                e.printStackTrace();  // Der Hintergrund-Thread darf nicht abbrechen
+                for (Entry entry : batch) {
+                    entry.done.complete(false);
+                }
+            }
+            batch.clear();
+        }
+        stopped = true;
+        Entry entry;
+        while ((entry = queue.poll()) != null) {
+            entry.done.complete(false);  // Nach dem Schließen eingereihte Zeilen werden abgewiesen
+        }
+    }
+
+    /**
+     * Schreibt einen Stapel in einer Transaktion und bestätigt anschließend alle Zeilen.
+     *
+     * @param batch Die zu schreibenden Zeilen.
+     */
+    private void flush(List<Entry> batch) {
+        long start = System.nanoTime();
+        try (Connection connection = dbConnectionManager.getConnection();
+             PreparedStatement statement = connection.prepareStatement(INSERT_QUERY)) {
+            connection.setAutoCommit(false);
+            for (Entry entry : batch) {
+                bind(statement, entry);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+            connection.commit();
+            metrics.recordFlush(batch.size(), 0, System.nanoTime() - start);
+            for (Entry entry : batch) {
+                entry.done.complete(true);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            int failed = batch.size() == 1 ? fail(batch.get(0)) : flushIndividually(batch);
+            metrics.recordFlush(batch.size(), failed, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Wiederholt die Zeilen eines fehlgeschlagenen Stapels einzeln im Auto-Commit-Modus.
+     *
+     * @param batch Die zu schreibenden Zeilen.
+     * @return Die Anzahl der Zeilen, die nicht geschrieben werden konnten.
+     */
+    private int flushIndividually(List<Entry> batch) {
+        int failed = 0;
+        try (Connection connection = dbConnectionManager.getConnection();
+             PreparedStatement statement = connection.prepareStatement(INSERT_QUERY)) {
+            for (Entry entry : batch) {
+                try {
+                    bind(statement, entry);
+                    statement.executeUpdate();
+                    entry.done.complete(true);
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                    failed += fail(entry);
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            for (Entry entry : batch) {
+                if (!entry.done.isDone()) {
+                    failed += fail(entry);
+                }
+            }
+        }
+        return failed;
+    }
+
+    private static int fail(Entry entry) {
+        entry.done.complete(false);
+        return 1;
+    }
+
+    private static void bind(PreparedStatement statement, Entry entry) throws SQLException {
+        statement.setString(1, entry.username);
+        statement.setInt(2, entry.vehicleId);
+        statement.setTimestamp(3, entry.startTime);
+        statement.setTimestamp(4, entry.endTime);
+    }
+
+    /** @return Die Anzahl der Zeilen, die noch auf das Schreiben warten. */
+    public int getQueuedEntries() {
+        return queue.size();
+    }
+
+    /** @return Die gesammelten Kennzahlen des Schreibers. */
+    public BatchWriterMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Liefert den aktuellen Zustand des Schreibers zusammen mit seinen Kennzahlen.
+     *
+     * @return Die wartenden Zeilen und {@link BatchWriterMetrics#toMap()}.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queued", getQueuedEntries());
+        stats.putAll(metrics.toMap());
+        return stats;
+    }
+
+    /**
+     * Nimmt keine neuen Zeilen mehr an und wartet, bis die Warteschlange geschrieben wurde.
+     * Muss vor dem Schließen des Verbindungspools aufgerufen werden.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            flusher.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.println("Usage history writer closed: " + metrics);
+    }
+
+    /**
+     * Eine Zeile der Nutzungshistorie samt Bestätigung für den wartenden Aufrufer.
+     */
+    private static final class Entry {
+
+        private final String username;
+        private final int vehicleId;
+        private final Timestamp startTime;
+        private final Timestamp endTime;
+
+        /** Wird nach dem Schreiben mit dem Ergebnis abgeschlossen. */
+        private final CompletableFuture<Boolean> done = new CompletableFuture<>();
+
+        Entry(String username, int vehicleId, Timestamp startTime, Timestamp endTime) {
+            this.username = username;
+            this.vehicleId = vehicleId;
+            this.startTime = startTime;
+            this.endTime = endTime;
+        }
+    }
+}
@@ -1,9 +1,14 @@
 package com.example.carconnect.repository;
 
+import com.example.carconnect.auth.Credential;
+import com.example.carconnect.auth.PasswordHasher;
+
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Repository-Klasse, die für den Zugriff auf die Benutzerdatenbank und die Verwaltung von Benutzerinformationen verantwortlich ist.
@@ -17,13 +22,18 @@ public class UserRepository {
     /** Verbindungsmanager für die Datenbank. */
     private final DBConnectionManager dbConnectionManager;
 
+    /** Index der Fahrzeugbesitzer. */
+    private final OwnershipIndex ownershipIndex;
+
     /**
      * Konstruktor für das UserRepository.
      *
      * @param dbConnectionManager Ein Manager, der die Datenbankverbindungen verwaltet.
+     * @param ownershipIndex Der Index der Fahrzeugbesitzer, der bei Änderungen aktualisiert wird.
      */
-    public UserRepository(DBConnectionManager dbConnectionManager) {
+    public UserRepository(DBConnectionManager dbConnectionManager, OwnershipIndex ownershipIndex) {
         this.dbConnectionManager = dbConnectionManager;
+        this.ownershipIndex = ownershipIndex;
     }
 
     /**
@@ -33,13 +43,13 @@ public class UserRepository {
      * @return true, wenn der Benutzer existiert, false andernfalls.
      */
     public boolean checkUserExistence(String username) {
-        try {
-            Connection connection = dbConnectionManager.getConnection();
-            String query = "SELECT username FROM users WHERE username = ?";
-            PreparedStatement statement = connection.prepareStatement(query);
+        String query = "SELECT username FROM users WHERE username = ?";
+        try (Connection connection = dbConnectionManager.getConnection();
+             PreparedStatement statement = DBConnectionManager.serverPrepared(connection.prepareStatement(query))) {
             statement.setString(1, username);
-            ResultSet res = statement.executeQuery();
-            return res.next();  // Rückgabe true, wenn der Benutzername gefunden wird
+            try (ResultSet res = statement.executeQuery()) {
+                return res.next();  // Rückgabe true, wenn der Benutzername gefunden wird
+            }
         } catch (SQLException e) {
             e.printStackTrace();  // Fehlerbehandlung bei SQL-Ausnahme
         }
@@ -53,14 +63,14 @@ public class UserRepository {
      * @return Der Passwort-Hash als String, oder null, wenn der Benutzer nicht gefunden wird.
      */
     public String getHash(String username) {
-        try {
-            Connection connection = dbConnectionManager.getConnection();
-            String query = "SELECT hash FROM users WHERE username = ?";
-            PreparedStatement statement = connection.prepareStatement(query);
+        String query = "SELECT hash FROM users WHERE username = ?";
+        try (Connection connection = dbConnectionManager.getConnection();
+             PreparedStatement statement = DBConnectionManager.serverPrepared(connection.prepareStatement(query))) {
             statement.setString(1, username);
-            ResultSet res = statement.executeQuery();
-            if (res.next()) {
-                return res.getString("hash");  // Rückgabe des gefundenen Hashes
+            try (ResultSet res = statement.executeQuery()) {
+                if (res.next()) {
+                    return res.getString("hash");  // Rückgabe des gefundenen Hashes
+                }
             }
         } catch (SQLException e) {
             e.printStackTrace();  // Fehlerbehandlung bei SQL-Ausnahme
@@ -68,6 +78,49 @@ public class UserRepository {
         return null;  // Rückgabe null, wenn kein Hash gefunden wird
     }
 
+    /**
+     * Lädt Existenz und Passwort-Hash eines Benutzers mit einer einzigen Abfrage.
+     *
+     * @param username Der Benutzername.
+     * @return Die Anmeldedaten, {@link Credential#UNKNOWN} wenn der Benutzer nicht existiert, oder null im Fehlerfall.
+     */
+    public Credential findCredential(String username) {
+        String query = "SELECT hash FROM users WHERE username = ?";
+        try (Connection connection = dbConnectionManager.getConnection();
+             PreparedStatement statement = DBConnectionManager.serverPrepared(connection.prepareStatement(query))) {
+            statement.setString(1, username);
+            try (ResultSet res = statement.executeQuery()) {
+                return res.next() ? new Credential(true, res.getString("hash")) : Credential.UNKNOWN;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();  // Fehlerbehandlung bei SQL-Ausnahme
+        }
+        return null;
+    }
+
+    /**
+     * Liefert die Benutzer, deren Passwort-Hash noch nicht im PBKDF2-Format gespeichert ist.
+     *
+     * @return Der Alt-Hash je Benutzername oder null im Fehlerfall.
+     */
+    public Map<String, String> getLegacyHashes() {
+        String query = "SELECT username, hash FROM users WHERE hash IS NOT NULL AND hash NOT LIKE ?";
+        Map<String, String> hashes = new HashMap<>();
+        try (Connection connection = dbConnectionManager.getConnection();
+             PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setString(1, PasswordHasher.PREFIX + "$%");
+            try (ResultSet res = statement.executeQuery()) {
+                while (res.next()) {
+                    hashes.put(res.getString("username"), res.getString("hash"));
+                }
+            }
+            return hashes;
+        } catch (SQLException e) {
+            e.printStackTrace();  // Fehlerbehandlung bei SQL-Ausnahme
+        }
+        return null;
+    }
+
     /**
      * Registriert einen neuen Benutzer in der Datenbank.
      *
@@ -76,13 +129,16 @@ public class UserRepository {
      * @return true, wenn die Registrierung erfolgreich war, false andernfalls.
      */
     public boolean registerNewUser(String username, String hash) {
-        try {
-            Connection connection = dbConnectionManager.getConnection();
-            String query = "INSERT INTO users (username, hash) VALUES (?, ?)";
-            PreparedStatement statement = connection.prepareStatement(query);
+        String query = "INSERT INTO users (username, hash) VALUES (?, ?) RETURNING id";
+        try (Connection connection = dbConnectionManager.getConnection();
+             PreparedStatement statement = connection.prepareStatement(query)) {
             statement.setString(1, username);
             statement.setString(2, hash);
-            statement.execute();  // Ausführung des SQL-Befehls zum Einfügen des neuen Benutzers
+            try (ResultSet inserted = statement.executeQuery()) {  // Ausführung des SQL-Befehls zum Einfügen des neuen Benutzers
+                if (inserted.next()) {
+                    ownershipIndex.putUser(inserted.getInt("id"), username);
+                }
+            }
             return true;
         } catch (SQLException e) {
             e.printStackTrace();  // Fehlerbehandlung bei SQL-Ausnahme
@@ -98,10 +154,9 @@ public class UserRepository {
      * @return true, wenn die Aktualisierung erfolgreich war, false andernfalls.
      */
     public boolean updateUserPassword(String username, String newPasswordHash) {
-        try {
-            Connection connection = dbConnectionManager.getConnection();
-            String query = "UPDATE users SET hash = ? WHERE username = ?";
-            PreparedStatement statement = connection.prepareStatement(query);
+        String query = "UPDATE users SET hash = ? WHERE username = ?";
+        try (Connection connection = dbConnectionManager.getConnection();
+             PreparedStatement statement = connection.prepareStatement(query)) {
             statement.setString(1, newPasswordHash);
             statement.setString(2, username);
             int rowsUpdated = statement.executeUpdate();  // Ausführung des SQL-Befehls zur Aktualisierung des Passwort-Hashes
@@ -1,13 +1,29 @@
 package com.example.carconnect.repository;
 
+import com.example.carconnect.vehicle.VehicleImportResult;
+import com.example.carconnect.vehicle.VehicleImportRow;
+import com.example.carconnect.vehicle.VehiclePage;
+import com.example.carconnect.vehicle.VehicleView;
+import com.example.carconnect.vehicle.VehicleViewList;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Repository-Klasse, die für den Zugriff auf die Fahrzeugdatenbank und die Verwaltung von Fahrzeuginformationen verantwortlich ist.
@@ -18,16 +34,61 @@ import java.util.Map;
  */
 public class VehicleRepository {
 
+    /** Spalten und Verknüpfung der Fahrzeugsuche. */
+    private static final String SEARCH_SELECT = "SELECT v.id, v.make, v.model, v.year, v.location, v.available, u.username AS owner_name " +
+            "FROM vehicles v JOIN users u ON v.owner_id = u.id";
+
+    /** Basis der Fahrzeugsuche; weitere Bedingungen werden angehängt. */
+    private static final String SEARCH_QUERY = SEARCH_SELECT + " WHERE v.available = true";
+
+    /** Textspalten, nach denen gesucht werden darf. */
+    private static final Set<String> TEXT_CRITERIA = Set.of("make", "model", "location");
+
+    /** Maximale Anzahl an Fahrzeugen pro Seite. */
+    public static final int MAX_PAGE_SIZE = 500;
+
+    /** Maximale Anzahl ausgeschlossener IDs je Abfrage der Zeitraumsuche. */
+    private static final int EXCLUDED_PER_QUERY = 1024;
+
+    /** Maximale Anzahl an Zeilen pro Importaufruf. */
+    public static final int MAX_IMPORT_ROWS = 1000;
+
+    /** Puffergröße in Zeichen, ab der Importzeilen an COPY übergeben werden. */
+    private static final int COPY_BUFFER_CHARS = 64 * 1024;
+
+    /** Anzahl der Zeilen, die der Treiber pro Roundtrip abruft. */
+    private static final int FETCH_SIZE = 100;
+
+    /** Präfix der Cursor-Kodierung, um künftige Formate unterscheiden zu können. */
+    private static final String CURSOR_PREFIX = "v1:";
+
     /** Verbindungsmanager für die Datenbank. */
     private final DBConnectionManager dbConnectionManager;
 
+    /** Index der Fahrzeugbesitzer. */
+    private final OwnershipIndex ownershipIndex;
+
+    /** Ausgang für die Änderungsbenachrichtigungen. */
+    private final ChangeOutbox changeOutbox;
+
+    /**
+     * ID des zuletzt von diesem Repository eingefügten Fahrzeugs. {@code currval()} ist an die Datenbanksitzung
+     * gebunden und liefert mit einem Verbindungspool nicht zuverlässig die eigene Einfügung.
+     */
+    private final AtomicInteger lastInsertedVehicleId = new AtomicInteger(-1);
+
     /**
      * Konstruktor für das VehicleRepository.
      *
      * @param dbConnectionManager Ein Manager, der die Datenbankverbindungen verwaltet.
+     * @param ownershipIndex Der Index der Fahrzeugbesitzer, der bei Änderungen aktualisiert wird.
+     * @param changeOutbox Der Ausgang, in den Änderungen in ihrer Transaktion geschrieben werden.
      */
-    public VehicleRepository(DBConnectionManager dbConnectionManager) {
+    public VehicleRepository(DBConnectionManager dbConnectionManager, OwnershipIndex ownershipIndex,
+                             ChangeOutbox changeOutbox) {
         this.dbConnectionManager = dbConnectionManager;
+        this.ownershipIndex = ownershipIndex;
+        this.changeOutbox = changeOutbox;
     }
 
     /**
@@ -41,90 +102,439 @@ public class VehicleRepository {
      * @return true, wenn das Fahrzeug erfolgreich registriert wurde, false andernfalls.
      */
     public boolean registerVehicle(String ownerUsername, String make, String model, int year, String location) {
-        try {
-            Connection connection = dbConnectionManager.getConnection();
-
-            // Abrufen der Benutzer-ID basierend auf dem Benutzernamen
-            String userQuery = "SELECT id FROM users WHERE username = ?";
-            PreparedStatement userStatement = connection.prepareStatement(userQuery);
-            userStatement.setString(1, ownerUsername);
-            ResultSet userResult = userStatement.executeQuery();
-
-            if (userResult.next()) {
-                int ownerId = userResult.getInt("id");
-
-                // Einfügen des Fahrzeugs in die Datenbank
-                String query = "INSERT INTO vehicles (owner_id, make, model, year, location, available) VALUES (?, ?, ?, ?, ?, true)";
-                PreparedStatement statement = connection.prepareStatement(query);
-                statement.setInt(1, ownerId);
-                statement.setString(2, make);
-                statement.setString(3, model);
-                statement.setInt(4, year);
-                statement.setString(5, location);
-                statement.execute();
-                return true;
-            } else {
-                return false; // Rückgabe false, wenn der Benutzer nicht existiert
+        return createVehicle(ownerUsername, make, model, year, location) != null;
+    }
+
+    /**
+     * Registriert ein neues Fahrzeug und liefert es samt generierter ID zurück.
+     * Der Besitzer wird in derselben Anweisung über seinen Benutzernamen ermittelt; die Benachrichtigung
+     * {@code add} wird in derselben Transaktion in den {@link ChangeOutbox} geschrieben.
+     *
+     * @param ownerUsername Der Benutzername des Fahrzeugbesitzers.
+     * @param make Die Marke des Fahrzeugs.
+     * @param model Das Modell des Fahrzeugs.
+     * @param year Das Baujahr des Fahrzeugs.
+     * @param location Der Standort des Fahrzeugs.
+     * @return Das angelegte Fahrzeug oder null, wenn der Benutzer nicht existiert oder ein Fehler aufgetreten ist.
+     */
+    public VehicleView createVehicle(String ownerUsername, String make, String model, int year, String location) {
+        String query = "INSERT INTO vehicles (owner_id, make, model, year, location, available) " +
+                "SELECT u.id, ?, ?, ?, ?, true FROM users u WHERE u.username = ? " +
+                "RETURNING id, owner_id, make, model, year, location, available";
+        try (Connection connection = dbConnectionManager.getConnection()) {
+            connection.setAutoCommit(false);
+            VehicleView vehicle;
+            int ownerId;
+            try (PreparedStatement statement = connection.prepareStatement(query)) {
+                statement.setString(1, make);
+                statement.setString(2, model);
+                statement.setInt(3, year);
+                statement.setString(4, location);
+                statement.setString(5, ownerUsername);
+                try (ResultSet inserted = statement.executeQuery()) {
+                    if (!inserted.next()) {
+                        connection.commit();
+                        return null; // Rückgabe null, wenn der Benutzer nicht existiert
+                    }
+                    ownerId = inserted.getInt("owner_id");
+                    vehicle = new VehicleView(inserted.getInt("id"), ownerUsername,
+                            inserted.getString("make"),
+                            inserted.getString("model"),
+                            inserted.getInt("year"),
+                            inserted.getString("location"),
+                            inserted.getBoolean("available"));
+                }
             }
+            changeOutbox.append(connection, toJson(vehicle).put("action", "add"), null);
+            connection.commit();
+            changeOutbox.signal();
+            lastInsertedVehicleId.set(vehicle.getId());
+            ownershipIndex.putVehicle(vehicle.getId(), ownerId);
+            ownershipIndex.putUser(ownerId, ownerUsername);
+            return vehicle;
         } catch (SQLException e) {
             e.printStackTrace(); // Fehlerbehandlung bei SQL-Ausnahme
         }
-        return false;
+        return null;
+    }
+
+    /**
+     * Importiert mehrere Fahrzeuge eines Besitzers. Gültige Zeilen werden über das COPY-Protokoll von PostgreSQL
+     * in eine temporäre Tabelle gestreamt und mit einer einzigen INSERT-Anweisung übernommen; ungültige Zeilen
+     * werden mit ihrer Zeilennummer und dem Grund zurückgemeldet. Die gültigen Zeilen eines Aufrufs werden
+     * gemeinsam übernommen oder gemeinsam abgelehnt, zusammen mit einer Benachrichtigung {@code bulkAdd}.
+     *
+     * @param ownerUsername Der Benutzername des Fahrzeugbesitzers.
+     * @param rows Die zu importierenden Zeilen, höchstens {@value #MAX_IMPORT_ROWS}.
+     * @return Die Anzahl der angelegten Fahrzeuge und die Fehler der abgelehnten Zeilen.
+     * @throws IllegalArgumentException Wenn zu viele Zeilen übergeben werden.
+     */
+    public VehicleImportResult importVehicles(String ownerUsername, List<VehicleImportRow> rows) {
+        if (rows.size() > MAX_IMPORT_ROWS) {
+            throw new IllegalArgumentException("At most " + MAX_IMPORT_ROWS + " rows per import call");
+        }
+        VehicleImportResult result = new VehicleImportResult();
+        List<VehicleImportRow> valid = new ArrayList<>(rows.size());
+        for (VehicleImportRow row : rows) {
+            String error = validate(row);
+            if (error != null) {
+                result.addError(row.getLine(), error);
+            } else {
+                valid.add(row);
+            }
+        }
+        if (valid.isEmpty()) {
+            return result;
+        }
+
+        String insertQuery = "INSERT INTO vehicles (owner_id, make, model, year, location, available) " +
+                "SELECT u.id, i.make, i.model, i.year, i.location, true " +
+                "FROM vehicle_import i CROSS JOIN users u WHERE u.username = ? ORDER BY i.line " +
+                "RETURNING id, owner_id, make, model, year, location, available";
+        List<VehicleView> created = new ArrayList<>(valid.size());
+        int ownerId = OwnershipIndex.UNKNOWN;
+        try (Connection connection = dbConnectionManager.getConnection()) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TEMP TABLE vehicle_import (line INTEGER, make TEXT, model TEXT, year INTEGER, location TEXT) ON COMMIT DROP");
+            }
+
+            // Streamen der Zeilen über COPY statt einzelner INSERT-Anweisungen
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            CopyIn copyIn = copyManager.copyIn("COPY vehicle_import (line, make, model, year, location) FROM STDIN WITH (FORMAT csv)");
+            try {
+                StringBuilder buffer = new StringBuilder();
+                for (VehicleImportRow row : valid) {
+                    buffer.append(row.getLine()).append(',')
+                            .append(csv(row.getMake())).append(',')
+                            .append(csv(row.getModel())).append(',')
+                            .append(row.getYear()).append(',')
+                            .append(csv(row.getLocation())).append('\n');
+                    if (buffer.length() >= COPY_BUFFER_CHARS) {
+                        writeToCopy(copyIn, buffer);
+                    }
+                }
+                writeToCopy(copyIn, buffer);
+                copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+
+            try (PreparedStatement statement = connection.prepareStatement(insertQuery)) {
+                statement.setString(1, ownerUsername);
+                try (ResultSet inserted = statement.executeQuery()) {
+                    while (inserted.next()) {
+                        int vehicleId = inserted.getInt("id");
+                        ownerId = inserted.getInt("owner_id");
+                        created.add(new VehicleView(vehicleId, ownerUsername,
+                                inserted.getString("make"),
+                                inserted.getString("model"),
+                                inserted.getInt("year"),
+                                inserted.getString("location"),
+                                inserted.getBoolean("available")));
+                    }
+                }
+            }
+            if (!created.isEmpty()) {
+                JSONArray vehicles = new JSONArray();
+                for (VehicleView vehicle : created) {
+                    vehicles.put(toJson(vehicle));
+                }
+                changeOutbox.append(connection, new JSONObject().put("action", "bulkAdd").put("vehicles", vehicles), null);
+            }
+            connection.commit();
+            if (created.isEmpty()) {
+                for (VehicleImportRow row : valid) {
+                    result.addError(row.getLine(), "Unknown owner: " + ownerUsername);
+                }
+            }
+            if (!created.isEmpty()) {
+                changeOutbox.signal();
+            }
+            for (VehicleView vehicle : created) {
+                ownershipIndex.putVehicle(vehicle.getId(), ownerId);
+            }
+            result.addImported(created.size());
+            if (ownerId != OwnershipIndex.UNKNOWN) {
+                ownershipIndex.putUser(ownerId, ownerUsername);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace(); // Fehlerbehandlung bei SQL-Ausnahme; die Transaktion wird vom Pool zurückgerollt
+            for (VehicleImportRow row : valid) {
+                result.addError(row.getLine(), "Database error: " + e.getMessage());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Prüft eine Importzeile auf die Bedingungen des Schemas.
+     *
+     * @return Die Fehlerbeschreibung oder null, wenn die Zeile gültig ist.
+     */
+    private static String validate(VehicleImportRow row) {
+        if (isBlank(row.getMake()) || isBlank(row.getModel()) || isBlank(row.getLocation())) {
+            return "make, model and location are required";
+        }
+        if (row.getMake().length() > 255 || row.getModel().length() > 255 || row.getLocation().length() > 255) {
+            return "make, model and location must not exceed 255 characters";
+        }
+        if (row.getYear() < 1886 || row.getYear() > 2100) {
+            return "Invalid year: " + row.getYear();
+        }
+        return null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    /** Kodiert einen Wert als CSV-Feld für COPY. */
+    private static String csv(String value) {
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static void writeToCopy(CopyIn copyIn, StringBuilder buffer) throws SQLException {
+        if (buffer.length() > 0) {
+            byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+            buffer.setLength(0);
+        }
     }
 
     /**
      * Sucht nach verfügbaren Fahrzeugen basierend auf den angegebenen Suchkriterien.
+     * Liefert alle Treffer auf einmal; für große Bestände sollte
+     * {@link #searchAvailableVehicles(Map, int, String)} verwendet werden.
      *
      * @param searchCriteria Eine Map, die die Suchkriterien (z.B. Marke, Modell, Baujahr) enthält.
      * @return Eine Liste von Maps, die die Details der verfügbaren Fahrzeuge enthalten.
      */
     public List<Map<String, Object>> searchAvailableVehicles(Map<String, String> searchCriteria) {
         List<Map<String, Object>> vehicles = new ArrayList<>();
-        try {
-            Connection connection = dbConnectionManager.getConnection();
 
-            // Erstellung des SQL-Queries basierend auf den Suchkriterien
-            StringBuilder query = new StringBuilder("SELECT v.*, u.username AS owner_name FROM vehicles v JOIN users u ON v.owner_id = u.id WHERE v.available = true");
+        // Erstellung des SQL-Queries basierend auf den Suchkriterien
+        StringBuilder query = new StringBuilder(SEARCH_QUERY);
+        appendCriteria(query, searchCriteria);
+        query.append(" ORDER BY v.id");
 
-            for (Map.Entry<String, String> entry : searchCriteria.entrySet()) {
-                if (entry.getKey().equals("year")) {
-                    query.append(" AND ").append(entry.getKey()).append(" = ?");
-                } else {
-                    query.append(" AND LOWER(").append(entry.getKey()).append(") LIKE ?");
+        try (Connection connection = dbConnectionManager.getConnection();
+             PreparedStatement statement = connection.prepareStatement(query.toString())) {
+            bindCriteria(statement, 1, searchCriteria);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    vehicles.add(readVehicle(resultSet).toMap()); // Hinzufügen des Fahrzeugs zur Liste der Suchergebnisse
                 }
             }
+        } catch (SQLException e) {
+            e.printStackTrace(); // Fehlerbehandlung bei SQL-Ausnahme
+        }
+        return vehicles;
+    }
+
+    /**
+     * Sucht seitenweise nach verfügbaren Fahrzeugen (Keyset-Paginierung über die Fahrzeug-ID).
+     * Statt eines OFFSET merkt sich der Cursor die letzte ID der vorherigen Seite, sodass jede Seite
+     * über den Primärschlüssel-Index direkt angesprungen wird. Die Zeilen werden mit einer Fetch-Größe
+     * gestreamt, statt die gesamte Ergebnismenge im Treiber zu puffern.
+     *
+     * @param searchCriteria Eine Map, die die Suchkriterien (z.B. Marke, Modell, Baujahr) enthält.
+     * @param limit Die maximale Anzahl an Fahrzeugen der Seite; wird auf 1 bis {@value #MAX_PAGE_SIZE} begrenzt.
+     * @param cursor Der Cursor aus der vorherigen Seite oder null für die erste Seite.
+     * @return Die Seite mit den gefundenen Fahrzeugen und dem Cursor für die nächste Seite.
+     * @throws IllegalArgumentException Wenn der Cursor ungültig ist.
+     */
+    public VehiclePage searchAvailableVehicles(Map<String, String> searchCriteria, int limit, String cursor) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        int afterId = decodeCursor(cursor);
+        VehicleViewList vehicles = new VehicleViewList();
 
-            PreparedStatement statement = connection.prepareStatement(query.toString());
+        StringBuilder query = new StringBuilder(SEARCH_QUERY);
+        query.append(" AND v.id > ?");
+        appendCriteria(query, searchCriteria);
+        query.append(" ORDER BY v.id LIMIT ?");
 
-            int index = 1;
-            for (Map.Entry<String, String> entry : searchCriteria.entrySet()) {
-                if (entry.getKey().equals("year")) {
-                    statement.setInt(index++, Integer.parseInt(entry.getValue()));
-                } else {
-                    statement.setString(index++, "%" + entry.getValue() + "%");
+        try (Connection connection = dbConnectionManager.getConnection()) {
+            // Der Treiber streamt nur innerhalb einer Transaktion; der Pool setzt Auto-Commit bei der Rückgabe zurück
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(query.toString())) {
+                statement.setFetchSize(Math.min(pageSize + 1, FETCH_SIZE));
+                statement.setInt(1, afterId);
+                int index = bindCriteria(statement, 2, searchCriteria);
+                statement.setInt(index, pageSize + 1); // Eine Zeile mehr, um das Ende der Ergebnisse zu erkennen
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    boolean hasMore = false;
+                    while (resultSet.next()) {
+                        if (vehicles.size() == pageSize) {
+                            hasMore = true;
+                            break;
+                        }
+                        vehicles.add(readVehicle(resultSet));
+                    }
+                    String nextCursor = hasMore ? encodeCursor(vehicles.get(vehicles.size() - 1).getId()) : null;
+                    connection.commit();
+                    return new VehiclePage(vehicles, nextCursor);
                 }
             }
+        } catch (SQLException e) {
+            e.printStackTrace(); // Fehlerbehandlung bei SQL-Ausnahme
+        }
+        return new VehiclePage(vehicles, null);
+    }
+
+    /**
+     * Sucht seitenweise nach Fahrzeugen, die die Suchkriterien erfüllen und nicht ausgeschlossen sind, unabhängig
+     * vom aktuellen Verfügbarkeits-Flag. So genügt für zeitraumbezogene Prüfungen ein Nachschlagen im
+     * Verfügbarkeitsindex statt eines Anti-Joins über alle Buchungen.
+     *
+     * Die ausgeschlossenen IDs werden als Array-Parameter übergeben, aber nie alle: Eine Abfrage über den
+     * Primärschlüssel deckt nur den ID-Bereich ab dem Cursor bis vor die {@value #EXCLUDED_PER_QUERY}+1-te
+     * ausgeschlossene ID ab und erhält nur die ausgeschlossenen IDs darin, die PostgreSQL vor Version 15 je Zeile
+     * linear vergleicht. Füllt ein Bereich die Seite nicht, wird der nächste abgefragt; bei dicht belegten
+     * Zeiträumen genügt meist der erste.
+     *
+     * @param searchCriteria Eine Map, die die Suchkriterien (z.B. Marke, Modell, Baujahr) enthält.
+     * @param excludedIds Die IDs der Fahrzeuge, die nicht in das Ergebnis aufgenommen werden, aufsteigend sortiert.
+     * @param limit Die maximale Anzahl an Fahrzeugen der Seite; wird auf 1 bis {@value #MAX_PAGE_SIZE} begrenzt.
+     * @param cursor Der Cursor aus der vorherigen Seite oder null für die erste Seite.
+     * @return Die Seite mit den gefundenen Fahrzeugen und dem Cursor für die nächste Seite.
+     * @throws IllegalArgumentException Wenn der Cursor ungültig ist.
+     */
+    public VehiclePage searchVehicles(Map<String, String> searchCriteria, int[] excludedIds, int limit, String cursor) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        int afterId = decodeCursor(cursor);
+        VehicleViewList vehicles = new VehicleViewList();
+
+        StringBuilder query = new StringBuilder(SEARCH_SELECT);
+        query.append(" WHERE v.id > ? AND v.id <= ? AND v.id <> ALL (?)");
+        appendCriteria(query, searchCriteria);
+        query.append(" ORDER BY v.id LIMIT ?");
 
-            ResultSet resultSet = statement.executeQuery();
-            while (resultSet.next()) {
-                Map<String, Object> vehicle = new HashMap<>();
-                vehicle.put("id", resultSet.getInt("id"));
-                vehicle.put("ownerName", resultSet.getString("owner_name"));
-                vehicle.put("make", resultSet.getString("make"));
-                vehicle.put("model", resultSet.getString("model"));
-                vehicle.put("year", resultSet.getInt("year"));
-                vehicle.put("location", resultSet.getString("location"));
-                vehicle.put("available", resultSet.getBoolean("available"));
-                vehicles.add(vehicle); // Hinzufügen des Fahrzeugs zur Liste der Suchergebnisse
+        try (Connection connection = dbConnectionManager.getConnection();
+             PreparedStatement statement = connection.prepareStatement(query.toString())) {
+            int from = afterId;
+            int first = Arrays.binarySearch(excludedIds, afterId);
+            first = first >= 0 ? first + 1 : -first - 1;  // Erste ausgeschlossene ID nach dem Cursor
+            boolean hasMore = false;
+            while (!hasMore) {
+                int last = Math.min(first + EXCLUDED_PER_QUERY, excludedIds.length);
+                // Der Bereich endet vor der ersten ausgeschlossenen ID, die nicht mehr übergeben wird
+                int to = last < excludedIds.length ? excludedIds[last] - 1 : Integer.MAX_VALUE;
+                Integer[] excluded = new Integer[last - first];
+                for (int i = first; i < last; i++) {
+                    excluded[i - first] = excludedIds[i];
+                }
+                statement.setInt(1, from);
+                statement.setInt(2, to);
+                statement.setArray(3, connection.createArrayOf("integer", excluded));
+                int index = bindCriteria(statement, 4, searchCriteria);
+                statement.setInt(index, pageSize + 1 - vehicles.size()); // Eine Zeile mehr, um das Ende der Ergebnisse zu erkennen
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        if (vehicles.size() == pageSize) {
+                            hasMore = true;
+                            break;
+                        }
+                        vehicles.add(readVehicle(resultSet));
+                    }
+                }
+                if (to == Integer.MAX_VALUE) {
+                    break;  // Letzter Bereich
+                }
+                from = to;
+                first = last;
             }
+            String nextCursor = hasMore ? encodeCursor(vehicles.get(vehicles.size() - 1).getId()) : null;
+            return new VehiclePage(vehicles, nextCursor);
         } catch (SQLException e) {
             e.printStackTrace(); // Fehlerbehandlung bei SQL-Ausnahme
         }
-        return vehicles;
+        return new VehiclePage(vehicles, null);
     }
 
     /**
-     * Aktualisiert die Informationen eines Fahrzeugs in der Datenbank.
+     * Hängt die Bedingungen der Suchkriterien an die Abfrage an. Es werden nur bekannte Spalten berücksichtigt,
+     * da die Spaltennamen direkt in den SQL-Text übernommen werden.
+     */
+    private static void appendCriteria(StringBuilder query, Map<String, String> searchCriteria) {
+        for (Map.Entry<String, String> entry : searchCriteria.entrySet()) {
+            if (entry.getKey().equals("year")) {
+                query.append(" AND v.year = ?");
+            } else if (TEXT_CRITERIA.contains(entry.getKey())) {
+                query.append(" AND LOWER(v.").append(entry.getKey()).append(") LIKE ?");
+            }
+        }
+    }
+
+    /**
+     * Setzt die Parameter der Suchkriterien in derselben Reihenfolge wie {@link #appendCriteria}.
+     *
+     * @return Der Index des nächsten freien Parameters.
+     */
+    private static int bindCriteria(PreparedStatement statement, int index, Map<String, String> searchCriteria) throws SQLException {
+        for (Map.Entry<String, String> entry : searchCriteria.entrySet()) {
+            if (entry.getKey().equals("year")) {
+                statement.setInt(index++, Integer.parseInt(entry.getValue()));
+            } else if (TEXT_CRITERIA.contains(entry.getKey())) {
+                statement.setString(index++, "%" + entry.getValue().toLowerCase() + "%");
+            }
+        }
+        return index;
+    }
+
+    private static VehicleView readVehicle(ResultSet resultSet) throws SQLException {
+        return new VehicleView(
+                resultSet.getInt("id"),
+                resultSet.getString("owner_name"),
+                resultSet.getString("make"),
+                resultSet.getString("model"),
+                resultSet.getInt("year"),
+                resultSet.getString("location"),
+                resultSet.getBoolean("available"));
+    }
+
+    /**
+     * @return Die Felder eines Fahrzeugs für die Benachrichtigungen, ohne Aktion und Verfügbarkeit.
+     */
+    private static JSONObject toJson(VehicleView vehicle) {
+        JSONObject json = new JSONObject();
+        json.put("vehicleId", vehicle.getId());
+        json.put("ownerName", vehicle.getOwnerName());
+        json.put("make", vehicle.getMake());
+        json.put("model", vehicle.getModel());
+        json.put("year", vehicle.getYear());
+        json.put("location", vehicle.getLocation());
+        return json;
+    }
+
+    static String encodeCursor(int lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CURSOR_PREFIX + lastId).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    static int decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            if (decoded.startsWith(CURSOR_PREFIX)) {
+                int lastId = Integer.parseInt(decoded.substring(CURSOR_PREFIX.length()));
+                if (lastId >= 0) {
+                    return lastId;  // IDs sind nie negativ; ein negativer Wert stammt nicht von encodeCursor
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // Ungültige Kodierung oder Zahl, siehe unten
+        }
+        throw new IllegalArgumentException("Invalid cursor: " + cursor);
+    }
+
+    /**
+     * Aktualisiert die Informationen eines Fahrzeugs in der Datenbank und schreibt die Benachrichtigung
+     * {@code update} in derselben Transaktion in den {@link ChangeOutbox}.
      *
      * @param vehicleId Die ID des Fahrzeugs, das aktualisiert werden soll.
      * @param make Die neue Marke des Fahrzeugs.
@@ -134,16 +544,32 @@ public class VehicleRepository {
      * @return true, wenn die Aktualisierung erfolgreich war, false andernfalls.
      */
     public boolean updateVehicle(int vehicleId, String make, String model, int year, String location) {
-        try {
-            Connection connection = dbConnectionManager.getConnection();
-            String query = "UPDATE vehicles SET make = ?, model = ?, year = ?, location = ? WHERE id = ?";
-            PreparedStatement statement = connection.prepareStatement(query);
-            statement.setString(1, make);
-            statement.setString(2, model);
-            statement.setInt(3, year);
-            statement.setString(4, location);
-            statement.setInt(5, vehicleId);
-            statement.executeUpdate();
+        String query = "UPDATE vehicles SET make = ?, model = ?, year = ?, location = ? WHERE id = ?";
+        try (Connection connection = dbConnectionManager.getConnection()) {
+            connection.setAutoCommit(false);
+            int rowsUpdated;
+            try (PreparedStatement statement = connection.prepareStatement(query)) {
+                statement.setString(1, make);
+                statement.setString(2, model);
+                statement.setInt(3, year);
+                statement.setString(4, location);
+                statement.setInt(5, vehicleId);
+                rowsUpdated = statement.executeUpdate();
+            }
+            if (rowsUpdated > 0) {
+                JSONObject payload = new JSONObject();
+                payload.put("vehicleId", vehicleId);
+                payload.put("make", make);
+                payload.put("model", model);
+                payload.put("year", year);
+                payload.put("location", location);
+                payload.put("action", "update");
+                changeOutbox.append(connection, payload, null);
+            }
+            connection.commit();
+            if (rowsUpdated > 0) {
+                changeOutbox.signal();
+            }
             return true;
         } catch (SQLException e) {
             e.printStackTrace(); // Fehlerbehandlung bei SQL-Ausnahme
@@ -152,26 +578,37 @@ public class VehicleRepository {
     }
 
     /**
-     * Löscht ein Fahrzeug aus der Datenbank, einschließlich aller zugehörigen Buchungsanfragen.
+     * Löscht ein Fahrzeug aus der Datenbank, einschließlich aller zugehörigen Buchungsanfragen, und schreibt
+     * die Benachrichtigung {@code delete} in derselben Transaktion in den {@link ChangeOutbox}.
      *
      * @param vehicleId Die ID des Fahrzeugs, das gelöscht werden soll.
      * @return true, wenn das Fahrzeug erfolgreich gelöscht wurde, false andernfalls.
      */
     public boolean deleteVehicle(int vehicleId) {
-        try {
-            Connection connection = dbConnectionManager.getConnection();
-
+        String deleteBookingRequestsQuery = "DELETE FROM booking_requests WHERE vehicle_id = ?";
+        String query = "DELETE FROM vehicles WHERE id = ?";
+        try (Connection connection = dbConnectionManager.getConnection()) {
+            connection.setAutoCommit(false);
             // Löschen der zugehörigen Buchungsanfragen
-            String deleteBookingRequestsQuery = "DELETE FROM booking_requests WHERE vehicle_id = ?";
-            PreparedStatement deleteBookingRequestsStatement = connection.prepareStatement(deleteBookingRequestsQuery);
-            deleteBookingRequestsStatement.setInt(1, vehicleId);
-            deleteBookingRequestsStatement.executeUpdate();
+            try (PreparedStatement deleteBookingRequestsStatement = connection.prepareStatement(deleteBookingRequestsQuery)) {
+                deleteBookingRequestsStatement.setInt(1, vehicleId);
+                deleteBookingRequestsStatement.executeUpdate();
+            }
 
             // Löschen des Fahrzeugs
-            String query = "DELETE FROM vehicles WHERE id = ?";
-            PreparedStatement statement = connection.prepareStatement(query);
-            statement.setInt(1, vehicleId);
-            statement.executeUpdate();
+            int rowsDeleted;
+            try (PreparedStatement statement = connection.prepareStatement(query)) {
+                statement.setInt(1, vehicleId);
+                rowsDeleted = statement.executeUpdate();
+            }
+            if (rowsDeleted > 0) {
+                changeOutbox.append(connection, new JSONObject().put("vehicleId", vehicleId).put("action", "delete"), null);
+            }
+            connection.commit();
+            if (rowsDeleted > 0) {
+                changeOutbox.signal();
+            }
+            ownershipIndex.removeVehicle(vehicleId);
             return true;
         } catch (SQLException e) {
             e.printStackTrace(); // Fehlerbehandlung bei SQL-Ausnahme
@@ -187,10 +624,9 @@ public class VehicleRepository {
      * @return true, wenn die Aktualisierung erfolgreich war, false andernfalls.
      */
     public boolean updateVehicleAvailability(int vehicleId, boolean available) {
-        try {
-            Connection connection = dbConnectionManager.getConnection();
-            String query = "UPDATE vehicles SET available = ? WHERE id = ?";
-            PreparedStatement statement = connection.prepareStatement(query);
+        String query = "UPDATE vehicles SET available = ? WHERE id = ?";
+        try (Connection connection = dbConnectionManager.getConnection();
+             PreparedStatement statement = connection.prepareStatement(query)) {
             statement.setBoolean(1, available);
             statement.setInt(2, vehicleId);
             int rowsUpdated = statement.executeUpdate();
@@ -201,28 +637,121 @@ public class VehicleRepository {
         }
     }
 
+    /**
+     * Gleicht die Verfügbarkeit der Fahrzeuge mit ihren genehmigten Buchungen ab: Ein Fahrzeug ist genau dann
+     * nicht verfügbar, wenn gerade eine genehmigte Buchung läuft. Alle Fahrzeuge werden mit einem einzigen
+     * UPDATE bearbeitet; geändert werden nur Zeilen, deren Status tatsächlich wechselt. Die geänderten Fahrzeuge
+     * werden in derselben Transaktion als Benachrichtigung {@code availability} in den {@link ChangeOutbox}
+     * geschrieben.
+     *
+     * @param vehicleIds Die IDs der zu prüfenden Fahrzeuge oder null für alle Fahrzeuge.
+     * @return Die Fahrzeuge, deren Verfügbarkeit sich geändert hat, mit dem neuen Status, oder null im Fehlerfall.
+     */
+    public VehicleViewList reconcileAvailability(int[] vehicleIds) {
+        String query = "UPDATE vehicles v SET available = NOT s.busy " +
+                "FROM (SELECT c.id, EXISTS (SELECT 1 FROM booking_requests br WHERE br.vehicle_id = c.id " +
+                "AND br.status = 'APPROVED' AND br.start_time <= LOCALTIMESTAMP AND br.end_time > LOCALTIMESTAMP) AS busy " +
+                "FROM vehicles c" + (vehicleIds != null ? " WHERE c.id = ANY (?)" : "") + ") s, users u " +
+                "WHERE v.id = s.id AND u.id = v.owner_id AND v.available = s.busy " +
+                "RETURNING v.id, v.make, v.model, v.year, v.location, v.available, u.username AS owner_name";
+        VehicleViewList changed = new VehicleViewList();
+        try (Connection connection = dbConnectionManager.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(query)) {
+                if (vehicleIds != null) {
+                    Integer[] ids = new Integer[vehicleIds.length];
+                    for (int i = 0; i < ids.length; i++) {
+                        ids[i] = vehicleIds[i];
+                    }
+                    statement.setArray(1, connection.createArrayOf("integer", ids));
+                }
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        changed.add(readVehicle(resultSet));
+                    }
+                }
+            }
+            if (!changed.isEmpty()) {
+                JSONArray vehicles = new JSONArray();
+                for (VehicleView vehicle : changed) {
+                    vehicles.put(toJson(vehicle).put("available", vehicle.isAvailable()));
+                }
+                changeOutbox.append(connection, new JSONObject().put("action", "availability").put("vehicles", vehicles), null);
+            }
+            connection.commit();
+            if (!changed.isEmpty()) {
+                changeOutbox.signal();
+            }
+            return changed;
+        } catch (SQLException e) {
+            e.printStackTrace(); // Fehlerbehandlung bei SQL-Ausnahme
+        }
+        return null;
+    }
+
+    /**
+     * Ermittelt den Benutzernamen des Besitzers eines Fahrzeugs. Wie bei {@link #isVehicleOwner(String, int)}
+     * wird nur dann die Datenbank abgefragt, wenn Fahrzeug oder Besitzer im {@link OwnershipIndex} fehlen.
+     *
+     * @param vehicleId Die ID des Fahrzeugs.
+     * @return Der Benutzername des Besitzers oder null, wenn das Fahrzeug nicht existiert oder ein Fehler auftritt.
+     */
+    public String getVehicleOwner(int vehicleId) {
+        int ownerId = ownershipIndex.ownerOf(vehicleId);
+        if (ownerId != OwnershipIndex.UNKNOWN) {
+            String ownerName = ownershipIndex.usernameOf(ownerId);
+            if (ownerName != null) {
+                return ownerName;
+            }
+        }
+
+        String query = "SELECT v.owner_id, u.username FROM vehicles v JOIN users u ON u.id = v.owner_id WHERE v.id = ?";
+        try (Connection connection = dbConnectionManager.getConnection();
+             PreparedStatement statement = DBConnectionManager.serverPrepared(connection.prepareStatement(query))) {
+            statement.setInt(1, vehicleId);
+            try (ResultSet res = statement.executeQuery()) {
+                if (res.next()) {
+                    String ownerName = res.getString("username");
+                    ownershipIndex.putVehicle(vehicleId, res.getInt("owner_id"));
+                    ownershipIndex.putUser(res.getInt("owner_id"), ownerName);
+                    return ownerName;
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
     /**
      * Überprüft, ob ein bestimmter Benutzer der Besitzer eines Fahrzeugs ist.
+     * Die Prüfung erfolgt über den {@link OwnershipIndex}; nur wenn Fahrzeug oder Benutzer dort fehlen,
+     * wird die Datenbank abgefragt und der Index ergänzt.
      *
      * @param username Der Benutzername des potenziellen Fahrzeugbesitzers.
      * @param vehicleId Die ID des Fahrzeugs.
      * @return true, wenn der Benutzer der Besitzer des Fahrzeugs ist, false andernfalls.
      */
     public boolean isVehicleOwner(String username, int vehicleId) {
-        try {
-            Connection connection = dbConnectionManager.getConnection();
-            String query = "SELECT owner_id FROM vehicles WHERE id = ?";
-            PreparedStatement statement = connection.prepareStatement(query);
+        int ownerId = ownershipIndex.ownerOf(vehicleId);
+        if (ownerId != OwnershipIndex.UNKNOWN) {
+            int userId = ownershipIndex.userIdOf(username);
+            if (userId != OwnershipIndex.UNKNOWN) {
+                return userId == ownerId;
+            }
+        }
+
+        // Fallback auf die Datenbank, wenn der Index unvollständig ist
+        String query = "SELECT v.owner_id, u.username FROM vehicles v JOIN users u ON u.id = v.owner_id WHERE v.id = ?";
+        try (Connection connection = dbConnectionManager.getConnection();
+             PreparedStatement statement = DBConnectionManager.serverPrepared(connection.prepareStatement(query))) {
             statement.setInt(1, vehicleId);
-            ResultSet res = statement.executeQuery();
-            if (res.next()) {
-                int ownerId = res.getInt("owner_id");
-                String ownerQuery = "SELECT username FROM users WHERE id = ?";
-                PreparedStatement ownerStatement = connection.prepareStatement(ownerQuery);
-                ownerStatement.setInt(1, ownerId);
-                ResultSet ownerRes = ownerStatement.executeQuery();
-                if (ownerRes.next()) {
-                    return ownerRes.getString("username").equals(username); // Rückgabe true, wenn der Benutzername übereinstimmt
+            try (ResultSet res = statement.executeQuery()) {
+                if (res.next()) {
+                    String ownerName = res.getString("username");
+                    ownershipIndex.putVehicle(vehicleId, res.getInt("owner_id"));
+                    ownershipIndex.putUser(res.getInt("owner_id"), ownerName);
+                    return ownerName.equals(username); // Rückgabe true, wenn der Benutzername übereinstimmt
                 }
             }
         } catch (SQLException e) {
@@ -232,23 +761,13 @@ public class VehicleRepository {
     }
 
     /**
-     * Ruft die ID des zuletzt eingefügten Fahrzeugs ab.
+     * Ruft die ID des zuletzt eingefügten Fahrzeugs ab. Bei gleichzeitigen Registrierungen ist nicht bestimmt,
+     * welche ID geliefert wird; {@link #createVehicle} liefert die ID der eigenen Einfügung.
      *
      * @return Die ID des zuletzt eingefügten Fahrzeugs, oder -1 im Fehlerfall.
      */
     public int getLastInsertedVehicleId() {
-        try {
-            Connection connection = dbConnectionManager.getConnection();
-            String query = "SELECT currval(pg_get_serial_sequence('vehicles', 'id'))";
-            PreparedStatement statement = connection.prepareStatement(query);
-            ResultSet resultSet = statement.executeQuery();
-            if (resultSet.next()) {
-                return resultSet.getInt(1); // Rückgabe der zuletzt eingefügten Fahrzeug-ID
-            }
-        } catch (SQLException e) {
-            e.printStackTrace(); // Fehlerbehandlung bei SQL-Ausnahme
-        }
-        return -1;
+        return lastInsertedVehicleId.get();
     }
 
     /**
@@ -258,14 +777,14 @@ public class VehicleRepository {
      * @return Die Fahrzeug-ID, die mit der Buchungsanfrage verknüpft ist, oder -1 im Fehlerfall.
      */
     public int getVehicleIdFromBookingRequest(int requestId) {
-        try {
-            Connection connection = dbConnectionManager.getConnection();
-            String query = "SELECT vehicle_id FROM booking_requests WHERE id = ?";
-            PreparedStatement statement = connection.prepareStatement(query);
+        String query = "SELECT vehicle_id FROM booking_requests WHERE id = ?";
+        try (Connection connection = dbConnectionManager.getConnection();
+             PreparedStatement statement = connection.prepareStatement(query)) {
             statement.setInt(1, requestId);
-            ResultSet resultSet = statement.executeQuery();
-            if (resultSet.next()) {
-                return resultSet.getInt("vehicle_id"); // Rückgabe der Fahrzeug-ID
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (resultSet.next()) {
+                    return resultSet.getInt("vehicle_id"); // Rückgabe der Fahrzeug-ID
+                }
             }
         } catch (SQLException e) {
             e.printStackTrace(); // Fehlerbehandlung bei SQL-Ausnahme
@@ -0,0 +1,115 @@
+package com.example.carconnect.rmi;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * Basisklasse für Ergebnislisten, die per RMI übertragen werden.
+ * Die Elemente werden nicht einzeln als Objekte serialisiert, sondern von der Unterklasse Feld für Feld
+ * geschrieben; alle Elemente teilen sich dabei eine {@link StringTable}. Es entstehen weder
+ * Klassenbeschreibungen pro Element noch wiederholte Schlüssel oder Zeichenketten.
+ *
+ * Unterklassen müssen einen öffentlichen Konstruktor ohne Parameter besitzen.
+ *
+ * @param <T> Der Elementtyp.
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+public abstract class CompactList<T> extends AbstractList<T> implements Externalizable, RandomAccess {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Die Elemente der Liste. */
+    private Object[] elements;
+
+    /** Die Anzahl der Elemente. */
+    private int size;
+
+    /**
+     * Erstellt eine leere Liste.
+     */
+    protected CompactList() {
+        this.elements = new Object[10];
+    }
+
+    /**
+     * Erstellt eine Liste mit den Elementen der übergebenen Sammlung.
+     *
+     * @param source Die zu übernehmenden Elemente.
+     */
+    protected CompactList(Collection<? extends T> source) {
+        this.elements = source.toArray();
+        this.size = elements.length;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return (T) elements[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean add(T element) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, Math.max(10, size + (size >> 1)));
+        }
+        elements[size++] = element;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void writeExternal(ObjectOutput out) throws IOException {
+        StringTable strings = new StringTable();
+        StringTable.writeVarInt(out, size);
+        for (int i = 0; i < size; i++) {
+            writeElement(out, (T) elements[i], strings);
+        }
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        StringTable strings = new StringTable();
+        int count = StringTable.readVarInt(in);
+        elements = new Object[Math.max(count, 1)];
+        size = 0;
+        for (int i = 0; i < count; i++) {
+            elements[size++] = readElement(in, strings);
+        }
+    }
+
+    /**
+     * Schreibt ein einzelnes Element.
+     *
+     * @param out Der Ausgabestrom.
+     * @param element Das Element.
+     * @param strings Die gemeinsame Zeichenkettentabelle der Liste.
+     * @throws IOException Wenn das Schreiben fehlschlägt.
+     */
+    protected abstract void writeElement(ObjectOutput out, T element, StringTable strings) throws IOException;
+
+    /**
+     * Liest ein einzelnes Element.
+     *
+     * @param in Der Eingabestrom.
+     * @param strings Die gemeinsame Zeichenkettentabelle der Liste.
+     * @return Das gelesene Element.
+     * @throws IOException Wenn das Lesen fehlschlägt.
+     */
+    protected abstract T readElement(ObjectInput in, StringTable strings) throws IOException;
+}
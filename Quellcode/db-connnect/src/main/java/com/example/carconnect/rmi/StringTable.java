@@ -0,0 +1,111 @@
+package com.example.carconnect.rmi;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Zeichenkettentabelle für die kompakte Serialisierung von RMI-Ergebnissen.
+ * Jede Zeichenkette wird nur beim ersten Vorkommen vollständig geschrieben; danach nur noch ihr Index.
+ * Wiederkehrende Werte wie Marken, Standorte oder Benutzernamen kosten so in einer Liste nur wenige Bytes.
+ *
+ * Kodierung: 0 steht für null, ein Wert bis zur aktuellen Tabellengröße verweist auf einen bereits
+ * geschriebenen Eintrag, der nächste freie Wert kündigt eine neue Zeichenkette an, die als UTF folgt.
+ * Schreiber und Leser bauen die Tabelle in derselben Reihenfolge auf. Eine Instanz wird entweder nur
+ * zum Schreiben oder nur zum Lesen eines Datenstroms verwendet.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+public final class StringTable {
+
+    /** Indizes der bereits geschriebenen Zeichenketten. */
+    private final Map<String, Integer> written = new HashMap<>();
+
+    /** Die bereits gelesenen Zeichenketten in der Reihenfolge ihres Auftretens. */
+    private final List<String> read = new ArrayList<>();
+
+    /**
+     * Schreibt eine Zeichenkette oder einen Verweis auf ihr früheres Vorkommen.
+     *
+     * @param out Der Ausgabestrom.
+     * @param value Die Zeichenkette, darf null sein.
+     * @throws IOException Wenn das Schreiben fehlschlägt.
+     */
+    public void write(ObjectOutput out, String value) throws IOException {
+        if (value == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        Integer index = written.get(value);
+        if (index != null) {
+            writeVarInt(out, index);
+            return;
+        }
+        int next = written.size() + 1;
+        written.put(value, next);
+        writeVarInt(out, next);
+        out.writeUTF(value);
+    }
+
+    /**
+     * Liest eine mit {@link #write(ObjectOutput, String)} geschriebene Zeichenkette.
+     *
+     * @param in Der Eingabestrom.
+     * @return Die Zeichenkette oder null.
+     * @throws IOException Wenn das Lesen fehlschlägt oder der Datenstrom ungültig ist.
+     */
+    public String read(ObjectInput in) throws IOException {
+        int code = readVarInt(in);
+        if (code == 0) {
+            return null;
+        }
+        if (code <= read.size()) {
+            return read.get(code - 1);
+        }
+        if (code != read.size() + 1) {
+            throw new IOException("Corrupt string table reference: " + code);
+        }
+        String value = in.readUTF();
+        read.add(value);
+        return value;
+    }
+
+    /**
+     * Schreibt eine nicht-negative Zahl mit 7 Bit pro Byte; kleine Werte belegen nur ein Byte.
+     *
+     * @param out Der Ausgabestrom.
+     * @param value Die Zahl.
+     * @throws IOException Wenn das Schreiben fehlschlägt.
+     */
+    public static void writeVarInt(ObjectOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    /**
+     * Liest eine mit {@link #writeVarInt(ObjectOutput, int)} geschriebene Zahl.
+     *
+     * @param in Der Eingabestrom.
+     * @return Die Zahl.
+     * @throws IOException Wenn das Lesen fehlschlägt.
+     */
+    public static int readVarInt(ObjectInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable-length integer");
+    }
+}
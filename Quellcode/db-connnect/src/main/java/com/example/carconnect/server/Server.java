@@ -1,13 +1,23 @@
 package com.example.carconnect.server;
 
-import com.example.carconnect.auth.AuthIf;
 import com.example.carconnect.auth.AuthImpl;
+import com.example.carconnect.auth.CredentialCache;
+import com.example.carconnect.auth.PasswordHasher;
+import com.example.carconnect.auth.SessionStore;
+import com.example.carconnect.booking.AvailabilityEngine;
+import com.example.carconnect.booking.AvailabilityScheduler;
 import com.example.carconnect.booking.BookingIf;
 import com.example.carconnect.booking.BookingImpl;
+import com.example.carconnect.feed.ChangeFeed;
+import com.example.carconnect.metrics.MetricsImpl;
+import com.example.carconnect.repository.ChangeOutbox;
 import com.example.carconnect.repository.DBConnectionManager;
+import com.example.carconnect.repository.OwnershipIndex;
 import com.example.carconnect.repository.UserRepository;
 import com.example.carconnect.repository.VehicleRepository;
 import com.example.carconnect.repository.BookingRepository;
+import com.example.carconnect.repository.SchemaMigrator;
+import com.example.carconnect.repository.UsageHistoryWriter;
 import com.example.carconnect.vehicle.VehicleIf;
 import com.example.carconnect.vehicle.VehicleImpl;
 
@@ -49,23 +59,70 @@ public class Server {
             // Initialisierung des DBConnectionManager
             DBConnectionManager dbConnectionManager = new DBConnectionManager();
 
-            // Initialisierung der Repositories
-            UserRepository userRepository = new UserRepository(dbConnectionManager);
-            VehicleRepository vehicleRepository = new VehicleRepository(dbConnectionManager);
-            BookingRepository bookingRepository = new BookingRepository(dbConnectionManager);
+            // Anwenden ausstehender Schema-Migrationen
+            if (!new SchemaMigrator(dbConnectionManager).migrate()) {
+                System.err.println("Schema migration failed, continuing with the existing schema");
+            }
+
+            // Aufbau des Index der Fahrzeugbesitzer
+            OwnershipIndex ownershipIndex = new OwnershipIndex(dbConnectionManager);
+            ownershipIndex.load();
+
+            // Initialisierung der Repositories; Änderungen werden in ihrer Transaktion in den Ausgang geschrieben
+            ChangeOutbox changeOutbox = new ChangeOutbox(dbConnectionManager);
+            ChangeFeed changeFeed = new ChangeFeed(changeOutbox);
+            UserRepository userRepository = new UserRepository(dbConnectionManager, ownershipIndex);
+            VehicleRepository vehicleRepository = new VehicleRepository(dbConnectionManager, ownershipIndex, changeOutbox);
+            UsageHistoryWriter usageHistoryWriter = new UsageHistoryWriter(dbConnectionManager);
+            BookingRepository bookingRepository = new BookingRepository(dbConnectionManager, usageHistoryWriter, changeOutbox);
+            AvailabilityScheduler availabilityScheduler = new AvailabilityScheduler(vehicleRepository);
+            SessionStore sessionStore = new SessionStore();
+            CredentialCache credentialCache = new CredentialCache(userRepository);
+            PasswordHasher passwordHasher = new PasswordHasher();
+            passwordHasher.calibrate();
+
+            // Beim Beenden zuerst die Nutzungshistorie schreiben, danach den Verbindungspool schließen
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                sessionStore.close();
+                passwordHasher.close();
+                System.out.println("Credential cache: size=" + credentialCache.size() + ", " + credentialCache.getMetrics());
+                availabilityScheduler.close();
+                changeFeed.close();
+                usageHistoryWriter.close();
+                dbConnectionManager.close();
+            }));
 
-            // Initialisierung und Bindung des Authentifizierungsdienstes
-            AuthIf authService = new AuthImpl(userRepository);
+            // Aufbau des Index der belegten Zeiträume
+            AvailabilityEngine availabilityEngine = new AvailabilityEngine();
+            availabilityEngine.load(bookingRepository.getActiveReservations());
+
+            // Nachholen verpasster und Einplanen anstehender Verfügbarkeitswechsel
+            availabilityScheduler.start(bookingRepository.getApprovedReservations());
+
+            // Zustellen der Änderungen aus dem Ausgang an die Webanwendung
+            changeFeed.start();
+
+            // Initialisierung und Bindung des Authentifizierungsdienstes; verbliebene Alt-Hashes werden vorher umgestellt
+            AuthImpl authService = new AuthImpl(credentialCache, sessionStore, passwordHasher);
+            authService.upgradeLegacyHashes(userRepository.getLegacyHashes());
             Naming.rebind("rmi://localhost:" + PORT + "/AuthIf", authService);
 
             // Initialisierung und Bindung des Fahrzeugverwaltungsdienstes
-            VehicleIf vehicleService = new VehicleImpl(vehicleRepository);
+            VehicleIf vehicleService = new VehicleImpl(vehicleRepository, availabilityEngine, changeFeed);
             Naming.rebind("rmi://localhost:" + PORT + "/VehicleIf", vehicleService);
 
             // Initialisierung und Bindung des Buchungsdienstes
-            BookingIf bookingService = new BookingImpl(bookingRepository, vehicleRepository);
+            BookingIf bookingService = new BookingImpl(bookingRepository, availabilityEngine, availabilityScheduler);
             Naming.rebind("rmi://localhost:" + PORT + "/BookingIf", bookingService);
 
+            // Initialisierung und Bindung des Kennzahlendienstes
+            MetricsImpl metricsService = new MetricsImpl();
+            metricsService.register("connectionPool", dbConnectionManager.getPool()::getStats);
+            metricsService.register("usageHistoryWriter", usageHistoryWriter::getStats);
+            metricsService.register("sessionStore", sessionStore::getStats);
+            metricsService.register("credentialCache", credentialCache::getStats);
+            Naming.rebind("rmi://localhost:" + PORT + "/MetricsIf", metricsService);
+
             System.out.println("Server is ready on port " + PORT);
 
         } catch (Exception e) {
@@ -1,9 +1,13 @@
 package com.example.carconnect.vehicle;
 
+import com.example.carconnect.booking.AvailabilityEngine;
+import com.example.carconnect.feed.ChangeFeed;
+import com.example.carconnect.feed.ChangeListener;
 import com.example.carconnect.repository.VehicleRepository;
 
 import java.rmi.RemoteException;
 import java.rmi.server.UnicastRemoteObject;
+import java.sql.Timestamp;
 import java.util.List;
 import java.util.Map;
 
@@ -20,15 +24,26 @@ public class VehicleImpl extends UnicastRemoteObject implements VehicleIf {
     /** Repository zur Verwaltung von Fahrzeuginformationen in der Datenbank. */
     private final VehicleRepository vehicleRepository;
 
+    /** Index der belegten Zeiträume je Fahrzeug für die Suche nach freien Fahrzeugen. */
+    private final AvailabilityEngine availabilityEngine;
+
+    /** Feed der Änderungen aus dem transaktionalen Ausgang. */
+    private final ChangeFeed changeFeed;
+
     /**
      * Konstruktor für `VehicleImpl`.
      *
      * @param vehicleRepository Das Repository für den Datenbankzugriff auf Fahrzeuginformationen.
+     * @param availabilityEngine Der Index der belegten Zeiträume.
+     * @param changeFeed Der Feed der Änderungen aus dem transaktionalen Ausgang.
      * @throws RemoteException Wenn ein Remote-Methodenaufruf fehlschlägt.
      */
-    public VehicleImpl(VehicleRepository vehicleRepository) throws RemoteException {
+    public VehicleImpl(VehicleRepository vehicleRepository, AvailabilityEngine availabilityEngine,
+                       ChangeFeed changeFeed) throws RemoteException {
         super();
         this.vehicleRepository = vehicleRepository;
+        this.availabilityEngine = availabilityEngine;
+        this.changeFeed = changeFeed;
     }
 
     /**
@@ -47,6 +62,35 @@ public class VehicleImpl extends UnicastRemoteObject implements VehicleIf {
         return vehicleRepository.registerVehicle(ownerUsername, make, model, year, location);
     }
 
+    /**
+     * Registriert ein neues Fahrzeug und liefert es samt generierter ID zurück.
+     *
+     * @param ownerUsername Der Benutzername des Fahrzeugbesitzers.
+     * @param make Die Marke des Fahrzeugs.
+     * @param model Das Modell des Fahrzeugs.
+     * @param year Das Baujahr des Fahrzeugs.
+     * @param location Der Standort des Fahrzeugs.
+     * @return Das angelegte Fahrzeug oder null, wenn die Registrierung fehlgeschlagen ist.
+     * @throws RemoteException Wenn ein Remote-Methodenaufruf fehlschlägt.
+     */
+    @Override
+    public VehicleView createVehicle(String ownerUsername, String make, String model, int year, String location) throws RemoteException {
+        return vehicleRepository.createVehicle(ownerUsername, make, model, year, location);
+    }
+
+    /**
+     * Importiert mehrere Fahrzeuge eines Besitzers in einem Durchgang.
+     *
+     * @param ownerUsername Der Benutzername des Fahrzeugbesitzers.
+     * @param rows Die zu importierenden Zeilen.
+     * @return Die Anzahl der angelegten Fahrzeuge und die Fehler je Zeile.
+     * @throws RemoteException Wenn ein Remote-Methodenaufruf fehlschlägt.
+     */
+    @Override
+    public VehicleImportResult importVehicles(String ownerUsername, List<VehicleImportRow> rows) throws RemoteException {
+        return vehicleRepository.importVehicles(ownerUsername, rows);
+    }
+
     /**
      * Sucht nach verfügbaren Fahrzeugen basierend auf den angegebenen Suchkriterien.
      *
@@ -59,6 +103,44 @@ public class VehicleImpl extends UnicastRemoteObject implements VehicleIf {
         return vehicleRepository.searchAvailableVehicles(searchCriteria);
     }
 
+    /**
+     * Sucht seitenweise nach verfügbaren Fahrzeugen basierend auf den angegebenen Suchkriterien.
+     *
+     * @param searchCriteria Eine Map, die die Suchkriterien (z.B. Marke, Modell, Baujahr) enthält.
+     * @param limit Die maximale Anzahl an Fahrzeugen der Seite.
+     * @param cursor Der Cursor aus der vorherigen Seite oder null für die erste Seite.
+     * @return Die Seite mit den gefundenen Fahrzeugen und dem Cursor für die nächste Seite.
+     * @throws RemoteException Wenn ein Remote-Methodenaufruf fehlschlägt.
+     */
+    @Override
+    public VehiclePage searchAvailableVehicles(Map<String, String> searchCriteria, int limit, String cursor) throws RemoteException {
+        return vehicleRepository.searchAvailableVehicles(searchCriteria, limit, cursor);
+    }
+
+    /**
+     * Sucht seitenweise nach Fahrzeugen, die im angegebenen Zeitraum frei sind.
+     * Die belegten Fahrzeuge werden in den Belegungs-Bitmaps des Verfügbarkeitsindex nachgeschlagen, nicht per
+     * Anti-Join über die Buchungstabellen, und in der Abfrage der Seite ausgeschlossen.
+     *
+     * @param searchCriteria Eine Map, die die Suchkriterien (z.B. Marke, Modell, Baujahr) enthält.
+     * @param startTime Der Beginn des Zeitraums.
+     * @param endTime Das Ende des Zeitraums.
+     * @param limit Die maximale Anzahl an Fahrzeugen der Seite.
+     * @param cursor Der Cursor aus der vorherigen Seite oder null für die erste Seite.
+     * @return Die Seite mit den gefundenen Fahrzeugen und dem Cursor für die nächste Seite.
+     * @throws RemoteException Wenn ein Remote-Methodenaufruf fehlschlägt.
+     */
+    @Override
+    public VehiclePage searchVehiclesFreeBetween(Map<String, String> searchCriteria, String startTime, String endTime,
+                                                 int limit, String cursor) throws RemoteException {
+        long start = Timestamp.valueOf(startTime).getTime();
+        long end = Timestamp.valueOf(endTime).getTime();
+        if (end <= start) {
+            throw new IllegalArgumentException("End time must be after start time");
+        }
+        return vehicleRepository.searchVehicles(searchCriteria, availabilityEngine.busyBetween(start, end), limit, cursor);
+    }
+
     /**
      * Aktualisiert die Informationen eines Fahrzeugs in der Datenbank.
      *
@@ -76,7 +158,7 @@ public class VehicleImpl extends UnicastRemoteObject implements VehicleIf {
     }
 
     /**
-     * Löscht ein Fahrzeug aus der Datenbank.
+     * Löscht ein Fahrzeug aus der Datenbank und gibt seine Reservierungen im Verfügbarkeitsindex frei.
      *
      * @param vehicleId Die ID des Fahrzeugs, das gelöscht werden soll.
      * @return true, wenn das Fahrzeug erfolgreich gelöscht wurde, false andernfalls.
@@ -84,7 +166,11 @@ public class VehicleImpl extends UnicastRemoteObject implements VehicleIf {
      */
     @Override
     public boolean deleteVehicle(int vehicleId) throws RemoteException {
-        return vehicleRepository.deleteVehicle(vehicleId);
+        boolean deleted = vehicleRepository.deleteVehicle(vehicleId);
+        if (deleted) {
+            availabilityEngine.releaseVehicle(vehicleId);  // Die Buchungsanfragen wurden mit dem Fahrzeug gelöscht
+        }
+        return deleted;
     }
 
     /**
@@ -102,6 +188,18 @@ public class VehicleImpl extends UnicastRemoteObject implements VehicleIf {
         return isOwner;
     }
 
+    /**
+     * Ermittelt den Besitzer eines Fahrzeugs.
+     *
+     * @param vehicleId Die ID des Fahrzeugs.
+     * @return Der Benutzername des Besitzers oder null, wenn das Fahrzeug nicht existiert.
+     * @throws RemoteException Wenn ein Remote-Methodenaufruf fehlschlägt.
+     */
+    @Override
+    public String getVehicleOwner(int vehicleId) throws RemoteException {
+        return vehicleRepository.getVehicleOwner(vehicleId);
+    }
+
     /**
      * Ruft die ID des zuletzt eingefügten Fahrzeugs aus der Datenbank ab.
      *
@@ -112,4 +210,16 @@ public class VehicleImpl extends UnicastRemoteObject implements VehicleIf {
     public int getLastInsertedVehicleId() throws RemoteException {
         return vehicleRepository.getLastInsertedVehicleId();
     }
+
+    /**
+     * Registriert einen Empfänger für die Änderungen aus dem transaktionalen Ausgang.
+     *
+     * @param listener Der per RMI exportierte Empfänger.
+     * @return true, wenn der Empfänger neu registriert wurde, false, wenn er bereits registriert war.
+     * @throws RemoteException Wenn ein Remote-Methodenaufruf fehlschlägt.
+     */
+    @Override
+    public boolean addChangeListener(ChangeListener listener) throws RemoteException {
+        return changeFeed.addListener(listener);
+    }
 }
@@ -0,0 +1,139 @@
+package com.example.carconnect.vehicle;
+
+import com.example.carconnect.rmi.StringTable;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Typisierte Sicht auf ein Fahrzeug, wie sie per RMI an den Web-Client übertragen wird.
+ * Die Serialisierung ist von Hand geschrieben und verwendet primitive Felder; innerhalb einer
+ * {@link VehicleViewList} teilen sich alle Fahrzeuge eine Zeichenkettentabelle.
+ *
+ * @autor Mohammed Al-Ozair
+ * @autor Nabeel Elamaireh
+ */
+public class VehicleView implements Externalizable {
+
+    private static final long serialVersionUID = 1L;
+
+    private int id;
+    private String ownerName;
+    private String make;
+    private String model;
+    private int year;
+    private String location;
+    private boolean available;
+
+    /**
+     * Konstruktor für die Deserialisierung.
+     */
+    public VehicleView() {
+    }
+
+    /**
+     * Konstruktor für VehicleView.
+     *
+     * @param id Die ID des Fahrzeugs.
+     * @param ownerName Der Benutzername des Fahrzeugbesitzers.
+     * @param make Die Marke des Fahrzeugs.
+     * @param model Das Modell des Fahrzeugs.
+     * @param year Das Baujahr des Fahrzeugs.
+     * @param location Der Standort des Fahrzeugs.
+     * @param available Gibt an, ob das Fahrzeug verfügbar ist.
+     */
+    public VehicleView(int id, String ownerName, String make, String model, int year, String location, boolean available) {
+        this.id = id;
+        this.ownerName = ownerName;
+        this.make = make;
+        this.model = model;
+        this.year = year;
+        this.location = location;
+        this.available = available;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getOwnerName() {
+        return ownerName;
+    }
+
+    public String getMake() {
+        return make;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    /**
+     * Liefert das Fahrzeug in der bisherigen Map-Darstellung der Schnittstelle.
+     *
+     * @return Eine Map mit den Schlüsseln id, ownerName, make, model, year, location und available.
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> vehicle = new HashMap<>();
+        vehicle.put("id", id);
+        vehicle.put("ownerName", ownerName);
+        vehicle.put("make", make);
+        vehicle.put("model", model);
+        vehicle.put("year", year);
+        vehicle.put("location", location);
+        vehicle.put("available", available);
+        return vehicle;
+    }
+
+    void writeTo(ObjectOutput out, StringTable strings) throws IOException {
+        out.writeInt(id);
+        strings.write(out, ownerName);
+        strings.write(out, make);
+        strings.write(out, model);
+        out.writeShort(year);
+        strings.write(out, location);
+        out.writeBoolean(available);
+    }
+
+    void readFrom(ObjectInput in, StringTable strings) throws IOException {
+        id = in.readInt();
+        ownerName = strings.read(in);
+        make = strings.read(in);
+        model = strings.read(in);
+        year = in.readShort();
+        location = strings.read(in);
+        available = in.readBoolean();
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        writeTo(out, new StringTable());
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        readFrom(in, new StringTable());
+    }
+
+    @Override
+    public String toString() {
+        return "VehicleView[id=" + id + ", make=" + make + ", model=" + model + ", year=" + year
+                + ", location=" + location + ", owner=" + ownerName + ", available=" + available + "]";
+    }
+}
@@ -0,0 +1,44 @@
+-- Grundschema von CarConnect. Bestehende Installationen haben die Tabellen bereits angelegt,
+-- daher wird nur erstellt, was noch fehlt.
+
+CREATE TABLE IF NOT EXISTS users (
+    id       SERIAL PRIMARY KEY,
+    username VARCHAR(255) NOT NULL UNIQUE,
+    hash     TEXT         NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS vehicles (
+    id        SERIAL PRIMARY KEY,
+    owner_id  INTEGER      NOT NULL REFERENCES users (id),
+    make      VARCHAR(255) NOT NULL,
+    model     VARCHAR(255) NOT NULL,
+    year      INTEGER      NOT NULL,
+    location  VARCHAR(255) NOT NULL,
+    available BOOLEAN      NOT NULL DEFAULT true
+);
+
+CREATE TABLE IF NOT EXISTS booking_requests (
+    id         SERIAL PRIMARY KEY,
+    vehicle_id INTEGER      NOT NULL REFERENCES vehicles (id),
+    requester  VARCHAR(255) NOT NULL,
+    start_time TIMESTAMP    NOT NULL,
+    end_time   TIMESTAMP    NOT NULL,
+    status     VARCHAR(32)  NOT NULL DEFAULT 'PENDING'
+);
+
+CREATE TABLE IF NOT EXISTS bookings (
+    id         SERIAL PRIMARY KEY,
+    vehicle_id INTEGER      NOT NULL REFERENCES vehicles (id) ON DELETE CASCADE,
+    username   VARCHAR(255) NOT NULL,
+    start_time TIMESTAMP    NOT NULL,
+    end_time   TIMESTAMP    NOT NULL,
+    status     VARCHAR(32)  NOT NULL DEFAULT 'PENDING'
+);
+
+CREATE TABLE IF NOT EXISTS usage_history (
+    id         SERIAL PRIMARY KEY,
+    username   VARCHAR(255) NOT NULL,
+    vehicle_id INTEGER      NOT NULL REFERENCES vehicles (id) ON DELETE CASCADE,
+    start_time TIMESTAMP    NOT NULL,
+    end_time   TIMESTAMP    NOT NULL
+);
@@ -0,0 +1,26 @@
+-- Indizes für die Abfragen der Repositories.
+
+-- Trigramm-Indizes für LOWER(col) LIKE '%x%' in der Fahrzeugsuche
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_vehicles_make_trgm ON vehicles USING gin (lower(make) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_vehicles_model_trgm ON vehicles USING gin (lower(model) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_vehicles_location_trgm ON vehicles USING gin (lower(location) gin_trgm_ops);
+
+-- Keyset-Paginierung über die verfügbaren Fahrzeuge (WHERE available AND id > ? ORDER BY id)
+CREATE INDEX IF NOT EXISTS idx_vehicles_available_id ON vehicles (id) WHERE available;
+
+-- Anmeldung und Besitzerprüfung; bei neuen Installationen existiert der Index bereits über UNIQUE
+CREATE UNIQUE INDEX IF NOT EXISTS users_username_key ON users (username);
+
+-- Fremdschlüssel und Filter
+CREATE INDEX IF NOT EXISTS idx_vehicles_owner_id ON vehicles (owner_id);
+CREATE INDEX IF NOT EXISTS idx_booking_requests_vehicle_id ON booking_requests (vehicle_id);
+CREATE INDEX IF NOT EXISTS idx_bookings_vehicle_id ON bookings (vehicle_id);
+CREATE INDEX IF NOT EXISTS idx_usage_history_vehicle_id ON usage_history (vehicle_id);
+CREATE INDEX IF NOT EXISTS idx_usage_history_username_start ON usage_history (username, start_time);
+
+ANALYZE vehicles;
+ANALYZE users;
+ANALYZE booking_requests;
+ANALYZE usage_history;
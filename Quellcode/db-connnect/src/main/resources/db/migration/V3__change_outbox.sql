@@ -0,0 +1,9 @@
+-- Transaktionaler Ausgang für die Änderungsbenachrichtigungen der Webanwendung.
+-- Die Repositories schreiben eine Zeile in derselben Transaktion wie die Änderung;
+-- der ChangeFeed liest die Zeilen gebündelt, stellt sie zu und löscht sie anschließend.
+CREATE TABLE IF NOT EXISTS change_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    payload TEXT NOT NULL,
+    recipient VARCHAR(255),
+    created_at TIMESTAMP NOT NULL DEFAULT now()
+);
@@ -0,0 +1,4 @@
+-- Zeilen des Ausgangs werden vor der Zustellung mit einer befristeten Reservierung übernommen,
+-- damit die Zustellung per RMI außerhalb der Transaktion erfolgt. Bricht ein Server vor dem Löschen ab,
+-- liest ein Abruf die Zeilen nach Ablauf der Reservierung erneut.
+ALTER TABLE change_outbox ADD COLUMN IF NOT EXISTS claimed_until TIMESTAMP;
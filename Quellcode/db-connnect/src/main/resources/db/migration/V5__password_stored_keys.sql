@@ -0,0 +1,7 @@
+-- PBKDF2-Hashes speichern statt des abgeleiteten Schlüssels dessen SHA-256-Hash (StoredKey), damit eine Kopie
+-- der Tabelle users nicht für eine Anmeldung genügt. Die Anmeldung beweist den Schlüssel stattdessen mit einem
+-- Nachweis zur Challenge. Alt-Hashes (SHA-256 des Passworts) bleiben unverändert.
+UPDATE users
+SET hash = split_part(hash, '$', 1) || '$' || split_part(hash, '$', 2) || '$' || split_part(hash, '$', 3) || '$'
+        || encode(sha256(decode(split_part(hash, '$', 4), 'base64')), 'base64')
+WHERE hash LIKE 'pbkdf2-sha256$%';
@@ -0,0 +1,104 @@
+package com.example.carconnect.booking;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests für Überschneidung, angrenzende Zeiträume und Freigabe in der {@link AvailabilityEngine}.
+ * Die Zeiträume beginnen zwei Tage in der Zukunft, da {@link AvailabilityEngine#hold(int, long, long)}
+ * vergangene Zeiträume ablehnt.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+class AvailabilityEngineTest {
+
+    private static final long HOUR = 3_600_000L;
+
+    /** Eine volle Stunde in zwei Tagen. */
+    private static final long T = (System.currentTimeMillis() / HOUR + 48) * HOUR;
+
+    @Test
+    void rejectsAnOverlappingHold() {
+        AvailabilityEngine engine = new AvailabilityEngine();
+
+        assertNotNull(engine.hold(1, T, T + 2 * HOUR));
+        assertNull(engine.hold(1, T + HOUR, T + 3 * HOUR));
+        assertNull(engine.hold(1, T - HOUR, T + HOUR / 2));
+        assertNull(engine.hold(1, T + HOUR / 2, T + HOUR));
+        assertNotNull(engine.hold(2, T + HOUR, T + 3 * HOUR));
+        assertFalse(engine.isFree(1, T + HOUR, T + 3 * HOUR));
+    }
+
+    @Test
+    void allowsAdjacentHolds() {
+        AvailabilityEngine engine = new AvailabilityEngine();
+
+        assertNotNull(engine.hold(1, T, T + HOUR));
+        assertNotNull(engine.hold(1, T + HOUR, T + 2 * HOUR));
+        assertNotNull(engine.hold(1, T - HOUR, T));
+        assertTrue(engine.isFree(1, T + 2 * HOUR, T + 3 * HOUR));
+    }
+
+    @Test
+    void busyBetweenTreatsTheEndAsExclusive() {
+        AvailabilityEngine engine = new AvailabilityEngine();
+        engine.hold(1, T, T + HOUR);
+        engine.hold(2, T + HOUR / 4, T + HOUR / 2);
+
+        assertArrayEquals(new int[]{1}, engine.busyBetween(T + HOUR / 2, T + 2 * HOUR));
+        assertArrayEquals(new int[0], engine.busyBetween(T + HOUR, T + 2 * HOUR));
+        assertArrayEquals(new int[0], engine.busyBetween(T - HOUR, T));
+        assertArrayEquals(new int[]{1, 2}, engine.busyBetween(T, T + HOUR));
+    }
+
+    @Test
+    void releaseFreesThePeriod() {
+        AvailabilityEngine engine = new AvailabilityEngine();
+        Reservation reservation = engine.hold(1, T, T + HOUR);
+
+        engine.release(reservation);
+
+        assertTrue(engine.isFree(1, T, T + HOUR));
+        assertArrayEquals(new int[0], engine.busyBetween(T, T + HOUR));
+        assertNotNull(engine.hold(1, T, T + HOUR));
+    }
+
+    @Test
+    void releaseKeepsTheBucketsOfTheNeighbour() {
+        AvailabilityEngine engine = new AvailabilityEngine();
+        Reservation first = engine.hold(1, T, T + HOUR + HOUR / 4);
+        engine.hold(1, T + HOUR + HOUR / 4, T + 2 * HOUR);
+
+        engine.release(first);
+
+        assertArrayEquals(new int[]{1}, engine.busyBetween(T + HOUR, T + HOUR + HOUR / 2));
+        assertArrayEquals(new int[0], engine.busyBetween(T, T + HOUR));
+    }
+
+    @Test
+    void releasesAConfirmedReservationOnce() {
+        AvailabilityEngine engine = new AvailabilityEngine();
+        engine.confirm(engine.hold(1, T, T + HOUR), Reservation.Kind.REQUEST, 7);
+
+        assertTrue(engine.release(Reservation.Kind.REQUEST, 7));
+        assertFalse(engine.release(Reservation.Kind.REQUEST, 7));
+        assertFalse(engine.release(Reservation.Kind.BOOKING, 7));
+        assertTrue(engine.isFree(1, T, T + HOUR));
+    }
+
+    @Test
+    void rejectsEmptyPastAndTooLongPeriods() {
+        AvailabilityEngine engine = new AvailabilityEngine();
+
+        assertNull(engine.hold(1, T, T));
+        assertNull(engine.hold(1, T - 72 * HOUR, T - 71 * HOUR));
+        assertNull(engine.hold(1, T, T + 31 * 24 * HOUR));
+        assertNotNull(engine.hold(1, T, T + 30 * 24 * HOUR));
+    }
+}
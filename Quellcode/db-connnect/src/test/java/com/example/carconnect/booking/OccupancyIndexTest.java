@@ -0,0 +1,105 @@
+package com.example.carconnect.booking;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests für die Fenstergrenzen, die Begrenzung der Zeiträume und das Entfernen vergangener Fenster im
+ * {@link OccupancyIndex}.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+class OccupancyIndexTest {
+
+    private static final long B = OccupancyIndex.BUCKET_MILLIS;
+
+    /** Der Beginn eines beliebigen Zeitfensters. */
+    private static final long T = 1_000_000 * B;
+
+    @Test
+    void marksOnlyTheBucketsThePeriodTouches() {
+        OccupancyIndex index = new OccupancyIndex();
+        index.mark(5, T, T + B);
+
+        assertEquals(OccupancyIndex.BUSY, index.probe(T, T + B).test(5));
+        assertEquals(OccupancyIndex.FREE, index.probe(T + B, T + 2 * B).test(5));
+        assertEquals(OccupancyIndex.FREE, index.probe(T - B, T).test(5));
+    }
+
+    @Test
+    void treatsTheEndAsExclusive() {
+        OccupancyIndex index = new OccupancyIndex();
+        index.mark(5, T + B - 1, T + B);
+
+        assertEquals(OccupancyIndex.BUSY, index.probe(T, T + B).test(5));
+        assertEquals(OccupancyIndex.FREE, index.probe(T + B, T + 2 * B).test(5));
+    }
+
+    @Test
+    void reportsPartlyCoveredEdgeBucketsAsMaybe() {
+        OccupancyIndex index = new OccupancyIndex();
+        index.mark(5, T, T + B);
+        index.mark(6, T, T + 3 * B);
+
+        OccupancyIndex.Probe probe = index.probe(T + B / 2, T + 2 * B);
+        assertEquals(OccupancyIndex.MAYBE, probe.test(5));
+        assertEquals(OccupancyIndex.BUSY, probe.test(6));
+        assertEquals(OccupancyIndex.FREE, probe.test(7));
+    }
+
+    @Test
+    void listsOccupiedVehiclesAcrossPagesInOrder() {
+        OccupancyIndex index = new OccupancyIndex();
+        index.mark(70_000, T, T + B);
+        index.mark(63, T, T + B);
+        index.mark(64, T + B / 2, T + B);
+
+        assertArrayEquals(new int[]{63, 64, 70_000}, index.probe(T, T + B).occupied());
+        assertEquals(OccupancyIndex.FREE, index.probe(T, T + B).test(200_000));
+    }
+
+    @Test
+    void doesNotMarkPeriodsBeyondTheProbeLimit() {
+        OccupancyIndex index = new OccupancyIndex();
+        long limit = OccupancyIndex.MAX_PROBE_BUCKETS * B;
+
+        assertTrue(OccupancyIndex.isIndexed(T, T + limit));
+        assertFalse(OccupancyIndex.isIndexed(T, T + limit + 1));
+        assertFalse(index.mark(5, T, T + limit + 1));
+        assertNull(index.probe(T, T + limit + 1));
+        assertEquals(OccupancyIndex.FREE, index.probe(T, T + B).test(5));
+        assertTrue(index.mark(5, T, T + limit));
+    }
+
+    @Test
+    void pruneDropsEarlierBucketsAndRefusesToProbeThem() {
+        OccupancyIndex index = new OccupancyIndex();
+        index.mark(5, T, T + 2 * B);
+
+        index.prune(T + B);
+
+        assertNull(index.probe(T, T + B));
+        assertNull(index.probe(T + B - 1, T + 2 * B));
+        OccupancyIndex.Probe probe = index.probe(T + B, T + 2 * B);
+        assertNotNull(probe);
+        assertEquals(OccupancyIndex.BUSY, probe.test(5));
+    }
+
+    @Test
+    void unmarkClearsOneBucket() {
+        OccupancyIndex index = new OccupancyIndex();
+        index.mark(5, T, T + 2 * B);
+
+        index.unmark(5, OccupancyIndex.bucketOf(T));
+
+        assertEquals(OccupancyIndex.FREE, index.probe(T, T + B).test(5));
+        assertEquals(OccupancyIndex.BUSY, index.probe(T + B, T + 2 * B).test(5));
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.carconnect.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests für die lineare Sondierung in der {@link IntIntHashMap}: Ketten über das Tabellenende hinweg und das
+ * Aufrücken nachfolgender Einträge beim Entfernen. Die Tabelle hat 16 Plätze; die Schlüssel werden so gewählt,
+ * dass ihr Heimatplatz feststeht.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+class IntIntHashMapTest {
+
+    private static final int MISSING = -1;
+
+    private static final int MASK = 15;
+
+    @Test
+    void findsKeysInAChainThatWrapsAround() {
+        IntIntHashMap map = new IntIntHashMap(8, MISSING);
+        List<Integer> keys = keysWithHome(MASK, 3);
+        int wrapped = keysWithHome(0, 1).get(0);
+        for (int key : keys) {
+            map.put(key, key * 10);
+        }
+        map.put(wrapped, 1);
+
+        for (int key : keys) {
+            assertEquals(key * 10, map.get(key));
+        }
+        assertEquals(1, map.get(wrapped));
+        assertEquals(4, map.size());
+    }
+
+    @Test
+    void removeShiftsLaterEntriesOfTheChainBack() {
+        IntIntHashMap map = new IntIntHashMap(8, MISSING);
+        List<Integer> keys = keysWithHome(MASK, 3);
+        int wrapped = keysWithHome(0, 1).get(0);
+        for (int key : keys) {
+            map.put(key, key * 10);
+        }
+        map.put(wrapped, 1);
+
+        map.remove(keys.get(0));
+
+        assertEquals(MISSING, map.get(keys.get(0)));
+        assertEquals(keys.get(1) * 10, map.get(keys.get(1)));
+        assertEquals(keys.get(2) * 10, map.get(keys.get(2)));
+        assertEquals(1, map.get(wrapped));
+        assertEquals(3, map.size());
+    }
+
+    @Test
+    void removeInTheMiddleOfAChainKeepsTheRest() {
+        IntIntHashMap map = new IntIntHashMap(8, MISSING);
+        List<Integer> keys = keysWithHome(3, 4);
+        for (int key : keys) {
+            map.put(key, key);
+        }
+
+        map.remove(keys.get(1));
+        map.remove(keys.get(2));
+
+        assertEquals(keys.get(0), map.get(keys.get(0)));
+        assertEquals(keys.get(3), map.get(keys.get(3)));
+        assertEquals(MISSING, map.get(keys.get(1)));
+        assertEquals(MISSING, map.get(keys.get(2)));
+        map.put(keys.get(2), 7);
+        assertEquals(7, map.get(keys.get(2)));
+        assertEquals(3, map.size());
+    }
+
+    @Test
+    void removeDoesNotMoveEntriesBeforeTheirHome() {
+        IntIntHashMap map = new IntIntHashMap(8, MISSING);
+        int first = keysWithHome(MASK, 1).get(0);
+        List<Integer> atZero = keysWithHome(0, 2);
+        map.put(first, 1);          // Platz 15
+        map.put(atZero.get(0), 2);  // Platz 0
+        map.put(atZero.get(1), 3);  // Platz 1
+
+        map.remove(first);
+
+        assertEquals(2, map.get(atZero.get(0)));
+        assertEquals(3, map.get(atZero.get(1)));
+        map.remove(atZero.get(0));
+        assertEquals(3, map.get(atZero.get(1)));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void overwritesAndRejectsTheReservedKey() {
+        IntIntHashMap map = new IntIntHashMap(8, MISSING);
+        map.put(42, 1);
+        map.put(42, 2);
+
+        assertEquals(2, map.get(42));
+        assertEquals(1, map.size());
+        assertThrows(IllegalArgumentException.class, () -> map.put(0, 1));
+    }
+
+    @Test
+    void keepsEntriesWhenGrowing() {
+        IntIntHashMap map = new IntIntHashMap(8, MISSING);
+        for (int key = 1; key <= 1000; key++) {
+            map.put(key, -key);
+        }
+        for (int key = 1; key <= 1000; key += 2) {
+            map.remove(key);
+        }
+
+        for (int key = 1; key <= 1000; key++) {
+            assertEquals(key % 2 == 0 ? -key : MISSING, map.get(key));
+        }
+        assertEquals(500, map.size());
+    }
+
+    /** Sucht Schlüssel, deren Heimatplatz in einer Tabelle mit 16 Plätzen {@code home} ist. */
+    private static List<Integer> keysWithHome(int home, int count) {
+        List<Integer> keys = new ArrayList<>();
+        for (int key = 1; keys.size() < count; key++) {
+            if ((IntIntHashMap.mix(key) & MASK) == home) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.carconnect.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests für die Kodierung des Cursors der seitenweisen Suche im {@link VehicleRepository}.
+ *
+ * @author Mohammed Al-Ozair
+ * @author Nabeel Elamaireh
+ */
+class VehicleRepositoryCursorTest {
+
+    @Test
+    void roundTripsTheLastId() {
+        for (int lastId : new int[]{0, 1, 4711, Integer.MAX_VALUE}) {
+            assertEquals(lastId, VehicleRepository.decodeCursor(VehicleRepository.encodeCursor(lastId)));
+        }
+    }
+
+    @Test
+    void isUrlSafeWithoutPadding() {
+        String cursor = VehicleRepository.encodeCursor(123456789);
+
+        assertEquals(cursor, cursor.replaceAll("[^A-Za-z0-9_-]", ""));
+    }
+
+    @Test
+    void startsAtTheBeginningWithoutCursor() {
+        assertEquals(0, VehicleRepository.decodeCursor(null));
+        assertEquals(0, VehicleRepository.decodeCursor(""));
+    }
+
+    @Test
+    void rejectsTamperedCursors() {
+        String valid = VehicleRepository.encodeCursor(42);
+
+        assertThrows(IllegalArgumentException.class, () -> VehicleRepository.decodeCursor(valid + "*"));
+        assertThrows(IllegalArgumentException.class, () -> VehicleRepository.decodeCursor("42"));
+        assertThrows(IllegalArgumentException.class, () -> VehicleRepository.decodeCursor(encode("v2:42")));
+        assertThrows(IllegalArgumentException.class, () -> VehicleRepository.decodeCursor(encode("v1:")));
+        assertThrows(IllegalArgumentException.class, () -> VehicleRepository.decodeCursor(encode("v1:42 OR 1=1")));
+        assertThrows(IllegalArgumentException.class, () -> VehicleRepository.decodeCursor(encode("v1:99999999999")));
+        assertThrows(IllegalArgumentException.class, () -> VehicleRepository.decodeCursor(encode("v1:-1")));
+    }
+
+    private static String encode(String text) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(text.getBytes(StandardCharsets.US_ASCII));
+    }
+}